@@ -0,0 +1,51 @@
+package com.url.shortener.analytics;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.List;
+
+/**
+ * Wire encodings the streamed analytics endpoints can produce, picked from the
+ * Accept header. CBOR and Smile keep the JSON data model but drop the repeated
+ * field-name text and encode numbers in binary.
+ */
+public enum AnalyticsFormat {
+
+    JSON(MediaType.APPLICATION_JSON),
+    CBOR(MediaType.parseMediaType("application/cbor")),
+    SMILE(MediaType.parseMediaType("application/x-jackson-smile"));
+
+    private final MediaType mediaType;
+
+    AnalyticsFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    /** First acceptable format in the client's quality order; JSON when none matches. */
+    public static AnalyticsFormat negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType type : accepted) {
+            for (AnalyticsFormat format : values()) {
+                if (type.includes(format.mediaType)) {
+                    return format;
+                }
+            }
+        }
+        return JSON;
+    }
+}
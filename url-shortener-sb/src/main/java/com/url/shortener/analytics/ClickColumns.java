@@ -0,0 +1,164 @@
+package com.url.shortener.analytics;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.url.shortener.dtos.ClickEventDTO;
+
+import java.io.IOException;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Click events transposed into parallel primitive columns.
+ * <p>
+ * Timestamps become epoch millis, low-cardinality strings are dictionary-coded
+ * ({@code values} once, then an int code per row), and absent values are code -1.
+ * Rows are folded in as they stream from the database, so no per-row objects are
+ * kept; the output is one object of arrays:
+ * <pre>
+ * {"layout":"columnar","count":n,"id":[..],"clickDate":[..],
+ *  "browser":{"values":["Chrome",..],"codes":[0,0,1,-1,..]}, ..,
+ *  "isBot":[0,1,-1,..],"responseStatus":[..],"latencyMs":[..],"samplingWeight":[..]}
+ * </pre>
+ */
+class ClickColumns {
+
+    private final ZoneId zone;
+    private int count;
+
+    private final LongColumn id = new LongColumn();
+    private final LongColumn clickDate = new LongColumn();
+    private final DictionaryColumn ipAddress = new DictionaryColumn("ipAddress");
+    private final DictionaryColumn userAgent = new DictionaryColumn("userAgent");
+    private final DictionaryColumn referer = new DictionaryColumn("referer");
+    private final DictionaryColumn country = new DictionaryColumn("country");
+    private final DictionaryColumn region = new DictionaryColumn("region");
+    private final DictionaryColumn city = new DictionaryColumn("city");
+    private final DictionaryColumn deviceType = new DictionaryColumn("deviceType");
+    private final DictionaryColumn os = new DictionaryColumn("os");
+    private final DictionaryColumn browser = new DictionaryColumn("browser");
+    private final IntColumn isBot = new IntColumn();
+    private final IntColumn responseStatus = new IntColumn();
+    private final IntColumn latencyMs = new IntColumn();
+    private final IntColumn samplingWeight = new IntColumn();
+
+    ClickColumns(ZoneId zone) {
+        this.zone = zone;
+    }
+
+    void add(ClickEventDTO e) {
+        id.add(e.getId() == null ? -1 : e.getId());
+        clickDate.add(e.getClickDate() == null ? -1 : e.getClickDate().atZone(zone).toInstant().toEpochMilli());
+        ipAddress.add(e.getIpAddress());
+        userAgent.add(e.getUserAgent());
+        referer.add(e.getReferer());
+        country.add(e.getCountry());
+        region.add(e.getRegion());
+        city.add(e.getCity());
+        deviceType.add(e.getDeviceType());
+        os.add(e.getOs());
+        browser.add(e.getBrowser());
+        isBot.add(e.getIsBot() == null ? -1 : e.getIsBot() ? 1 : 0);
+        responseStatus.add(e.getResponseStatus() == null ? -1 : e.getResponseStatus());
+        latencyMs.add(e.getLatencyMs() == null ? -1 : e.getLatencyMs());
+        samplingWeight.add(e.getSamplingWeight() == null ? -1 : e.getSamplingWeight());
+        count++;
+    }
+
+    void write(JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("layout", "columnar");
+        gen.writeNumberField("count", count);
+        gen.writeFieldName("id");
+        id.write(gen);
+        gen.writeFieldName("clickDate");
+        clickDate.write(gen);
+        for (DictionaryColumn column : List.of(ipAddress, userAgent, referer, country, region, city, deviceType, os, browser)) {
+            column.write(gen);
+        }
+        gen.writeFieldName("isBot");
+        isBot.write(gen);
+        gen.writeFieldName("responseStatus");
+        responseStatus.write(gen);
+        gen.writeFieldName("latencyMs");
+        latencyMs.write(gen);
+        gen.writeFieldName("samplingWeight");
+        samplingWeight.write(gen);
+        gen.writeEndObject();
+    }
+
+    // ============================================
+    // COLUMNS
+    // ============================================
+    private static final class LongColumn {
+        private long[] data = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = value;
+        }
+
+        void write(JsonGenerator gen) throws IOException {
+            gen.writeArray(data, 0, size);
+        }
+    }
+
+    private static final class IntColumn {
+        private int[] data = new int[1024];
+        private int size;
+
+        void add(int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = value;
+        }
+
+        void write(JsonGenerator gen) throws IOException {
+            gen.writeArray(data, 0, size);
+        }
+    }
+
+    private static final class DictionaryColumn {
+        private final String name;
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private final IntColumn rows = new IntColumn();
+
+        DictionaryColumn(String name) {
+            this.name = name;
+        }
+
+        void add(String value) {
+            if (value == null) {
+                rows.add(-1);
+                return;
+            }
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            rows.add(code);
+        }
+
+        void write(JsonGenerator gen) throws IOException {
+            gen.writeObjectFieldStart(name);
+            gen.writeArrayFieldStart("values");
+            for (String value : values) {
+                gen.writeString(value);
+            }
+            gen.writeEndArray();
+            gen.writeFieldName("codes");
+            rows.write(gen);
+            gen.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.url.shortener.analytics;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.url.shortener.dtos.ClickEventDTO;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.ZoneId;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Serializes click events straight from a database stream to the response.
+ * <p>
+ * Rows layout writes one array element per event as it arrives, so memory stays flat
+ * whatever the range; columnar layout folds events into {@link ClickColumns} first.
+ * Mappers come from the application's Jackson builder, so JSON output matches what
+ * the rest of the API produces.
+ */
+@Component
+public class ClickEventWriter {
+
+    private final Map<AnalyticsFormat, ObjectMapper> mappers = new EnumMap<>(AnalyticsFormat.class);
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    public ClickEventWriter(Jackson2ObjectMapperBuilder builder) {
+        mappers.put(AnalyticsFormat.JSON, builder.build());
+        mappers.put(AnalyticsFormat.CBOR, builder.factory(new CBORFactory()).build());
+        mappers.put(AnalyticsFormat.SMILE, builder.factory(new SmileFactory()).build());
+        mappers.values().forEach(mapper -> mapper.getFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET));
+    }
+
+    public void write(Stream<ClickEventDTO> events, AnalyticsFormat format, boolean columnar, OutputStream out) {
+        ObjectMapper mapper = mappers.get(format);
+        try (JsonGenerator gen = mapper.getFactory().createGenerator(out)) {
+            if (columnar) {
+                ClickColumns columns = new ClickColumns(zone);
+                events.forEach(columns::add);
+                columns.write(gen);
+            } else {
+                // no flush per element: let the generator and the servlet buffer batch writes
+                ObjectWriter writer = mapper.writerFor(ClickEventDTO.class)
+                        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+                try (SequenceWriter sequence = writer.writeValuesAsArray(gen)) {
+                    Iterator<ClickEventDTO> it = events.iterator();
+                    while (it.hasNext()) {
+                        sequence.write(it.next());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,403 @@
+package com.url.shortener.archive;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * One immutable archive file: link records sorted by slug, packed into zlib blocks of
+ * roughly {@code blockBytes} uncompressed, followed by a sparse index holding the first
+ * slug and offset of every block. A lookup is a binary search over the index and the
+ * inflation of a single block.
+ *
+ * <pre>
+ * file:    "LAR1" | block* | index | long index offset | "LARX"
+ * index:   int blocks | (utf first slug | long offset | int length)*
+ * block:   zlib( (byte 1 | record)* | byte 0 )
+ * record:  utf slug | (byte 1 | utf table | short columns | utf column* | (byte 1 | value*)* | byte 0)* | byte 0
+ * value:   byte tag | payload
+ * </pre>
+ * Tables are written parents first (url_mapping before its clicks) so a restore can
+ * insert rows in file order.
+ */
+final class ArchiveSegment {
+
+    private static final int MAGIC = 0x4C415231;  // "LAR1"
+    private static final int FOOTER_MAGIC = 0x4C415258; // "LARX"
+    private static final int FOOTER = 12;
+
+    private static final byte T_NULL = 0;
+    private static final byte T_LONG = 1;
+    private static final byte T_DOUBLE = 2;
+    private static final byte T_BOOLEAN = 3;
+    private static final byte T_STRING = 4;
+    private static final byte T_BYTES = 5;
+    private static final byte T_DATETIME = 6;
+    private static final byte T_DATE = 7;
+    private static final byte T_DECIMAL = 8;
+
+    /** Receives the tables of the record being read, in file order. */
+    interface RecordVisitor {
+        void table(String table, String[] columns);
+
+        void row(Object[] values);
+
+        void endTable();
+    }
+
+    private final Path path;
+    private final String[] firstSlugs;
+    private final long[] offsets;
+
+    private ArchiveSegment(Path path, String[] firstSlugs, long[] offsets) {
+        this.path = path;
+        this.firstSlugs = firstSlugs;
+        this.offsets = offsets;
+    }
+
+    static ArchiveSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer footer = ByteBuffer.allocate(FOOTER);
+            channel.read(footer, size - FOOTER);
+            footer.flip();
+            long indexOffset = footer.getLong();
+            if (footer.getInt() != FOOTER_MAGIC) {
+                throw new IOException("Not an archive segment: " + path);
+            }
+            DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    Channels.newInputStream(channel.position(indexOffset))));
+            int blocks = in.readInt();
+            String[] firstSlugs = new String[blocks];
+            long[] offsets = new long[blocks];
+            for (int i = 0; i < blocks; i++) {
+                firstSlugs[i] = in.readUTF();
+                offsets[i] = in.readLong();
+                in.readInt(); // compressed length, kept for tooling
+            }
+            return new ArchiveSegment(path, firstSlugs, offsets);
+        }
+    }
+
+    int blocks() {
+        return offsets.length;
+    }
+
+    /**
+     * Streams the record for {@code slug} into the visitor. Returns false when the
+     * segment holds no such record.
+     */
+    boolean read(String slug, RecordVisitor visitor) throws IOException {
+        int block = floorBlock(slug);
+        if (block < 0) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Inflater inflater = new Inflater();
+            try {
+                DataInputStream in = new DataInputStream(new InflaterInputStream(
+                        new BufferedInputStream(Channels.newInputStream(channel.position(offsets[block]))),
+                        inflater, 8192));
+                while (in.readByte() == 1) {
+                    int cmp = in.readUTF().compareTo(slug);
+                    if (cmp > 0) {
+                        return false;
+                    }
+                    readTables(in, cmp == 0 ? visitor : null);
+                    if (cmp == 0) {
+                        // read to the end so zlib verifies the block checksum
+                        in.transferTo(OutputStream.nullOutputStream());
+                        return true;
+                    }
+                }
+                return false;
+            } finally {
+                inflater.end();
+            }
+        }
+    }
+
+    // last block whose first slug is <= slug
+    private int floorBlock(String slug) {
+        int lo = 0;
+        int hi = firstSlugs.length - 1;
+        int found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (firstSlugs[mid].compareTo(slug) <= 0) {
+                found = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    private static void readTables(DataInputStream in, RecordVisitor visitor) throws IOException {
+        while (in.readByte() == 1) {
+            String table = in.readUTF();
+            String[] columns = new String[in.readUnsignedShort()];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = in.readUTF();
+            }
+            if (visitor != null) {
+                visitor.table(table, columns);
+            }
+            while (in.readByte() == 1) {
+                Object[] values = new Object[columns.length];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = readValue(in);
+                }
+                if (visitor != null) {
+                    visitor.row(values);
+                }
+            }
+            if (visitor != null) {
+                visitor.endTable();
+            }
+        }
+    }
+
+    // ============================================
+    // VALUE CODEC (the JDBC types our tables use)
+    // ============================================
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(T_NULL);
+        } else if (value instanceof Boolean b) {
+            out.writeByte(T_BOOLEAN);
+            out.writeBoolean(b);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short
+                || value instanceof Byte || value instanceof BigInteger) {
+            out.writeByte(T_LONG);
+            out.writeLong(((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            out.writeByte(T_DOUBLE);
+            out.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof BigDecimal decimal) {
+            out.writeByte(T_DECIMAL);
+            writeString(out, decimal.toPlainString());
+        } else if (value instanceof byte[] bytes) {
+            out.writeByte(T_BYTES);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        } else if (value instanceof Timestamp || value instanceof LocalDateTime) {
+            LocalDateTime dateTime = value instanceof Timestamp ts ? ts.toLocalDateTime() : (LocalDateTime) value;
+            out.writeByte(T_DATETIME);
+            out.writeLong(dateTime.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(dateTime.getNano());
+        } else if (value instanceof java.sql.Date || value instanceof LocalDate) {
+            LocalDate date = value instanceof java.sql.Date d ? d.toLocalDate() : (LocalDate) value;
+            out.writeByte(T_DATE);
+            out.writeLong(date.toEpochDay());
+        } else {
+            out.writeByte(T_STRING);
+            writeString(out, value.toString());
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        return switch (tag) {
+            case T_NULL -> null;
+            case T_BOOLEAN -> in.readBoolean();
+            case T_LONG -> in.readLong();
+            case T_DOUBLE -> in.readDouble();
+            case T_DECIMAL -> new BigDecimal(readString(in));
+            case T_BYTES -> {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                yield bytes;
+            }
+            case T_DATETIME -> LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+            case T_DATE -> LocalDate.ofEpochDay(in.readLong());
+            case T_STRING -> readString(in);
+            default -> throw new IOException("Unknown value tag " + tag);
+        };
+    }
+
+    // int length + UTF-8; writeUTF tops out at 64 KB and TEXT columns may not
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new EOFException("Corrupt string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // ============================================
+    // WRITER
+    // ============================================
+
+    /**
+     * Writes a segment to a temporary file; {@link #finish()} appends the index, forces it
+     * to disk and moves it into place, so a crash never leaves a half-written segment
+     * under its final name. Links must be added in ascending slug order.
+     */
+    static final class Writer implements Closeable {
+
+        private final Path target;
+        private final Path temp;
+        private final int blockBytes;
+        private final CountingOutputStream file;
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+
+        private final List<String> firstSlugs = new ArrayList<>();
+        private final List<Long> offsets = new ArrayList<>();
+        private final List<Integer> lengths = new ArrayList<>();
+
+        private DeflaterOutputStream block;
+        private DataOutputStream data;
+        private String lastSlug;
+        private boolean finished;
+
+        Writer(Path target, int blockBytes) throws IOException {
+            this.target = target;
+            this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+            this.blockBytes = blockBytes;
+            this.file = new CountingOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16));
+            new DataOutputStream(file).writeInt(MAGIC);
+        }
+
+        void beginLink(String slug) throws IOException {
+            if (lastSlug != null && slug.compareTo(lastSlug) <= 0) {
+                throw new IllegalArgumentException("Slugs must be ascending: " + slug + " after " + lastSlug);
+            }
+            if (block == null) {
+                firstSlugs.add(slug);
+                offsets.add(file.count);
+                block = new DeflaterOutputStream(file, deflater, 8192);
+                data = new DataOutputStream(block);
+            }
+            lastSlug = slug;
+            data.writeByte(1);
+            data.writeUTF(slug);
+        }
+
+        void beginTable(String table, String[] columns) throws IOException {
+            data.writeByte(1);
+            data.writeUTF(table);
+            data.writeShort(columns.length);
+            for (String column : columns) {
+                data.writeUTF(column);
+            }
+        }
+
+        void row(Object[] values) throws IOException {
+            data.writeByte(1);
+            for (Object value : values) {
+                writeValue(data, value);
+            }
+        }
+
+        void endTable() throws IOException {
+            data.writeByte(0);
+        }
+
+        void endLink() throws IOException {
+            data.writeByte(0);
+            if (data.size() >= blockBytes) {
+                closeBlock();
+            }
+        }
+
+        private void closeBlock() throws IOException {
+            data.writeByte(0);
+            block.finish();
+            lengths.add((int) (file.count - offsets.get(offsets.size() - 1)));
+            deflater.reset();
+            block = null;
+            data = null;
+        }
+
+        /** Writes the index and footer and moves the file into place; returns the block count. */
+        int finish() throws IOException {
+            if (block != null) {
+                closeBlock();
+            }
+            long indexOffset = file.count;
+            DataOutputStream out = new DataOutputStream(file);
+            out.writeInt(firstSlugs.size());
+            for (int i = 0; i < firstSlugs.size(); i++) {
+                out.writeUTF(firstSlugs.get(i));
+                out.writeLong(offsets.get(i));
+                out.writeInt(lengths.get(i));
+            }
+            out.writeLong(indexOffset);
+            out.writeInt(FOOTER_MAGIC);
+            out.flush();
+            file.close();
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            finished = true;
+            return firstSlugs.size();
+        }
+
+        @Override
+        public void close() throws IOException {
+            deflater.end();
+            if (!finished) {
+                file.close();
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
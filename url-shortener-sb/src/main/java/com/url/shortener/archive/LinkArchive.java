@@ -0,0 +1,589 @@
+package com.url.shortener.archive;
+
+import com.url.shortener.purge.TombstonePurger;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cold storage for long-dead links.
+ * <p>
+ * Links that have been disabled or expired for {@code archive.idle-days} are copied,
+ * with their routing rules, hourly totals and raw clicks, into an immutable
+ * {@link ArchiveSegment} and then removed from the live tables, keeping the slug
+ * indexes every redirect probes small. An {@code archived_link} row keeps the slug and
+ * alias reserved and points at the segment.
+ * <p>
+ * Reactivating a link or opening its analytics calls {@link #restoreIfArchived} first,
+ * which brings it back transparently; restores run in their own transaction so the
+ * caller's transaction sees the restored rows. Other owner paths leave the link where it
+ * is: {@link #readArchived} reads its rows straight from the segment and
+ * {@link #deleteArchived} drops it without a round trip through the live tables.
+ */
+@Component
+@Slf4j
+public class LinkArchive {
+
+    private static final String CANDIDATES_SQL = """
+            SELECT u.id, u.short_url, u.updated_date
+              FROM url_mapping u
+             WHERE u.updated_date < ?
+               AND u.deleted_at IS NULL
+               AND u.short_url IS NOT NULL
+               AND (u.is_active = false OR u.expires_at < ?)
+               AND NOT EXISTS (SELECT 1 FROM archived_link a WHERE a.id = u.id)
+             ORDER BY u.updated_date, u.id
+             LIMIT ?
+            """;
+
+    // the WHERE repeats the snapshot check: a link edited after it was copied stays live
+    private static final String INSERT_ARCHIVED_SQL = """
+            INSERT INTO archived_link (id, short_url, domain, custom_alias, original_url, user_id, created_date, archived_at, archive_file)
+            SELECT id, short_url, domain, custom_alias, original_url, user_id, created_date, ?, ?
+              FROM url_mapping
+             WHERE id = ? AND updated_date = ?
+            """;
+
+    private static final String FIRST_CLICKS_SQL = """
+            SELECT * FROM click_event
+             WHERE url_mapping_id = ?
+             ORDER BY click_date, id
+             LIMIT ?
+            """;
+
+    private static final String NEXT_CLICKS_SQL = """
+            SELECT * FROM click_event
+             WHERE url_mapping_id = ?
+               AND (click_date > ? OR (click_date = ? AND id > ?))
+             ORDER BY click_date, id
+             LIMIT ?
+            """;
+
+    private static final String FIND_ARCHIVED_SQL = """
+            SELECT id, user_id, short_url, archive_file, purged_at
+              FROM archived_link
+             WHERE short_url = ?
+               FOR UPDATE
+            """;
+
+    private static final int INSERT_BATCH = 500;
+    private static final int LOCK_STRIPES = 64;
+
+    private record Candidate(long id, String slug, Object updatedDate) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate requiresNew;
+    private final TombstonePurger tombstonePurger;
+
+    private final boolean enabled;
+    private final Path dir;
+    private final Duration idle;
+    private final int linksPerRun;
+    private final int blockBytes;
+    private final int clickPageSize;
+
+    private final SlugFilter filter;
+    private volatile boolean filterLoaded;
+    private final ConcurrentHashMap<String, ArchiveSegment> segments = new ConcurrentHashMap<>();
+
+    // striped by link id: a restore must not interleave with the purge of the same link,
+    // while moves of different links (and restores of different slugs) run in parallel
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile boolean collectSegments;
+
+    private final Counter archivedLinks;
+    private final Counter restoredLinks;
+
+    public LinkArchive(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            TombstonePurger tombstonePurger,
+            MeterRegistry meterRegistry,
+            @Value("${archive.enabled:true}") boolean enabled,
+            @Value("${archive.dir:data/link-archive}") String dir,
+            @Value("${archive.idle-days:90}") long idleDays,
+            @Value("${archive.links-per-run:500}") int linksPerRun,
+            @Value("${archive.block-bytes:65536}") int blockBytes,
+            @Value("${archive.click-page-size:5000}") int clickPageSize,
+            @Value("${archive.filter.expected-links:1000000}") long expectedLinks
+    ) throws IOException {
+        this.jdbcTemplate = jdbcTemplate;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.tombstonePurger = tombstonePurger;
+        this.enabled = enabled;
+        this.dir = Path.of(dir);
+        this.idle = Duration.ofDays(idleDays);
+        this.linksPerRun = linksPerRun;
+        this.blockBytes = blockBytes;
+        this.clickPageSize = clickPageSize;
+        this.filter = new SlugFilter(expectedLinks, 0.01);
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.archivedLinks = meterRegistry.counter("archive.links");
+        this.restoredLinks = meterRegistry.counter("archive.restores");
+        Files.createDirectories(this.dir);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadFilter() {
+        try {
+            long[] count = {0};
+            jdbcTemplate.query("SELECT short_url FROM archived_link", rs -> {
+                filter.add(rs.getString(1));
+                count[0]++;
+            });
+            filterLoaded = true;
+            log.info("Link archive filter loaded: {} archived links", count[0]);
+        } catch (RuntimeException e) {
+            log.warn("Could not load link archive filter, retrying on the next run: {}", e.getMessage());
+        }
+    }
+
+    // ============================================
+    // RESTORE
+    // ============================================
+
+    /**
+     * Moves an archived link of {@code userId} back into the live tables. Cheap for
+     * slugs that were never archived (one filter probe, or one indexed lookup until the
+     * filter is loaded). Returns true if a link was restored.
+     */
+    public boolean restoreIfArchived(String slug, Long userId) {
+        if (slug == null || (filterLoaded && !filter.mightContain(slug))) {
+            return false;
+        }
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM archived_link WHERE short_url = ?", Long.class, slug);
+        if (ids.isEmpty()) {
+            return false; // filter false positive, or not loaded yet
+        }
+        ReentrantLock lock = lockFor(ids.get(0));
+        lock.lock();
+        try {
+            return Boolean.TRUE.equals(requiresNew.execute(status -> restore(slug, userId)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ============================================
+    // IN-PLACE ACCESS (no restore)
+    // ============================================
+
+    /**
+     * The rows {@code table} held for an archived link of {@code userId}, read from its
+     * segment as column name to value; empty when the slug is not archived or not theirs.
+     */
+    public List<Map<String, Object>> readArchived(String slug, Long userId, String table) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT user_id, archive_file FROM archived_link WHERE short_url = ?", slug);
+        if (rows.isEmpty() || userId == null || ((Number) rows.get(0).get("user_id")).longValue() != userId) {
+            return List.of();
+        }
+        String file = (String) rows.get(0).get("archive_file");
+        TableReader reader = new TableReader(table);
+        try {
+            segment(file).read(slug, reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read archive segment " + file, e);
+        }
+        return reader.rows;
+    }
+
+    /**
+     * Deletes an archived link of {@code userId} for good: its click history only lives in
+     * the segment, which is dropped once none of its links is left. Returns true if a link
+     * was deleted.
+     */
+    public boolean deleteArchived(String slug, Long userId) {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM archived_link WHERE short_url = ?", Long.class, slug);
+        if (ids.isEmpty()) {
+            return false;
+        }
+        ReentrantLock lock = lockFor(ids.get(0));
+        lock.lock();
+        try {
+            return Boolean.TRUE.equals(requiresNew.execute(status -> {
+                List<Map<String, Object>> rows = jdbcTemplate.queryForList(FIND_ARCHIVED_SQL, slug);
+                if (rows.isEmpty() || userId == null || ((Number) rows.get(0).get("user_id")).longValue() != userId) {
+                    return false;
+                }
+                long id = ((Number) rows.get(0).get("id")).longValue();
+                if (rows.get(0).get("purged_at") == null) {
+                    deleteLiveRows(id);
+                }
+                jdbcTemplate.update("DELETE FROM archived_link WHERE id = ?", id);
+                collectSegments = true;
+                log.info("Deleted archived link {} ({})", slug, id);
+                return true;
+            }));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Collects the rows of one table of a record
+    private static final class TableReader implements ArchiveSegment.RecordVisitor {
+
+        private final String wanted;
+        private final List<Map<String, Object>> rows = new ArrayList<>();
+        private String[] columns;
+
+        TableReader(String wanted) {
+            this.wanted = wanted;
+        }
+
+        @Override
+        public void table(String table, String[] columns) {
+            this.columns = table.equals(wanted) ? columns : null;
+        }
+
+        @Override
+        public void row(Object[] values) {
+            if (columns != null) {
+                Map<String, Object> row = new HashMap<>();
+                for (int i = 0; i < columns.length; i++) {
+                    row.put(columns[i], values[i]);
+                }
+                rows.add(row);
+            }
+        }
+
+        @Override
+        public void endTable() {
+            columns = null;
+        }
+    }
+
+    private ReentrantLock lockFor(long id) {
+        return locks[Long.hashCode(id) & (LOCK_STRIPES - 1)];
+    }
+
+    private boolean restore(String slug, Long userId) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(FIND_ARCHIVED_SQL, slug);
+        if (rows.isEmpty()) {
+            return false;
+        }
+        Map<String, Object> row = rows.get(0);
+        long id = ((Number) row.get("id")).longValue();
+        if (userId == null || ((Number) row.get("user_id")).longValue() != userId) {
+            return false;
+        }
+        if (row.get("purged_at") == null) {
+            deleteLiveRows(id); // crashed between copy and purge: the segment is the full copy
+        }
+
+        String file = (String) row.get("archive_file");
+        try {
+            RowInserter inserter = new RowInserter();
+            if (!segment(file).read((String) row.get("short_url"), inserter)) {
+                throw new IllegalStateException("Link " + id + " missing from archive segment " + file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read archive segment " + file, e);
+        }
+
+        // counts as a change: keeps the link out of the next archive run and lets the replica see it
+        jdbcTemplate.update("UPDATE url_mapping SET updated_date = ? WHERE id = ?", LocalDateTime.now(), id);
+        jdbcTemplate.update("DELETE FROM archived_link WHERE id = ?", id);
+        collectSegments = true;
+        restoredLinks.increment();
+        log.info("Restored archived link {} ({}) from {}", slug, id, file);
+        return true;
+    }
+
+    private void deleteLiveRows(long id) {
+        jdbcTemplate.update("DELETE FROM click_event WHERE url_mapping_id = ?", id);
+        jdbcTemplate.update("DELETE FROM click_hourly WHERE url_mapping_id = ?", id);
+        jdbcTemplate.update("DELETE FROM click_daily WHERE url_mapping_id = ?", id);
+        jdbcTemplate.update("DELETE FROM routing_rule WHERE url_mapping_id = ?", id);
+        jdbcTemplate.update("DELETE FROM url_mapping WHERE id = ?", id);
+    }
+
+    private ArchiveSegment segment(String file) {
+        return segments.computeIfAbsent(file, name -> {
+            try {
+                return ArchiveSegment.open(dir.resolve(name));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not open archive segment " + name, e);
+            }
+        });
+    }
+
+    // Inserts the rows of a record table by table, in batches
+    private final class RowInserter implements ArchiveSegment.RecordVisitor {
+
+        private String sql;
+        private final List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+
+        @Override
+        public void table(String table, String[] columns) {
+            sql = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+                    + String.join(", ", Collections.nCopies(columns.length, "?")) + ")";
+        }
+
+        @Override
+        public void row(Object[] values) {
+            batch.add(values);
+            if (batch.size() == INSERT_BATCH) {
+                flush();
+            }
+        }
+
+        @Override
+        public void endTable() {
+            flush();
+        }
+
+        private void flush() {
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+    }
+
+    // ============================================
+    // ARCHIVE
+    // ============================================
+    @Scheduled(
+            initialDelayString = "${archive.initial-delay-ms:120000}",
+            fixedDelayString = "${archive.interval-ms:300000}"
+    )
+    public void scheduledRun() {
+        if (enabled) {
+            runOnce();
+        }
+    }
+
+    /**
+     * Archives up to {@code archive.links-per-run} dead links into one new segment.
+     * Returns the number of links archived.
+     */
+    public int runOnce() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            if (!filterLoaded) {
+                loadFilter();
+            }
+            finishPurges();
+            int archived = archiveBatch();
+            if (collectSegments) {
+                collectSegments = false;
+                deleteUnreferencedSegments();
+            }
+            return archived;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Link archive run failed: {}", e.getMessage());
+            return 0;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int archiveBatch() throws IOException {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoff = now.minus(idle);
+        List<Candidate> batch = jdbcTemplate.query(CANDIDATES_SQL,
+                (rs, i) -> new Candidate(rs.getLong(1), rs.getString(2), rs.getObject(3)),
+                cutoff, cutoff, linksPerRun);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        batch.sort(Comparator.comparing(Candidate::slug));
+
+        // copy first: nothing is removed until the segment is durable under its final name
+        String file = "links-" + System.currentTimeMillis() + ".lar";
+        try (ArchiveSegment.Writer writer = new ArchiveSegment.Writer(dir.resolve(file), blockBytes)) {
+            for (Candidate candidate : batch) {
+                writer.beginLink(candidate.slug());
+                copyLink(writer, candidate.id());
+                writer.endLink();
+            }
+            writer.finish();
+        }
+
+        int archived = 0;
+        for (Candidate candidate : batch) {
+            if (jdbcTemplate.update(INSERT_ARCHIVED_SQL, now, file, candidate.id(), candidate.updatedDate()) == 0) {
+                collectSegments = true; // edited or deleted meanwhile; its copy is dead weight
+                continue;
+            }
+            filter.add(candidate.slug());
+            if (!purgeLiveRows(candidate.id())) {
+                break;
+            }
+            archived++;
+            archivedLinks.increment();
+        }
+        log.info("Archived {} of {} dead links into {}", archived, batch.size(), file);
+        return archived;
+    }
+
+    // archived links whose live rows survived a crash or an interrupted run
+    private void finishPurges() {
+        List<Long> pending = jdbcTemplate.queryForList(
+                "SELECT id FROM archived_link WHERE purged_at IS NULL LIMIT ?", Long.class, linksPerRun);
+        for (Long id : pending) {
+            if (!purgeLiveRows(id)) {
+                return;
+            }
+        }
+    }
+
+    private boolean purgeLiveRows(long id) {
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            Integer pending = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM archived_link WHERE id = ? AND purged_at IS NULL", Integer.class, id);
+            if (pending == null || pending == 0) {
+                return true; // restored in the meantime
+            }
+            if (!tombstonePurger.purgeArchived(id)) {
+                return false;
+            }
+            jdbcTemplate.update("UPDATE archived_link SET purged_at = ? WHERE id = ?", LocalDateTime.now(), id);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void copyLink(ArchiveSegment.Writer writer, long id) {
+        // parents first, so a restore can insert in file order
+        copyTable(writer, "url_mapping", "SELECT * FROM url_mapping WHERE id = ?", id);
+        copyTable(writer, "routing_rule", "SELECT * FROM routing_rule WHERE url_mapping_id = ? ORDER BY id", id);
+        copyTable(writer, "click_hourly", "SELECT * FROM click_hourly WHERE url_mapping_id = ?", id);
+        copyTable(writer, "click_daily", "SELECT * FROM click_daily WHERE url_mapping_id = ?", id);
+
+        // clicks can be many: keyset pages over idx_click_url_date
+        TableCopy clicks = new TableCopy(writer, "click_event");
+        jdbcTemplate.query(FIRST_CLICKS_SQL, clicks, id, clickPageSize);
+        while (clicks.pageRows == clickPageSize) {
+            clicks.pageRows = 0;
+            Object clickDate = clicks.last("click_date");
+            jdbcTemplate.query(NEXT_CLICKS_SQL, clicks, id, clickDate, clickDate, clicks.last("id"), clickPageSize);
+        }
+        clicks.end();
+    }
+
+    private void copyTable(ArchiveSegment.Writer writer, String table, String sql, long id) {
+        TableCopy copy = new TableCopy(writer, table);
+        jdbcTemplate.query(sql, copy, id);
+        copy.end();
+    }
+
+    // Streams result rows into the writer; the table header is written with the first row
+    private static final class TableCopy implements RowCallbackHandler {
+
+        private final ArchiveSegment.Writer writer;
+        private final String table;
+        private String[] columns;
+        private Object[] last;
+        private int pageRows;
+
+        TableCopy(ArchiveSegment.Writer writer, String table) {
+            this.writer = writer;
+            this.table = table;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                if (columns == null) {
+                    ResultSetMetaData meta = rs.getMetaData();
+                    columns = new String[meta.getColumnCount()];
+                    for (int i = 0; i < columns.length; i++) {
+                        columns[i] = meta.getColumnLabel(i + 1).toLowerCase(Locale.ROOT);
+                    }
+                    writer.beginTable(table, columns);
+                }
+                Object[] values = new Object[columns.length];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = rs.getObject(i + 1);
+                }
+                writer.row(values);
+                last = values;
+                pageRows++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        Object last(String column) {
+            for (int i = 0; i < columns.length; i++) {
+                if (columns[i].equals(column)) {
+                    return last[i];
+                }
+            }
+            throw new IllegalStateException("No column " + column + " in " + table);
+        }
+
+        void end() {
+            if (columns != null) {
+                try {
+                    writer.endTable();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    // Segments whose links have all been restored (or were never claimed). Needs no lock: a
+    // restore reads its segment while its archived_link row still exists, which keeps the
+    // file referenced, and new segments are only written by this same (single) run.
+    private void deleteUnreferencedSegments() throws IOException {
+        Set<String> referenced = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT DISTINCT archive_file FROM archived_link", String.class));
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "links-*.lar")) {
+            for (Path path : files) {
+                String name = path.getFileName().toString();
+                if (!referenced.contains(name)) {
+                    segments.remove(name);
+                    Files.deleteIfExists(path);
+                    log.info("Deleted unreferenced archive segment {}", name);
+                }
+            }
+        }
+    }
+}
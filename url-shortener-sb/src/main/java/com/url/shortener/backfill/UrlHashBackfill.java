@@ -0,0 +1,96 @@
+package com.url.shortener.backfill;
+
+import com.url.shortener.utils.UrlNormalizer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fills url_mapping.original_url_hash for links created before the column existed, so
+ * deduplicated creates find them too.
+ * <p>
+ * Walks the table by id in batches of {@code backfill.url-hash.batch-size}, one
+ * auto-committed batch update per chunk, and stops for good once a pass finds no row
+ * left. Rows created meanwhile already carry their hash. Until it finishes, a repeated
+ * create of an old link's destination may still make a new link.
+ */
+@Component
+@Slf4j
+public class UrlHashBackfill {
+
+    private static final String SELECT_SQL = """
+            SELECT id, original_url FROM url_mapping
+             WHERE id > ? AND original_url_hash IS NULL AND original_url IS NOT NULL
+             ORDER BY id LIMIT ?
+            """;
+
+    private static final String UPDATE_SQL =
+            "UPDATE url_mapping SET original_url_hash = ? WHERE id = ? AND original_url_hash IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int batchesPerRun;
+
+    private final AtomicBoolean done = new AtomicBoolean(false);
+    private long lastId;
+    private final Counter filled;
+
+    public UrlHashBackfill(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${backfill.url-hash.enabled:true}") boolean enabled,
+            @Value("${backfill.url-hash.batch-size:1000}") int batchSize,
+            @Value("${backfill.url-hash.batches-per-run:20}") int batchesPerRun
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.batchesPerRun = batchesPerRun;
+        this.filled = meterRegistry.counter("backfill.url-hash.rows");
+    }
+
+    @Scheduled(
+            initialDelayString = "${backfill.url-hash.initial-delay-ms:60000}",
+            fixedDelayString = "${backfill.url-hash.interval-ms:10000}"
+    )
+    public void scheduledRun() {
+        if (enabled && !done.get()) {
+            runOnce();
+        }
+    }
+
+    /** Backfills up to {@code batches-per-run} batches. Returns the number of rows updated. */
+    public int runOnce() {
+        int updated = 0;
+        try {
+            for (int i = 0; i < batchesPerRun; i++) {
+                List<Map<String, Object>> rows = jdbcTemplate.queryForList(SELECT_SQL, lastId, batchSize);
+                if (rows.isEmpty()) {
+                    done.set(true);
+                    log.info("original_url_hash backfill complete");
+                    break;
+                }
+                List<Object[]> args = rows.stream()
+                        .map(row -> new Object[]{UrlNormalizer.hash((String) row.get("original_url")), row.get("id")})
+                        .toList();
+                for (int count : jdbcTemplate.batchUpdate(UPDATE_SQL, args)) {
+                    updated += Math.max(count, 0);
+                }
+                lastId = ((Number) rows.get(rows.size() - 1).get("id")).longValue();
+            }
+        } catch (RuntimeException e) {
+            log.warn("original_url_hash backfill paused at id {}: {}", lastId, e.getMessage());
+        }
+        filled.increment(updated);
+        return updated;
+    }
+}
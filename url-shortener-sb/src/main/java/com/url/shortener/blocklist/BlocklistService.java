@@ -0,0 +1,97 @@
+package com.url.shortener.blocklist;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Holds the active {@link DomainBlocklist} and hot-swaps it when the list file changes.
+ * <p>
+ * The new list is built off to the side and published with a single volatile write,
+ * so lookups never see a half-loaded list and never block on a reload.
+ */
+@Service
+@Slf4j
+public class BlocklistService {
+
+    public static final double SAFE_SCORE = 1.0;
+    public static final double BLOCKED_SCORE = 0.0;
+
+    private final String file;
+    private final Counter hits;
+
+    private volatile DomainBlocklist current = DomainBlocklist.EMPTY;
+    private long loadedModified = -1;
+    private long loadedSize = -1;
+
+    public BlocklistService(
+            @Value("${blocklist.file:}") String file,
+            MeterRegistry meterRegistry
+    ) {
+        this.file = file;
+        this.hits = meterRegistry.counter("blocklist.hits");
+        meterRegistry.gauge("blocklist.entries", this, s -> s.current.size());
+    }
+
+    @PostConstruct
+    void init() {
+        reloadIfChanged();
+    }
+
+    public boolean isBlocked(String url) {
+        boolean blocked = current.isBlocked(url);
+        if (blocked) {
+            hits.increment();
+        }
+        return blocked;
+    }
+
+    public double safetyScore(boolean blocked) {
+        return blocked ? BLOCKED_SCORE : SAFE_SCORE;
+    }
+
+    @Scheduled(
+            initialDelayString = "${blocklist.reload-check-ms:30000}",
+            fixedDelayString = "${blocklist.reload-check-ms:30000}"
+    )
+    public synchronized void reloadIfChanged() {
+        if (file == null || file.isBlank()) {
+            return;
+        }
+        Path path = Path.of(file);
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            long modified = attrs.lastModifiedTime().toMillis();
+            if (modified == loadedModified && attrs.size() == loadedSize) {
+                return;
+            }
+
+            long start = System.nanoTime();
+            DomainBlocklist loaded;
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8), 1 << 20)) {
+                loaded = DomainBlocklist.load(reader);
+            }
+            current = loaded;
+            loadedModified = modified;
+            loadedSize = attrs.size();
+            log.info("Loaded blocklist {} with {} entries in {} ms", path, loaded.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            // keep serving the previous list
+            log.warn("Could not load blocklist {}: {}", path, e.toString());
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.url.shortener.blocklist;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.IDN;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Immutable, compact blocklist of domains and URL prefixes.
+ * <p>
+ * Entries are stored as 64-bit fingerprints in open-addressed {@code long[]} tables
+ * (8 bytes per slot, no per-entry objects), so millions of entries cost tens of MB.
+ * Domain entries are fingerprinted over the <em>reversed</em> host, which lets a lookup
+ * walk the host right to left, label by label, and test every parent domain on the way:
+ * {@code a.b.evil.com} checks {@code com}, {@code evil.com}, {@code b.evil.com}, ...
+ * Lookups are O(length of URL) and allocate nothing, except for internationalized hosts:
+ * entries and URLs alike are compared in their ASCII (punycode) form, so a Unicode host
+ * is converted once before the walk.
+ * <p>
+ * Fingerprints can collide; with 64 bits the false-positive rate is negligible
+ * for blocklist sizes we care about.
+ */
+public final class DomainBlocklist {
+
+    public static final DomainBlocklist EMPTY = new DomainBlocklist(new long[1], 0, new long[1], 0);
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final long[] hostTable;
+    private final int hostCount;
+    private final long[] prefixTable;
+    private final int prefixCount;
+
+    private DomainBlocklist(long[] hostTable, int hostCount, long[] prefixTable, int prefixCount) {
+        this.hostTable = hostTable;
+        this.hostCount = hostCount;
+        this.prefixTable = prefixTable;
+        this.prefixCount = prefixCount;
+    }
+
+    public int size() {
+        return hostCount + prefixCount;
+    }
+
+    // ============================================
+    // LOOKUP
+    // ============================================
+
+    /** True when the URL's host (or a parent domain), or a listed URL prefix, is blocked. */
+    public boolean isBlocked(String url) {
+        if (url == null || size() == 0) {
+            return false;
+        }
+        int hostStart = hostStart(url);
+        int hostEnd = hostEnd(url, hostStart);
+        if (hostEnd <= hostStart) {
+            return false;
+        }
+        if (!isAscii(url, hostStart, hostEnd)) {
+            String host = toAscii(url.substring(hostStart, hostEnd));
+            url = url.substring(0, hostStart) + host + url.substring(hostEnd);
+            hostEnd = hostStart + host.length();
+        }
+        return hostCount > 0 && hostBlocked(url, hostStart, hostEnd)
+                || prefixCount > 0 && prefixBlocked(url, hostStart, hostEnd);
+    }
+
+    private boolean hostBlocked(String url, int hostStart, int hostEnd) {
+        int end = hostEnd;
+        if (url.charAt(end - 1) == '.') {
+            end--; // fully qualified "evil.com."
+        }
+        long h = FNV_OFFSET;
+        for (int i = end - 1; i >= hostStart; i--) {
+            char c = url.charAt(i);
+            if (c == '.' && contains(hostTable, finish(h))) {
+                return true;
+            }
+            h = step(h, lower(c));
+        }
+        return contains(hostTable, finish(h));
+    }
+
+    private boolean prefixBlocked(String url, int hostStart, int hostEnd) {
+        long h = FNV_OFFSET;
+        for (int i = hostStart; i < hostEnd; i++) {
+            h = step(h, lower(url.charAt(i)));
+        }
+        // skip an explicit port; prefixes are keyed on host + path
+        int i = hostEnd;
+        while (i < url.length() && url.charAt(i) != '/' && url.charAt(i) != '?' && url.charAt(i) != '#') {
+            i++;
+        }
+        if (i >= url.length() || url.charAt(i) != '/') {
+            return false;
+        }
+        for (; i < url.length(); i++) {
+            char c = url.charAt(i);
+            if (c == '?' || c == '#') {
+                break;
+            }
+            if (c == '/' && i > hostEnd && contains(prefixTable, finish(h))) {
+                return true;
+            }
+            h = step(h, c);
+        }
+        return contains(prefixTable, finish(h));
+    }
+
+    // Index just past "scheme://" and any "user:pass@" part
+    private static int hostStart(String url) {
+        int start = url.indexOf("://");
+        start = start < 0 ? 0 : start + 3;
+        for (int i = start; i < url.length(); i++) {
+            char c = url.charAt(i);
+            if (c == '/' || c == '?' || c == '#') {
+                break;
+            }
+            if (c == '@') {
+                start = i + 1;
+            }
+        }
+        return start;
+    }
+
+    private static int hostEnd(String url, int hostStart) {
+        int i = hostStart;
+        while (i < url.length()) {
+            char c = url.charAt(i);
+            if (c == '/' || c == '?' || c == '#' || c == ':') {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    // ============================================
+    // HASHING / TABLE
+    // ============================================
+    private static long step(long h, char c) {
+        return (h ^ c) * FNV_PRIME;
+    }
+
+    // 0 marks an empty slot, so it is never a valid fingerprint
+    private static long finish(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h == 0 ? 1 : h;
+    }
+
+    private static boolean isAscii(String s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (s.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // punycode for an internationalized host; one that is not a valid IDN is left as given
+    private static String toAscii(String host) {
+        try {
+            return IDN.toASCII(host, IDN.ALLOW_UNASSIGNED);
+        } catch (IllegalArgumentException e) {
+            return host;
+        }
+    }
+
+    private static char lower(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + 32) : c;
+    }
+
+    private static boolean contains(long[] table, long fp) {
+        int mask = table.length - 1;
+        for (int i = (int) (fp ^ (fp >>> 32)) & mask; ; i = (i + 1) & mask) {
+            long slot = table[i];
+            if (slot == fp) {
+                return true;
+            }
+            if (slot == 0) {
+                return false;
+            }
+        }
+    }
+
+    private static long[] buildTable(long[] fps, int count) {
+        int capacity = Integer.highestOneBit(Math.max(2, count * 2 - 1)) << 1; // load factor <= 0.5
+        long[] table = new long[capacity];
+        int mask = capacity - 1;
+        int stored = 0;
+        for (int k = 0; k < count; k++) {
+            long fp = fps[k];
+            for (int i = (int) (fp ^ (fp >>> 32)) & mask; ; i = (i + 1) & mask) {
+                if (table[i] == fp) {
+                    break; // duplicate entry
+                }
+                if (table[i] == 0) {
+                    table[i] = fp;
+                    stored++;
+                    break;
+                }
+            }
+        }
+        return stored == 0 ? new long[1] : table;
+    }
+
+    // ============================================
+    // LOADING
+    // ============================================
+
+    /**
+     * Reads one entry per line. Accepted forms: {@code evil.com}, {@code *.evil.com},
+     * hosts-file lines ({@code 0.0.0.0 evil.com}), and URL prefixes
+     * ({@code https://host.com/phish}). Blank lines and {@code #} comments are skipped.
+     */
+    public static DomainBlocklist load(BufferedReader reader) throws IOException {
+        long[] hosts = new long[1024];
+        long[] prefixes = new long[64];
+        int hostCount = 0;
+        int prefixCount = 0;
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String entry = normalizeEntry(line);
+            if (entry == null) {
+                continue;
+            }
+            int slash = entry.indexOf('/');
+            if (slash < 0) {
+                if (hostCount == hosts.length) {
+                    hosts = Arrays.copyOf(hosts, hosts.length * 2);
+                }
+                long h = FNV_OFFSET;
+                for (int i = entry.length() - 1; i >= 0; i--) {
+                    h = step(h, entry.charAt(i));
+                }
+                hosts[hostCount++] = finish(h);
+            } else {
+                if (prefixCount == prefixes.length) {
+                    prefixes = Arrays.copyOf(prefixes, prefixes.length * 2);
+                }
+                long h = FNV_OFFSET;
+                for (int i = 0; i < entry.length(); i++) {
+                    char c = entry.charAt(i);
+                    h = step(h, i < slash ? lower(c) : c);
+                }
+                prefixes[prefixCount++] = finish(h);
+            }
+        }
+
+        return new DomainBlocklist(
+                buildTable(hosts, hostCount), hostCount,
+                buildTable(prefixes, prefixCount), prefixCount);
+    }
+
+    private static String normalizeEntry(String line) {
+        int hash = line.indexOf('#');
+        String s = (hash >= 0 ? line.substring(0, hash) : line).trim();
+        if (s.isEmpty()) {
+            return null;
+        }
+        int space = Math.max(s.lastIndexOf(' '), s.lastIndexOf('\t'));
+        if (space >= 0) {
+            s = s.substring(space + 1); // hosts-file format
+        }
+        int scheme = s.indexOf("://");
+        if (scheme >= 0) {
+            s = s.substring(scheme + 3);
+        }
+        if (s.startsWith("*.")) {
+            s = s.substring(2);
+        }
+        int q = indexOfAny(s, '?', '#');
+        if (q >= 0) {
+            s = s.substring(0, q);
+        }
+        while (s.endsWith("/") || s.endsWith(".")) {
+            s = s.substring(0, s.length() - 1);
+        }
+        int slash = s.indexOf('/');
+        String host = slash < 0 ? s : s.substring(0, slash);
+        int port = host.indexOf(':');
+        if (port >= 0) {
+            host = host.substring(0, port);
+        }
+        host = toAscii(host).toLowerCase(Locale.ROOT);
+        if (host.isEmpty()) {
+            return null;
+        }
+        return slash < 0 ? host : host + s.substring(slash);
+    }
+
+    private static int indexOfAny(String s, char a, char b) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) == a || s.charAt(i) == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
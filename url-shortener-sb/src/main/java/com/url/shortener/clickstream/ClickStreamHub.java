@@ -0,0 +1,250 @@
+package com.url.shortener.clickstream;
+
+import com.url.shortener.dtos.ClickDeltaBatchDTO;
+import com.url.shortener.dtos.ClickDeltaDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fan-out hub for live click deltas.
+ * <p>
+ * The redirect path only bumps a per-link {@link LongAdder}, and only for owners
+ * with an open stream. Once per second the counters are drained into one batch per
+ * owner and offered to each subscriber's bounded buffer. A subscriber whose buffer
+ * is full is too slow and gets disconnected. Buffers are written to the
+ * {@link SseEmitter}s by a small shared pool, so open streams cost no threads.
+ */
+@Component
+@Slf4j
+public class ClickStreamHub {
+
+    private static final long HEARTBEAT_EVERY_MS = 15_000;
+
+    private final int bufferCapacity;
+    private final int maxPerUser;
+    private final int maxSubscribers;
+    private final long streamTimeoutMs;
+
+    private final ConcurrentHashMap<Long, LinkCounter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, CopyOnWriteArrayList<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService senders;
+
+    private final Counter droppedSlow;
+
+    public ClickStreamHub(
+            MeterRegistry meterRegistry,
+            @Value("${clickstream.buffer-capacity:32}") int bufferCapacity,
+            @Value("${clickstream.max-streams-per-user:10}") int maxPerUser,
+            @Value("${clickstream.max-streams:10000}") int maxSubscribers,
+            @Value("${clickstream.sender-threads:4}") int senderThreads,
+            @Value("${clickstream.stream-timeout-ms:1800000}") long streamTimeoutMs
+    ) {
+        this.bufferCapacity = bufferCapacity;
+        this.maxPerUser = maxPerUser;
+        this.maxSubscribers = maxSubscribers;
+        this.streamTimeoutMs = streamTimeoutMs;
+        this.senders = Executors.newFixedThreadPool(senderThreads, r -> {
+            Thread t = new Thread(r, "clickstream-sender");
+            t.setDaemon(true);
+            return t;
+        });
+        this.droppedSlow = meterRegistry.counter("clickstream.dropped.slow");
+        meterRegistry.gauge("clickstream.subscribers", subscriberCount);
+    }
+
+    // ============================================
+    // PRODUCER SIDE (redirect path)
+    // ============================================
+    public void record(long mappingId, long userId, String shortUrl) {
+        if (!subscribers.containsKey(userId)) {
+            return;
+        }
+        counters.computeIfAbsent(mappingId, id -> new LinkCounter(userId, shortUrl)).clicks.increment();
+    }
+
+    // ============================================
+    // SUBSCRIPTIONS
+    // ============================================
+
+    /**
+     * Opens a stream of click deltas for an owner's links.
+     *
+     * @param shortUrl only report this link, or null for all of the owner's links
+     */
+    public SseEmitter subscribe(long userId, String shortUrl) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        Subscriber subscriber = new Subscriber(userId, shortUrl, emitter, new ArrayBlockingQueue<>(bufferCapacity));
+        // check and add under the owner's map entry, so a concurrent remove cannot drop the list
+        subscribers.compute(userId, (id, forUser) -> {
+            CopyOnWriteArrayList<Subscriber> list = forUser == null ? new CopyOnWriteArrayList<>() : forUser;
+            if (list.size() >= maxPerUser || !reserveSlot()) {
+                throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many open click streams");
+            }
+            list.add(subscriber);
+            return list;
+        });
+
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        return emitter;
+    }
+
+    private boolean reserveSlot() {
+        int open;
+        do {
+            open = subscriberCount.get();
+            if (open >= maxSubscribers) {
+                return false;
+            }
+        } while (!subscriberCount.compareAndSet(open, open + 1));
+        return true;
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        subscriberCount.decrementAndGet();
+        subscribers.computeIfPresent(subscriber.userId, (id, list) -> {
+            list.remove(subscriber);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    // ============================================
+    // ONCE-PER-SECOND COALESCED FAN-OUT
+    // ============================================
+    @Scheduled(fixedRateString = "${clickstream.flush-interval-ms:1000}")
+    public void flush() {
+        LocalDateTime windowEnd = LocalDateTime.now();
+        Map<Long, List<ClickDeltaDTO>> byUser = new HashMap<>();
+
+        counters.forEach((mappingId, counter) -> {
+            long clicks = counter.clicks.sumThenReset();
+            if (clicks > 0) {
+                counter.idleTicks = 0;
+                byUser.computeIfAbsent(counter.userId, id -> new ArrayList<>())
+                        .add(new ClickDeltaDTO(counter.shortUrl, clicks));
+            } else if (++counter.idleTicks > 60 || !subscribers.containsKey(counter.userId)) {
+                counters.remove(mappingId, counter);
+            }
+        });
+
+        long now = System.currentTimeMillis();
+        subscribers.forEach((userId, list) -> {
+            List<ClickDeltaDTO> deltas = byUser.getOrDefault(userId, List.of());
+            for (Subscriber subscriber : list) {
+                List<ClickDeltaDTO> mine = subscriber.filter(deltas);
+                if (!mine.isEmpty()) {
+                    offer(subscriber, SseEmitter.event().name("clicks").data(new ClickDeltaBatchDTO(windowEnd, mine)), now);
+                } else if (now - subscriber.lastSentMs > HEARTBEAT_EVERY_MS) {
+                    offer(subscriber, SseEmitter.event().comment("keep-alive"), now);
+                }
+            }
+        });
+    }
+
+    private void offer(Subscriber subscriber, SseEmitter.SseEventBuilder event, long now) {
+        if (!subscriber.buffer.offer(event)) {
+            // slow consumer: drop it rather than buffer without bound
+            droppedSlow.increment();
+            remove(subscriber);
+            subscriber.emitter.complete();
+            return;
+        }
+        subscriber.lastSentMs = now;
+        if (subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while (!subscriber.closed.get() && (event = subscriber.buffer.poll()) != null) {
+                subscriber.emitter.send(event);
+            }
+        } catch (Exception e) {
+            remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+        } finally {
+            subscriber.draining.set(false);
+            // an offer may have slipped in after the last poll
+            if (!subscriber.buffer.isEmpty() && !subscriber.closed.get()
+                    && subscriber.draining.compareAndSet(false, true)) {
+                senders.execute(() -> drain(subscriber));
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.values().forEach(list -> list.forEach(s -> s.emitter.complete()));
+        senders.shutdownNow();
+    }
+
+    // ============================================
+    // STATE
+    // ============================================
+    private static final class LinkCounter {
+        final long userId;
+        final String shortUrl;
+        final LongAdder clicks = new LongAdder();
+        int idleTicks; // only touched by the flush thread
+
+        LinkCounter(long userId, String shortUrl) {
+            this.userId = userId;
+            this.shortUrl = shortUrl;
+        }
+    }
+
+    private static final class Subscriber {
+        final long userId;
+        final String shortUrl;
+        final SseEmitter emitter;
+        final BlockingQueue<SseEmitter.SseEventBuilder> buffer;
+        final AtomicBoolean draining = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+        volatile long lastSentMs = System.currentTimeMillis();
+
+        Subscriber(long userId, String shortUrl, SseEmitter emitter, BlockingQueue<SseEmitter.SseEventBuilder> buffer) {
+            this.userId = userId;
+            this.shortUrl = shortUrl;
+            this.emitter = emitter;
+            this.buffer = buffer;
+        }
+
+        List<ClickDeltaDTO> filter(List<ClickDeltaDTO> deltas) {
+            if (shortUrl == null || deltas.isEmpty()) {
+                return deltas;
+            }
+            List<ClickDeltaDTO> mine = new ArrayList<>(1);
+            for (ClickDeltaDTO delta : deltas) {
+                if (shortUrl.equals(delta.getShortUrl())) {
+                    mine.add(delta);
+                }
+            }
+            return mine;
+        }
+    }
+}
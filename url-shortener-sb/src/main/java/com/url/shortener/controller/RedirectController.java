@@ -1,9 +1,13 @@
 package com.url.shortener.controller;
 
-import com.url.shortener.models.UrlMapping;
+import com.url.shortener.resilience.Bulkhead;
 import com.url.shortener.service.UrlMappingService;
+import com.url.shortener.utils.DetachedRequest;
+import com.url.shortener.utils.RequestUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletRequest;
-import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 
 import org.springframework.http.HttpHeaders;
@@ -11,19 +15,56 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 @RestController
-@AllArgsConstructor
 public class RedirectController {
 
-    private UrlMappingService urlMappingService;
+    private final UrlMappingService urlMappingService;
+    private final Bulkhead redirectBulkhead;
+    private final long deadlineMs;
+    private final Counter timeouts;
 
+    public RedirectController(
+            UrlMappingService urlMappingService,
+            Bulkhead redirectBulkhead,
+            MeterRegistry meterRegistry,
+            @Value("${redirect.deadline-ms:2000}") long deadlineMs
+    ) {
+        this.urlMappingService = urlMappingService;
+        this.redirectBulkhead = redirectBulkhead;
+        this.deadlineMs = deadlineMs;
+        this.timeouts = meterRegistry.counter("redirect.timeouts");
+    }
 
+    // Runs in the redirect bulkhead, so dashboard load cannot starve it of threads; past
+    // the deadline the answer comes from the local replica (or 503) while the lookup
+    // finishes in the background and still records the click.
     @GetMapping("/{shortUrl}")
-    public ResponseEntity<Void> redirect(@PathVariable String shortUrl, HttpServletRequest request) {
-        UrlMapping urlMapping = urlMappingService.getOriginalUrl(shortUrl, request);
+    public CompletableFuture<ResponseEntity<Void>> redirect(@PathVariable String shortUrl, HttpServletRequest request) {
+        HttpServletRequest detached = DetachedRequest.of(request);
+        String host = RequestUtils.getHost(detached);
+        return redirectBulkhead.submit(() -> urlMappingService.getOriginalUrl(shortUrl, detached))
+                .thenApply(urlMapping -> found(urlMapping.getResolvedUrl() != null ? urlMapping.getResolvedUrl() : urlMapping.getOriginalUrl()))
+                .orTimeout(deadlineMs, TimeUnit.MILLISECONDS)
+                .exceptionally(error -> {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    if (!(cause instanceof TimeoutException)) {
+                        throw error instanceof CompletionException ce ? ce : new CompletionException(error);
+                    }
+                    timeouts.increment();
+                    return urlMappingService.getFallbackDestination(shortUrl, host)
+                            .map(this::found)
+                            .orElseGet(() -> ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "1").build());
+                });
+    }
 
+    private ResponseEntity<Void> found(String location) {
         HttpHeaders httpHeaders = new HttpHeaders();
-        httpHeaders.add("Location", urlMapping.getOriginalUrl());
+        httpHeaders.add("Location", location);
         return ResponseEntity.status(302).headers(httpHeaders).build();
     }
 
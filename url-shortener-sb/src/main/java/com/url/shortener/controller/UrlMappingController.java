@@ -1,11 +1,22 @@
 package com.url.shortener.controller;
 
+import com.url.shortener.analytics.AnalyticsFormat;
+import com.url.shortener.analytics.ClickEventWriter;
+import com.url.shortener.clickstream.ClickStreamHub;
 import com.url.shortener.dtos.*;
 import com.url.shortener.models.User;
+import com.url.shortener.qr.QrCodeService;
+import com.url.shortener.qr.QrSpec;
+import com.url.shortener.resilience.Bulkhead;
+import com.url.shortener.service.BulkLinkService;
 import com.url.shortener.service.UrlMappingService;
 import com.url.shortener.serviceImpl.UserService;
+import com.url.shortener.utils.RequestUtils;
 import lombok.AllArgsConstructor;
 
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.io.IOException;
 import java.security.Principal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -13,18 +24,36 @@ import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/urls")
 @AllArgsConstructor
 public class UrlMappingController {
 
+    // url_mapping.idempotency_key is a VARCHAR(64)
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 64;
+
     private final UrlMappingService urlMappingService;
     private final UserService userService;
+    private final ClickStreamHub clickStreamHub;
+    private final BulkLinkService bulkLinkService;
+    private final QrCodeService qrCodeService;
+    private final ClickEventWriter clickEventWriter;
+    private final Bulkhead analyticsBulkhead;
 
     // ----------------------------------------------------
     // CREATE SHORT URL
@@ -33,11 +62,25 @@ public class UrlMappingController {
     @PreAuthorize("hasRole('USER')")
     public ResponseEntity<UrlMappingDTO> createShortUrl(
             @RequestBody UrlMappingCreateRequestDTO request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             Principal principal
     ) {
         System.out.println("under api call");
+        if (idempotencyKey != null && idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Idempotency-Key is limited to " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+        }
         User user = userService.findByUsername(principal.getName());
-        UrlMappingDTO urlMappingDTO = urlMappingService.createShortUrl(request, user);
+        UrlMappingDTO urlMappingDTO;
+        try {
+            urlMappingDTO = urlMappingService.createShortUrl(request, user, idempotencyKey);
+        } catch (DataIntegrityViolationException e) {
+            // concurrent retry with the same Idempotency-Key won the insert
+            urlMappingDTO = urlMappingService.findByIdempotencyKey(request, user, idempotencyKey);
+            if (urlMappingDTO == null) {
+                throw e;
+            }
+        }
         return ResponseEntity.ok(urlMappingDTO);
     }
 
@@ -52,6 +95,65 @@ public class UrlMappingController {
         return ResponseEntity.ok(urls);
     }
 
+    // ----------------------------------------------------
+    // GET USER'S ARCHIVED URLS
+    // (opening one, or its analytics, restores it)
+    // ----------------------------------------------------
+    @GetMapping("/archived")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<List<UrlMappingDTO>> getArchivedUrls(Principal principal) {
+        User user = userService.findByUsername(principal.getName());
+        return ResponseEntity.ok(urlMappingService.getArchivedUrlsByUser(user));
+    }
+
+    // ----------------------------------------------------
+    // BULK IMPORT (streaming CSV / NDJSON upload)
+    // pass jobId of a FAILED import to resume after its checkpoint
+    // ----------------------------------------------------
+    @PostMapping("/import")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<ImportJobDTO> importUrls(
+            @RequestParam(value = "format", defaultValue = "csv") String format,
+            @RequestParam(value = "jobId", required = false) Long jobId,
+            HttpServletRequest request,
+            Principal principal
+    ) throws IOException {
+        User user = userService.findByUsername(principal.getName());
+        ImportJobDTO job = bulkLinkService.importLinks(user, request.getInputStream(), format, jobId);
+        return ResponseEntity.ok(job);
+    }
+
+    // ----------------------------------------------------
+    // BULK IMPORT PROGRESS
+    // ----------------------------------------------------
+    @GetMapping("/import/{jobId}")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<ImportJobDTO> getImportJob(
+            @PathVariable Long jobId,
+            Principal principal
+    ) {
+        User user = userService.findByUsername(principal.getName());
+        return ResponseEntity.ok(bulkLinkService.getImportJob(jobId, user));
+    }
+
+    // ----------------------------------------------------
+    // BULK EXPORT (streamed, constant memory)
+    // ----------------------------------------------------
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<StreamingResponseBody> exportUrls(
+            @RequestParam(value = "format", defaultValue = "csv") String format,
+            Principal principal
+    ) {
+        User user = userService.findByUsername(principal.getName());
+        boolean csv = !"ndjson".equalsIgnoreCase(format);
+        StreamingResponseBody body = out -> bulkLinkService.exportLinks(user, format, out);
+        return ResponseEntity.ok()
+                .contentType(csv ? MediaType.parseMediaType("text/csv") : MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"links." + (csv ? "csv" : "ndjson") + "\"")
+                .body(body);
+    }
+
     // ----------------------------------------------------
     // GET SINGLE URL DETAILS
     // ----------------------------------------------------
@@ -66,6 +168,50 @@ public class UrlMappingController {
         return ResponseEntity.ok(dto);
     }
 
+    // ----------------------------------------------------
+    // QR CODE (png / svg, cached, ETag)
+    // ----------------------------------------------------
+    @GetMapping("/{shortUrl}/qr")
+    @PreAuthorize("hasRole('USER')")
+    public CompletableFuture<ResponseEntity<byte[]>> getQrCode(
+            @PathVariable String shortUrl,
+            @RequestParam(value = "size", defaultValue = "256") int size,
+            @RequestParam(value = "format", defaultValue = "png") String format,
+            @RequestParam(value = "ecc", defaultValue = "M") String ecc,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            Principal principal
+    ) {
+        User user = userService.findByUsername(principal.getName());
+        UrlMappingDTO url = urlMappingService.getUrlDetailsForOwner(shortUrl, user);
+        String slug = url.getCustomAlias() != null ? url.getCustomAlias() : url.getShortUrl();
+        QrSpec spec = qrCodeService.spec(url.getDomain(), slug, size, format, ecc);
+
+        // the ETag is a hash of the inputs: a revalidation never touches the renderer
+        CacheControl cacheControl = CacheControl.maxAge(1, TimeUnit.DAYS).cachePrivate();
+        if (RequestUtils.ifNoneMatch(ifNoneMatch, spec.etag())) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(304).eTag(spec.etag()).cacheControl(cacheControl).build());
+        }
+        return qrCodeService.getImage(spec).thenApply(image -> ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(image.contentType()))
+                .eTag(image.etag())
+                .cacheControl(cacheControl)
+                .body(image.bytes()));
+    }
+
+    // ----------------------------------------------------
+    // GET PAGE SUMMARY (filled in asynchronously after create)
+    // ----------------------------------------------------
+    @GetMapping("/{shortUrl}/summary")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<UrlSummaryDTO> getUrlSummary(
+            @PathVariable String shortUrl,
+            Principal principal
+    ) {
+        User user = userService.findByUsername(principal.getName());
+        return ResponseEntity.ok(urlMappingService.getUrlSummary(shortUrl, user));
+    }
+
     // ----------------------------------------------------
     // UPDATE URL SETTINGS
     // ----------------------------------------------------
@@ -81,6 +227,31 @@ public class UrlMappingController {
         return ResponseEntity.ok(dto);
     }
 
+    // ----------------------------------------------------
+    // ROUTING RULES (weighted / country / device / OS / time window)
+    // ----------------------------------------------------
+    @GetMapping("/{shortUrl}/routes")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<List<RoutingRuleDTO>> getRoutingRules(
+            @PathVariable String shortUrl,
+            Principal principal
+    ) {
+        User user = userService.findByUsername(principal.getName());
+        return ResponseEntity.ok(urlMappingService.getRoutingRules(shortUrl, user));
+    }
+
+    // replaces the whole rule set; an empty list makes the link single-destination again
+    @PutMapping("/{shortUrl}/routes")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<List<RoutingRuleDTO>> replaceRoutingRules(
+            @PathVariable String shortUrl,
+            @RequestBody List<RoutingRuleDTO> rules,
+            Principal principal
+    ) {
+        User user = userService.findByUsername(principal.getName());
+        return ResponseEntity.ok(urlMappingService.replaceRoutingRules(shortUrl, rules, user));
+    }
+
     // ----------------------------------------------------
     // DELETE URL
     // ----------------------------------------------------
@@ -95,40 +266,115 @@ public class UrlMappingController {
         return ResponseEntity.ok("URL deleted successfully");
     }
 
+    // ----------------------------------------------------
+    // BULK DELETE (body: list of short URLs)
+    // ----------------------------------------------------
+    @PostMapping("/bulk-delete")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<Map<String, Integer>> deleteUrls(
+            @RequestBody List<String> shortUrls,
+            Principal principal
+    ) {
+        User user = userService.findByUsername(principal.getName());
+        int deleted = urlMappingService.deleteUrls(shortUrls, user);
+        return ResponseEntity.ok(Map.of("deleted", deleted));
+    }
+
     // ----------------------------------------------------
     // ANALYTICS FOR A SPECIFIC URL
+    // rows or ?layout=columnar; JSON, or CBOR / Smile via Accept;
+    // streamed from the database straight into the response
     // ----------------------------------------------------
     @GetMapping("/analytics/{shortUrl}")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<List<ClickEventDTO>> getUrlAnalytics(
+    public ResponseEntity<StreamingResponseBody> getUrlAnalytics(
             @PathVariable String shortUrl,
             @RequestParam("startDate") String startDate,
             @RequestParam("endDate") String endDate,
+            @RequestParam(value = "layout", defaultValue = "rows") String layout,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
             Principal principal
     ) {
         User user = userService.findByUsername(principal.getName());
-        System.out.println(" here error come");
-//        DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
-//        LocalDateTime start = LocalDateTime.parse(startDate, formatter);
-//        LocalDateTime end = LocalDateTime.parse(endDate, formatter);
 
-        DateTimeFormatter formatter = DateTimeFormatter.ISO_DATE_TIME;
-        OffsetDateTime startOffset = OffsetDateTime.parse(startDate, formatter);
-        OffsetDateTime endOffset = OffsetDateTime.parse(endDate, formatter);
+        LocalDateTime start = parseDateTime(startDate);
+        LocalDateTime end = parseDateTime(endDate);
 
-// converting to LocalDateTime if you want to store without timezone
-        LocalDateTime start = startOffset.toLocalDateTime();
-        LocalDateTime end = endOffset.toLocalDateTime();
+        // ownership is checked before the response starts streaming
+        urlMappingService.getUrlDetailsForOwner(shortUrl, user);
 
+        AnalyticsFormat format = AnalyticsFormat.negotiate(accept);
+        boolean columnar = "columnar".equalsIgnoreCase(layout);
+        StreamingResponseBody body = out -> urlMappingService.streamClickEventsForUser(shortUrl, user, start, end,
+                events -> clickEventWriter.write(events, format, columnar, out));
+        return ResponseEntity.ok()
+                .contentType(format.mediaType())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .body(body);
+    }
 
-        List<ClickEventDTO> clickEvents =
-                urlMappingService.getClickEventsByDateForUser(shortUrl, user, start, end);
-        clickEvents.forEach(event -> {
-            System.out.println(event);
+    // ----------------------------------------------------
+    // LIVE TIME SERIES FOR A SPECIFIC URL (1m / 5m over 24h, 1h up to 31 days)
+    // ----------------------------------------------------
+    @GetMapping("/analytics/{shortUrl}/timeseries")
+    @PreAuthorize("hasRole('USER')")
+    public CompletableFuture<ResponseEntity<ClickSeriesDTO>> getUrlTimeSeries(
+            @PathVariable String shortUrl,
+            @RequestParam(value = "resolution", defaultValue = "1m") String resolution,
+            @RequestParam(value = "hours", defaultValue = "24") int hours,
+            Principal principal
+    ) {
+        return analyticsBulkhead.submit(() -> {
+            User user = userService.findByUsername(principal.getName());
+            return ResponseEntity.ok(urlMappingService.getClickSeriesForUser(shortUrl, user, resolution, hours));
         });
-        System.out.println("helloooo  "+ clickEvents.size());
+    }
 
-        return ResponseEntity.ok(clickEvents);
+    // ----------------------------------------------------
+    // ANALYTICS BREAKDOWN FOR A SPECIFIC URL
+    // (counts per browser / os / device / country / referer / hour,
+    //  aggregated in the database; runs in the analytics bulkhead)
+    // ----------------------------------------------------
+    @GetMapping("/analytics/{shortUrl}/breakdown")
+    @PreAuthorize("hasRole('USER')")
+    public CompletableFuture<ResponseEntity<ClickBreakdownDTO>> getUrlAnalyticsBreakdown(
+            @PathVariable String shortUrl,
+            @RequestParam("startDate") String startDate,
+            @RequestParam("endDate") String endDate,
+            Principal principal
+    ) {
+        LocalDateTime start = parseDateTime(startDate);
+        LocalDateTime end = parseDateTime(endDate);
+        return analyticsBulkhead.submit(() -> {
+            User user = userService.findByUsername(principal.getName());
+            ClickBreakdownDTO breakdown = urlMappingService.getClickBreakdownForUser(shortUrl, user, start, end);
+            return ResponseEntity.ok(breakdown);
+        });
+    }
+
+    // ----------------------------------------------------
+    // LIVE CLICK STREAM (SSE) FOR ALL USER URLS
+    // ----------------------------------------------------
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('USER')")
+    public SseEmitter streamUserClicks(Principal principal) {
+        User user = userService.findByUsername(principal.getName());
+        return clickStreamHub.subscribe(user.getId(), null);
+    }
+
+    // ----------------------------------------------------
+    // LIVE CLICK STREAM (SSE) FOR A SPECIFIC URL
+    // ----------------------------------------------------
+    @GetMapping(value = "/analytics/{shortUrl}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('USER')")
+    public SseEmitter streamUrlClicks(
+            @PathVariable String shortUrl,
+            Principal principal
+    ) {
+        User user = userService.findByUsername(principal.getName());
+        // ownership check; throws if the link belongs to someone else
+        UrlMappingDTO url = urlMappingService.getUrlDetailsForOwner(shortUrl, user);
+        return clickStreamHub.subscribe(user.getId(), url.getShortUrl());
     }
 
     // ----------------------------------------------------
@@ -136,20 +382,25 @@ public class UrlMappingController {
     // ----------------------------------------------------
     @GetMapping("/totalClicks")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<Map<LocalDate, Long>> getTotalClicksByDate(
+    public CompletableFuture<ResponseEntity<Map<LocalDate, Long>>> getTotalClicksByDate(
             Principal principal,
             @RequestParam("startDate") String startDate,
             @RequestParam("endDate") String endDate
     ) {
-        User user = userService.findByUsername(principal.getName());
-
         DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE;
         LocalDate start = LocalDate.parse(startDate, formatter);
         LocalDate end = LocalDate.parse(endDate, formatter);
 
-        Map<LocalDate, Long> totalClicks =
-                urlMappingService.getTotalClicksByUserAndDate(user, start, end);
+        return analyticsBulkhead.submit(() -> {
+            User user = userService.findByUsername(principal.getName());
+            Map<LocalDate, Long> totalClicks =
+                    urlMappingService.getTotalClicksByUserAndDate(user, start, end);
+            return ResponseEntity.ok(totalClicks);
+        });
+    }
 
-        return ResponseEntity.ok(totalClicks);
+    // ISO date-time with offset, e.g. 2024-12-01T00:00:00.000Z
+    private LocalDateTime parseDateTime(String value) {
+        return OffsetDateTime.parse(value, DateTimeFormatter.ISO_DATE_TIME).toLocalDateTime();
     }
 }
@@ -0,0 +1,477 @@
+package com.url.shortener.datagen;
+
+import com.url.shortener.dimension.ClickDimensionService;
+import com.url.shortener.shortcode.ShortCodeCodec;
+import com.url.shortener.utils.UrlNormalizer;
+import com.url.shortener.utils.ZipfSampler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Synthetic dataset generator for scale testing ({@code --spring.profiles.active=datagen}).
+ * <p>
+ * Appends {@code datagen.users} users, {@code datagen.links} links and {@code datagen.clicks}
+ * clicks after the current max ids, with Zipfian link popularity and link ownership, weighted
+ * user-agent and referer mixes, and click times that decay with link age and follow a daily
+ * cycle; click_count and click_daily are filled to match. Work is split into fixed chunks,
+ * each drawing from its own generator seeded by {@code datagen.seed} and the chunk number,
+ * so the same settings against the same starting ids always produce the same rows, however
+ * the chunks are scheduled across threads.
+ * Rows go in through JDBC batches; the app exits when the run is done.
+ */
+@Component
+@Profile("datagen")
+@Slf4j
+public class DatasetGenerator implements ApplicationRunner {
+
+    private static final String USER_SQL = """
+            INSERT INTO users (id, email, username, password, role, created_at, enabled)
+            VALUES (?, ?, ?, ?, 'ROLE_USER', ?, true)
+            """;
+
+    private static final String LINK_SQL = """
+            INSERT INTO url_mapping
+                (id, original_url, original_url_hash, short_url, domain, is_custom, protected_url, is_active,
+                 click_count, last_status_code, created_date, updated_date, user_id)
+            VALUES (?, ?, ?, ?, '', false, false, true, 0, 0, ?, ?, ?)
+            """;
+
+    private static final String CLICK_SQL = """
+            INSERT INTO click_event
+                (url_mapping_id, click_date, ip_address, user_agent_id, referer_id, user_agent, referer,
+                 referer_host, device_type, browser, os, is_bot, response_status)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 302)
+            """;
+
+    private static final String COUNT_SQL = "UPDATE url_mapping SET click_count = click_count + ? WHERE id = ?";
+
+    // one statement per chunk of new links; their clicks are all generated here
+    private static final String DAILY_SQL = """
+            INSERT INTO click_daily (url_mapping_id, click_day, clicks)
+            SELECT url_mapping_id, CAST(click_date AS DATE), COUNT(*) FROM click_event
+             WHERE url_mapping_id BETWEEN ? AND ?
+             GROUP BY url_mapping_id, CAST(click_date AS DATE)
+            """;
+
+    private record Client(String userAgent, String deviceType, String os, String browser, boolean bot, int weight) {
+    }
+
+    private record Referer(String url, String host, int weight) {
+    }
+
+    // rough shares of a consumer-facing link shortener's traffic
+    private static final List<Client> CLIENTS = List.of(
+            new Client("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0.0.0 Safari/537.36",
+                    "desktop", "Windows", "Chrome", false, 28),
+            new Client("Mozilla/5.0 (Linux; Android 14; Pixel 8) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0.0.0 Mobile Safari/537.36",
+                    "mobile", "Android", "Chrome", false, 22),
+            new Client("Mozilla/5.0 (iPhone; CPU iPhone OS 17_4 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.4 Mobile/15E148 Safari/604.1",
+                    "mobile", "iOS", "Safari", false, 18),
+            new Client("Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0.0.0 Safari/537.36",
+                    "desktop", "MacOS", "Chrome", false, 7),
+            new Client("Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.4 Safari/605.1.15",
+                    "desktop", "MacOS", "Safari", false, 6),
+            new Client("Mozilla/5.0 (Windows NT 10.0; Win64; x64; rv:125.0) Gecko/20100101 Firefox/125.0",
+                    "desktop", "Windows", "Firefox", false, 4),
+            new Client("Mozilla/5.0 (iPad; CPU OS 17_4 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.4 Tablet/15E148 Safari/604.1",
+                    "tablet", "iOS", "Safari", false, 4),
+            new Client("Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0.0.0 Safari/537.36",
+                    "desktop", "Linux", "Chrome", false, 2),
+            new Client("Mozilla/5.0 (X11; Ubuntu; Linux x86_64; rv:125.0) Gecko/20100101 Firefox/125.0",
+                    "desktop", "Linux", "Firefox", false, 1),
+            new Client("Mozilla/5.0 (Linux; Android 13; SM-X200) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0.0.0 Tablet Safari/537.36",
+                    "tablet", "Android", "Chrome", false, 1),
+            new Client("Opera/9.80 (J2ME/MIDP; Opera Mini/9.80; U; en) Presto/2.12.423 Version/12.16",
+                    "mobile", "Other", "Other", false, 1),
+            new Client("Mozilla/5.0 (compatible; Googlebot/2.1; +http://www.google.com/bot.html)",
+                    "desktop", "Other", "Other", true, 2),
+            new Client("Slackbot-LinkExpanding 1.0 (+https://api.slack.com/robots)",
+                    "desktop", "Other", "Other", true, 2),
+            new Client("facebookexternalhit/1.1 (+http://www.facebook.com/externalhit_uatext.php)",
+                    "desktop", "Other", "Other", true, 2)
+    );
+
+    // null url = direct traffic; the long tail is spread over TAIL_HOSTS blogs
+    private static final List<Referer> REFERERS = List.of(
+            new Referer(null, null, 42),
+            new Referer("https://www.google.com/", "www.google.com", 17),
+            new Referer("https://t.co/", "t.co", 9),
+            new Referer("https://www.facebook.com/", "www.facebook.com", 8),
+            new Referer("https://www.linkedin.com/", "www.linkedin.com", 5),
+            new Referer("https://www.reddit.com/", "www.reddit.com", 4),
+            new Referer("https://news.ycombinator.com/", "news.ycombinator.com", 2),
+            new Referer("https://mail.google.com/", "mail.google.com", 3)
+    );
+    private static final int TAIL_REFERER_WEIGHT = 10;
+    private static final int TAIL_HOSTS = 2000;
+    private static final int SITES = 5000;
+
+    // relative click volume per hour of day, peaking mid-afternoon, trough before dawn
+    private static final double[] DIURNAL = new double[24];
+
+    static {
+        for (int hour = 0; hour < 24; hour++) {
+            DIURNAL[hour] = 0.25 + 0.75 * (1 - Math.cos(2 * Math.PI * (hour - 4) / 24.0)) / 2;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShortCodeCodec shortCodeCodec;
+    private final ClickDimensionService dimensions;
+    private final PasswordEncoder passwordEncoder;
+    private final ApplicationContext context;
+
+    private final long users;
+    private final int links;
+    private final long clicks;
+    private final long seed;
+    private final double linkZipf;
+    private final double ownerZipf;
+    private final int threads;
+    private final int batchSize;
+    private final int chunkSize;
+    private final Duration window;
+    private final Duration clickDecay;
+    private final String until;
+    private final String password;
+    private final boolean exitWhenDone;
+
+    private final int[] clientCdf = cdf(CLIENTS.stream().mapToInt(Client::weight).toArray());
+    private final int[] refererCdf = cdf(REFERERS.stream().mapToInt(Referer::weight).toArray());
+    private Integer[] clientIds;
+    private Integer[] refererIds;
+    private Integer[] tailRefererIds;
+
+    public DatasetGenerator(
+            JdbcTemplate jdbcTemplate,
+            ShortCodeCodec shortCodeCodec,
+            ClickDimensionService dimensions,
+            PasswordEncoder passwordEncoder,
+            ApplicationContext context,
+            @Value("${datagen.users:1000}") long users,
+            @Value("${datagen.links:100000}") int links,
+            @Value("${datagen.clicks:1000000}") long clicks,
+            @Value("${datagen.seed:42}") long seed,
+            @Value("${datagen.zipf:1.0}") double linkZipf,
+            @Value("${datagen.owner-zipf:0.8}") double ownerZipf,
+            @Value("${datagen.threads:8}") int threads,
+            @Value("${datagen.batch-size:1000}") int batchSize,
+            @Value("${datagen.chunk-size:100000}") int chunkSize,
+            @Value("${datagen.days:365}") long days,
+            @Value("${datagen.click-decay-days:14}") long clickDecayDays,
+            @Value("${datagen.until:}") String until,
+            @Value("${datagen.password:datagen}") String password,
+            @Value("${datagen.exit:true}") boolean exitWhenDone
+    ) {
+        if (links > 0 && users < 1) {
+            throw new IllegalArgumentException("datagen.links needs at least one user (datagen.users >= 1)");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.shortCodeCodec = shortCodeCodec;
+        this.dimensions = dimensions;
+        this.passwordEncoder = passwordEncoder;
+        this.context = context;
+        this.users = users;
+        this.links = links;
+        this.clicks = links > 0 ? clicks : 0;
+        this.seed = seed;
+        this.linkZipf = linkZipf;
+        this.ownerZipf = ownerZipf;
+        this.threads = Math.max(1, threads);
+        this.batchSize = Math.max(1, batchSize);
+        this.chunkSize = Math.max(this.batchSize, chunkSize);
+        this.window = Duration.ofDays(Math.max(1, days));
+        this.clickDecay = Duration.ofDays(Math.max(1, clickDecayDays));
+        this.until = until;
+        this.password = password;
+        this.exitWhenDone = exitWhenDone;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        long userBase = maxId("users");
+        long linkBase = maxId("url_mapping");
+        LocalDateTime end = until.isBlank()
+                ? LocalDateTime.now().truncatedTo(ChronoUnit.HOURS)
+                : LocalDateTime.parse(until);
+        LocalDateTime start = end.minus(window);
+        log.info("Generating {} users (after id {}), {} links (after id {}), {} clicks; seed={} zipf={} window={}..{}",
+                users, userBase, links, linkBase, clicks, seed, linkZipf, start, end);
+
+        long began = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            internDimensions();
+            generateUsers(pool, userBase, start);
+            generateLinks(pool, userBase, linkBase, start);
+            generateClicks(pool, linkBase, start, end);
+        } finally {
+            pool.shutdownNow();
+        }
+        log.info("Dataset generated in {}s", TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - began));
+
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+
+    // ============================================
+    // PHASES
+    // ============================================
+    private void generateUsers(ExecutorService pool, long userBase, LocalDateTime start) throws Exception {
+        String hash = passwordEncoder.encode(password); // one hash: every generated user shares the password
+        long windowSeconds = window.toSeconds();
+        runChunks(pool, "users", 1, users, (random, from, to, batch) -> {
+            for (long i = from; i < to; i++) {
+                long id = userBase + 1 + i;
+                // accounts predate the links: spread over the window before it
+                LocalDateTime created = start.minusSeconds(windowSeconds - windowSeconds * i / users);
+                batch.add(id, "gen" + id + "@example.com", "gen" + id, hash, Timestamp.valueOf(created));
+            }
+        }, USER_SQL);
+    }
+
+    private void generateLinks(ExecutorService pool, long userBase, long linkBase, LocalDateTime start) throws Exception {
+        ZipfSampler owners = new ZipfSampler((int) Math.min(Integer.MAX_VALUE, users), ownerZipf);
+        ZipfSampler sites = new ZipfSampler(SITES, 1.0);
+        runChunks(pool, "links", 2, links, (random, from, to, batch) -> {
+            for (long i = from; i < to; i++) {
+                long id = linkBase + 1 + i;
+                String url = "https://site" + sites.next(random) + ".example.com/p/" + Long.toString(id, 36);
+                Timestamp created = Timestamp.valueOf(linkCreated(start, i));
+                batch.add(id, url, UrlNormalizer.hash(url), shortCodeCodec.encode(id), created, created,
+                        userBase + 1 + owners.next(random));
+            }
+        }, LINK_SQL);
+    }
+
+    private void generateClicks(ExecutorService pool, long linkBase, LocalDateTime start, LocalDateTime end) throws Exception {
+        ZipfSampler popularity = new ZipfSampler(links, linkZipf);
+        ZipfSampler tail = new ZipfSampler(TAIL_HOSTS, 1.0);
+        long stride = stride(links);
+        long decaySeconds = clickDecay.toSeconds();
+        AtomicIntegerArray counts = new AtomicIntegerArray(links);
+
+        runChunks(pool, "clicks", 3, clicks, (random, from, to, batch) -> {
+            for (long i = from; i < to; i++) {
+                // scatter popularity ranks over ids so hot links are not simply the oldest ones
+                int index = (int) (popularity.next(random) * stride % links);
+                counts.incrementAndGet(index);
+                LocalDateTime clickDate = clickDate(random, linkCreated(start, index), end, decaySeconds);
+
+                int c = pick(clientCdf, random);
+                Client client = CLIENTS.get(c);
+                Integer clientId = clientIds[c];
+                int r = pick(refererCdf, random, TAIL_REFERER_WEIGHT);
+                String referer;
+                String refererHost;
+                Integer refererId;
+                if (r < REFERERS.size()) {
+                    referer = REFERERS.get(r).url();
+                    refererHost = REFERERS.get(r).host();
+                    refererId = refererIds[r];
+                } else {
+                    int host = tail.next(random);
+                    refererHost = "blog" + host + ".example.net";
+                    referer = "https://" + refererHost + "/";
+                    refererId = tailRefererIds[host];
+                }
+
+                batch.add(linkBase + 1 + index, Timestamp.valueOf(clickDate), ip(random),
+                        clientId, refererId,
+                        clientId == null ? client.userAgent() : null,
+                        refererId == null ? referer : null,
+                        refererHost, client.deviceType(), client.browser(), client.os(), client.bot());
+            }
+        }, CLICK_SQL);
+
+        runChunks(pool, "click counts", 4, links, (random, from, to, batch) -> {
+            for (long i = from; i < to; i++) {
+                int count = counts.get((int) i);
+                if (count > 0) {
+                    batch.add(count, linkBase + 1 + i);
+                }
+            }
+        }, COUNT_SQL);
+
+        runChunks(pool, "daily totals (link ranges)", 5, links,
+                (random, from, to, batch) -> batch.add(linkBase + 1 + from, linkBase + to), DAILY_SQL);
+    }
+
+    // ============================================
+    // CHUNKED, SEEDED EXECUTION
+    // ============================================
+    @FunctionalInterface
+    private interface ChunkWriter {
+        void write(Random random, long from, long to, Batch batch);
+    }
+
+    private final class Batch {
+        private final String sql;
+        private final AtomicLong written;
+        private final List<Object[]> rows = new ArrayList<>(batchSize);
+
+        Batch(String sql, AtomicLong written) {
+            this.sql = sql;
+            this.written = written;
+        }
+
+        void add(Object... row) {
+            rows.add(row);
+            if (rows.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(sql, rows);
+                written.addAndGet(rows.size());
+                rows.clear();
+            }
+        }
+    }
+
+    private void runChunks(ExecutorService pool, String phase, int salt, long rows, ChunkWriter writer, String sql)
+            throws InterruptedException, ExecutionException {
+        if (rows <= 0) {
+            return;
+        }
+        AtomicLong written = new AtomicLong();
+        List<Future<?>> futures = new ArrayList<>();
+        for (long from = 0, chunk = 0; from < rows; from += chunkSize, chunk++) {
+            long chunkFrom = from;
+            long chunkTo = Math.min(rows, from + chunkSize);
+            Random random = new Random(mix(seed, salt, chunk));
+            futures.add(pool.submit(() -> {
+                Batch batch = new Batch(sql, written);
+                writer.write(random, chunkFrom, chunkTo, batch);
+                batch.flush();
+            }));
+        }
+
+        long began = System.nanoTime();
+        long lastLog = began;
+        for (Future<?> future : futures) {
+            future.get();
+            long now = System.nanoTime();
+            if (now - lastLog > TimeUnit.SECONDS.toNanos(10)) {
+                long done = written.get();
+                log.info("{}: {} rows ({} rows/s)", phase, done, done * 1_000_000_000L / Math.max(1, now - began));
+                lastLog = now;
+            }
+        }
+        log.info("{}: {} rows in {}s", phase, written.get(), TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - began));
+    }
+
+    // ============================================
+    // DISTRIBUTIONS
+    // ============================================
+
+    /** Links are created evenly across the window, in id order. */
+    private LocalDateTime linkCreated(LocalDateTime start, long index) {
+        return start.plusSeconds(window.toSeconds() * index / links);
+    }
+
+    /**
+     * Exponentially decaying interest after creation, folded back into the time the link has
+     * existed, thinned by the hour-of-day curve (a few redraws, then take what we have).
+     */
+    private static LocalDateTime clickDate(Random random, LocalDateTime created, LocalDateTime end, long decaySeconds) {
+        long maxAge = Math.max(0, Duration.between(created, end).toSeconds());
+        LocalDateTime date = created;
+        for (int attempt = 0; attempt < 4; attempt++) {
+            long age = (long) (-Math.log(1 - random.nextDouble()) * decaySeconds);
+            date = created.plusSeconds(maxAge == 0 ? 0 : age % maxAge);
+            if (random.nextDouble() < DIURNAL[date.getHour()]) {
+                break;
+            }
+        }
+        return date;
+    }
+
+    private static String ip(Random random) {
+        return (1 + random.nextInt(223)) + "." + random.nextInt(256) + "." + random.nextInt(256) + "." + (1 + random.nextInt(254));
+    }
+
+    /** Interns the fixed user-agent and referer values once, so click rows carry dimension ids. */
+    private void internDimensions() {
+        clientIds = CLIENTS.stream().map(c -> dimensions.userAgentId(c.userAgent())).toArray(Integer[]::new);
+        refererIds = REFERERS.stream().map(r -> dimensions.refererId(r.url())).toArray(Integer[]::new);
+        tailRefererIds = new Integer[TAIL_HOSTS];
+        for (int host = 0; host < TAIL_HOSTS; host++) {
+            tailRefererIds[host] = dimensions.refererId("https://blog" + host + ".example.net/");
+        }
+    }
+
+    private static int[] cdf(int[] weights) {
+        int[] cdf = new int[weights.length];
+        int sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            cdf[i] = sum;
+        }
+        return cdf;
+    }
+
+    private static int pick(int[] cdf, Random random) {
+        return pick(cdf, random, 0);
+    }
+
+    // index into cdf, or cdf.length when the draw lands in the extra weight
+    private static int pick(int[] cdf, Random random, int extraWeight) {
+        int draw = random.nextInt(cdf[cdf.length - 1] + extraWeight);
+        int index = Arrays.binarySearch(cdf, draw + 1);
+        return index < 0 ? -index - 1 : index;
+    }
+
+    // a step coprime with n, so rank * stride mod n visits every index once
+    private static long stride(long n) {
+        long stride = Math.max(1, (long) (n * 0.6180339887));
+        while (gcd(stride, n) != 1) {
+            stride++;
+        }
+        return stride;
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    // splitmix64 finalizer over (seed, phase, chunk)
+    private static long mix(long seed, int salt, long chunk) {
+        long z = seed + salt * 0x9e3779b97f4a7c15L + chunk * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private long maxId(String table) {
+        Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        return max == null ? 0 : max;
+    }
+}
@@ -0,0 +1,97 @@
+package com.url.shortener.dimension;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Dictionary encoding for the wide, low-cardinality click_event columns.
+ * <p>
+ * Clicks store user_agent_id / referer_id instead of the full strings; the legacy
+ * user_agent / referer columns are only written when a value is not interned, and
+ * analytics queries COALESCE the two, so old and new rows read the same.
+ */
+@Service
+@Slf4j
+public class ClickDimensionService {
+
+    private final DimensionDictionary userAgents;
+    private final DimensionDictionary referers;
+
+    public ClickDimensionService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${clickdim.max-entries:50000}") int maxEntries,
+            @Value("${clickdim.max-value-length:2048}") int maxValueLength,
+            @Value("${clickdim.max-stand-ins:4096}") int maxStandIns
+    ) {
+        TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.userAgents = new DimensionDictionary("user_agent_dim", jdbcTemplate, requiresNew, meterRegistry, maxEntries, maxValueLength, maxStandIns);
+        this.referers = new DimensionDictionary("referer_dim", jdbcTemplate, requiresNew, meterRegistry, maxEntries, maxValueLength, maxStandIns);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        try {
+            userAgents.warm();
+            referers.warm();
+            log.info("Click dimensions loaded: {} user agents, {} referers", userAgents.size(), referers.size());
+        } catch (RuntimeException e) {
+            log.warn("Could not preload click dimensions: {}", e.getMessage());
+        }
+    }
+
+    public Integer userAgentId(String userAgent) {
+        return userAgents.idFor(userAgent);
+    }
+
+    public Integer refererId(String referer) {
+        return referers.idFor(referer);
+    }
+
+    /**
+     * Cache-only lookups, for redirects whose clicks go through the journal (misses become
+     * stand-ins the consumer interns) or when the database is known to be unavailable.
+     */
+    public Integer cachedUserAgentId(String userAgent) {
+        return userAgents.cachedIdFor(userAgent);
+    }
+
+    public Integer cachedRefererId(String referer) {
+        return referers.cachedIdFor(referer);
+    }
+
+    /** Negative stand-in ids for values the journal cannot carry by id (see {@link DimensionDictionary}). */
+    public Integer standInUserAgentId(String userAgent) {
+        return userAgents.standInIdFor(userAgent);
+    }
+
+    public Integer standInRefererId(String referer) {
+        return referers.standInIdFor(referer);
+    }
+
+    public DimensionDictionary userAgents() {
+        return userAgents;
+    }
+
+    public DimensionDictionary referers() {
+        return referers;
+    }
+
+    public String userAgent(Integer id) {
+        return userAgents.valueFor(id);
+    }
+
+    public String referer(Integer id) {
+        return referers.valueFor(id);
+    }
+}
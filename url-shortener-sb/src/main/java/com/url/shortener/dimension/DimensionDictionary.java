@@ -0,0 +1,248 @@
+package com.url.shortener.dimension;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bidirectional string &lt;-&gt; id cache over one dimension table (id, value_hash, value).
+ * <p>
+ * Known values resolve from memory; a new value costs one lookup / insert in its own
+ * transaction, after which every thread sees the cached id. The cache holds at most
+ * {@code maxEntries} values and evicts with a CLOCK hand: a value looked up since the hand
+ * last passed it gets a second chance, so hot user agents stay cached while a flood of
+ * one-off values only churns the cold ones. An evicted value keeps its row and is found
+ * again on a miss.
+ * <p>
+ * The click journal stores ids only, so a value without one travels under a negative
+ * stand-in id ({@link #standInIdFor}) that the journal consumer maps back with
+ * {@link #standInValue}, then interns or stores inline once the database is reachable.
+ * At most {@code maxStandIns} are outstanding at a time.
+ */
+public class DimensionDictionary {
+
+    private static final class Slot {
+        final int id;
+        volatile boolean referenced;
+
+        Slot(int id) {
+            this.id = id;
+        }
+    }
+
+    private final String table;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate requiresNew;
+    private final int maxEntries;
+    private final int maxValueLength;
+    private final int maxStandIns;
+
+    private final ConcurrentHashMap<String, Slot> ids = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, String> values = new ConcurrentHashMap<>();
+    // CLOCK ring over the cached values; guarded by this
+    private final String[] ring;
+    private int used;
+    private int hand;
+
+    private final ConcurrentHashMap<String, Integer> standInIds = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, String> standInValues = new ConcurrentHashMap<>();
+    private final AtomicInteger lastStandIn = new AtomicInteger();
+
+    private final Counter misses;
+    private final Counter evictions;
+    private final Counter overflows;
+
+    public DimensionDictionary(String table,
+                               JdbcTemplate jdbcTemplate,
+                               TransactionTemplate requiresNew,
+                               MeterRegistry meterRegistry,
+                               int maxEntries,
+                               int maxValueLength,
+                               int maxStandIns) {
+        this.table = table;
+        this.jdbcTemplate = jdbcTemplate;
+        this.requiresNew = requiresNew;
+        this.maxEntries = maxEntries;
+        this.maxValueLength = maxValueLength;
+        this.maxStandIns = maxStandIns;
+        this.ring = new String[Math.max(0, maxEntries)];
+        this.misses = meterRegistry.counter("clickdim.misses", "table", table);
+        this.evictions = meterRegistry.counter("clickdim.evictions", "table", table);
+        this.overflows = meterRegistry.counter("clickdim.overflows", "table", table);
+        meterRegistry.gauge("clickdim.entries", Tags.of("table", table), ids, ConcurrentHashMap::size);
+    }
+
+    /** Loads up to maxEntries existing rows so a restart does not hit the table per value. */
+    public void warm() {
+        jdbcTemplate.query("SELECT id, value FROM " + table + " ORDER BY id LIMIT " + maxEntries, rs -> {
+            cache(rs.getString(2), rs.getInt(1));
+        });
+    }
+
+    /**
+     * @return the id of {@code value}, interning it if needed; null for blank values,
+     * values longer than maxValueLength, or when the database cannot be reached
+     */
+    public Integer idFor(String value) {
+        if (value == null || value.isBlank() || value.length() > maxValueLength) {
+            return null;
+        }
+        Integer id = cachedIdFor(value);
+        if (id != null) {
+            return id;
+        }
+        misses.increment();
+        try {
+            id = requiresNew.execute(status -> lookupOrInsert(value));
+        } catch (RuntimeException e) {
+            return null; // keep the click; the value is stored inline instead
+        }
+        cache(value, id);
+        return id;
+    }
+
+    /** Cache-only variant of {@link #idFor}: never touches the database. */
+    public Integer cachedIdFor(String value) {
+        Slot slot = value == null ? null : ids.get(value);
+        if (slot == null) {
+            return null;
+        }
+        if (!slot.referenced) {
+            slot.referenced = true;
+        }
+        return slot.id;
+    }
+
+    /**
+     * @return a negative id standing in for {@code value} until {@link #retire} is called;
+     * null for blank or overlong values, or when {@code maxStandIns} are outstanding
+     */
+    public Integer standInIdFor(String value) {
+        if (value == null || value.isBlank() || value.length() > maxValueLength) {
+            return null;
+        }
+        Integer id = standInIds.get(value);
+        if (id != null) {
+            return id;
+        }
+        if (standInValues.size() >= maxStandIns) {
+            overflows.increment();
+            return null;
+        }
+        return standInIds.computeIfAbsent(value, v -> {
+            int standIn = -1 - (lastStandIn.getAndIncrement() & Integer.MAX_VALUE);
+            standInValues.put(standIn, v);
+            return standIn;
+        });
+    }
+
+    public String standInValue(int id) {
+        return standInValues.get(id);
+    }
+
+    /** Stops handing out {@code id}; it still resolves until {@link #forget} is called. */
+    public void retire(int id) {
+        String value = standInValues.get(id);
+        if (value != null) {
+            standInIds.remove(value, id);
+        }
+    }
+
+    public void forget(int id) {
+        standInValues.remove(id);
+    }
+
+    public String valueFor(Integer id) {
+        if (id == null) {
+            return null;
+        }
+        String value = values.get(id);
+        if (value == null) {
+            List<String> found = jdbcTemplate.queryForList("SELECT value FROM " + table + " WHERE id = ?", String.class, id);
+            value = found.isEmpty() ? null : found.get(0);
+            if (value != null) {
+                cache(value, id);
+            }
+        }
+        return value;
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    // Only misses get here (after a database round trip), so the lock stays off the hit path
+    private synchronized void cache(String value, int id) {
+        if (ring.length == 0 || ids.containsKey(value)) {
+            return;
+        }
+        int at;
+        if (used < ring.length) {
+            at = used++;
+        } else {
+            Slot slot;
+            while ((slot = ids.get(ring[hand])) != null && slot.referenced) {
+                slot.referenced = false; // second chance
+                hand = (hand + 1) % ring.length;
+            }
+            ids.remove(ring[hand]);
+            if (slot != null) {
+                values.remove(slot.id, ring[hand]);
+            }
+            evictions.increment();
+            at = hand;
+            hand = (hand + 1) % ring.length;
+        }
+        ring[at] = value;
+        ids.put(value, new Slot(id));
+        values.put(id, value);
+    }
+
+    private Integer lookupOrInsert(String value) {
+        byte[] hash = sha256(value);
+        Integer existing = find(hash);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            KeyHolder keys = new GeneratedKeyHolder();
+            jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(
+                        "INSERT INTO " + table + " (value_hash, value) VALUES (?, ?)", Statement.RETURN_GENERATED_KEYS);
+                ps.setBytes(1, hash);
+                ps.setString(2, value);
+                return ps;
+            }, keys);
+            return keys.getKey().intValue();
+        } catch (DuplicateKeyException e) {
+            return find(hash); // another node interned it first
+        }
+    }
+
+    private Integer find(byte[] hash) {
+        List<Integer> found = jdbcTemplate.queryForList("SELECT id FROM " + table + " WHERE value_hash = ?", Integer.class, (Object) hash);
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.url.shortener.domain;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Host header -&gt; slug namespace, without a database lookup per request.
+ * <p>
+ * The active rows of {@code short_domain} are loaded into an immutable map that is
+ * swapped in whole on every reload, so readers never lock and never see a half-built
+ * table. Hosts that are not listed (including the primary host) resolve to the
+ * default namespace {@code ""}, which is where links created before domains existed live.
+ */
+@Component
+@Slf4j
+public class DomainTable {
+
+    /** Namespace of the primary host and of every unlisted host. */
+    public static final String DEFAULT = "";
+
+    /**
+     * One namespace: its host (the value stored in url_mapping.domain), slug cache
+     * budget and redirect counter.
+     */
+    public record Domain(String host, String brand, int cacheMaxEntries, Counter redirects) {
+
+        public boolean isDefault() {
+            return DEFAULT.equals(host);
+        }
+
+        public String tag() {
+            return isDefault() ? "default" : host;
+        }
+    }
+
+    private static final String LOAD_SQL = """
+            SELECT host, brand, cache_max_entries
+              FROM short_domain
+             WHERE active = true
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int defaultCacheEntries;
+    private final Domain defaultDomain;
+
+    private volatile Map<String, Domain> hosts = Map.of();
+
+    public DomainTable(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${domains.cache.max-entries:10000}") int defaultCacheEntries
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.defaultCacheEntries = defaultCacheEntries;
+        this.defaultDomain = domain(DEFAULT, null, null);
+        meterRegistry.gauge("domains.count", this, table -> table.hosts.size());
+    }
+
+    /** Namespace for a request's Host (port and case ignored). */
+    public Domain resolve(String host) {
+        Map<String, Domain> current = hosts;
+        if (host == null || current.isEmpty()) {
+            return defaultDomain;
+        }
+        Domain domain = current.get(host);
+        return domain != null ? domain : current.getOrDefault(normalize(host), defaultDomain);
+    }
+
+    /**
+     * Namespace a new link is created in: the default for a blank host, otherwise the
+     * listed domain. Unknown hosts are rejected rather than silently defaulted.
+     */
+    public Domain forCreate(String host) {
+        if (host == null || host.isBlank()) {
+            return defaultDomain;
+        }
+        Domain domain = hosts.get(normalize(host));
+        if (domain == null) {
+            throw new RuntimeException("Unknown short domain: " + host);
+        }
+        return domain;
+    }
+
+    public Domain defaultDomain() {
+        return defaultDomain;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+            initialDelayString = "${domains.reload-interval-ms:30000}",
+            fixedDelayString = "${domains.reload-interval-ms:30000}"
+    )
+    public void reload() {
+        try {
+            Map<String, Domain> loaded = new HashMap<>();
+            jdbcTemplate.query(LOAD_SQL, rs -> {
+                String host = normalize(rs.getString("host"));
+                int cacheEntries = rs.getInt("cache_max_entries");
+                loaded.put(host, domain(host, rs.getString("brand"), rs.wasNull() ? null : cacheEntries));
+            });
+            if (!loaded.equals(hosts)) {
+                hosts = Map.copyOf(loaded);
+                log.info("Short domains loaded: {}", loaded.keySet());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not reload short domains, keeping {}: {}", hosts.keySet(), e.getMessage());
+        }
+    }
+
+    private Domain domain(String host, String brand, Integer cacheEntries) {
+        Counter redirects = meterRegistry.counter("domain.redirects", "domain", host.isEmpty() ? "default" : host);
+        return new Domain(host, brand, cacheEntries != null ? cacheEntries : defaultCacheEntries, redirects);
+    }
+
+    // "Go.Brand.com:443" -> "go.brand.com"
+    static String normalize(String host) {
+        String value = host.trim();
+        int colon = value.lastIndexOf(':');
+        if (colon > 0 && value.indexOf(']') < colon) {
+            value = value.substring(0, colon);
+        }
+        return value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,106 @@
+package com.url.shortener.domain;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Slug -&gt; url_mapping id for aliases and legacy codes, partitioned by domain.
+ * <p>
+ * Each domain gets its own partition bounded by {@link DomainTable.Domain#cacheMaxEntries()},
+ * so one brand's viral traffic can only churn its own partition. A full partition evicts
+ * with second-chance (CLOCK) sweeps: entries hit since the last sweep survive one more.
+ * Ids are hints only; callers re-check the loaded row and {@link #evict} stale ones.
+ */
+@Component
+public class SlugCache {
+
+    private static final class Slot {
+        final long id;
+        volatile boolean referenced;
+
+        Slot(long id) {
+            this.id = id;
+        }
+    }
+
+    private final class Partition {
+        final ConcurrentHashMap<String, Slot> slots = new ConcurrentHashMap<>();
+        final Counter hits;
+        final Counter misses;
+        final Counter evictions;
+
+        Partition(String tag) {
+            Tags tags = Tags.of("domain", tag);
+            this.hits = meterRegistry.counter("domain.cache.hits", tags);
+            this.misses = meterRegistry.counter("domain.cache.misses", tags);
+            this.evictions = meterRegistry.counter("domain.cache.evictions", tags);
+            meterRegistry.gauge("domain.cache.size", tags, slots, Map::size);
+        }
+
+        // drop unreferenced slots until about a tenth of the budget is free
+        synchronized void sweep(int maxEntries) {
+            int target = maxEntries - Math.max(1, maxEntries / 10);
+            for (int pass = 0; pass < 2 && slots.size() > target; pass++) {
+                Iterator<Slot> it = slots.values().iterator();
+                while (it.hasNext() && slots.size() > target) {
+                    Slot slot = it.next();
+                    if (slot.referenced) {
+                        slot.referenced = false;
+                    } else {
+                        it.remove();
+                        evictions.increment();
+                    }
+                }
+            }
+        }
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, Partition> partitions = new ConcurrentHashMap<>();
+
+    public SlugCache(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /** @return the cached mapping id, or null */
+    public Long get(DomainTable.Domain domain, String slug) {
+        Partition partition = partition(domain);
+        Slot slot = partition.slots.get(slug);
+        if (slot == null) {
+            partition.misses.increment();
+            return null;
+        }
+        if (!slot.referenced) {
+            slot.referenced = true;
+        }
+        partition.hits.increment();
+        return slot.id;
+    }
+
+    public void put(DomainTable.Domain domain, String slug, long id) {
+        int maxEntries = domain.cacheMaxEntries();
+        if (maxEntries <= 0) {
+            return;
+        }
+        Partition partition = partition(domain);
+        if (partition.slots.size() >= maxEntries) {
+            partition.sweep(maxEntries);
+        }
+        partition.slots.put(slug, new Slot(id));
+    }
+
+    public void evict(DomainTable.Domain domain, String slug) {
+        partition(domain).slots.remove(slug);
+    }
+
+    private Partition partition(DomainTable.Domain domain) {
+        Partition partition = partitions.get(domain.host());
+        return partition != null ? partition : partitions.computeIfAbsent(domain.host(), host -> new Partition(domain.tag()));
+    }
+}
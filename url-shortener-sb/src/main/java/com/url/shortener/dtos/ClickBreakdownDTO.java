@@ -0,0 +1,28 @@
+package com.url.shortener.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClickBreakdownDTO {
+
+    private long totalClicks;
+
+    // value -> clicks, largest first (top N per dimension)
+    private Map<String, Long> browsers;
+    private Map<String, Long> operatingSystems;
+    private Map<String, Long> deviceTypes;
+    private Map<String, Long> countries;
+    private Map<String, Long> refererHosts;
+    private Map<String, Long> variants; // routing rule arms; "default" = the link's own URL
+
+    // 0..23 -> clicks
+    private Map<Integer, Long> hourOfDay;
+}
@@ -0,0 +1,17 @@
+package com.url.shortener.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClickDeltaBatchDTO {
+
+    private LocalDateTime windowEnd;
+    private List<ClickDeltaDTO> deltas;
+}
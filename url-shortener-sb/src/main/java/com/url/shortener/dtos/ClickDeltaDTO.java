@@ -0,0 +1,14 @@
+package com.url.shortener.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClickDeltaDTO {
+
+    private String shortUrl;
+    private long clicks; // clicks since the previous batch
+}
@@ -33,4 +33,6 @@ public class ClickEventDTO {
 
     private Integer responseStatus;
     private Integer latencyMs;
+
+    private Integer samplingWeight; // clicks this event stands for (> 1 when the link was sampled)
 }
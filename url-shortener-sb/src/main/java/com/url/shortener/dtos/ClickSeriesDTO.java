@@ -0,0 +1,22 @@
+package com.url.shortener.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClickSeriesDTO {
+
+    private String resolution; // 1m / 5m / 1h
+    private LocalDateTime start; // start of the first bucket
+    private int stepMinutes;
+
+    // clicks per bucket, oldest first; the last bucket is still filling
+    private long[] clicks;
+}
@@ -0,0 +1,25 @@
+package com.url.shortener.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportJobDTO {
+
+    private Long jobId;
+    private String status;
+
+    private long linesProcessed; // resume checkpoint
+    private long imported;
+    private long failed;
+
+    // first rejected lines of this run, e.g. "line 12: invalid URL"
+    private List<String> errors;
+}
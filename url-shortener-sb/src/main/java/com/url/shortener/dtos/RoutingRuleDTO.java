@@ -0,0 +1,28 @@
+package com.url.shortener.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoutingRuleDTO {
+
+    private Long id;
+    private Integer priority;
+    private String variant;
+    private String destinationUrl;
+    private Integer weight;
+
+    // conditions; null = any
+    private String countryCode;
+    private String deviceType;
+    private String os;
+    private LocalDateTime activeFrom;
+    private LocalDateTime activeUntil;
+}
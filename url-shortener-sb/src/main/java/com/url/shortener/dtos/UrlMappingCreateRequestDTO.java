@@ -12,6 +12,9 @@ public class UrlMappingCreateRequestDTO {
     // optional Custom slug url
     private String customAlias;
 
+    // optional short domain host (e.g. "go.brand.com"); aliases are unique per domain
+    private String domain;
+
     // optional expiration
     private LocalDateTime expiresAt;
 
@@ -21,4 +24,8 @@ public class UrlMappingCreateRequestDTO {
 
     // optional category (user assigned or AI-generated)
     private String category;
+
+    // optional: return the caller's existing link for the same destination
+    // instead of creating a new one (defaults to shortener.dedupe.default)
+    private Boolean idempotent;
 }
@@ -16,6 +16,7 @@ public class UrlMappingDTO {
     private Long id;
     private String originalUrl;
     private String shortUrl;
+    private String domain;
     private String customAlias;
     private boolean isCustom;
 
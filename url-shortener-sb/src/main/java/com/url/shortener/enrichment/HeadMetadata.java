@@ -0,0 +1,13 @@
+package com.url.shortener.enrichment;
+
+/**
+ * Metadata scraped from a page's {@code <head>}. Any field may be null.
+ */
+public record HeadMetadata(String title, String description, String category) {
+
+    public static final HeadMetadata EMPTY = new HeadMetadata(null, null, null);
+
+    public boolean isEmpty() {
+        return title == null && description == null && category == null;
+    }
+}
@@ -0,0 +1,165 @@
+package com.url.shortener.enrichment;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads just enough of an HTML document to extract title / description / category.
+ * <p>
+ * The stream is consumed chunk by chunk and reading stops as soon as {@code </head>}
+ * (or an opening {@code <body}) shows up, or when the byte budget is used up.
+ * The caller closes the stream afterwards, which aborts the rest of the download.
+ */
+public class HeadMetadataParser {
+
+    private static final int CHUNK = 4096;
+    private static final int MAX_TITLE = 255;
+    private static final int MAX_DESCRIPTION = 2000;
+    private static final int MAX_CATEGORY = 255;
+
+    private static final Pattern TITLE = Pattern.compile("<title[^>]*>(.*?)</title>", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern META = Pattern.compile("<meta\\s[^>]*>", Pattern.CASE_INSENSITIVE);
+    private static final Pattern ATTR = Pattern.compile("([a-zA-Z:_-]+)\\s*=\\s*(\"([^\"]*)\"|'([^']*)'|([^\\s>]+))");
+    private static final Pattern CHARSET = Pattern.compile("charset\\s*=\\s*[\"']?([a-zA-Z0-9_-]+)", Pattern.CASE_INSENSITIVE);
+
+    private final int maxBytes;
+
+    public HeadMetadataParser(int maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public HeadMetadata parse(InputStream in, Charset declaredCharset) throws IOException {
+        byte[] buf = new byte[Math.min(maxBytes, CHUNK * 4)];
+        int len = 0;
+        while (len < maxBytes) {
+            if (len == buf.length) {
+                buf = Arrays.copyOf(buf, Math.min(maxBytes, buf.length * 2));
+            }
+            int n = in.read(buf, len, Math.min(CHUNK, buf.length - len));
+            if (n < 0) {
+                break;
+            }
+            int scanFrom = Math.max(0, len - 6);
+            len += n;
+            int end = headEnd(buf, scanFrom, len);
+            if (end >= 0) {
+                len = end;
+                break;
+            }
+        }
+
+        // ASCII-safe first pass to find a <meta charset>, then decode properly
+        String ascii = new String(buf, 0, len, StandardCharsets.ISO_8859_1);
+        Charset charset = declaredCharset != null ? declaredCharset : sniffCharset(ascii);
+        String head = charset.equals(StandardCharsets.ISO_8859_1) ? ascii : new String(buf, 0, len, charset);
+        return extract(head);
+    }
+
+    // Position of "</head" or "<body" (ASCII, case-insensitive) in buf[from, to), or -1
+    static int headEnd(byte[] buf, int from, int to) {
+        for (int i = from; i < to - 4; i++) {
+            if (buf[i] != '<') {
+                continue;
+            }
+            if (i + 5 < to && buf[i + 1] == '/' && matches(buf, i + 2, "head")) {
+                return i;
+            }
+            if (matches(buf, i + 1, "body")) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean matches(byte[] buf, int at, String lower) {
+        if (at + lower.length() > buf.length) {
+            return false;
+        }
+        for (int k = 0; k < lower.length(); k++) {
+            if ((buf[at + k] | 0x20) != lower.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Charset sniffCharset(String ascii) {
+        Matcher m = CHARSET.matcher(ascii);
+        if (m.find()) {
+            try {
+                return Charset.forName(m.group(1));
+            } catch (RuntimeException ignored) {
+                // unknown charset name, fall through
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    private static HeadMetadata extract(String head) {
+        Map<String, String> meta = new HashMap<>();
+        Matcher tag = META.matcher(head);
+        while (tag.find()) {
+            Map<String, String> attrs = attributes(tag.group());
+            String key = attrs.getOrDefault("property", attrs.get("name"));
+            String content = attrs.get("content");
+            if (key != null && content != null) {
+                meta.putIfAbsent(key.toLowerCase(Locale.ROOT), content);
+            }
+        }
+
+        String title = null;
+        Matcher t = TITLE.matcher(head);
+        if (t.find()) {
+            title = t.group(1);
+        }
+        if (isBlank(title)) {
+            title = meta.get("og:title");
+        }
+        String description = meta.getOrDefault("description", meta.get("og:description"));
+        String category = meta.getOrDefault("article:section", meta.get("og:type"));
+
+        return new HeadMetadata(
+                clean(title, MAX_TITLE),
+                clean(description, MAX_DESCRIPTION),
+                clean(category, MAX_CATEGORY)
+        );
+    }
+
+    private static Map<String, String> attributes(String tag) {
+        Map<String, String> attrs = new HashMap<>();
+        Matcher a = ATTR.matcher(tag);
+        while (a.find()) {
+            String value = a.group(3) != null ? a.group(3) : a.group(4) != null ? a.group(4) : a.group(5);
+            attrs.put(a.group(1).toLowerCase(Locale.ROOT), value);
+        }
+        return attrs;
+    }
+
+    private static String clean(String value, int maxLength) {
+        if (isBlank(value)) {
+            return null;
+        }
+        String text = value
+                .replaceAll("\\s+", " ")
+                .replace("&amp;", "&")
+                .replace("&lt;", "<")
+                .replace("&gt;", ">")
+                .replace("&quot;", "\"")
+                .replace("&#39;", "'")
+                .replace("&#x27;", "'")
+                .trim();
+        return text.length() > maxLength ? text.substring(0, maxLength) : text;
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.isBlank();
+    }
+}
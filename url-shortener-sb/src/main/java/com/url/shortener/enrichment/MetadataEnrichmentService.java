@@ -0,0 +1,327 @@
+package com.url.shortener.enrichment;
+
+import com.url.shortener.events.UrlMappingCreatedEvent;
+import com.url.shortener.security.OutboundUrlGuard;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Fills title / metaDescription / category for new short URLs in the background.
+ * <p>
+ * Creates only enqueue the row id. A bounded worker pool fetches each destination
+ * once, even when many rows point at it (in-flight requests are coalesced and recent
+ * results are reused), and the scraped fields are written back in JDBC batches.
+ * Values already set on the row (e.g. a user-assigned category) are never overwritten.
+ * <p>
+ * Only public addresses are fetched, and redirects are followed hop by hop through the
+ * {@link OutboundUrlGuard}. Only definite answers are remembered; a fetch that times out,
+ * fails to connect or gets a 5xx / 429 is retried on a later pass, up to {@code max-attempts}.
+ */
+@Service
+@Slf4j
+public class MetadataEnrichmentService {
+
+    private static final String UPDATE_SQL = """
+            UPDATE url_mapping
+               SET title = COALESCE(title, ?),
+                   meta_description = COALESCE(meta_description, ?),
+                   category = COALESCE(category, ?)
+             WHERE id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OutboundUrlGuard guard;
+    private final boolean enabled;
+    private final int flushBatchSize;
+    private final int maxAttempts;
+    private final Duration timeout;
+
+    private final HttpClient client;
+    private final HeadMetadataParser parser;
+    private final ThreadPoolExecutor workers;
+
+    // destination -> row ids waiting on the same fetch
+    private final ConcurrentHashMap<String, List<Long>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, HeadMetadata> recent;
+    private final Queue<PendingUpdate> pending = new ConcurrentLinkedQueue<>();
+    private final Queue<RetryFetch> retries = new ConcurrentLinkedQueue<>();
+
+    private final Counter coalesced;
+    private final Counter dropped;
+    private final MeterRegistry meterRegistry;
+
+    public MetadataEnrichmentService(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            OutboundUrlGuard guard,
+            @Value("${enrichment.enabled:true}") boolean enabled,
+            @Value("${enrichment.concurrency:8}") int concurrency,
+            @Value("${enrichment.queue-capacity:10000}") int queueCapacity,
+            @Value("${enrichment.max-head-bytes:65536}") int maxHeadBytes,
+            @Value("${enrichment.timeout-ms:5000}") long timeoutMs,
+            @Value("${enrichment.recent-cache-size:10000}") int recentCacheSize,
+            @Value("${enrichment.flush-batch-size:500}") int flushBatchSize,
+            @Value("${enrichment.max-attempts:3}") int maxAttempts
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.guard = guard;
+        this.enabled = enabled;
+        this.flushBatchSize = flushBatchSize;
+        this.maxAttempts = maxAttempts;
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.parser = new HeadMetadataParser(maxHeadBytes);
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .followRedirects(HttpClient.Redirect.NEVER) // every hop is checked in fetch()
+                .build();
+        this.workers = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "metadata-enrichment");
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.recent = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, HeadMetadata> eldest) {
+                return size() > recentCacheSize;
+            }
+        });
+
+        this.coalesced = meterRegistry.counter("enrichment.coalesced");
+        this.dropped = meterRegistry.counter("enrichment.dropped");
+        meterRegistry.gauge("enrichment.queue", workers.getQueue(), Queue::size);
+        meterRegistry.gauge("enrichment.pending.writes", pending, Queue::size);
+        meterRegistry.gauge("enrichment.retries", retries, Queue::size);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onUrlMappingCreated(UrlMappingCreatedEvent event) {
+        enqueue(event.mappingId(), event.originalUrl());
+    }
+
+    /**
+     * Schedules metadata lookup for a row. Never blocks the caller; when the
+     * pool is saturated the request is dropped and the row stays unenriched.
+     */
+    public void enqueue(long mappingId, String originalUrl) {
+        if (!enabled || originalUrl == null) {
+            return;
+        }
+        String key = originalUrl.trim();
+        HeadMetadata known = recent.get(key);
+        if (known != null) {
+            coalesced.increment();
+            addPending(mappingId, known);
+            return;
+        }
+        submit(key, List.of(mappingId), 1);
+    }
+
+    private void submit(String key, List<Long> mappingIds, int attempt) {
+        boolean[] leader = {false};
+        inFlight.compute(key, (k, ids) -> {
+            if (ids == null) {
+                ids = new ArrayList<>(mappingIds.size() + 1);
+                leader[0] = true;
+            }
+            ids.addAll(mappingIds);
+            return ids;
+        });
+        if (!leader[0]) {
+            coalesced.increment();
+            return;
+        }
+
+        try {
+            workers.execute(() -> fetchAndPublish(key, attempt));
+        } catch (RejectedExecutionException e) {
+            List<Long> ids = inFlight.remove(key);
+            dropped.increment(ids == null ? 1 : ids.size());
+        }
+    }
+
+    private void fetchAndPublish(String key, int attempt) {
+        HeadMetadata metadata = fetch(key);
+        if (metadata == null) {
+            // transient failure: not remembered, the waiting rows get another pass later
+            List<Long> ids = inFlight.remove(key);
+            if (ids != null && attempt < maxAttempts) {
+                retries.add(new RetryFetch(key, ids, attempt + 1));
+            } else if (ids != null) {
+                dropped.increment(ids.size());
+            }
+            return;
+        }
+        recent.put(key, metadata);
+        List<Long> ids = inFlight.remove(key);
+        if (ids != null) {
+            ids.forEach(id -> addPending(id, metadata));
+        }
+    }
+
+    /**
+     * Fetches and parses the page head, following redirects through the guard.
+     *
+     * @return the metadata ({@link HeadMetadata#EMPTY} when the page definitely has none
+     * or may not be fetched), or null after a transient failure worth retrying
+     */
+    private HeadMetadata fetch(String url) {
+        String outcome = "ok";
+        try {
+            URI uri = URI.create(url);
+            if (!OutboundUrlGuard.isHttp(uri)) {
+                outcome = "invalid";
+                return HeadMetadata.EMPTY;
+            }
+            for (int hop = 0; hop <= OutboundUrlGuard.MAX_REDIRECTS; hop++) {
+                if (!guard.permits(uri)) {
+                    outcome = "blocked";
+                    return HeadMetadata.EMPTY;
+                }
+                HttpRequest request = HttpRequest.newBuilder(uri)
+                        .GET()
+                        .timeout(timeout)
+                        .header("Accept", "text/html,application/xhtml+xml")
+                        .header("User-Agent", "ShortifyX-Preview/1.0")
+                        .build();
+                HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                // closing the body early aborts the rest of the transfer
+                try (InputStream body = response.body()) {
+                    URI next = OutboundUrlGuard.redirectTarget(uri, response);
+                    if (next != null) {
+                        uri = next;
+                        continue;
+                    }
+                    int status = response.statusCode();
+                    if (status >= 500 || status == 429) {
+                        outcome = "retry";
+                        return null;
+                    }
+                    String contentType = response.headers().firstValue("Content-Type").orElse("");
+                    if (status >= 300 || !contentType.toLowerCase(Locale.ROOT).contains("html")) {
+                        outcome = "skipped";
+                        return HeadMetadata.EMPTY;
+                    }
+                    return parser.parse(body, charsetOf(contentType));
+                }
+            }
+            outcome = "too_many_redirects";
+            return HeadMetadata.EMPTY;
+        } catch (IllegalArgumentException e) {
+            outcome = "invalid";
+            return HeadMetadata.EMPTY;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            outcome = "error";
+            return null;
+        } catch (Exception e) {
+            // timeouts, refused / reset connections, unresolvable hosts: may work next time
+            log.debug("Metadata fetch failed for {}: {}", url, e.toString());
+            outcome = "error";
+            return null;
+        } finally {
+            meterRegistry.counter("enrichment.fetches", "outcome", outcome).increment();
+        }
+    }
+
+    private static Charset charsetOf(String contentType) {
+        int i = contentType.toLowerCase(Locale.ROOT).indexOf("charset=");
+        if (i < 0) {
+            return null;
+        }
+        try {
+            return Charset.forName(contentType.substring(i + 8).replace("\"", "").trim());
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private void addPending(long mappingId, HeadMetadata metadata) {
+        if (!metadata.isEmpty()) {
+            pending.add(new PendingUpdate(mappingId, metadata));
+        }
+    }
+
+    // ============================================
+    // RETRIES
+    // ============================================
+    @Scheduled(
+            initialDelayString = "${enrichment.retry-interval-ms:60000}",
+            fixedDelayString = "${enrichment.retry-interval-ms:60000}"
+    )
+    public void retryFailed() {
+        // only what failed before this pass; fetches failing again now wait for the next one
+        for (int n = retries.size(); n > 0; n--) {
+            RetryFetch retry = retries.poll();
+            if (retry == null) {
+                break;
+            }
+            submit(retry.key(), retry.mappingIds(), retry.attempt());
+        }
+    }
+
+    // ============================================
+    // BATCHED WRITE-BACK
+    // ============================================
+    @Scheduled(fixedDelayString = "${enrichment.flush-interval-ms:2000}")
+    public void flush() {
+        List<PendingUpdate> batch = new ArrayList<>(flushBatchSize);
+        PendingUpdate next;
+        while ((next = pending.poll()) != null) {
+            batch.add(next);
+            if (batch.size() == flushBatchSize) {
+                write(batch);
+                batch.clear();
+            }
+        }
+        write(batch);
+    }
+
+    private void write(List<PendingUpdate> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, batch, batch.size(), (ps, u) -> {
+                ps.setString(1, u.metadata().title());
+                ps.setString(2, u.metadata().description());
+                ps.setString(3, u.metadata().category());
+                ps.setLong(4, u.mappingId());
+            });
+        } catch (RuntimeException e) {
+            log.warn("Could not write {} enrichment results", batch.size(), e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+        flush();
+    }
+
+    private record PendingUpdate(long mappingId, HeadMetadata metadata) {
+    }
+
+    private record RetryFetch(String key, List<Long> mappingIds, int attempt) {
+    }
+}
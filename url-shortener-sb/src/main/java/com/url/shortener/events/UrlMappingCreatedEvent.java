@@ -0,0 +1,8 @@
+package com.url.shortener.events;
+
+/**
+ * Published after a short URL row has been created.
+ * Listeners run after commit, so the row is visible to other connections.
+ */
+public record UrlMappingCreatedEvent(Long mappingId, String originalUrl) {
+}
@@ -0,0 +1,62 @@
+package com.url.shortener.healthcheck;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-host politeness: caps concurrent probes to one host and spaces
+ * consecutive probe starts by a minimum interval.
+ */
+public class HostThrottle {
+
+    private final int maxConcurrentPerHost;
+    private final long minIntervalNanos;
+    private final ConcurrentHashMap<String, Gate> gates = new ConcurrentHashMap<>();
+
+    public HostThrottle(int maxConcurrentPerHost, long minIntervalNanos) {
+        this.maxConcurrentPerHost = maxConcurrentPerHost;
+        this.minIntervalNanos = minIntervalNanos;
+    }
+
+    public Gate gate(String host) {
+        return gates.computeIfAbsent(host, h -> new Gate(maxConcurrentPerHost));
+    }
+
+    /** Drops state for hosts with nothing in flight; called between runs. */
+    public void clearIdle() {
+        gates.values().removeIf(g -> g.permits.availablePermits() == maxConcurrentPerHost);
+    }
+
+    public final class Gate {
+        private final Semaphore permits;
+        private final AtomicLong nextStartNanos = new AtomicLong(Long.MIN_VALUE);
+
+        private Gate(int permits) {
+            this.permits = new Semaphore(permits);
+        }
+
+        public boolean tryAcquire() {
+            return permits.tryAcquire();
+        }
+
+        public void release() {
+            permits.release();
+        }
+
+        /**
+         * Reserves the next start slot for this host.
+         *
+         * @return nanos the caller has to wait before starting its probe
+         */
+        public long reserveSlot(long nowNanos) {
+            while (true) {
+                long next = nextStartNanos.get();
+                long start = next == Long.MIN_VALUE || next - nowNanos < 0 ? nowNanos : next;
+                if (nextStartNanos.compareAndSet(next, start + minIntervalNanos)) {
+                    return start - nowNanos;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.url.shortener.healthcheck;
+
+import com.url.shortener.repository.UrlMappingRepository;
+import com.url.shortener.security.OutboundUrlGuard;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background link health checker.
+ * <p>
+ * Walks url_mapping in id order (keyset batches), probes each destination with
+ * bounded global concurrency and per-host politeness, and writes
+ * lastStatusCode / lastChecked back with one JDBC batch per page.
+ */
+@Service
+@Slf4j
+public class LinkHealthCheckService {
+
+    private static final String UPDATE_SQL =
+            "UPDATE url_mapping SET last_status_code = ?, last_checked = ? WHERE id = ?";
+
+    private final UrlMappingRepository urlMappingRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration recheckAfter;
+    private final Semaphore globalPermits;
+
+    private final ExecutorService clientExecutor;
+    private final LinkProber prober;
+    private final HostThrottle hostThrottle;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong inFlight = new AtomicLong();
+    private final Timer probeTimer;
+
+    public LinkHealthCheckService(
+            UrlMappingRepository urlMappingRepository,
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            OutboundUrlGuard outboundUrlGuard,
+            @Value("${link.health.enabled:true}") boolean enabled,
+            @Value("${link.health.batch-size:500}") int batchSize,
+            @Value("${link.health.concurrency:64}") int concurrency,
+            @Value("${link.health.per-host-concurrency:2}") int perHostConcurrency,
+            @Value("${link.health.per-host-interval-ms:250}") long perHostIntervalMs,
+            @Value("${link.health.timeout-ms:5000}") long timeoutMs,
+            @Value("${link.health.recheck-after-hours:24}") long recheckAfterHours
+    ) {
+        this.urlMappingRepository = urlMappingRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.recheckAfter = Duration.ofHours(recheckAfterHours);
+        this.globalPermits = new Semaphore(concurrency);
+
+        // Java 17: no virtual threads, so the async client runs on a small fixed pool;
+        // concurrency is bounded by permits, not by threads
+        this.clientExecutor = Executors.newFixedThreadPool(
+                Math.max(2, Runtime.getRuntime().availableProcessors()),
+                r -> {
+                    Thread t = new Thread(r, "link-health-http");
+                    t.setDaemon(true);
+                    return t;
+                });
+        HttpClient client = HttpClient.newBuilder()
+                .executor(clientExecutor)
+                .connectTimeout(Duration.ofMillis(timeoutMs))
+                .followRedirects(HttpClient.Redirect.NEVER) // the prober checks every hop itself
+                .build();
+        this.prober = new LinkProber(client, Duration.ofMillis(timeoutMs), outboundUrlGuard);
+        this.hostThrottle = new HostThrottle(perHostConcurrency, TimeUnit.MILLISECONDS.toNanos(perHostIntervalMs));
+
+        meterRegistry.gauge("link.health.backlog", backlog);
+        meterRegistry.gauge("link.health.inflight", inFlight);
+        this.probeTimer = Timer.builder("link.health.probe.duration").register(meterRegistry);
+    }
+
+    // ============================================
+    // SCHEDULED RUN
+    // ============================================
+    @Scheduled(
+            initialDelayString = "${link.health.initial-delay-ms:60000}",
+            fixedDelayString = "${link.health.interval-ms:900000}"
+    )
+    public void scheduledRun() {
+        if (enabled) {
+            runOnce();
+        }
+    }
+
+    /**
+     * Checks every stale, active mapping once. Returns the number of probes issued.
+     * Concurrent invocations are ignored.
+     */
+    public long runOnce() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        long probed = 0;
+        long startNanos = System.nanoTime();
+        try {
+            LocalDateTime staleBefore = LocalDateTime.now().minus(recheckAfter);
+            long afterId = 0;
+            while (true) {
+                List<Object[]> rows = urlMappingRepository
+                        .findHealthCheckBatch(afterId, staleBefore, PageRequest.of(0, batchSize));
+                if (rows.isEmpty()) {
+                    break;
+                }
+                afterId = (Long) rows.get(rows.size() - 1)[0];
+
+                List<ProbeResult> results = checkBatch(rows);
+                writeResults(results);
+                probed += results.size();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Link health run aborted after {} probes", probed, e);
+        } finally {
+            backlog.set(0);
+            hostThrottle.clearIdle();
+            running.set(false);
+        }
+        if (probed > 0) {
+            log.info("Link health run checked {} links in {} ms", probed,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        }
+        return probed;
+    }
+
+    // ============================================
+    // BATCH DISPATCH
+    // ============================================
+    private List<ProbeResult> checkBatch(List<Object[]> rows) throws InterruptedException {
+        Queue<ProbeResult> results = new ConcurrentLinkedQueue<>();
+        List<CompletableFuture<?>> futures = new ArrayList<>(rows.size());
+        Deque<Target> pending = interleaveByHost(rows, results);
+        backlog.set(pending.size());
+
+        while (!pending.isEmpty()) {
+            boolean dispatched = false;
+            for (int i = pending.size(); i > 0; i--) {
+                Target target = pending.pollFirst();
+                HostThrottle.Gate gate = hostThrottle.gate(target.host());
+                if (!gate.tryAcquire()) {
+                    // host is saturated; give other hosts a turn
+                    pending.addLast(target);
+                    continue;
+                }
+                globalPermits.acquire();
+                backlog.decrementAndGet();
+                futures.add(dispatch(target, gate, results));
+                dispatched = true;
+            }
+            if (!dispatched) {
+                TimeUnit.MILLISECONDS.sleep(5);
+            }
+        }
+
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        return new ArrayList<>(results);
+    }
+
+    private CompletableFuture<?> dispatch(Target target, HostThrottle.Gate gate, Queue<ProbeResult> results) {
+        long delay = gate.reserveSlot(System.nanoTime());
+        inFlight.incrementAndGet();
+        return CompletableFuture
+                .runAsync(() -> { }, CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS, clientExecutor))
+                .thenCompose(ignored -> prober.probe(target.mappingId(), target.uri()))
+                .whenComplete((result, error) -> {
+                    inFlight.decrementAndGet();
+                    gate.release();
+                    globalPermits.release();
+                    ProbeResult r = result != null ? result : ProbeResult.unreachable(target.mappingId(), 0);
+                    record(r);
+                    results.add(r);
+                });
+    }
+
+    // Round-robin across hosts so one big host can't monopolise the batch
+    private Deque<Target> interleaveByHost(List<Object[]> rows, Queue<ProbeResult> results) {
+        Map<String, Deque<Target>> byHost = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            long id = (Long) row[0];
+            URI uri = parseHttpUri((String) row[1]);
+            if (uri == null) {
+                ProbeResult invalid = ProbeResult.invalid(id);
+                record(invalid);
+                results.add(invalid);
+                continue;
+            }
+            String host = uri.getHost().toLowerCase(Locale.ROOT);
+            byHost.computeIfAbsent(host, h -> new ArrayDeque<>()).add(new Target(id, uri, host));
+        }
+
+        Deque<Target> ordered = new ArrayDeque<>(rows.size());
+        while (!byHost.isEmpty()) {
+            Iterator<Deque<Target>> it = byHost.values().iterator();
+            while (it.hasNext()) {
+                Deque<Target> queue = it.next();
+                ordered.add(queue.poll());
+                if (queue.isEmpty()) {
+                    it.remove();
+                }
+            }
+        }
+        return ordered;
+    }
+
+    private static URI parseHttpUri(String url) {
+        try {
+            URI uri = URI.create(url.trim());
+            return OutboundUrlGuard.isHttp(uri) ? uri : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // ============================================
+    // RESULTS
+    // ============================================
+    private void writeResults(List<ProbeResult> results) {
+        if (results.isEmpty()) {
+            return;
+        }
+        Timestamp checkedAt = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPDATE_SQL, results, results.size(), (ps, r) -> {
+            ps.setInt(1, r.statusCode());
+            ps.setTimestamp(2, checkedAt);
+            ps.setLong(3, r.mappingId());
+        });
+    }
+
+    private void record(ProbeResult result) {
+        Counter.builder("link.health.probes")
+                .tag("outcome", result.outcome())
+                .register(meterRegistry)
+                .increment();
+        if (result.elapsedNanos() > 0) {
+            probeTimer.record(result.elapsedNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        clientExecutor.shutdownNow();
+    }
+
+    private record Target(long mappingId, URI uri, String host) {
+    }
+}
@@ -0,0 +1,127 @@
+package com.url.shortener.healthcheck;
+
+import com.url.shortener.security.OutboundUrlGuard;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Probes a destination URL and reports its HTTP status.
+ * <p>
+ * A HEAD request is tried first; when a server rejects HEAD or drops the connection, the hop
+ * is retried with a GET whose body is abandoned as soon as the status line is in. Redirects are
+ * followed here rather than by the client, so every hop passes the {@link OutboundUrlGuard}
+ * before it is requested. Plain JDK async client, so a stub
+ * {@code com.sun.net.httpserver.HttpServer} is enough to exercise it.
+ */
+public class LinkProber {
+
+    /** Status recorded when the destination could not be reached at all. */
+    public static final int UNREACHABLE = 0;
+
+    static final String USER_AGENT = "ShortifyX-LinkChecker/1.0";
+
+    private final HttpClient client;
+    private final Duration requestTimeout;
+    private final OutboundUrlGuard guard;
+
+    /**
+     * @param client must not follow redirects itself ({@link HttpClient.Redirect#NEVER})
+     */
+    public LinkProber(HttpClient client, Duration requestTimeout, OutboundUrlGuard guard) {
+        this.client = client;
+        this.requestTimeout = requestTimeout;
+        this.guard = guard;
+    }
+
+    public CompletableFuture<ProbeResult> probe(long mappingId, URI uri) {
+        long startNanos = System.nanoTime();
+        return follow(uri, 0)
+                .handle((status, error) -> {
+                    long elapsed = System.nanoTime() - startNanos;
+                    if (error == null) {
+                        return ProbeResult.of(mappingId, status, elapsed);
+                    }
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    if (cause instanceof BlockedDestinationException) {
+                        return ProbeResult.blocked(mappingId);
+                    }
+                    return cause instanceof HttpTimeoutException
+                            ? ProbeResult.timeout(mappingId, elapsed)
+                            : ProbeResult.unreachable(mappingId, elapsed);
+                });
+    }
+
+    private CompletableFuture<Integer> follow(URI uri, int redirects) {
+        return sendHop(uri).thenCompose(response -> {
+            URI next = OutboundUrlGuard.redirectTarget(uri, response);
+            if (next == null) {
+                return CompletableFuture.completedFuture(response.statusCode());
+            }
+            if (redirects == OutboundUrlGuard.MAX_REDIRECTS) {
+                return CompletableFuture.failedFuture(new IOException("Too many redirects from " + uri));
+            }
+            return follow(next, redirects + 1);
+        });
+    }
+
+    private CompletableFuture<HttpResponse<InputStream>> sendHop(URI uri) {
+        try {
+            if (!guard.permits(uri)) {
+                return CompletableFuture.failedFuture(new BlockedDestinationException(uri));
+            }
+        } catch (UnknownHostException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return send(uri, "HEAD")
+                .handle((response, error) -> response != null && !headRejected(response.statusCode())
+                        ? CompletableFuture.completedFuture(response)
+                        : send(uri, "GET"))
+                .thenCompose(Function.identity());
+    }
+
+    private CompletableFuture<HttpResponse<InputStream>> send(URI uri, String method) {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .timeout(requestTimeout)
+                .header("User-Agent", USER_AGENT)
+                .build();
+
+        // ofInputStream + immediate close aborts the GET body download
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                .thenApply(response -> {
+                    closeQuietly(response.body());
+                    return response;
+                });
+    }
+
+    // Many servers answer HEAD with 405/501 (or a blanket 400/403) while GET works fine
+    private static boolean headRejected(int status) {
+        return status == 400 || status == 403 || status == 405 || status == 501;
+    }
+
+    private static void closeQuietly(InputStream body) {
+        try {
+            body.close();
+        } catch (IOException ignored) {
+            // connection is discarded either way
+        }
+    }
+
+    private static final class BlockedDestinationException extends IOException {
+        BlockedDestinationException(URI uri) {
+            super("Refusing to probe non-public address " + uri.getHost());
+        }
+    }
+}
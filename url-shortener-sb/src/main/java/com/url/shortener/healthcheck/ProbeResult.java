@@ -0,0 +1,36 @@
+package com.url.shortener.healthcheck;
+
+/**
+ * Outcome of a single destination probe.
+ *
+ * @param mappingId   url_mapping row the probe belongs to
+ * @param statusCode  final HTTP status, or {@link LinkProber#UNREACHABLE}
+ * @param outcome     metric tag: ok / client_error / server_error / timeout / unreachable / blocked / invalid
+ * @param elapsedNanos wall time spent on the probe
+ */
+public record ProbeResult(long mappingId, int statusCode, String outcome, long elapsedNanos) {
+
+    static ProbeResult of(long mappingId, int statusCode, long elapsedNanos) {
+        String outcome = statusCode >= 500 ? "server_error"
+                : statusCode >= 400 ? "client_error"
+                : "ok";
+        return new ProbeResult(mappingId, statusCode, outcome, elapsedNanos);
+    }
+
+    static ProbeResult timeout(long mappingId, long elapsedNanos) {
+        return new ProbeResult(mappingId, LinkProber.UNREACHABLE, "timeout", elapsedNanos);
+    }
+
+    static ProbeResult unreachable(long mappingId, long elapsedNanos) {
+        return new ProbeResult(mappingId, LinkProber.UNREACHABLE, "unreachable", elapsedNanos);
+    }
+
+    // destination (or a hop of its redirect chain) resolves to a non-public address
+    static ProbeResult blocked(long mappingId) {
+        return new ProbeResult(mappingId, LinkProber.UNREACHABLE, "blocked", 0);
+    }
+
+    static ProbeResult invalid(long mappingId) {
+        return new ProbeResult(mappingId, LinkProber.UNREACHABLE, "invalid", 0);
+    }
+}
@@ -0,0 +1,28 @@
+package com.url.shortener.journal;
+
+/**
+ * One-byte codes for the small, closed value sets the redirect path detects
+ * (see detectDeviceType / detectBrowser / detectOS). Code 0 is "unknown".
+ */
+final class ClickCodes {
+
+    static final String[] DEVICE_TYPES = {"unknown", "mobile", "tablet", "desktop"};
+    static final String[] BROWSERS = {"unknown", "Chrome", "Firefox", "Safari", "Other"};
+    static final String[] OPERATING_SYSTEMS = {"unknown", "Windows", "MacOS", "Linux", "Android", "iOS", "Other"};
+
+    private ClickCodes() {
+    }
+
+    static byte encode(String[] values, String value) {
+        for (int i = 1; i < values.length; i++) {
+            if (values[i].equals(value)) {
+                return (byte) i;
+            }
+        }
+        return 0;
+    }
+
+    static String decode(String[] values, byte code) {
+        return code > 0 && code < values.length ? values[code] : values[0];
+    }
+}
@@ -0,0 +1,343 @@
+package com.url.shortener.journal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only, memory-mapped journal of redirects on local disk.
+ * <p>
+ * Records are a fixed {@value #RECORD_BYTES} bytes, so record {@code i} has a known
+ * position: producers reserve an index with one {@code getAndIncrement} and write their
+ * slot without any lock. The magic word is stored last with release semantics; a slot
+ * without it is not (yet) written. Writes land in the page cache, so they survive a JVM
+ * crash; {@code journal.fsync-interval-ms} bounds what an OS crash can lose, and a CRC
+ * catches torn records.
+ * <p>
+ * {@link ClickJournalConsumer} replays records into MySQL and calls
+ * {@link #truncateBefore} once they are committed.
+ *
+ * <pre>
+ *  0 int   magic          32 short status       37 byte  ip length
+ *  4 int   crc32c(8..127) 34 byte  device type  38..82   ip (ASCII, 45)
+ *  8 long  mapping id     35 byte  browser      83 byte  referer host length
+ * 16 long  epoch millis   36 byte  os           84..123  referer host (ASCII, 40)
+ * 24 int   user agent id                        124 int  routing rule id
+ * 28 int   referer id
+ * </pre>
+ * Version 1 records ("CLK1": 44-byte host, no routing rule) are still read.
+ */
+@Component
+@Slf4j
+public class ClickJournal {
+
+    static final int RECORD_BYTES = 128;
+
+    /** Returned by {@link #read} for a slot whose checksum does not match. */
+    static final ClickRecord CORRUPT = new ClickRecord(0, 0, 0, 0, null, null, null, null, null, 0, 0);
+
+    private static final int MAGIC = 0x434C4B32; // "CLK2"
+    private static final int MAGIC_V1 = 0x434C4B31; // "CLK1"
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    private static final int OFF_MAGIC = 0;
+    private static final int OFF_CRC = 4;
+    private static final int OFF_MAPPING = 8;
+    private static final int OFF_TIME = 16;
+    private static final int OFF_USER_AGENT = 24;
+    private static final int OFF_REFERER = 28;
+    private static final int OFF_STATUS = 32;
+    private static final int OFF_DEVICE = 34;
+    private static final int OFF_BROWSER = 35;
+    private static final int OFF_OS = 36;
+    private static final int OFF_IP_LENGTH = 37;
+    private static final int OFF_IP = 38;
+    private static final int IP_MAX = 45;
+    private static final int OFF_HOST_LENGTH = 83;
+    private static final int OFF_HOST = 84;
+    private static final int HOST_MAX = 40;
+    private static final int OFF_ROUTE = 124;
+
+    private final boolean enabled;
+    private final Path dir;
+    private final int segmentBytes;
+    private final int recordsPerSegment;
+    private final int maxSegments;
+    private final String journalId;
+
+    private final AtomicLong nextIndex = new AtomicLong();
+    private final long recoveredEnd;
+    private volatile long firstRetained;
+    private final ConcurrentHashMap<Long, JournalSegment> segments = new ConcurrentHashMap<>();
+    private volatile JournalSegment head;
+
+    private final Counter appended;
+    private final Counter full;
+
+    public ClickJournal(
+            MeterRegistry meterRegistry,
+            @Value("${journal.enabled:true}") boolean enabled,
+            @Value("${journal.dir:data/click-journal}") String dir,
+            @Value("${journal.segment-bytes:67108864}") int segmentBytes,
+            @Value("${journal.max-segments:64}") int maxSegments
+    ) throws IOException {
+        this.enabled = enabled;
+        this.dir = Path.of(dir);
+        this.recordsPerSegment = segmentBytes / RECORD_BYTES;
+        this.segmentBytes = recordsPerSegment * RECORD_BYTES;
+        this.maxSegments = maxSegments;
+        this.appended = meterRegistry.counter("journal.appended");
+        this.full = meterRegistry.counter("journal.full");
+
+        if (!enabled) {
+            this.journalId = null;
+            this.recoveredEnd = 0;
+            return;
+        }
+        Files.createDirectories(this.dir);
+        this.journalId = loadOrCreateId();
+        this.recoveredEnd = recover();
+        this.nextIndex.set(recoveredEnd);
+        meterRegistry.gauge("journal.segments", segments, ConcurrentHashMap::size);
+        log.info("Click journal {} at {}: resuming at record {}", journalId, this.dir.toAbsolutePath(), recoveredEnd);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // ============================================
+    // PRODUCER (redirect path)
+    // ============================================
+
+    /**
+     * @return false when the journal is disabled, full (consumer too far behind) or
+     * the segment cannot be mapped; the caller then writes the click directly
+     */
+    public boolean append(ClickRecord record) {
+        if (!enabled) {
+            return false;
+        }
+        if (nextIndex.get() / recordsPerSegment - firstRetained / recordsPerSegment >= maxSegments) {
+            full.increment();
+            return false;
+        }
+        long index = nextIndex.getAndIncrement();
+        JournalSegment segment;
+        try {
+            segment = segment(index / recordsPerSegment);
+        } catch (UncheckedIOException e) {
+            log.warn("Click journal segment unavailable: {}", e.getMessage());
+            return false; // the reserved slot stays empty and is skipped as a gap
+        }
+        write(segment.buffer(), (int) (index % recordsPerSegment) * RECORD_BYTES, record);
+        appended.increment();
+        return true;
+    }
+
+    private static void write(MappedByteBuffer buffer, int base, ClickRecord r) {
+        buffer.putLong(base + OFF_MAPPING, r.mappingId());
+        buffer.putLong(base + OFF_TIME, r.clickEpochMillis());
+        buffer.putInt(base + OFF_USER_AGENT, r.userAgentId());
+        buffer.putInt(base + OFF_REFERER, r.refererId());
+        buffer.putShort(base + OFF_STATUS, (short) r.responseStatus());
+        buffer.put(base + OFF_DEVICE, ClickCodes.encode(ClickCodes.DEVICE_TYPES, r.deviceType()));
+        buffer.put(base + OFF_BROWSER, ClickCodes.encode(ClickCodes.BROWSERS, r.browser()));
+        buffer.put(base + OFF_OS, ClickCodes.encode(ClickCodes.OPERATING_SYSTEMS, r.os()));
+        putAscii(buffer, base + OFF_IP_LENGTH, r.ipAddress(), IP_MAX);
+        putAscii(buffer, base + OFF_HOST_LENGTH, r.refererHost(), HOST_MAX);
+        buffer.putInt(base + OFF_ROUTE, r.routingRuleId());
+
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(base + OFF_MAPPING, RECORD_BYTES - OFF_MAPPING));
+        buffer.putInt(base + OFF_CRC, (int) crc.getValue());
+        INT.setRelease(buffer, base + OFF_MAGIC, MAGIC);
+    }
+
+    // length byte followed by up to max bytes; non-ASCII and overlong values are cut
+    private static void putAscii(MappedByteBuffer buffer, int lengthOffset, String value, int max) {
+        if (value == null) {
+            buffer.put(lengthOffset, (byte) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+        int length = Math.min(bytes.length, max);
+        buffer.put(lengthOffset, (byte) length);
+        buffer.put(lengthOffset + 1, bytes, 0, length);
+    }
+
+    // ============================================
+    // CONSUMER SIDE
+    // ============================================
+
+    /**
+     * @return the record at {@code index}, null if that slot has not been written,
+     * or {@link #CORRUPT} if its checksum does not match
+     */
+    ClickRecord read(long index) {
+        JournalSegment segment = segments.get(index / recordsPerSegment);
+        if (segment == null) {
+            return null;
+        }
+        MappedByteBuffer buffer = segment.buffer();
+        int base = (int) (index % recordsPerSegment) * RECORD_BYTES;
+        int magic = (int) INT.getAcquire(buffer, base + OFF_MAGIC);
+        if (magic != MAGIC && magic != MAGIC_V1) {
+            return null;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(base + OFF_MAPPING, RECORD_BYTES - OFF_MAPPING));
+        if ((int) crc.getValue() != buffer.getInt(base + OFF_CRC)) {
+            return CORRUPT;
+        }
+        return new ClickRecord(
+                buffer.getLong(base + OFF_MAPPING),
+                buffer.getLong(base + OFF_TIME),
+                buffer.getInt(base + OFF_USER_AGENT),
+                buffer.getInt(base + OFF_REFERER),
+                getAscii(buffer, base + OFF_IP_LENGTH),
+                getAscii(buffer, base + OFF_HOST_LENGTH),
+                ClickCodes.decode(ClickCodes.DEVICE_TYPES, buffer.get(base + OFF_DEVICE)),
+                ClickCodes.decode(ClickCodes.BROWSERS, buffer.get(base + OFF_BROWSER)),
+                ClickCodes.decode(ClickCodes.OPERATING_SYSTEMS, buffer.get(base + OFF_OS)),
+                buffer.getShort(base + OFF_STATUS),
+                magic == MAGIC ? buffer.getInt(base + OFF_ROUTE) : 0);
+    }
+
+    private static String getAscii(MappedByteBuffer buffer, int lengthOffset) {
+        int length = buffer.get(lengthOffset);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(lengthOffset + 1, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    /** Deletes segments whose records all lie below {@code committedIndex}. */
+    void truncateBefore(long committedIndex) {
+        long keepFrom = committedIndex / recordsPerSegment;
+        JournalSegment current = head;
+        for (Long sequence : new ArrayList<>(segments.keySet())) {
+            if (sequence >= keepFrom || (current != null && sequence == current.sequence())) {
+                continue;
+            }
+            JournalSegment segment = segments.remove(sequence);
+            try {
+                // the mapping itself is released when the buffer is collected
+                Files.deleteIfExists(segment.file());
+            } catch (IOException e) {
+                log.warn("Could not delete journal segment {}: {}", segment.file(), e.getMessage());
+            }
+        }
+        firstRetained = Math.max(firstRetained, keepFrom * recordsPerSegment);
+    }
+
+    long nextIndex() {
+        return nextIndex.get();
+    }
+
+    /** Slots below this index were reserved before the last restart; empty ones will never be written. */
+    long recoveredEnd() {
+        return recoveredEnd;
+    }
+
+    long firstRetained() {
+        return firstRetained;
+    }
+
+    String journalId() {
+        return journalId;
+    }
+
+    @Scheduled(fixedDelayString = "${journal.fsync-interval-ms:1000}", scheduler = "journalScheduler")
+    public void force() {
+        JournalSegment current = head;
+        if (current != null) {
+            current.force();
+        }
+    }
+
+    // ============================================
+    // SEGMENTS & RECOVERY
+    // ============================================
+    private JournalSegment segment(long sequence) {
+        JournalSegment current = head;
+        if (current != null && current.sequence() == sequence) {
+            return current;
+        }
+        JournalSegment segment = segments.computeIfAbsent(sequence, this::openSegment);
+        if (current == null || sequence > current.sequence()) {
+            head = segment;
+        }
+        return segment;
+    }
+
+    private JournalSegment openSegment(long sequence) {
+        try {
+            return JournalSegment.open(dir, sequence, segmentBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Maps the segments left on disk and returns the index after the last written record.
+    private long recover() throws IOException {
+        List<Long> sequences;
+        try (Stream<Path> files = Files.list(dir)) {
+            sequences = files.map(f -> JournalSegment.sequenceOf(f.getFileName().toString()))
+                    .filter(s -> s >= 0)
+                    .sorted()
+                    .toList();
+        }
+        if (sequences.isEmpty()) {
+            return 0;
+        }
+        for (Long sequence : sequences) {
+            segments.put(sequence, openSegment(sequence));
+        }
+        firstRetained = sequences.get(0) * recordsPerSegment;
+        head = segments.get(sequences.get(sequences.size() - 1));
+
+        for (int i = sequences.size() - 1; i >= 0; i--) {
+            MappedByteBuffer buffer = segments.get(sequences.get(i)).buffer();
+            for (int slot = recordsPerSegment - 1; slot >= 0; slot--) {
+                int magic = buffer.getInt(slot * RECORD_BYTES + OFF_MAGIC);
+                if (magic == MAGIC || magic == MAGIC_V1) {
+                    return sequences.get(i) * recordsPerSegment + slot + 1;
+                }
+            }
+        }
+        return firstRetained; // segments exist but hold nothing
+    }
+
+    private String loadOrCreateId() throws IOException {
+        Path idFile = dir.resolve("journal.id");
+        if (Files.exists(idFile)) {
+            return Files.readString(idFile, StandardCharsets.US_ASCII).trim();
+        }
+        String id = UUID.randomUUID().toString();
+        Files.writeString(idFile, id, StandardCharsets.US_ASCII);
+        return id;
+    }
+}
@@ -0,0 +1,314 @@
+package com.url.shortener.journal;
+
+import com.url.shortener.dimension.ClickDimensionService;
+import com.url.shortener.dimension.DimensionDictionary;
+import com.url.shortener.sampling.ClickSampler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Replays the {@link ClickJournal} into MySQL.
+ * <p>
+ * Each batch inserts its click_event rows (sampled for busy links, see {@link ClickSampler}),
+ * adds the exact per-link click_count and click_daily deltas and advances
+ * click_journal_offset in one transaction. If MySQL is unavailable the batch
+ * rolls back and is retried from the same offset on the next tick; the journal keeps
+ * accepting clicks meanwhile (up to journal.max-segments).
+ * <p>
+ * Negative dimension ids are stand-ins for values the producer could not intern: they are
+ * interned here, or stored inline in user_agent / referer when the dictionary refuses them.
+ * A stand-in is retired once a batch using it commits and forgotten once the journal is
+ * committed past every record that may still carry it.
+ */
+@Component
+@Slf4j
+public class ClickJournalConsumer {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO click_event
+                (url_mapping_id, click_date, ip_address, user_agent_id, user_agent, referer_id, referer, referer_host,
+                 device_type, browser, os, is_bot, response_status, routing_rule_id, variant, sampling_weight)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, false, ?, ?, (SELECT r.variant FROM routing_rule r WHERE r.id = ?), ?)
+            """;
+
+    private static final String COUNT_SQL = "UPDATE url_mapping SET click_count = click_count + ? WHERE id = ?";
+
+    private static final String DAILY_SQL = """
+            INSERT INTO click_daily (url_mapping_id, click_day, clicks) VALUES (?, ?, ?)
+            ON DUPLICATE KEY UPDATE clicks = clicks + VALUES(clicks)
+            """;
+
+    private static final String OFFSET_SQL =
+            "UPDATE click_journal_offset SET committed_index = ?, updated_at = ? WHERE journal_id = ?";
+
+    // click_event.referer is a VARCHAR(255)
+    private static final int INLINE_REFERER_MAX = 255;
+
+    private record Sampled(ClickRecord record, int weight) {
+    }
+
+    // a dimension as written: an interned id, or the value inline
+    private record Dimension(Integer id, String value) {
+        static final Dimension NONE = new Dimension(null, null);
+    }
+
+    private record StandIn(DimensionDictionary dictionary, int id, long forgetAt) {
+    }
+
+    private record DayKey(long mappingId, LocalDate day) implements Comparable<DayKey> {
+        @Override
+        public int compareTo(DayKey other) {
+            int byId = Long.compare(mappingId, other.mappingId);
+            return byId != 0 ? byId : day.compareTo(other.day);
+        }
+    }
+
+    private final ClickJournal journal;
+    private final ClickSampler clickSampler;
+    private final ClickDimensionService clickDimensionService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final long gapTimeoutMs;
+
+    private final AtomicLong committed = new AtomicLong(-1);
+    private final ArrayDeque<StandIn> retired = new ArrayDeque<>();
+    private long gapIndex = -1;
+    private long gapSince;
+
+    private final Counter replayed;
+    private final Counter skipped;
+    private final Counter corrupt;
+
+    public ClickJournalConsumer(
+            ClickJournal journal,
+            ClickSampler clickSampler,
+            ClickDimensionService clickDimensionService,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${journal.batch-size:1000}") int batchSize,
+            @Value("${journal.max-batches-per-run:50}") int maxBatchesPerRun,
+            @Value("${journal.gap-timeout-ms:5000}") long gapTimeoutMs
+    ) {
+        this.journal = journal;
+        this.clickSampler = clickSampler;
+        this.clickDimensionService = clickDimensionService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.gapTimeoutMs = gapTimeoutMs;
+        this.replayed = meterRegistry.counter("journal.replayed");
+        this.skipped = meterRegistry.counter("journal.skipped");
+        this.corrupt = meterRegistry.counter("journal.corrupt");
+        meterRegistry.gauge("journal.lag", this, c -> c.committed.get() < 0 ? 0 : journal.nextIndex() - c.committed.get());
+    }
+
+    @Scheduled(
+            initialDelayString = "${journal.flush-initial-delay-ms:1000}",
+            fixedDelayString = "${journal.flush-interval-ms:200}",
+            scheduler = "journalScheduler"
+    )
+    public void drain() {
+        if (!journal.isEnabled()) {
+            return;
+        }
+        try {
+            if (committed.get() < 0) {
+                committed.set(Math.max(loadOffset(), journal.firstRetained()));
+            }
+            for (int i = 0; i < maxBatchesPerRun; i++) {
+                if (!replayBatch()) {
+                    break;
+                }
+            }
+            journal.truncateBefore(committed.get());
+        } catch (RuntimeException e) {
+            log.warn("Click journal replay paused at {}: {}", committed.get(), e.getMessage());
+        }
+    }
+
+    // @return true if the offset advanced
+    private boolean replayBatch() {
+        long start = committed.get();
+        long end = journal.nextIndex();
+        List<ClickRecord> batch = new ArrayList<>();
+        long index = start;
+        while (index < end && batch.size() < batchSize) {
+            ClickRecord record = journal.read(index);
+            if (record == null) {
+                // reserved but not written: wait briefly for a slow producer, skip it if it died
+                if (index < journal.recoveredEnd() || gapExpired(index)) {
+                    skipped.increment();
+                    index++;
+                    continue;
+                }
+                break;
+            }
+            if (record == ClickJournal.CORRUPT) {
+                corrupt.increment();
+            } else {
+                batch.add(record);
+            }
+            index++;
+        }
+        if (index == start) {
+            return false;
+        }
+
+        long newOffset = index;
+        ClickSampler.Batch sampling = clickSampler.batch();
+        transactionTemplate.executeWithoutResult(status -> write(batch, sampling, newOffset));
+        sampling.commit();
+        committed.set(newOffset);
+        replayed.increment(batch.size());
+        retireStandIns(batch);
+        return true;
+    }
+
+    private void write(List<ClickRecord> batch, ClickSampler.Batch sampling, long newOffset) {
+        if (!batch.isEmpty()) {
+            // links purged since the click was journaled would fail the FK; drop their clicks
+            Set<Long> live = existingMappings(batch.stream().map(ClickRecord::mappingId).collect(Collectors.toSet()));
+            List<ClickRecord> rows = batch.stream().filter(r -> live.contains(r.mappingId())).toList();
+
+            // sampling state only moves on commit, so a retried batch starts from the same carry
+            List<Sampled> sampled = new ArrayList<>(rows.size());
+            for (ClickRecord r : rows) {
+                int weight = sampling.admit(r.mappingId(), r.clickEpochMillis());
+                if (weight > 0) {
+                    sampled.add(new Sampled(r, weight));
+                }
+            }
+
+            Map<Integer, Dimension> userAgents = new HashMap<>();
+            Map<Integer, Dimension> referers = new HashMap<>();
+            jdbcTemplate.batchUpdate(INSERT_SQL, sampled, sampled.size(), (ps, sample) -> {
+                ClickRecord r = sample.record();
+                Dimension userAgent = userAgents.computeIfAbsent(r.userAgentId(),
+                        id -> dimension(clickDimensionService.userAgents(), id, Integer.MAX_VALUE));
+                Dimension referer = referers.computeIfAbsent(r.refererId(),
+                        id -> dimension(clickDimensionService.referers(), id, INLINE_REFERER_MAX));
+                ps.setLong(1, r.mappingId());
+                ps.setTimestamp(2, Timestamp.valueOf(toLocalDateTime(r.clickEpochMillis())));
+                ps.setString(3, r.ipAddress());
+                ps.setObject(4, userAgent.id());
+                ps.setString(5, userAgent.value());
+                ps.setObject(6, referer.id());
+                ps.setString(7, referer.value());
+                ps.setString(8, r.refererHost());
+                ps.setString(9, r.deviceType());
+                ps.setString(10, r.browser());
+                ps.setString(11, r.os());
+                ps.setInt(12, r.responseStatus());
+                ps.setObject(13, r.routingRuleId() == 0 ? null : (long) r.routingRuleId());
+                ps.setLong(14, r.routingRuleId());
+                ps.setInt(15, sample.weight());
+            });
+
+            // sorted by id so concurrent nodes lock url_mapping rows in the same order
+            TreeMap<Long, Integer> counts = new TreeMap<>();
+            rows.forEach(r -> counts.merge(r.mappingId(), 1, Integer::sum));
+            jdbcTemplate.batchUpdate(COUNT_SQL, new ArrayList<>(counts.entrySet()), counts.size(), (ps, e) -> {
+                ps.setInt(1, e.getValue());
+                ps.setLong(2, e.getKey());
+            });
+
+            TreeMap<DayKey, Integer> daily = new TreeMap<>();
+            rows.forEach(r -> daily.merge(
+                    new DayKey(r.mappingId(), toLocalDateTime(r.clickEpochMillis()).toLocalDate()), 1, Integer::sum));
+            jdbcTemplate.batchUpdate(DAILY_SQL, new ArrayList<>(daily.entrySet()), daily.size(), (ps, e) -> {
+                ps.setLong(1, e.getKey().mappingId());
+                ps.setObject(2, e.getKey().day());
+                ps.setInt(3, e.getValue());
+            });
+        }
+        jdbcTemplate.update(OFFSET_SQL, newOffset, Timestamp.valueOf(LocalDateTime.now()), journal.journalId());
+    }
+
+    private static Dimension dimension(DimensionDictionary dictionary, int id, int inlineMax) {
+        if (id > 0) {
+            return new Dimension(id, null);
+        }
+        String value = id < 0 ? dictionary.standInValue(id) : null;
+        if (value == null) {
+            return Dimension.NONE; // absent, or a stand-in lost with a restart
+        }
+        Integer interned = dictionary.idFor(value);
+        return interned != null
+                ? new Dimension(interned, null)
+                : new Dimension(null, value.substring(0, Math.min(value.length(), inlineMax)));
+    }
+
+    // Producers that looked a stand-in up before it was retired append below the current end
+    private void retireStandIns(List<ClickRecord> batch) {
+        Set<Integer> userAgents = new HashSet<>();
+        Set<Integer> referers = new HashSet<>();
+        for (ClickRecord r : batch) {
+            if (r.userAgentId() < 0) {
+                userAgents.add(r.userAgentId());
+            }
+            if (r.refererId() < 0) {
+                referers.add(r.refererId());
+            }
+        }
+        userAgents.forEach(id -> clickDimensionService.userAgents().retire(id));
+        referers.forEach(id -> clickDimensionService.referers().retire(id));
+        long end = journal.nextIndex();
+        userAgents.forEach(id -> retired.add(new StandIn(clickDimensionService.userAgents(), id, end)));
+        referers.forEach(id -> retired.add(new StandIn(clickDimensionService.referers(), id, end)));
+
+        while (!retired.isEmpty() && retired.peek().forgetAt() <= committed.get()) {
+            StandIn standIn = retired.poll();
+            standIn.dictionary().forget(standIn.id());
+        }
+    }
+
+    private Set<Long> existingMappings(Set<Long> ids) {
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM url_mapping WHERE id IN (" + placeholders + ")", Long.class, ids.toArray()));
+    }
+
+    private long loadOffset() {
+        List<Long> found = jdbcTemplate.queryForList(
+                "SELECT committed_index FROM click_journal_offset WHERE journal_id = ?", Long.class, journal.journalId());
+        if (!found.isEmpty()) {
+            return found.get(0);
+        }
+        jdbcTemplate.update("INSERT INTO click_journal_offset (journal_id, committed_index, updated_at) VALUES (?, 0, ?)",
+                journal.journalId(), Timestamp.valueOf(LocalDateTime.now()));
+        return 0;
+    }
+
+    private boolean gapExpired(long index) {
+        long now = System.currentTimeMillis();
+        if (gapIndex != index) {
+            gapIndex = index;
+            gapSince = now;
+            return false;
+        }
+        return now - gapSince >= gapTimeoutMs;
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,20 @@
+package com.url.shortener.journal;
+
+/**
+ * One redirect as stored in the click journal. Dimension and routing rule ids are 0 when absent;
+ * negative dimension ids are stand-ins (see {@link com.url.shortener.dimension.DimensionDictionary}).
+ */
+public record ClickRecord(
+        long mappingId,
+        long clickEpochMillis,
+        int userAgentId,
+        int refererId,
+        String ipAddress,
+        String refererHost,
+        String deviceType,
+        String browser,
+        String os,
+        int responseStatus,
+        int routingRuleId
+) {
+}
@@ -0,0 +1,67 @@
+package com.url.shortener.journal;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+/**
+ * One pre-sized, memory-mapped journal file holding a fixed number of records.
+ * Record {@code i} of the journal lives in segment {@code i / recordsPerSegment}.
+ */
+final class JournalSegment {
+
+    private final long sequence;
+    private final Path file;
+    private final MappedByteBuffer buffer;
+
+    private JournalSegment(long sequence, Path file, MappedByteBuffer buffer) {
+        this.sequence = sequence;
+        this.file = file;
+        this.buffer = buffer;
+    }
+
+    static JournalSegment open(Path dir, long sequence, int bytes) throws IOException {
+        Path file = dir.resolve(fileName(sequence));
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            if (raf.length() < bytes) {
+                raf.setLength(bytes); // sparse; zero-filled, so unwritten slots read as empty
+            }
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+            return new JournalSegment(sequence, file, buffer);
+        }
+    }
+
+    static String fileName(long sequence) {
+        return String.format("clicks-%020d.seg", sequence);
+    }
+
+    /** Parses the sequence out of a segment file name, or -1 for other files. */
+    static long sequenceOf(String fileName) {
+        if (!fileName.startsWith("clicks-") || !fileName.endsWith(".seg")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(fileName.substring(7, fileName.length() - 4));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    long sequence() {
+        return sequence;
+    }
+
+    Path file() {
+        return file;
+    }
+
+    MappedByteBuffer buffer() {
+        return buffer;
+    }
+
+    void force() {
+        buffer.force();
+    }
+}
@@ -0,0 +1,58 @@
+package com.url.shortener.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A link moved out of {@code url_mapping} by {@link com.url.shortener.archive.LinkArchive}.
+ * Keeps the slug and alias reserved and records which archive segment holds the full
+ * row and its click history. The id is the link's original url_mapping id, reused on restore.
+ */
+@Entity
+@Table(
+        name = "archived_link",
+        indexes = {
+                @Index(name = "idx_archived_user", columnList = "user_id, archivedAt"),
+                @Index(name = "idx_archived_file", columnList = "archiveFile"),
+                @Index(name = "idx_archived_purged", columnList = "purgedAt")
+        },
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_archived_domain_alias", columnNames = {"domain", "customAlias"})
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedLink {
+
+    @Id
+    private Long id;
+
+    @Column(unique = true)
+    private String shortUrl;
+
+    @Column(nullable = false, length = 253)
+    private String domain;
+
+    private String customAlias;
+
+    @Column(columnDefinition = "TEXT")
+    private String originalUrl;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    private LocalDateTime createdDate;
+
+    private LocalDateTime archivedAt;
+
+    @Column(length = 64, nullable = false)
+    private String archiveFile;
+
+    // when the live rows were removed; null while url_mapping may still hold them
+    private LocalDateTime purgedAt;
+}
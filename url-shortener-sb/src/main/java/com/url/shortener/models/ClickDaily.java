@@ -0,0 +1,38 @@
+package com.url.shortener.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Exact daily click totals, added by the journal consumer in the same transaction as
+ * click_count (and by the direct write path), so they stay exact while raw
+ * click_event rows of busy links are only sampled.
+ */
+@Entity
+@Table(
+        name = "click_daily",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_click_daily", columnNames = {"url_mapping_id", "click_day"})
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ClickDaily {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "url_mapping_id", nullable = false)
+    private Long urlMappingId;
+
+    @Column(name = "click_day", nullable = false)
+    private LocalDate clickDay;
+
+    private long clicks;
+}
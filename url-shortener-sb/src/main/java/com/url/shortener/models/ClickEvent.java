@@ -3,6 +3,7 @@ package com.url.shortener.models;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
@@ -10,7 +11,10 @@ import java.time.LocalDateTime;
 @Table(
         name = "click_event",
         indexes = {
-                @Index(name = "idx_click_url_date", columnList = "url_mapping_id, clickDate")
+                @Index(name = "idx_click_url_date", columnList = "url_mapping_id, clickDate"),
+                // covering indexes for the GROUP BY breakdown queries (which sum samplingWeight)
+                @Index(name = "idx_click_dims_weight", columnList = "url_mapping_id, clickDate, browser, os, deviceType, country, samplingWeight"),
+                @Index(name = "idx_click_referer_weight", columnList = "url_mapping_id, clickDate, refererHost, samplingWeight")
         }
 )
 @Getter
@@ -31,27 +35,52 @@ public class ClickEvent {
     // ANALYTICS FIELDS
     private String ipAddress;
 
+    // dictionary-encoded (user_agent_dim / referer_dim); the inline strings below are
+    // legacy rows or values the dictionary did not intern
+    private Integer userAgentId;
+    private Integer refererId;
+
     @Column(columnDefinition = "TEXT")
     private String userAgent;
 
     private String referer;
 
+    @Column(length = 128)
+    private String refererHost; // lower-cased host of the referer, for breakdowns
+
+    @Column(length = 64)
     private String country;
     private String countryCode;
     private String region;
     private String city;
 
+    // short columns keep the covering breakdown index narrow
+    @Column(length = 16)
     private String deviceType; // mobile / desktop / tablet
+    @Column(length = 32)
     private String os;
+    @Column(length = 32)
     private String browser;
 
     private Boolean isBot = false;
 
+    // routing rule that picked the destination (null = the link's default URL);
+    // the variant label is copied so arms stay comparable after rules change
+    private Long routingRuleId;
+    @Column(length = 32)
+    private String variant;
+
     private Integer responseStatus; // redirect status (302/301)
     private Integer latencyMs; // response latency
 
+    // clicks this row stands for: 1, or more when the link's raw events were sampled
+    @Column(nullable = false)
+    @ColumnDefault("1")
+    @Builder.Default
+    private int samplingWeight = 1;
+
     // RELATIONSHIP
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "url_mapping_id")
     private UrlMapping urlMapping;
 }
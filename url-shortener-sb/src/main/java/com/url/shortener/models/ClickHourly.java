@@ -0,0 +1,38 @@
+package com.url.shortener.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Durable hourly click totals, flushed by {@link com.url.shortener.timeseries.ClickTimeSeries}
+ * from its in-memory minute buckets. Each node adds its own share, so rows are
+ * upserted with {@code clicks = clicks + ?}.
+ */
+@Entity
+@Table(
+        name = "click_hourly",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_click_hourly", columnNames = {"url_mapping_id", "hour_start"})
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ClickHourly {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "url_mapping_id", nullable = false)
+    private Long urlMappingId;
+
+    @Column(name = "hour_start", nullable = false)
+    private LocalDateTime hourStart;
+
+    private long clicks;
+}
@@ -0,0 +1,28 @@
+package com.url.shortener.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Replay position of one node's click journal. Advanced in the same transaction as the
+ * click rows it covers, so a crash can neither lose nor duplicate replayed clicks.
+ */
+@Entity
+@Table(name = "click_journal_offset")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ClickJournalOffset {
+
+    @Id
+    @Column(length = 36)
+    private String journalId; // journal.id file in the journal directory
+
+    private long committedIndex;
+
+    private LocalDateTime updatedAt;
+}
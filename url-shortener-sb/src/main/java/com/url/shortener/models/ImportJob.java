@@ -0,0 +1,51 @@
+package com.url.shortener.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress and checkpoint of a bulk link import.
+ * linesProcessed only advances together with the batch it covers, so a
+ * re-upload with the same job id resumes exactly after the last committed batch.
+ */
+@Entity
+@Table(name = "import_job")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    private String format; // csv / ndjson
+
+    private String status; // RUNNING / COMPLETED / FAILED
+
+    private long linesProcessed; // checkpoint: data records (NDJSON lines / CSV records) covered by committed batches
+
+    private long imported;
+
+    private long failed;
+
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,33 @@
+package com.url.shortener.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Interned referer URLs referenced from click_event by id (see ClickDimensionService).
+ */
+@Entity
+@Table(
+        name = "referer_dim",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_referer_dim_hash", columnNames = {"valueHash"})
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefererDimension {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    // SHA-256 of value: fixed-width unique key, since TEXT cannot be indexed whole
+    @Column(nullable = false, columnDefinition = "BINARY(32)")
+    private byte[] valueHash;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String value;
+}
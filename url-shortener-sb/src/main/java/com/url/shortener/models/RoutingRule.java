@@ -0,0 +1,61 @@
+package com.url.shortener.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One alternative destination of a {@link UrlMapping}.
+ * <p>
+ * Rules are evaluated by ascending {@code priority}: the first priority level with a
+ * matching rule wins, and the matching rules of that level split traffic by
+ * {@code weight}. Null conditions match everything; no match means the link's own
+ * originalUrl. See {@link com.url.shortener.routing.RoutingTable}.
+ */
+@Entity
+@Table(
+        name = "routing_rule",
+        indexes = {
+                @Index(name = "idx_routing_rule_mapping", columnList = "url_mapping_id, priority")
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RoutingRule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "url_mapping_id", nullable = false)
+    private UrlMapping urlMapping;
+
+    private int priority;
+
+    @Column(length = 32)
+    private String variant; // label analytics groups by, e.g. "A", "B", "de-mobile"
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String destinationUrl;
+
+    @Builder.Default
+    private int weight = 1;
+
+    // ---- CONDITIONS (null = any) ----
+    @Column(length = 2)
+    private String countryCode; // ISO 3166 alpha-2, from the edge's country header
+
+    @Column(length = 16)
+    private String deviceType; // mobile / tablet / desktop
+
+    @Column(length = 32)
+    private String os; // Windows / MacOS / Linux / Android / iOS
+
+    private LocalDateTime activeFrom;
+    private LocalDateTime activeUntil;
+}
@@ -0,0 +1,42 @@
+package com.url.shortener.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A branded short domain. Links created on it live in their own slug namespace
+ * ({@link UrlMapping#getDomain()} = host); requests are matched to it by their Host
+ * header through {@link com.url.shortener.domain.DomainTable}. Hosts not listed here
+ * share the default namespace.
+ */
+@Entity
+@Table(name = "short_domain")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShortDomain {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // lower-case, without port, e.g. "go.brand.com"
+    @Column(nullable = false, unique = true, length = 253)
+    private String host;
+
+    private String brand;
+
+    @Builder.Default
+    private Boolean active = true;
+
+    // size of this domain's slug cache partition; null = domains.cache.max-entries
+    private Integer cacheMaxEntries;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedDate;
+}
@@ -2,6 +2,7 @@ package com.url.shortener.models;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
@@ -13,7 +14,14 @@ import java.util.List;
         name = "url_mapping",
         indexes = {
                 @Index(name = "idx_short_url", columnList = "shortUrl"),
-                @Index(name = "idx_custom_alias", columnList = "customAlias")
+                @Index(name = "idx_user_url_hash", columnList = "user_id, originalUrlHash"),
+                @Index(name = "idx_deleted_at", columnList = "deletedAt"),
+                @Index(name = "idx_updated_date", columnList = "updatedDate, id")
+        },
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_user_idempotency_key", columnNames = {"user_id", "idempotencyKey"}),
+                // aliases are unique per short domain, not globally
+                @UniqueConstraint(name = "uk_domain_alias", columnNames = {"domain", "customAlias"})
         }
 )
 @Getter
@@ -30,11 +38,23 @@ public class UrlMapping {
     @Column(nullable = false, columnDefinition = "TEXT")
     private String originalUrl;
 
+    // SHA-256 of the normalized originalUrl (see UrlNormalizer), for deduplicated creates
+    @Column(columnDefinition = "BINARY(32)")
+    private byte[] originalUrlHash;
+
+    // client-supplied Idempotency-Key of the create request, for safe retries
+    @Column(length = 64)
+    private String idempotencyKey;
+
     @Column( unique = true)
     private String shortUrl;
 
+    // slug namespace: host of the ShortDomain the link was created on, "" for the primary host
+    @Column(nullable = false, length = 253)
+    @ColumnDefault("''")
+    private String domain;
+
     //  NEW CUSTOM SLUG SUPPORT
-    @Column(unique = true)
     private String customAlias; // e.g., "/my-awesome-link"
 
     private boolean isCustom = false;
@@ -49,6 +69,17 @@ public class UrlMapping {
 
     private LocalDateTime expiresAt;
 
+    // has RoutingRules (multi-destination); plain links skip the routing lookup entirely
+    private Boolean routed;
+
+    // bumped on every rule replacement; tags compiled RoutingTables (updatedDate moves on any write)
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private long routesVersion;
+
+    // set on delete; the row stops resolving at once and the purger removes it with its clicks later
+    private LocalDateTime deletedAt;
+
     // ---- AI / META FIELDS ----
     private String title;
 
@@ -78,12 +109,17 @@ public class UrlMapping {
 
     private LocalDateTime lastChecked; // for link health checks
 
+    // destination chosen by the routing rules for the current redirect; never stored
+    @Transient
+    private String resolvedUrl;
+
     // ---- RELATIONSHIPS ----
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @OneToMany(mappedBy = "urlMapping", cascade = CascadeType.ALL)
+    // no cascade: clicks are removed in chunks by TombstonePurger, never through the entity graph
+    @OneToMany(mappedBy = "urlMapping")
     private List<ClickEvent> clickEvents;
 
 }
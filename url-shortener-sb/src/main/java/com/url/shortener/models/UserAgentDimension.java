@@ -0,0 +1,33 @@
+package com.url.shortener.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Interned user-agent strings referenced from click_event by id (see ClickDimensionService).
+ */
+@Entity
+@Table(
+        name = "user_agent_dim",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_user_agent_dim_hash", columnNames = {"valueHash"})
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserAgentDimension {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    // SHA-256 of value: fixed-width unique key, since TEXT cannot be indexed whole
+    @Column(nullable = false, columnDefinition = "BINARY(32)")
+    private byte[] valueHash;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String value;
+}
@@ -0,0 +1,152 @@
+package com.url.shortener.purge;
+
+import com.url.shortener.repository.UrlMappingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Physically removes deleted (tombstoned) links.
+ * <p>
+ * Click rows go first, in chunks of {@code purge.chunk-size} with one auto-committed
+ * {@code DELETE ... LIMIT} per chunk, so no statement holds locks or undo for long and
+ * nothing is loaded into memory. The mapping row itself is removed once it has no clicks.
+ */
+@Component
+@Slf4j
+public class TombstonePurger {
+
+    private static final String DELETE_CLICKS_SQL = "DELETE FROM click_event WHERE url_mapping_id = ? LIMIT ?";
+    private static final String DELETE_RULES_SQL = "DELETE FROM routing_rule WHERE url_mapping_id = ?";
+    private static final String DELETE_HOURLY_SQL = "DELETE FROM click_hourly WHERE url_mapping_id = ?";
+    private static final String DELETE_DAILY_SQL = "DELETE FROM click_daily WHERE url_mapping_id = ?";
+    private static final String DELETE_MAPPING_SQL = "DELETE FROM url_mapping WHERE id = ? AND deleted_at IS NOT NULL";
+    private static final String DELETE_ARCHIVED_MAPPING_SQL = "DELETE FROM url_mapping WHERE id = ?";
+
+    private final UrlMappingRepository urlMappingRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final boolean enabled;
+    private final int chunkSize;
+    private final int linksPerRun;
+    private final long pauseMs;
+    private final Duration minAge;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final Counter purgedLinks;
+    private final Counter purgedClicks;
+
+    public TombstonePurger(
+            UrlMappingRepository urlMappingRepository,
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${purge.enabled:true}") boolean enabled,
+            @Value("${purge.chunk-size:5000}") int chunkSize,
+            @Value("${purge.links-per-run:100}") int linksPerRun,
+            @Value("${purge.chunk-pause-ms:50}") long pauseMs,
+            @Value("${purge.min-age-minutes:5}") long minAgeMinutes
+    ) {
+        this.urlMappingRepository = urlMappingRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.chunkSize = chunkSize;
+        this.linksPerRun = linksPerRun;
+        this.pauseMs = pauseMs;
+        this.minAge = Duration.ofMinutes(minAgeMinutes);
+        this.purgedLinks = meterRegistry.counter("purge.links");
+        this.purgedClicks = meterRegistry.counter("purge.clicks");
+    }
+
+    @Scheduled(
+            initialDelayString = "${purge.initial-delay-ms:30000}",
+            fixedDelayString = "${purge.interval-ms:60000}"
+    )
+    public void scheduledRun() {
+        if (enabled) {
+            runOnce();
+        }
+    }
+
+    /**
+     * Purges up to {@code purge.links-per-run} tombstones. Returns the number of links removed.
+     */
+    public int runOnce() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        int purged = 0;
+        try {
+            List<Long> ids = urlMappingRepository.findTombstonedIds(
+                    LocalDateTime.now().minus(minAge), PageRequest.of(0, linksPerRun));
+            for (Long id : ids) {
+                if (!purge(id, DELETE_MAPPING_SQL, true)) {
+                    break;
+                }
+                purged++;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Tombstone purge failed: {}", e.getMessage());
+        } finally {
+            running.set(false);
+        }
+        return purged;
+    }
+
+    /**
+     * Removes the live rows of a link that {@link com.url.shortener.archive.LinkArchive} has
+     * already written to an archive segment, in the same chunks as tombstones.
+     * Returns false if interrupted between chunks.
+     */
+    public boolean purgeArchived(Long mappingId) {
+        return purge(mappingId, DELETE_ARCHIVED_MAPPING_SQL, false);
+    }
+
+    private boolean purge(Long mappingId, String deleteMappingSql, boolean tombstone) {
+        long removed = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(DELETE_CLICKS_SQL, mappingId, chunkSize);
+            removed += deleted;
+            if (tombstone) {
+                purgedClicks.increment(deleted);
+            }
+            if (deleted == chunkSize && !pause()) {
+                return false;
+            }
+        } while (deleted == chunkSize);
+
+        jdbcTemplate.update(DELETE_HOURLY_SQL, mappingId);
+        jdbcTemplate.update(DELETE_DAILY_SQL, mappingId);
+        jdbcTemplate.update(DELETE_RULES_SQL, mappingId);
+        jdbcTemplate.update(deleteMappingSql, mappingId);
+        if (tombstone) {
+            purgedLinks.increment();
+        }
+        log.debug("Purged link {} with {} clicks", mappingId, removed);
+        return true;
+    }
+
+    // give replication and foreground writes room between chunks
+    private boolean pause() {
+        if (pauseMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
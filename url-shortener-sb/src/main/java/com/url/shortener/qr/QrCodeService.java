@@ -0,0 +1,185 @@
+package com.url.shortener.qr;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.*;
+
+/**
+ * Renders QR codes for short links.
+ * <p>
+ * Lookup order is memory (byte-budget LRU), then the optional disk directory, then a
+ * render. Renders run on a small bounded pool with a bounded queue, so a burst of QR
+ * requests queues there (or gets a 503) instead of occupying request threads that
+ * redirects need. Concurrent requests for the same image share one render.
+ */
+@Service
+@Slf4j
+public class QrCodeService {
+
+    private final String baseUrl;
+    private final QrImageCache cache;
+    private final Path diskDir;
+    private final long renderTimeoutMs;
+    private final ThreadPoolExecutor renderPool;
+    private final ConcurrentHashMap<String, CompletableFuture<QrImage>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter memoryHits;
+    private final Counter diskHits;
+    private final Counter renders;
+    private final Counter rejections;
+
+    public QrCodeService(
+            MeterRegistry meterRegistry,
+            @Value("${shortener.base-url:http://localhost:8080}") String baseUrl,
+            @Value("${qr.cache.max-bytes:33554432}") long maxCacheBytes,
+            @Value("${qr.cache.dir:}") String cacheDir,
+            @Value("${qr.render.threads:2}") int renderThreads,
+            @Value("${qr.render.queue-capacity:64}") int queueCapacity,
+            @Value("${qr.render.timeout-ms:5000}") long renderTimeoutMs
+    ) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.cache = new QrImageCache(maxCacheBytes);
+        this.diskDir = cacheDir == null || cacheDir.isBlank() ? null : Path.of(cacheDir);
+        this.renderTimeoutMs = renderTimeoutMs;
+        this.renderPool = new ThreadPoolExecutor(
+                renderThreads, renderThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "qr-render");
+                    t.setDaemon(true);
+                    t.setPriority(Thread.NORM_PRIORITY - 1);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.memoryHits = meterRegistry.counter("qr.cache", "result", "memory");
+        this.diskHits = meterRegistry.counter("qr.cache", "result", "disk");
+        this.renders = meterRegistry.counter("qr.cache", "result", "render");
+        this.rejections = meterRegistry.counter("qr.render.rejections");
+        meterRegistry.gauge("qr.cache.bytes", cache, QrImageCache::bytes);
+        meterRegistry.gauge("qr.render.queue", renderPool, p -> p.getQueue().size());
+
+        if (diskDir != null) {
+            try {
+                Files.createDirectories(diskDir);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot create QR cache directory " + diskDir, e);
+            }
+        }
+    }
+
+    /**
+     * Render parameters for the public link of {@code slug} (short code or custom alias) in
+     * its domain's namespace: the primary origin for the default domain, else the brand host.
+     */
+    public QrSpec spec(String domain, String slug, int size, String format, String ecc) {
+        String origin = domain == null || domain.isEmpty() ? baseUrl : "https://" + domain;
+        return QrSpec.of(origin + "/" + slug, size, format, ecc);
+    }
+
+    /**
+     * Completes with the image, or exceptionally with a 503 {@link ResponseStatusException}
+     * when the render pool is saturated or the render takes too long.
+     */
+    public CompletableFuture<QrImage> getImage(QrSpec spec) {
+        String key = spec.key();
+        QrImage cached = cache.get(key);
+        if (cached != null) {
+            memoryHits.increment();
+            return CompletableFuture.completedFuture(cached);
+        }
+        QrImage fromDisk = readFromDisk(spec);
+        if (fromDisk != null) {
+            diskHits.increment();
+            cache.put(key, fromDisk);
+            return CompletableFuture.completedFuture(fromDisk);
+        }
+
+        CompletableFuture<QrImage> shared = inFlight.computeIfAbsent(key, k -> submit(spec));
+        if (shared.isCompletedExceptionally()) {
+            inFlight.remove(key, shared); // rejected by the pool: do not pin the failure
+        }
+        return shared.copy()
+                .orTimeout(renderTimeoutMs, TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof ResponseStatusException rse) {
+                        throw rse;
+                    }
+                    if (cause instanceof TimeoutException) {
+                        throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "QR rendering timed out");
+                    }
+                    throw cause instanceof RuntimeException re ? re : new CompletionException(cause);
+                });
+    }
+
+    private CompletableFuture<QrImage> submit(QrSpec spec) {
+        String key = spec.key();
+        CompletableFuture<QrImage> future = new CompletableFuture<>();
+        try {
+            renderPool.execute(() -> {
+                try {
+                    QrImage image = new QrImage(QrRenderer.render(spec), spec.contentType(), spec.etag());
+                    renders.increment();
+                    cache.put(key, image);
+                    writeToDisk(spec, image);
+                    future.complete(image);
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(key, future);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            future.completeExceptionally(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "QR renderer busy, retry later"));
+        }
+        return future;
+    }
+
+    // ============================================
+    // DISK PERSISTENCE (optional, qr.cache.dir)
+    // ============================================
+    private QrImage readFromDisk(QrSpec spec) {
+        if (diskDir == null) {
+            return null;
+        }
+        Path file = diskDir.resolve(spec.key() + "." + spec.format());
+        try {
+            return Files.exists(file) ? new QrImage(Files.readAllBytes(file), spec.contentType(), spec.etag()) : null;
+        } catch (IOException e) {
+            log.debug("QR cache read failed for {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeToDisk(QrSpec spec, QrImage image) {
+        if (diskDir == null) {
+            return;
+        }
+        Path file = diskDir.resolve(spec.key() + "." + spec.format());
+        try {
+            Path tmp = Files.createTempFile(diskDir, spec.key(), ".tmp");
+            Files.write(tmp, image.bytes());
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("QR cache write failed for {}: {}", file, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renderPool.shutdownNow();
+    }
+}
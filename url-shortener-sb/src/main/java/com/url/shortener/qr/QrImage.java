@@ -0,0 +1,8 @@
+package com.url.shortener.qr;
+
+/**
+ * A rendered QR code. The ETag is derived from the render inputs, so it is known
+ * before (and without) rendering.
+ */
+public record QrImage(byte[] bytes, String contentType, String etag) {
+}
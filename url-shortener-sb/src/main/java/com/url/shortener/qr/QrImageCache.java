@@ -0,0 +1,45 @@
+package com.url.shortener.qr;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU of rendered images bounded by total bytes rather than entry count, since a
+ * 2048px PNG and a 128px SVG differ by orders of magnitude.
+ */
+final class QrImageCache {
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, QrImage> images = new LinkedHashMap<>(256, 0.75f, true);
+    private long bytes;
+
+    QrImageCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    synchronized QrImage get(String key) {
+        return images.get(key);
+    }
+
+    synchronized void put(String key, QrImage image) {
+        int length = image.bytes().length;
+        if (length > maxBytes) {
+            return;
+        }
+        QrImage previous = images.put(key, image);
+        if (previous != null) {
+            bytes -= previous.bytes().length;
+        }
+        bytes += length;
+        Iterator<Map.Entry<String, QrImage>> eldest = images.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            bytes -= eldest.next().getValue().bytes().length;
+            eldest.remove();
+        }
+    }
+
+    synchronized long bytes() {
+        return bytes;
+    }
+}
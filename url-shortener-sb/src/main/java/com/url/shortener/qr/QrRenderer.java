@@ -0,0 +1,107 @@
+package com.url.shortener.qr;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Pure-Java QR rendering (ZXing core for the matrix, ImageIO / plain text for output).
+ * Modules are drawn at an integer scale so edges stay sharp; the code is centred in
+ * the requested size.
+ */
+final class QrRenderer {
+
+    private static final int QUIET_ZONE = 4; // modules, as required by the spec
+
+    private QrRenderer() {
+    }
+
+    static byte[] render(QrSpec spec) {
+        BitMatrix matrix = encode(spec);
+        return spec.format().equals("svg") ? svg(matrix, spec.size()) : png(matrix, spec.size());
+    }
+
+    private static BitMatrix encode(QrSpec spec) {
+        try {
+            // width/height 0: one pixel per module, quiet zone included
+            return new QRCodeWriter().encode(spec.content(), BarcodeFormat.QR_CODE, 0, 0, Map.of(
+                    EncodeHintType.ERROR_CORRECTION, spec.ecc(),
+                    EncodeHintType.MARGIN, QUIET_ZONE,
+                    EncodeHintType.CHARACTER_SET, StandardCharsets.UTF_8.name()));
+        } catch (WriterException e) {
+            throw new RuntimeException("Could not encode QR code: " + e.getMessage());
+        }
+    }
+
+    private static byte[] png(BitMatrix matrix, int size) {
+        int modules = matrix.getWidth();
+        int scale = size / modules;
+        if (scale < 1) {
+            throw new RuntimeException("QR size too small for this link; use at least " + modules);
+        }
+        int offset = (size - modules * scale) / 2;
+
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_BYTE_BINARY);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, size, size);
+            g.setColor(Color.BLACK);
+            for (int y = 0; y < modules; y++) {
+                for (int x = 0; x < modules; x++) {
+                    if (matrix.get(x, y)) {
+                        g.fillRect(offset + x * scale, offset + y * scale, scale, scale);
+                    }
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        try {
+            ImageIO.write(image, "png", out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    // one path, one horizontal run per "h" segment; the viewBox scales it to size
+    private static byte[] svg(BitMatrix matrix, int size) {
+        int modules = matrix.getWidth();
+        StringBuilder path = new StringBuilder(modules * modules);
+        for (int y = 0; y < modules; y++) {
+            int x = 0;
+            while (x < modules) {
+                if (!matrix.get(x, y)) {
+                    x++;
+                    continue;
+                }
+                int start = x;
+                while (x < modules && matrix.get(x, y)) {
+                    x++;
+                }
+                path.append('M').append(start).append(' ').append(y)
+                        .append('h').append(x - start).append("v1h-").append(x - start).append('z');
+            }
+        }
+        String svg = "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + size + "\" height=\"" + size
+                + "\" viewBox=\"0 0 " + modules + ' ' + modules + "\" shape-rendering=\"crispEdges\">"
+                + "<rect width=\"100%\" height=\"100%\" fill=\"#fff\"/>"
+                + "<path fill=\"#000\" d=\"" + path + "\"/></svg>";
+        return svg.getBytes(StandardCharsets.UTF_8);
+    }
+}
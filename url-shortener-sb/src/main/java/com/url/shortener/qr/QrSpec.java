@@ -0,0 +1,57 @@
+package com.url.shortener.qr;
+
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+
+/**
+ * Validated render parameters; {@link #key()} identifies the image in the caches.
+ */
+public record QrSpec(String content, int size, String format, ErrorCorrectionLevel ecc) {
+
+    public static final int MIN_SIZE = 64;
+    public static final int MAX_SIZE = 2048;
+
+    public static QrSpec of(String content, int size, String format, String ecc) {
+        if (size < MIN_SIZE || size > MAX_SIZE) {
+            throw new RuntimeException("QR size must be between " + MIN_SIZE + " and " + MAX_SIZE);
+        }
+        String fmt = format == null ? "png" : format.toLowerCase(Locale.ROOT);
+        if (!fmt.equals("png") && !fmt.equals("svg")) {
+            throw new RuntimeException("Unsupported QR format: " + format + " (png or svg)");
+        }
+        ErrorCorrectionLevel level;
+        try {
+            level = ErrorCorrectionLevel.valueOf(ecc == null ? "M" : ecc.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Unsupported error correction level: " + ecc + " (L, M, Q or H)");
+        }
+        return new QrSpec(content, size, fmt, level);
+    }
+
+    public String contentType() {
+        return format.equals("svg") ? "image/svg+xml" : "image/png";
+    }
+
+    /**
+     * Hex SHA-256 over every render input; doubles as file name and ETag. The content is the
+     * full link URL, host included, so the same slug on two domains never shares an image.
+     */
+    public String key() {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest((content + '|' + size + '|' + format + '|' + ecc).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public String etag() {
+        return "\"" + key() + "\"";
+    }
+}
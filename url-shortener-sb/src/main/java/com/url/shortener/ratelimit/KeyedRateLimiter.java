@@ -0,0 +1,74 @@
+package com.url.shortener.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One {@link TokenBucket} per key (IP, user, slug) under a single policy.
+ * <p>
+ * Memory stays bounded: idle buckets are swept regularly (dropping a full bucket is
+ * lossless), and once {@code maxKeys} active keys are tracked new keys are admitted
+ * without a bucket instead of growing the map. A full table also sweeps on demand, but
+ * at most once per {@link #MIN_SWEEP_GAP_NANOS} and by one caller, so a stream of new
+ * keys costs one scan per gap rather than one per key.
+ */
+public class KeyedRateLimiter {
+
+    static final long MIN_SWEEP_GAP_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final RateLimitPolicy policy;
+    private final int maxKeys;
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweepNanos;
+
+    public KeyedRateLimiter(RateLimitPolicy policy, int maxKeys) {
+        this.policy = policy;
+        this.maxKeys = maxKeys;
+        this.nextSweepNanos = new AtomicLong(System.nanoTime());
+    }
+
+    public RateLimitPolicy policy() {
+        return policy;
+    }
+
+    /**
+     * @return 0 when admitted, otherwise nanos until the key may retry
+     */
+    public long tryAcquire(String key) {
+        return tryAcquire(key, System.nanoTime());
+    }
+
+    long tryAcquire(String key, long now) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys) {
+                sweepIfDue(now);
+                if (buckets.size() >= maxKeys) {
+                    return 0; // table full of active keys: fail open rather than grow
+                }
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(now));
+        }
+        return bucket.tryAcquire(now, policy);
+    }
+
+    private void sweepIfDue(long now) {
+        long due = nextSweepNanos.get();
+        if (now - due >= 0 && nextSweepNanos.compareAndSet(due, now + MIN_SWEEP_GAP_NANOS)) {
+            evictIdle(now);
+        }
+    }
+
+    public void evictIdle() {
+        evictIdle(System.nanoTime());
+    }
+
+    void evictIdle(long now) {
+        buckets.values().removeIf(bucket -> bucket.isIdle(now));
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
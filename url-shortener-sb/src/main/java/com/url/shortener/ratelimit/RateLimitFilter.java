@@ -0,0 +1,149 @@
+package com.url.shortener.ratelimit;
+
+import com.url.shortener.domain.DomainTable;
+import com.url.shortener.security.jwt.JwtUtils;
+import com.url.shortener.utils.RequestUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rejects abusive traffic with 429 before security, controllers or the database are touched.
+ * <p>
+ * Redirects ({@code GET /{slug}}) are limited per client IP and per slug within its short
+ * domain (unknown hosts share the default domain's buckets); creates
+ * ({@code POST /api/urls/shorten}) per user and per IP. The user is read from the
+ * JWT signature alone, without the user lookup the authentication filter does.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String SHORTEN_PATH = "/api/urls/shorten";
+
+    private final JwtUtils jwtUtils;
+    private final DomainTable domainTable;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+
+    private final KeyedRateLimiter redirectByIp;
+    private final KeyedRateLimiter redirectBySlug;
+    private final KeyedRateLimiter shortenByUser;
+    private final KeyedRateLimiter shortenByIp;
+
+    public RateLimitFilter(
+            JwtUtils jwtUtils,
+            DomainTable domainTable,
+            MeterRegistry meterRegistry,
+            @Value("${ratelimit.enabled:true}") boolean enabled,
+            @Value("${ratelimit.max-keys:1000000}") int maxKeys,
+            @Value("${ratelimit.redirect.ip.per-second:50}") double redirectIpRate,
+            @Value("${ratelimit.redirect.ip.burst:100}") int redirectIpBurst,
+            @Value("${ratelimit.redirect.slug.per-second:1000}") double redirectSlugRate,
+            @Value("${ratelimit.redirect.slug.burst:2000}") int redirectSlugBurst,
+            @Value("${ratelimit.shorten.user.per-second:2}") double shortenUserRate,
+            @Value("${ratelimit.shorten.user.burst:20}") int shortenUserBurst,
+            @Value("${ratelimit.shorten.ip.per-second:5}") double shortenIpRate,
+            @Value("${ratelimit.shorten.ip.burst:30}") int shortenIpBurst
+    ) {
+        this.jwtUtils = jwtUtils;
+        this.domainTable = domainTable;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.redirectByIp = new KeyedRateLimiter(RateLimitPolicy.of("redirect-ip", redirectIpRate, redirectIpBurst), maxKeys);
+        this.redirectBySlug = new KeyedRateLimiter(RateLimitPolicy.of("redirect-slug", redirectSlugRate, redirectSlugBurst), maxKeys);
+        this.shortenByUser = new KeyedRateLimiter(RateLimitPolicy.of("shorten-user", shortenUserRate, shortenUserBurst), maxKeys);
+        this.shortenByIp = new KeyedRateLimiter(RateLimitPolicy.of("shorten-ip", shortenIpRate, shortenIpBurst), maxKeys);
+
+        for (KeyedRateLimiter limiter : limiters()) {
+            meterRegistry.gauge("ratelimit.keys", Tags.of("policy", limiter.policy().name()),
+                    limiter, KeyedRateLimiter::size);
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (enabled) {
+            String path = request.getRequestURI().substring(request.getContextPath().length());
+            long waitNanos = 0;
+
+            if ("GET".equals(request.getMethod()) && isRedirectPath(path)) {
+                waitNanos = check(redirectByIp, RequestUtils.getClientIp(request));
+                if (waitNanos == 0) {
+                    String host = domainTable.resolve(RequestUtils.getHost(request)).host();
+                    waitNanos = check(redirectBySlug, host + "/" + path.substring(1));
+                }
+            } else if ("POST".equals(request.getMethod()) && SHORTEN_PATH.equals(path)) {
+                String ip = RequestUtils.getClientIp(request);
+                String user = usernameFromToken(request);
+                waitNanos = check(shortenByUser, user != null ? user : "ip:" + ip);
+                if (waitNanos == 0) {
+                    waitNanos = check(shortenByIp, ip);
+                }
+            }
+
+            if (waitNanos > 0) {
+                long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+                response.setStatus(429);
+                response.setHeader("Retry-After", String.valueOf(retryAfter));
+                response.setContentType("text/plain");
+                response.getWriter().write("Too many requests");
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private long check(KeyedRateLimiter limiter, String key) {
+        long wait = limiter.tryAcquire(key);
+        if (wait > 0) {
+            meterRegistry.counter("ratelimit.rejections", "policy", limiter.policy().name()).increment();
+        }
+        return wait;
+    }
+
+    // "/{shortUrl}" - one path segment outside the API / framework namespaces
+    private static boolean isRedirectPath(String path) {
+        return path.length() > 1
+                && path.indexOf('/', 1) < 0
+                && !path.startsWith("/api")
+                && !path.equals("/error")
+                && !path.equals("/actuator")
+                && !path.equals("/favicon.ico");
+    }
+
+    private String usernameFromToken(HttpServletRequest request) {
+        try {
+            String jwt = jwtUtils.getJwtFromHeader(request);
+            return jwt != null ? jwtUtils.getUserNameFromJwtToken(jwt) : null;
+        } catch (RuntimeException e) {
+            return null; // bad token: fall back to the IP key, security will reject it later
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ratelimit.sweep-interval-ms:10000}")
+    public void evictIdleBuckets() {
+        for (KeyedRateLimiter limiter : limiters()) {
+            limiter.evictIdle();
+        }
+    }
+
+    private List<KeyedRateLimiter> limiters() {
+        return List.of(redirectByIp, redirectBySlug, shortenByUser, shortenByIp);
+    }
+}
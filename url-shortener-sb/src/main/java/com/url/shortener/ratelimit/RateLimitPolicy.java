@@ -0,0 +1,18 @@
+package com.url.shortener.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sustained rate plus burst size, pre-computed into GCRA terms.
+ *
+ * @param name                 metric tag, e.g. "redirect-ip"
+ * @param emissionIntervalNanos time one token takes to refill
+ * @param burstToleranceNanos  how far ahead of schedule a key may run (burst - 1 intervals)
+ */
+public record RateLimitPolicy(String name, long emissionIntervalNanos, long burstToleranceNanos) {
+
+    public static RateLimitPolicy of(String name, double permitsPerSecond, int burst) {
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        return new RateLimitPolicy(name, interval, interval * Math.max(0, burst - 1));
+    }
+}
@@ -0,0 +1,43 @@
+package com.url.shortener.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in its GCRA form: the whole state is one "theoretical
+ * arrival time" (TAT), advanced by one emission interval per admitted request
+ * with a single CAS. A bucket whose TAT is in the past is full, which is exactly
+ * the state of a bucket that does not exist yet, so idle buckets can be evicted
+ * without changing any decision.
+ */
+public final class TokenBucket {
+
+    private final AtomicLong theoreticalArrivalNanos;
+
+    public TokenBucket(long nowNanos) {
+        this.theoreticalArrivalNanos = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes one token.
+     *
+     * @return 0 when admitted, otherwise the nanos until a token becomes available
+     */
+    public long tryAcquire(long nowNanos, RateLimitPolicy policy) {
+        while (true) {
+            long tat = theoreticalArrivalNanos.get();
+            long base = tat - nowNanos > 0 ? tat : nowNanos;
+            long waitNanos = base - nowNanos - policy.burstToleranceNanos();
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (theoreticalArrivalNanos.compareAndSet(tat, base + policy.emissionIntervalNanos())) {
+                return 0;
+            }
+        }
+    }
+
+    /** True when the bucket has been refilled completely and holds no state worth keeping. */
+    public boolean isIdle(long nowNanos) {
+        return theoreticalArrivalNanos.get() - nowNanos <= 0;
+    }
+}
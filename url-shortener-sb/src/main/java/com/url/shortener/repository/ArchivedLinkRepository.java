@@ -0,0 +1,27 @@
+package com.url.shortener.repository;
+
+import com.url.shortener.models.ArchivedLink;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ArchivedLinkRepository extends JpaRepository<ArchivedLink, Long> {
+
+    List<ArchivedLink> findByUserIdOrderByArchivedAtDesc(Long userId);
+
+    Optional<ArchivedLink> findByShortUrl(String shortUrl);
+
+    @Query("SELECT COALESCE(MAX(a.id), 0) FROM ArchivedLink a")
+    long findHighestId();
+
+    // ---------------------------------------
+    // Archived aliases stay reserved
+    // ---------------------------------------
+    boolean existsByDomainAndCustomAlias(String domain, String customAlias);
+
+    @Query("SELECT a.customAlias FROM ArchivedLink a WHERE a.domain = :domain AND a.customAlias IN :aliases")
+    List<String> findExistingAliases(String domain, Collection<String> aliases);
+}
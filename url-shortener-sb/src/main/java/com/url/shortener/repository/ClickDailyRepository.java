@@ -0,0 +1,38 @@
+package com.url.shortener.repository;
+
+import com.url.shortener.models.ClickDaily;
+import com.url.shortener.models.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ClickDailyRepository extends JpaRepository<ClickDaily, Long> {
+
+    // ---------- Exact per-day totals for /totalClicks ----------
+    @Query("""
+        SELECT d.clickDay, SUM(d.clicks)
+        FROM ClickDaily d, UrlMapping u
+        WHERE u.id = d.urlMappingId
+          AND u.user = :user
+          AND d.clickDay BETWEEN :start AND :end
+        GROUP BY d.clickDay
+        ORDER BY d.clickDay
+        """)
+    List<Object[]> getTotalClicksByUserAndDay(User user, LocalDate start, LocalDate end);
+
+    @Query("SELECT MIN(d.clickDay) FROM ClickDaily d")
+    LocalDate findFirstDay();
+
+    // ---------- Direct (non-journaled) click path ----------
+    @Modifying
+    @Transactional
+    @Query(value = """
+        INSERT INTO click_daily (url_mapping_id, click_day, clicks) VALUES (:mappingId, :day, 1)
+        ON DUPLICATE KEY UPDATE clicks = clicks + 1
+        """, nativeQuery = true)
+    void increment(Long mappingId, LocalDate day);
+}
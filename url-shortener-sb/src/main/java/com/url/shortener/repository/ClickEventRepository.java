@@ -1,14 +1,20 @@
 package com.url.shortener.repository;
 
+import com.url.shortener.dtos.ClickEventDTO;
 import com.url.shortener.models.ClickEvent;
 import com.url.shortener.models.UrlMapping;
 import com.url.shortener.models.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ClickEventRepository extends JpaRepository<ClickEvent, Long> {
 
@@ -24,9 +30,9 @@ public interface ClickEventRepository extends JpaRepository<ClickEvent, Long> {
             LocalDateTime end
     );
 
-    // ---------- Needed for /totalClicks dashboard ----------
+    // ---------- /totalClicks for days before click_daily (weighted row counts) ----------
     @Query("""
-        SELECT DATE(c.clickDate) AS date, COUNT(c) AS totalClicks
+        SELECT DATE(c.clickDate) AS date, SUM(c.samplingWeight) AS totalClicks
         FROM ClickEvent c
         JOIN c.urlMapping u
         WHERE u.user = :user
@@ -53,4 +59,104 @@ public interface ClickEventRepository extends JpaRepository<ClickEvent, Long> {
             LocalDateTime start,
             LocalDateTime end
     );
+
+    // ---------- Raw events as DTO projections ----------
+    // Only the ClickEventDTO columns are selected: no ClickEvent / UrlMapping / User
+    // entities are materialized, so nothing lands in the persistence context.
+    // Streamed (callers hold a read-only transaction) so large ranges are never
+    // collected into one list; Connector/J only honours the fetch size with
+    // useCursorFetch=true on the JDBC URL, otherwise it buffers the whole result.
+    // User agent / referer come from the dimension tables, or inline for legacy rows.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000")
+    })
+    @Query("""
+        SELECT new com.url.shortener.dtos.ClickEventDTO(
+            c.id, c.clickDate, c.ipAddress,
+            COALESCE(ua.value, c.userAgent), COALESCE(rd.value, c.referer),
+            c.country, c.region, c.city,
+            c.deviceType, c.os, c.browser,
+            c.isBot, c.responseStatus, c.latencyMs, c.samplingWeight)
+        FROM ClickEvent c
+        LEFT JOIN UserAgentDimension ua ON ua.id = c.userAgentId
+        LEFT JOIN RefererDimension rd ON rd.id = c.refererId
+        WHERE c.urlMapping.id = :mappingId
+          AND c.clickDate BETWEEN :start AND :end
+        ORDER BY c.clickDate
+        """)
+    Stream<ClickEventDTO> streamEventDTOsByMappingAndDate(Long mappingId, LocalDateTime start, LocalDateTime end);
+
+    // ---------- Breakdowns: GROUP BY over the covering indexes ----------
+    // Each returns [value, clicks] rows, largest first; clicks sum the sampling weights,
+    // so sampled links get estimates rather than raw row counts.
+    @Query("""
+        SELECT c.browser, SUM(c.samplingWeight)
+        FROM ClickEvent c
+        WHERE c.urlMapping.id = :mappingId
+          AND c.clickDate BETWEEN :start AND :end
+        GROUP BY c.browser
+        ORDER BY SUM(c.samplingWeight) DESC
+        """)
+    List<Object[]> countByBrowser(Long mappingId, LocalDateTime start, LocalDateTime end, Pageable limit);
+
+    @Query("""
+        SELECT c.os, SUM(c.samplingWeight)
+        FROM ClickEvent c
+        WHERE c.urlMapping.id = :mappingId
+          AND c.clickDate BETWEEN :start AND :end
+        GROUP BY c.os
+        ORDER BY SUM(c.samplingWeight) DESC
+        """)
+    List<Object[]> countByOs(Long mappingId, LocalDateTime start, LocalDateTime end, Pageable limit);
+
+    @Query("""
+        SELECT c.deviceType, SUM(c.samplingWeight)
+        FROM ClickEvent c
+        WHERE c.urlMapping.id = :mappingId
+          AND c.clickDate BETWEEN :start AND :end
+        GROUP BY c.deviceType
+        ORDER BY SUM(c.samplingWeight) DESC
+        """)
+    List<Object[]> countByDeviceType(Long mappingId, LocalDateTime start, LocalDateTime end, Pageable limit);
+
+    @Query("""
+        SELECT c.country, SUM(c.samplingWeight)
+        FROM ClickEvent c
+        WHERE c.urlMapping.id = :mappingId
+          AND c.clickDate BETWEEN :start AND :end
+        GROUP BY c.country
+        ORDER BY SUM(c.samplingWeight) DESC
+        """)
+    List<Object[]> countByCountry(Long mappingId, LocalDateTime start, LocalDateTime end, Pageable limit);
+
+    @Query("""
+        SELECT c.refererHost, SUM(c.samplingWeight)
+        FROM ClickEvent c
+        WHERE c.urlMapping.id = :mappingId
+          AND c.clickDate BETWEEN :start AND :end
+        GROUP BY c.refererHost
+        ORDER BY SUM(c.samplingWeight) DESC
+        """)
+    List<Object[]> countByRefererHost(Long mappingId, LocalDateTime start, LocalDateTime end, Pageable limit);
+
+    @Query("""
+        SELECT c.variant, SUM(c.samplingWeight)
+        FROM ClickEvent c
+        WHERE c.urlMapping.id = :mappingId
+          AND c.clickDate BETWEEN :start AND :end
+        GROUP BY c.variant
+        ORDER BY SUM(c.samplingWeight) DESC
+        """)
+    List<Object[]> countByVariant(Long mappingId, LocalDateTime start, LocalDateTime end, Pageable limit);
+
+    @Query("""
+        SELECT HOUR(c.clickDate), SUM(c.samplingWeight)
+        FROM ClickEvent c
+        WHERE c.urlMapping.id = :mappingId
+          AND c.clickDate BETWEEN :start AND :end
+        GROUP BY HOUR(c.clickDate)
+        ORDER BY HOUR(c.clickDate)
+        """)
+    List<Object[]> countByHourOfDay(Long mappingId, LocalDateTime start, LocalDateTime end);
 }
@@ -0,0 +1,12 @@
+package com.url.shortener.repository;
+
+import com.url.shortener.models.ImportJob;
+import com.url.shortener.models.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface ImportJobRepository extends JpaRepository<ImportJob, Long> {
+
+    Optional<ImportJob> findByIdAndUser(Long id, User user);
+}
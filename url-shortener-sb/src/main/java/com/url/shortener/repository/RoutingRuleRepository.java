@@ -0,0 +1,20 @@
+package com.url.shortener.repository;
+
+import com.url.shortener.models.RoutingRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface RoutingRuleRepository extends JpaRepository<RoutingRule, Long> {
+
+    List<RoutingRule> findByUrlMappingIdOrderByPriorityAscIdAsc(Long mappingId);
+
+    // ---------------------------------------
+    // Rules are replaced as a set
+    // ---------------------------------------
+    @Modifying
+    @Query("DELETE FROM RoutingRule r WHERE r.urlMapping.id = :mappingId")
+    int deleteByMappingId(Long mappingId);
+}
@@ -2,10 +2,13 @@ package com.url.shortener.repository;
 
 import com.url.shortener.models.UrlMapping;
 import com.url.shortener.models.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,14 +21,19 @@ public interface UrlMappingRepository extends JpaRepository<UrlMapping, Long> {
 
     // ---------------------------------------
     // Check custom alias availability
+    // (aliases are unique per short domain)
     // ---------------------------------------
-    boolean existsByCustomAlias(String customAlias);
+    boolean existsByDomainAndCustomAlias(String domain, String customAlias);
+
+    Optional<UrlMapping> findByDomainAndCustomAlias(String domain, String customAlias);
 
     // ---------------------------------------
     // List URLs owned by user
     // ---------------------------------------
     List<UrlMapping> findByUser(User user);
 
+    List<UrlMapping> findByUserAndDeletedAtIsNull(User user);
+
 
     // ---------------------------------------
     // Analytics: Fetch URLs for a user
@@ -59,11 +67,75 @@ public interface UrlMappingRepository extends JpaRepository<UrlMapping, Long> {
            OR LOWER(u.customAlias) LIKE LOWER(CONCAT('%', :keyword, '%')))
        """)
     List<UrlMapping> searchUserUrls(Long userId, String keyword);
-    Optional<UrlMapping> findByShortUrlOrCustomAlias(String shortUrl, String customAlias);
 
+    // ---------------------------------------
+    // Deduplicated creates: existing plain link of this user
+    // for the same normalized destination (idx_user_url_hash)
+    // ---------------------------------------
+    @Query("""
+       SELECT u FROM UrlMapping u
+       WHERE u.user = :user
+         AND u.originalUrlHash = :hash
+         AND u.domain = :domain
+         AND u.customAlias IS NULL
+         AND u.expiresAt IS NULL
+         AND (u.protectedUrl IS NULL OR u.protectedUrl = false)
+         AND u.isActive = true
+       ORDER BY u.id
+       """)
+    List<UrlMapping> findReusableByUserAndHash(User user, byte[] hash, String domain, Pageable pageable);
+
+    Optional<UrlMapping> findByUserAndIdempotencyKey(User user, String idempotencyKey);
+
+    // highest id issued so far; generated codes of ids up to it (and a margin) are reserved
+    @Query("SELECT COALESCE(MAX(u.id), 0) FROM UrlMapping u")
+    long findHighestId();
+
+    // ---------------------------------------
+    // Bulk import: which of these aliases are taken
+    // ---------------------------------------
+    @Query("SELECT u.customAlias FROM UrlMapping u WHERE u.domain = :domain AND u.customAlias IN :aliases")
+    List<String> findExistingAliases(String domain, Collection<String> aliases);
+
+    // ---------------------------------------
+    // Link health checks: id-ordered (keyset) batch of
+    // active mappings not checked since staleBefore.
+    // Returns [id, originalUrl] rows only.
+    // ---------------------------------------
+    @Query("""
+       SELECT u.id, u.originalUrl FROM UrlMapping u
+       WHERE u.id > :afterId
+         AND u.isActive = true
+         AND (u.lastChecked IS NULL OR u.lastChecked < :staleBefore)
+       ORDER BY u.id
+       """)
+    List<Object[]> findHealthCheckBatch(Long afterId, LocalDateTime staleBefore, Pageable pageable);
 
+    // ---------------------------------------
+    // Delete: tombstone in one statement, no entity
+    // or click rows loaded. Frees the Idempotency-Key;
+    // bumps updatedDate so LinkReplica picks it up.
+    // ---------------------------------------
+    @Modifying
+    @Query("""
+       UPDATE UrlMapping u
+          SET u.isActive = false, u.deletedAt = :now, u.updatedDate = :now, u.idempotencyKey = NULL
+        WHERE u.user = :user
+          AND u.shortUrl IN :shortUrls
+          AND u.deletedAt IS NULL
+       """)
+    int tombstone(User user, Collection<String> shortUrls, LocalDateTime now);
 
-    Optional<UrlMapping> findByCustomAlias(String customAlias);
+    // ---------------------------------------
+    // Purger: tombstones older than cutoff, oldest first
+    // ---------------------------------------
+    @Query("""
+       SELECT u.id FROM UrlMapping u
+       WHERE u.deletedAt IS NOT NULL
+         AND u.deletedAt < :cutoff
+       ORDER BY u.deletedAt
+       """)
+    List<Long> findTombstonedIds(LocalDateTime cutoff, Pageable pageable);
 
 
 
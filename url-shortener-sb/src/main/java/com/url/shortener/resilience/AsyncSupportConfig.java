@@ -0,0 +1,50 @@
+package com.url.shortener.resilience;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Streamed MVC responses ({@code StreamingResponseBody}: exports, raw analytics) run in
+ * the analytics bulkhead, so a burst of large downloads is shed instead of
+ * competing with redirects for threads and connections.
+ * <p>
+ * They also get their own, longer async timeout ({@code streaming.request-timeout-ms}):
+ * the container default (30s) would cut a large export off mid-file. Streamed bodies are
+ * the only {@code Callable} handlers here; futures and SSE keep their own timeouts.
+ */
+@Configuration
+public class AsyncSupportConfig implements WebMvcConfigurer {
+
+    private final Bulkhead analyticsBulkhead;
+    private final long streamingTimeoutMs;
+
+    public AsyncSupportConfig(
+            Bulkhead analyticsBulkhead,
+            @Value("${streaming.request-timeout-ms:1800000}") long streamingTimeoutMs
+    ) {
+        this.analyticsBulkhead = analyticsBulkhead;
+        this.streamingTimeoutMs = streamingTimeoutMs;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(new TaskExecutorAdapter(analyticsBulkhead));
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                // runs before the async cycle starts, while the timeout can still be changed
+                if (request instanceof AsyncWebRequest asyncRequest) {
+                    asyncRequest.setTimeout(streamingTimeoutMs);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,153 @@
+package com.url.shortener.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A bounded, named slice of execution capacity, so one kind of work cannot starve another.
+ * <p>
+ * Work beyond {@code maxConcurrent} running plus {@code queueCapacity} waiting is shed
+ * at once with a 503 instead of piling up. With {@code virtualThreads} on a JVM that has
+ * them (21+), each task gets a virtual thread: admission stops at the same total, and a
+ * semaphore of {@code maxConcurrent} permits lets only that many run while the rest wait
+ * parked. Otherwise a fixed platform pool with a bounded queue is used.
+ * <p>
+ * Metrics (tag {@code name}): {@code bulkhead.active}, {@code bulkhead.queued},
+ * {@code bulkhead.saturation} (in flight / capacity) and {@code bulkhead.rejected}.
+ */
+@Slf4j
+public class Bulkhead implements Executor {
+
+    private final String name;
+    private final int capacity;
+    private final ExecutorService executor;
+    private final Semaphore permits; // virtual-thread mode only: running tasks; the pool bounds platform mode
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final Counter rejected;
+
+    public Bulkhead(String name, int maxConcurrent, int queueCapacity, boolean virtualThreads, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.capacity = maxConcurrent + queueCapacity;
+
+        ExecutorService virtual = virtualThreads ? newVirtualThreadExecutor() : null;
+        if (virtual != null) {
+            this.executor = virtual;
+            this.permits = new Semaphore(maxConcurrent);
+        } else {
+            AtomicInteger threadCount = new AtomicInteger();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                    r -> {
+                        Thread t = new Thread(r, "bulkhead-" + name + "-" + threadCount.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    },
+                    new ThreadPoolExecutor.AbortPolicy());
+            pool.allowCoreThreadTimeOut(true);
+            this.executor = pool;
+            this.permits = null;
+        }
+        log.info("Bulkhead {}: {} concurrent, {} queued, {} threads", name, maxConcurrent, queueCapacity,
+                virtual != null ? "virtual" : "platform");
+
+        Tags tags = Tags.of("name", name);
+        this.rejected = meterRegistry.counter("bulkhead.rejected", tags);
+        meterRegistry.gauge("bulkhead.active", tags, running, AtomicInteger::get);
+        meterRegistry.gauge("bulkhead.queued", tags, this, b -> Math.max(0, b.inFlight.get() - b.running.get()));
+        meterRegistry.gauge("bulkhead.saturation", tags, this, b -> (double) b.inFlight.get() / b.capacity);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /** Runs {@code task} in this bulkhead; sheds it with a 503 when the bulkhead is full. */
+    @Override
+    public void execute(Runnable task) {
+        if (permits != null) {
+            admit();
+        } else {
+            inFlight.incrementAndGet();
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    if (permits != null) {
+                        permits.acquireUninterruptibly(); // queued: parked until a running task finishes
+                    }
+                    running.incrementAndGet();
+                    try {
+                        task.run();
+                    } finally {
+                        running.decrementAndGet();
+                        if (permits != null) {
+                            permits.release();
+                        }
+                    }
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.decrementAndGet();
+            throw shed();
+        }
+    }
+
+    // virtual-thread mode: running plus queued tasks stay within capacity
+    private void admit() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= capacity) {
+                throw shed();
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+    }
+
+    /** Completes with the supplier's result, or exceptionally (503) if the work was shed. */
+    public <T> CompletableFuture<T> submit(Supplier<T> work) {
+        try {
+            return CompletableFuture.supplyAsync(work, this);
+        } catch (ResponseStatusException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private ResponseStatusException shed() {
+        rejected.increment();
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Server busy (" + name + "), retry shortly");
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() exists from Java 21; looked up reflectively
+    // so the build keeps targeting 17
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,75 @@
+package com.url.shortener.resilience;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Minimal lock-free circuit breaker.
+ * <p>
+ * CLOSED counts consecutive failures (errors or calls slower than {@code slowCallNanos});
+ * at the threshold it turns OPEN and rejects calls for {@code openNanos}. After that a
+ * single caller is let through as a probe (HALF_OPEN): success closes the breaker,
+ * failure opens it again.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+
+    private final AtomicInteger state = new AtomicInteger(State.CLOSED.ordinal());
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong openedAt = new AtomicLong();
+
+    public CircuitBreaker(String name, int failureThreshold, long slowCallMs, long openMs) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMs);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public State state() {
+        return State.values()[state.get()];
+    }
+
+    /** False while OPEN; true when CLOSED, or for the one caller that gets to probe. */
+    public boolean allowRequest() {
+        int current = state.get();
+        if (current == State.CLOSED.ordinal()) {
+            return true;
+        }
+        if (current == State.OPEN.ordinal() && System.nanoTime() - openedAt.get() >= openNanos) {
+            return state.compareAndSet(State.OPEN.ordinal(), State.HALF_OPEN.ordinal());
+        }
+        return false;
+    }
+
+    /** Records a completed call; slow calls count as failures. */
+    public void onSuccess(long elapsedNanos) {
+        if (elapsedNanos > slowCallNanos) {
+            onFailure();
+            return;
+        }
+        consecutiveFailures.set(0);
+        if (state.get() != State.CLOSED.ordinal()) {
+            state.set(State.CLOSED.ordinal());
+        }
+    }
+
+    public void onFailure() {
+        if (state.get() == State.HALF_OPEN.ordinal()
+                || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            openedAt.set(System.nanoTime());
+            state.set(State.OPEN.ordinal());
+            consecutiveFailures.set(0);
+        }
+    }
+}
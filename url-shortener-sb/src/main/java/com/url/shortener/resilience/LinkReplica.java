@@ -0,0 +1,424 @@
+package com.url.shortener.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32C;
+
+/**
+ * Local read-only copy of the active link set, used to keep redirects working while
+ * MySQL is unavailable.
+ * <p>
+ * Bitcask-style: an append-only log file of records plus an in-memory key directory
+ * (slug -&gt; record offset). Lookups are one positional read. The log is kept in sync
+ * incrementally by (updated_date, id) keyset pages; disabled, deleted or unsafe links
+ * are written as tombstones. When the log grows past twice its live data it is
+ * compacted into a fresh file and swapped in.
+ *
+ * <pre>
+ * record: int crc32c | int body length | byte flags | long id | long user id
+ *         | long expires-at (epoch s, or MIN) | short+utf8 key | short+utf8 short url
+ *         | int+utf8 original url | short+utf8 domain (absent in older records: default)
+ * </pre>
+ */
+@Component
+@Slf4j
+public class LinkReplica {
+
+    private static final String SYNC_SQL = """
+            SELECT id, user_id, short_url, custom_alias, domain, original_url, is_active, is_safe, expires_at,
+                   deleted_at, updated_date
+              FROM url_mapping
+             WHERE updated_date > ? OR (updated_date = ? AND id > ?)
+             ORDER BY updated_date, id
+             LIMIT ?
+            """;
+
+    private static final int HEADER = 8;
+    private static final byte TOMBSTONE = 1;
+    private static final long NO_EXPIRY = Long.MIN_VALUE;
+    private static final int MAX_RECORD = 1 << 20;
+
+    private record Entry(long offset, int length, int valueHash) {
+    }
+
+    private record Store(FileChannel channel, ConcurrentHashMap<String, Entry> keys) {
+    }
+
+    private final boolean enabled;
+    private final JdbcTemplate jdbcTemplate;
+    private final Path logFile;
+    private final Path checkpointFile;
+    private final int pageSize;
+    private final long overlapSeconds;
+
+    private volatile Store store;
+    private long writePosition;
+    private long liveBytes;
+    private LocalDateTime syncedUntil = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private long syncedId;
+    private volatile LocalDateTime lastSync;
+    private volatile boolean ready; // synced at least once, now or in a previous run
+
+    private final Counter hits;
+
+    public LinkReplica(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${replica.enabled:true}") boolean enabled,
+            @Value("${replica.dir:data/link-replica}") String dir,
+            @Value("${replica.page-size:1000}") int pageSize,
+            @Value("${replica.overlap-seconds:5}") long overlapSeconds
+    ) throws IOException {
+        this.enabled = enabled;
+        this.jdbcTemplate = jdbcTemplate;
+        this.logFile = Path.of(dir, "links.log");
+        this.checkpointFile = Path.of(dir, "links.checkpoint");
+        this.pageSize = pageSize;
+        this.overlapSeconds = overlapSeconds;
+        this.hits = meterRegistry.counter("replica.hits");
+        meterRegistry.gauge("replica.keys", this, r -> r.store == null ? 0 : r.store.keys().size());
+
+        if (enabled) {
+            Files.createDirectories(logFile.getParent());
+            this.store = new Store(open(logFile), new ConcurrentHashMap<>());
+            load();
+            log.info("Link replica loaded: {} keys, synced until {}", store.keys().size(), syncedUntil);
+        }
+    }
+
+    // ============================================
+    // READ PATH
+    // ============================================
+    public Optional<ReplicaLink> find(String slug) {
+        if (!enabled || slug == null) {
+            return Optional.empty();
+        }
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Store current = store;
+            Entry entry = current.keys().get(slug);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            try {
+                ByteBuffer buffer = ByteBuffer.allocate(entry.length());
+                current.channel().read(buffer, entry.offset());
+                buffer.flip();
+                ReplicaLink link = decode(buffer).link();
+                hits.increment();
+                return Optional.ofNullable(link);
+            } catch (ClosedChannelException e) {
+                // swapped by a compaction mid-read; retry against the new store
+            } catch (IOException | RuntimeException e) {
+                log.debug("Replica read failed for {}: {}", slug, e.getMessage());
+                return Optional.empty();
+            }
+        }
+        return Optional.empty();
+    }
+
+    public LocalDateTime lastSync() {
+        return lastSync;
+    }
+
+    /** False until the replica holds a full copy; a miss before that proves nothing. */
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ============================================
+    // INCREMENTAL SYNC (single writer: the scheduler)
+    // ============================================
+    @Scheduled(
+            initialDelayString = "${replica.initial-delay-ms:5000}",
+            fixedDelayString = "${replica.sync-interval-ms:10000}",
+            scheduler = "replicaScheduler"
+    )
+    public synchronized void sync() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            // re-read a short window: rows whose transaction committed late carry older timestamps
+            LocalDateTime since = syncedUntil.minusSeconds(overlapSeconds);
+            long afterId = 0;
+            List<Map<String, Object>> page;
+            do {
+                page = jdbcTemplate.queryForList(SYNC_SQL, Timestamp.valueOf(since), Timestamp.valueOf(since), afterId, pageSize);
+                for (Map<String, Object> row : page) {
+                    apply(row);
+                    since = ((Timestamp) row.get("updated_date")).toLocalDateTime();
+                    afterId = ((Number) row.get("id")).longValue();
+                }
+                if (!page.isEmpty()) {
+                    store.channel().force(false);
+                    if (since.isAfter(syncedUntil) || (since.isEqual(syncedUntil) && afterId > syncedId)) {
+                        syncedUntil = since;
+                        syncedId = afterId;
+                        writeCheckpoint();
+                    }
+                }
+            } while (page.size() == pageSize);
+            lastSync = LocalDateTime.now();
+            ready = true;
+
+            if (writePosition > 2 * liveBytes + (1 << 20)) {
+                compact();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Link replica sync failed: {}", e.getMessage());
+        }
+    }
+
+    private void apply(Map<String, Object> row) throws IOException {
+        long id = ((Number) row.get("id")).longValue();
+        long userId = ((Number) row.get("user_id")).longValue();
+        String shortUrl = (String) row.get("short_url");
+        String domain = row.get("domain") == null ? "" : (String) row.get("domain");
+        Timestamp expires = (Timestamp) row.get("expires_at");
+        boolean live = Boolean.TRUE.equals(row.get("is_active"))
+                && row.get("deleted_at") == null
+                && !Boolean.FALSE.equals(row.get("is_safe"))
+                && shortUrl != null;
+        ReplicaLink link = live
+                ? new ReplicaLink(id, userId, shortUrl, (String) row.get("original_url"),
+                expires == null ? null : expires.toLocalDateTime(), domain)
+                : null;
+
+        put(shortUrl, link);
+        String alias = (String) row.get("custom_alias");
+        put(alias == null ? null : aliasKey(domain, alias), link);
+    }
+
+    /** Replica key of a custom alias; aliases are unique per domain, generated codes globally. */
+    public static String aliasKey(String domain, String alias) {
+        return domain == null || domain.isEmpty() ? alias : domain + "/" + alias;
+    }
+
+    private void put(String key, ReplicaLink link) throws IOException {
+        if (key == null) {
+            return;
+        }
+        ConcurrentHashMap<String, Entry> keys = store.keys();
+        Entry existing = keys.get(key);
+        if (link == null) {
+            if (existing != null) {
+                append(key, null);
+                keys.remove(key);
+                liveBytes -= existing.length();
+            }
+            return;
+        }
+        int hash = valueHash(link);
+        if (existing != null && existing.valueHash() == hash) {
+            return; // unchanged (re-read by the overlap window)
+        }
+        Entry entry = append(key, link);
+        keys.put(key, new Entry(entry.offset(), entry.length(), hash));
+        liveBytes += entry.length() - (existing == null ? 0 : existing.length());
+    }
+
+    // same fields for entries written now and entries loaded from the log, so reloads compare equal
+    private static int valueHash(ReplicaLink link) {
+        return Objects.hash(link.id(), link.userId(), link.shortUrl(), link.originalUrl(), link.expiresAt(), link.domain());
+    }
+
+    private Entry append(String key, ReplicaLink link) throws IOException {
+        ByteBuffer record = encode(key, link);
+        int length = record.remaining();
+        long offset = writePosition;
+        FileChannel channel = store.channel();
+        while (record.hasRemaining()) {
+            channel.write(record, writePosition + (length - record.remaining()));
+        }
+        writePosition += length;
+        return new Entry(offset, length, 0);
+    }
+
+    // ============================================
+    // COMPACTION
+    // ============================================
+    private void compact() throws IOException {
+        Path tmp = logFile.resolveSibling("links.log.compact");
+        Store old = store;
+        ConcurrentHashMap<String, Entry> keys = new ConcurrentHashMap<>();
+        long position = 0;
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Map.Entry<String, Entry> e : old.keys().entrySet()) {
+                Entry entry = e.getValue();
+                ByteBuffer buffer = ByteBuffer.allocate(entry.length());
+                old.channel().read(buffer, entry.offset());
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    out.write(buffer, position + (entry.length() - buffer.remaining()));
+                }
+                keys.put(e.getKey(), new Entry(position, entry.length(), entry.valueHash()));
+                position += entry.length();
+            }
+            out.force(true);
+        }
+        Files.move(tmp, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        store = new Store(open(logFile), keys);
+        writePosition = position;
+        liveBytes = position;
+        old.channel().close();
+        log.info("Link replica compacted to {} bytes ({} keys)", position, keys.size());
+    }
+
+    // ============================================
+    // STARTUP
+    // ============================================
+    private void load() throws IOException {
+        FileChannel channel = store.channel();
+        ConcurrentHashMap<String, Entry> keys = store.keys();
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        while (position + HEADER <= size) {
+            header.clear();
+            channel.read(header, position);
+            int length = header.getInt(4) + HEADER;
+            if (length <= HEADER || length > MAX_RECORD || position + length > size) {
+                break;
+            }
+            ByteBuffer record = ByteBuffer.allocate(length);
+            channel.read(record, position);
+            record.flip();
+            Decoded decoded;
+            try {
+                decoded = decode(record);
+            } catch (IllegalStateException e) {
+                break; // torn tail from a crash mid-append
+            }
+            Entry previous = keys.remove(decoded.key());
+            if (previous != null) {
+                liveBytes -= previous.length();
+            }
+            ReplicaLink link = decoded.link();
+            if (link != null) {
+                keys.put(decoded.key(), new Entry(position, length, valueHash(link)));
+                liveBytes += length;
+            }
+            position += length;
+        }
+        if (position < size) {
+            log.warn("Link replica: discarding {} bytes of incomplete records", size - position);
+            channel.truncate(position);
+        }
+        writePosition = position;
+        readCheckpoint();
+    }
+
+    private void readCheckpoint() throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return;
+        }
+        String[] parts = Files.readString(checkpointFile).trim().split(" ");
+        syncedUntil = LocalDateTime.parse(parts[0]);
+        syncedId = Long.parseLong(parts[1]);
+        ready = true;
+    }
+
+    private void writeCheckpoint() throws IOException {
+        Path tmp = checkpointFile.resolveSibling("links.checkpoint.tmp");
+        Files.writeString(tmp, syncedUntil + " " + syncedId);
+        Files.move(tmp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (store != null) {
+            store.channel().close();
+        }
+    }
+
+    // ============================================
+    // RECORD CODEC
+    // ============================================
+    private record Decoded(String key, ReplicaLink link) {
+    }
+
+    private static ByteBuffer encode(String key, ReplicaLink link) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] slugBytes = link == null ? new byte[0] : link.shortUrl().getBytes(StandardCharsets.UTF_8);
+        byte[] urlBytes = link == null ? new byte[0] : link.originalUrl().getBytes(StandardCharsets.UTF_8);
+        byte[] domainBytes = link == null ? new byte[0] : link.domain().getBytes(StandardCharsets.UTF_8);
+        int body = 1 + 8 + 8 + 8 + 2 + keyBytes.length + 2 + slugBytes.length + 4 + urlBytes.length + 2 + domainBytes.length;
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER + body);
+        buffer.position(HEADER);
+        buffer.put(link == null ? TOMBSTONE : 0);
+        buffer.putLong(link == null ? 0 : link.id());
+        buffer.putLong(link == null ? 0 : link.userId());
+        buffer.putLong(link == null || link.expiresAt() == null ? NO_EXPIRY : link.expiresAt().toEpochSecond(ZoneOffset.UTC));
+        buffer.putShort((short) keyBytes.length).put(keyBytes);
+        buffer.putShort((short) slugBytes.length).put(slugBytes);
+        buffer.putInt(urlBytes.length).put(urlBytes);
+        buffer.putShort((short) domainBytes.length).put(domainBytes);
+
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), HEADER, body);
+        buffer.putInt(0, (int) crc.getValue());
+        buffer.putInt(4, body);
+        buffer.flip();
+        return buffer;
+    }
+
+    private static Decoded decode(ByteBuffer buffer) {
+        int crcValue = buffer.getInt(0);
+        int body = buffer.getInt(4);
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), HEADER, body);
+        if ((int) crc.getValue() != crcValue) {
+            throw new IllegalStateException("replica record checksum mismatch");
+        }
+        buffer.position(HEADER);
+        byte flags = buffer.get();
+        long id = buffer.getLong();
+        long userId = buffer.getLong();
+        long expires = buffer.getLong();
+        String key = string(buffer, buffer.getShort());
+        String shortUrl = string(buffer, buffer.getShort());
+        String originalUrl = string(buffer, buffer.getInt());
+        String domain = buffer.position() < HEADER + body ? string(buffer, buffer.getShort()) : "";
+        if (flags == TOMBSTONE) {
+            return new Decoded(key, null);
+        }
+        LocalDateTime expiresAt = expires == NO_EXPIRY ? null : LocalDateTime.ofEpochSecond(expires, 0, ZoneOffset.UTC);
+        return new Decoded(key, new ReplicaLink(id, userId, shortUrl, originalUrl, expiresAt, domain));
+    }
+
+    private static String string(ByteBuffer buffer, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,10 @@
+package com.url.shortener.resilience;
+
+import java.time.LocalDateTime;
+
+/**
+ * What a redirect needs to know about a link, as stored in the {@link LinkReplica}.
+ */
+public record ReplicaLink(long id, long userId, String shortUrl, String originalUrl, LocalDateTime expiresAt,
+                          String domain) {
+}
@@ -0,0 +1,57 @@
+package com.url.shortener.resilience;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ResilienceConfig {
+
+    /** Guards the redirect path's database lookups; while open, redirects are served from {@link LinkReplica}. */
+    @Bean
+    public CircuitBreaker redirectCircuitBreaker(
+            MeterRegistry meterRegistry,
+            @Value("${redirect.breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${redirect.breaker.slow-call-ms:1000}") long slowCallMs,
+            @Value("${redirect.breaker.open-ms:10000}") long openMs
+    ) {
+        CircuitBreaker breaker = new CircuitBreaker("redirect-db", failureThreshold, slowCallMs, openMs);
+        meterRegistry.gauge("breaker.state", Tags.of("name", breaker.name()), breaker, b -> b.state().ordinal());
+        return breaker;
+    }
+
+    /** Runs {@code GET /{shortUrl}}, off the Tomcat workers. */
+    @Bean(destroyMethod = "shutdown")
+    public Bulkhead redirectBulkhead(
+            MeterRegistry meterRegistry,
+            @Value("${bulkhead.redirect.max-concurrent:64}") int maxConcurrent,
+            @Value("${bulkhead.redirect.queue:512}") int queue,
+            @Value("${bulkhead.redirect.virtual-threads:true}") boolean virtualThreads
+    ) {
+        return new Bulkhead("redirect", maxConcurrent, queue, virtualThreads, meterRegistry);
+    }
+
+    /** Runs the dashboard / analytics queries and streamed responses (exports, raw events). */
+    @Bean(destroyMethod = "shutdown")
+    public Bulkhead analyticsBulkhead(
+            MeterRegistry meterRegistry,
+            @Value("${bulkhead.analytics.max-concurrent:8}") int maxConcurrent,
+            @Value("${bulkhead.analytics.queue:32}") int queue,
+            @Value("${bulkhead.analytics.virtual-threads:false}") boolean virtualThreads
+    ) {
+        return new Bulkhead("analytics", maxConcurrent, queue, virtualThreads, meterRegistry);
+    }
+
+    /** Runs BCrypt hashing and verification (see {@code BoundedPasswordEncoder}); 0 threads = one per core. */
+    @Bean(destroyMethod = "shutdown")
+    public Bulkhead passwordBulkhead(
+            MeterRegistry meterRegistry,
+            @Value("${bulkhead.password.max-concurrent:0}") int maxConcurrent,
+            @Value("${bulkhead.password.queue:64}") int queue
+    ) {
+        int threads = maxConcurrent > 0 ? maxConcurrent : Runtime.getRuntime().availableProcessors();
+        return new Bulkhead("password", threads, queue, false, meterRegistry);
+    }
+}
@@ -0,0 +1,45 @@
+package com.url.shortener.resilience;
+
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Scheduler pools for the {@code @Scheduled} jobs.
+ * <p>
+ * The click journal (drain + fsync) and the replica sync keep the redirect path working
+ * while the database is slow or down, so they get pools of their own instead of queuing
+ * behind purges, backfills and health checks on the shared one. Declaring any scheduler
+ * switches off Boot's default, so {@code taskScheduler} is redeclared from the
+ * auto-configured builder and still follows {@code spring.task.scheduling.*}.
+ */
+@Configuration
+public class SchedulingConfig {
+
+    /** Shared pool for every job that does not name a scheduler. */
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+        return builder.build();
+    }
+
+    /** {@code ClickJournalConsumer.drain} and {@code ClickJournal.force}: one thread each. */
+    @Bean
+    public ThreadPoolTaskScheduler journalScheduler() {
+        return scheduler("journal-", 2);
+    }
+
+    /** {@code LinkReplica.sync}. */
+    @Bean
+    public ThreadPoolTaskScheduler replicaScheduler() {
+        return scheduler("replica-", 1);
+    }
+
+    private static ThreadPoolTaskScheduler scheduler(String threadNamePrefix, int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix(threadNamePrefix);
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        return scheduler;
+    }
+}
@@ -0,0 +1,123 @@
+package com.url.shortener.routing;
+
+import com.url.shortener.models.RoutingRule;
+
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * A link's routing rules compiled into parallel arrays.
+ * <p>
+ * Immutable and shared by all redirect threads; {@link #select} only reads arrays and
+ * compares strings, so picking a destination allocates nothing. Rules keep the
+ * repository's (priority, id) order: the first priority level with a matching rule
+ * wins, and its matching rules split traffic by weight.
+ */
+public final class RoutingTable {
+
+    /** Returned by {@link #select} when no rule matches: use the link's own URL. */
+    public static final int DEFAULT = -1;
+
+    private final long[] ruleIds;
+    private final String[] variants;
+    private final int[] priorities;
+    private final int[] weights;
+    private final String[] destinations;
+    private final String[] countryCodes;
+    private final String[] deviceTypes;
+    private final String[] operatingSystems;
+    private final long[] activeFrom;
+    private final long[] activeUntil;
+
+    private RoutingTable(int size) {
+        ruleIds = new long[size];
+        variants = new String[size];
+        priorities = new int[size];
+        weights = new int[size];
+        destinations = new String[size];
+        countryCodes = new String[size];
+        deviceTypes = new String[size];
+        operatingSystems = new String[size];
+        activeFrom = new long[size];
+        activeUntil = new long[size];
+    }
+
+    /** @param rules ordered by (priority, id) */
+    public static RoutingTable compile(List<RoutingRule> rules, ZoneId zone) {
+        RoutingTable table = new RoutingTable(rules.size());
+        for (int i = 0; i < rules.size(); i++) {
+            RoutingRule rule = rules.get(i);
+            table.ruleIds[i] = rule.getId();
+            table.variants[i] = rule.getVariant();
+            table.priorities[i] = rule.getPriority();
+            table.weights[i] = Math.max(0, rule.getWeight());
+            table.destinations[i] = rule.getDestinationUrl();
+            table.countryCodes[i] = rule.getCountryCode();
+            table.deviceTypes[i] = rule.getDeviceType();
+            table.operatingSystems[i] = rule.getOs();
+            table.activeFrom[i] = rule.getActiveFrom() == null
+                    ? Long.MIN_VALUE : rule.getActiveFrom().atZone(zone).toInstant().toEpochMilli();
+            table.activeUntil[i] = rule.getActiveUntil() == null
+                    ? Long.MAX_VALUE : rule.getActiveUntil().atZone(zone).toInstant().toEpochMilli();
+        }
+        return table;
+    }
+
+    /**
+     * @param countryCode ISO alpha-2 or null when unknown
+     * @param bucket      any int; the same bucket always picks the same arm of a split
+     * @return index of the chosen rule, or {@link #DEFAULT}
+     */
+    public int select(String countryCode, String deviceType, String os, long nowMillis, int bucket) {
+        int n = ruleIds.length;
+        int start = 0;
+        while (start < n) {
+            int priority = priorities[start];
+            int end = start;
+            int totalWeight = 0;
+            while (end < n && priorities[end] == priority) {
+                if (matches(end, countryCode, deviceType, os, nowMillis)) {
+                    totalWeight += weights[end];
+                }
+                end++;
+            }
+            if (totalWeight > 0) {
+                int pick = Math.floorMod(bucket, totalWeight);
+                for (int i = start; i < end; i++) {
+                    if (matches(i, countryCode, deviceType, os, nowMillis)) {
+                        pick -= weights[i];
+                        if (pick < 0) {
+                            return i;
+                        }
+                    }
+                }
+            }
+            start = end;
+        }
+        return DEFAULT;
+    }
+
+    private boolean matches(int i, String countryCode, String deviceType, String os, long nowMillis) {
+        return nowMillis >= activeFrom[i]
+                && nowMillis < activeUntil[i]
+                && (countryCodes[i] == null || countryCodes[i].equalsIgnoreCase(countryCode))
+                && (deviceTypes[i] == null || deviceTypes[i].equals(deviceType))
+                && (operatingSystems[i] == null || operatingSystems[i].equals(os));
+    }
+
+    public long ruleId(int index) {
+        return ruleIds[index];
+    }
+
+    public String variant(int index) {
+        return variants[index];
+    }
+
+    public String destination(int index) {
+        return destinations[index];
+    }
+
+    public int size() {
+        return ruleIds.length;
+    }
+}
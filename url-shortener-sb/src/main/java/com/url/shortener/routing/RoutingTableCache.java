@@ -0,0 +1,69 @@
+package com.url.shortener.routing;
+
+import com.url.shortener.models.UrlMapping;
+import com.url.shortener.repository.RoutingRuleRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneId;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled {@link RoutingTable}s by mapping id.
+ * <p>
+ * An entry is tagged with the mapping's routesVersion at compile time; replacing a link's
+ * rules bumps that counter (and nothing else does), so a redirect that loads a newer mapping
+ * recompiles (on any node) without explicit invalidation. Past {@code maxEntries} tables are
+ * compiled per request instead of growing the map.
+ */
+@Component
+public class RoutingTableCache {
+
+    private record Cached(long version, RoutingTable table) {
+    }
+
+    private final RoutingRuleRepository routingRuleRepository;
+    private final int maxEntries;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final ConcurrentHashMap<Long, Cached> tables = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public RoutingTableCache(
+            RoutingRuleRepository routingRuleRepository,
+            MeterRegistry meterRegistry,
+            @Value("${routing.cache.max-entries:100000}") int maxEntries
+    ) {
+        this.routingRuleRepository = routingRuleRepository;
+        this.maxEntries = maxEntries;
+        this.hits = meterRegistry.counter("routing.cache.hits");
+        this.misses = meterRegistry.counter("routing.cache.misses");
+        meterRegistry.gauge("routing.cache.size", tables, ConcurrentHashMap::size);
+    }
+
+    /** @return the link's routing table, or null for a plain single-destination link */
+    public RoutingTable tableFor(UrlMapping mapping) {
+        if (!Boolean.TRUE.equals(mapping.getRouted())) {
+            return null;
+        }
+        Cached cached = tables.get(mapping.getId());
+        if (cached != null && cached.version() == mapping.getRoutesVersion()) {
+            hits.increment();
+            return cached.table();
+        }
+        misses.increment();
+        RoutingTable table = RoutingTable.compile(
+                routingRuleRepository.findByUrlMappingIdOrderByPriorityAscIdAsc(mapping.getId()), zone);
+        if (cached != null || tables.size() < maxEntries) {
+            tables.put(mapping.getId(), new Cached(mapping.getRoutesVersion(), table));
+        }
+        return table;
+    }
+
+    public void evict(Long mappingId) {
+        tables.remove(mappingId);
+    }
+}
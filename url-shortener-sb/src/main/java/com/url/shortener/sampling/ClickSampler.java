@@ -0,0 +1,221 @@
+package com.url.shortener.sampling;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * Decides which clicks of a link get a raw click_event row.
+ * <p>
+ * Below {@code clicks.sampling.threshold-per-minute} every click is kept. Above it, each
+ * click is kept with probability threshold / rate, so a viral link stores about
+ * {@code threshold} rows a minute however hot it runs. The rate is the larger of the
+ * previous and the current minute's count, so sampling starts within the minute the
+ * link takes off. A kept row's weight is 1 plus the clicks skipped since the last row
+ * kept for that link, so weighted sums over raw rows stay unbiased (and close to
+ * exact) estimates of the real click volume. click_count and click_daily are counted
+ * separately and stay exact.
+ * <p>
+ * No skipped click is left out of the weights: a journal {@link Batch} only changes the
+ * per-link state once its transaction commits, and a link that goes quiet with clicks
+ * still carried adds them to its latest row before its state is dropped.
+ * <p>
+ * Metrics: {@code clicks.sampling.skipped}, {@code clicks.sampling.links} (links being sampled).
+ */
+@Component
+@Slf4j
+public class ClickSampler {
+
+    private static final long MINUTE_MS = 60_000;
+
+    // the link's latest row (idx_click_url_date); the derived table lets MySQL update click_event
+    private static final String CARRY_SQL = """
+            UPDATE click_event SET sampling_weight = sampling_weight + ?
+             WHERE id = (SELECT id FROM (SELECT id FROM click_event
+                                          WHERE url_mapping_id = ?
+                                          ORDER BY click_date DESC, id DESC
+                                          LIMIT 1) latest)
+            """;
+
+    private static final class LinkRate {
+        long minute;
+        int thisMinute;
+        int lastMinute;
+        int pending; // clicks skipped since the last kept row
+        boolean dropped; // swept; a new entry takes over
+
+        LinkRate copy() {
+            LinkRate copy = new LinkRate();
+            copy.minute = minute;
+            copy.thisMinute = thisMinute;
+            copy.lastMinute = lastMinute;
+            copy.pending = pending;
+            return copy;
+        }
+
+        // counts a click and returns the rate to sample at
+        int count(long clickMinute) {
+            if (clickMinute > minute) {
+                lastMinute = clickMinute == minute + 1 ? thisMinute : 0;
+                minute = clickMinute;
+                thisMinute = 0;
+            }
+            thisMinute++; // late (older-minute) clicks count toward the current one
+            return Math.max(lastMinute, thisMinute);
+        }
+    }
+
+    private final boolean enabled;
+    private final int threshold;
+    private final JdbcTemplate jdbcTemplate;
+    private final ConcurrentHashMap<Long, LinkRate> rates = new ConcurrentHashMap<>();
+    private final Counter skipped;
+
+    public ClickSampler(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${clicks.sampling.enabled:true}") boolean enabled,
+            @Value("${clicks.sampling.threshold-per-minute:600}") int threshold
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.threshold = Math.max(1, threshold);
+        this.skipped = meterRegistry.counter("clicks.sampling.skipped");
+        meterRegistry.gauge("clicks.sampling.links", rates, r -> r.values().stream()
+                .filter(rate -> Math.max(rate.lastMinute, rate.thisMinute) > this.threshold).count());
+    }
+
+    /**
+     * Samples a click whose row is written right away (direct path).
+     *
+     * @return the weight to store this click's row with, or 0 to skip the row
+     */
+    public int admit(long mappingId, long clickEpochMillis) {
+        if (!enabled) {
+            return 1;
+        }
+        int[] weight = new int[1];
+        update(mappingId, rate -> weight[0] = decide(rate, clickEpochMillis / MINUTE_MS));
+        return weight[0];
+    }
+
+    /** Starts sampling the clicks of one journal batch; see {@link Batch}. */
+    public Batch batch() {
+        return new Batch();
+    }
+
+    private int decide(LinkRate rate, long minute) {
+        int perMinute = rate.count(minute);
+        if (perMinute > threshold && ThreadLocalRandom.current().nextInt(perMinute) >= threshold) {
+            rate.pending++;
+            skipped.increment();
+            return 0;
+        }
+        int weight = 1 + rate.pending;
+        rate.pending = 0;
+        return weight;
+    }
+
+    // applies a change to the link's live state, retrying if the sweeper dropped it meanwhile
+    private void update(long mappingId, Consumer<LinkRate> change) {
+        while (true) {
+            LinkRate rate = rates.computeIfAbsent(mappingId, id -> new LinkRate());
+            synchronized (rate) {
+                if (!rate.dropped) {
+                    change.accept(rate);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sampling decisions for one journal batch, taken on a private copy of each link's state.
+     * They reach the shared state through {@link #commit} once the batch's rows are committed;
+     * a batch that rolls back is simply discarded and re-sampled on retry.
+     */
+    public final class Batch {
+
+        private final class Staged {
+            final int basePending;
+            final LinkRate rate;
+            final List<Long> minutes = new ArrayList<>();
+
+            Staged(LinkRate rate) {
+                this.basePending = rate.pending;
+                this.rate = rate;
+            }
+        }
+
+        private final Map<Long, Staged> staged = new HashMap<>();
+
+        private Batch() {
+        }
+
+        /** @return the weight to store this click's row with, or 0 to skip the row */
+        public int admit(long mappingId, long clickEpochMillis) {
+            if (!enabled) {
+                return 1;
+            }
+            Staged link = staged.computeIfAbsent(mappingId, this::snapshot);
+            long minute = clickEpochMillis / MINUTE_MS;
+            link.minutes.add(minute);
+            return decide(link.rate, minute);
+        }
+
+        private Staged snapshot(long mappingId) {
+            LinkRate[] copy = new LinkRate[1];
+            update(mappingId, rate -> copy[0] = rate.copy());
+            return new Staged(copy[0]);
+        }
+
+        // replays the batch's clicks onto the live counters and moves the carry by what the
+        // batch added or used up, so skips counted concurrently by the direct path are kept
+        public void commit() {
+            staged.forEach((mappingId, link) -> update(mappingId, rate -> {
+                link.minutes.forEach(rate::count);
+                rate.pending = Math.max(0, rate.pending + link.rate.pending - link.basePending);
+            }));
+            staged.clear();
+        }
+    }
+
+    /**
+     * Drops links quiet for two minutes; one still carrying skipped clicks first adds them to
+     * its latest row. If that update fails the link is kept and retried on the next sweep.
+     */
+    @Scheduled(fixedDelayString = "${clicks.sampling.sweep-interval-ms:60000}")
+    public void sweep() {
+        long staleBefore = System.currentTimeMillis() / MINUTE_MS - 2;
+        rates.forEach((mappingId, rate) -> {
+            synchronized (rate) {
+                if (rate.minute >= staleBefore) {
+                    return;
+                }
+                if (rate.pending > 0) {
+                    try {
+                        jdbcTemplate.update(CARRY_SQL, rate.pending, mappingId);
+                    } catch (RuntimeException e) {
+                        log.warn("Could not flush sampling carry of link {}: {}", mappingId, e.getMessage());
+                        return;
+                    }
+                    rate.pending = 0;
+                }
+                rate.dropped = true;
+            }
+            rates.remove(mappingId, rate);
+        });
+    }
+}
@@ -0,0 +1,104 @@
+package com.url.shortener.security;
+
+import com.url.shortener.resilience.Bulkhead;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Runs every hash and verification of a CPU-heavy delegate (BCrypt) in the password bulkhead,
+ * so signup / login storms and protected-link writes use at most a core-sized pool instead of
+ * every Tomcat worker. A full bulkhead sheds at once with 503; a hash still queued after
+ * {@code maxWaitMs} is abandoned with a 503 too (and skipped rather than run). Only the queue
+ * wait is bounded: once a hash has started, the caller waits for it to finish.
+ * <p>
+ * Metrics: {@code password.hash.wait} (queue wait), {@code password.hash.time} (tag {@code op}:
+ * encode / matches) and {@code password.hash.timeouts}.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final Bulkhead bulkhead;
+    private final long maxWaitNanos;
+
+    private final Timer queueWait;
+    private final Timer encodeTime;
+    private final Timer matchesTime;
+    private final Counter timeouts;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, Bulkhead bulkhead, long maxWaitMs, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.bulkhead = bulkhead;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.queueWait = Timer.builder("password.hash.wait").register(meterRegistry);
+        this.encodeTime = Timer.builder("password.hash.time").tag("op", "encode").register(meterRegistry);
+        this.matchesTime = Timer.builder("password.hash.time").tag("op", "matches").register(meterRegistry);
+        this.timeouts = meterRegistry.counter("password.hash.timeouts");
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(encodeTime, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.isEmpty()) {
+            return delegate.matches(rawPassword, encodedPassword); // rejected without hashing
+        }
+        return run(matchesTime, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /** Cheap (parses the stored cost factor), so it stays on the caller's thread. */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T run(Timer hashTime, Supplier<T> hash) {
+        long queuedAt = System.nanoTime();
+        // whichever side claims first decides: the task starts hashing, or the caller gives up
+        AtomicBoolean claimed = new AtomicBoolean();
+        CompletableFuture<T> result = bulkhead.submit(() -> {
+            queueWait.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+            if (!claimed.compareAndSet(false, true)) {
+                throw new CancellationException("caller stopped waiting"); // nobody wants the result
+            }
+            return hashTime.record(hash);
+        });
+        try {
+            try {
+                return result.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (claimed.compareAndSet(false, true)) {
+                    timeouts.increment(); // still queued
+                    throw busy();
+                }
+                return result.get(); // already hashing; BCrypt time is bounded by its cost
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw busy();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause; // includes the bulkhead's own 503 when it sheds
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private static ResponseStatusException busy() {
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Server busy (password hashing), retry shortly");
+    }
+}
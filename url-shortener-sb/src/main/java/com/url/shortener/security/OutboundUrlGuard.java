@@ -0,0 +1,135 @@
+package com.url.shortener.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+
+/**
+ * Keeps server-side requests to user-supplied URLs (health probes, metadata previews)
+ * away from internal hosts.
+ * <p>
+ * A URL is permitted only when it is http(s) and every address its host resolves to is
+ * public: loopback, private (RFC 1918, IPv6 unique-local), link-local (which includes cloud
+ * metadata at 169.254.169.254), carrier-grade NAT, multicast and reserved ranges are refused.
+ * Clients must not follow redirects on their own; callers walk the chain with
+ * {@link #redirectTarget} and check every hop, capped at {@link #MAX_REDIRECTS}.
+ */
+@Component
+public class OutboundUrlGuard {
+
+    public static final int MAX_REDIRECTS = 5;
+
+    private final boolean allowLoopback;
+
+    /**
+     * @param allowLoopback let loopback hosts through (local development and tests only)
+     */
+    public OutboundUrlGuard(@Value("${outbound.allow-loopback:false}") boolean allowLoopback) {
+        this.allowLoopback = allowLoopback;
+    }
+
+    /**
+     * Resolves the host and checks every address it maps to.
+     *
+     * @throws UnknownHostException when the host does not resolve (possibly transient)
+     */
+    public boolean permits(URI uri) throws UnknownHostException {
+        if (!isHttp(uri)) {
+            return false;
+        }
+        String host = uri.getHost();
+        if (host.startsWith("[") && host.endsWith("]")) {
+            host = host.substring(1, host.length() - 1);
+        }
+        for (InetAddress address : InetAddress.getAllByName(host)) {
+            if (!isPublic(address) && !(allowLoopback && address.isLoopbackAddress())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean isHttp(URI uri) {
+        String scheme = uri.getScheme();
+        return uri.getHost() != null && scheme != null
+                && (scheme.equalsIgnoreCase("http") || scheme.equalsIgnoreCase("https"));
+    }
+
+    /**
+     * Where a redirect response points, or null when it is not a redirect (or its
+     * {@code Location} is missing or unusable, in which case it is the final answer).
+     */
+    public static URI redirectTarget(URI from, HttpResponse<?> response) {
+        int status = response.statusCode();
+        if (status != 301 && status != 302 && status != 303 && status != 307 && status != 308) {
+            return null;
+        }
+        String location = response.headers().firstValue("Location").orElse(null);
+        if (location == null || location.isBlank()) {
+            return null;
+        }
+        try {
+            URI next = from.resolve(location.trim());
+            return isHttp(next) ? next : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    static boolean isPublic(InetAddress address) {
+        if (address.isAnyLocalAddress() || address.isLoopbackAddress() || address.isLinkLocalAddress()
+                || address.isSiteLocalAddress() || address.isMulticastAddress()) {
+            return false;
+        }
+        byte[] b = address.getAddress();
+        if (b.length == 4) {
+            return isPublicV4(b);
+        }
+        if ((b[0] & 0xFE) == 0xFC) {
+            return false; // fc00::/7 unique-local
+        }
+        byte[] embedded = embeddedV4(b);
+        return embedded == null || isPublicV4(embedded);
+    }
+
+    private static boolean isPublicV4(byte[] b) {
+        int first = b[0] & 0xFF;
+        int second = b[1] & 0xFF;
+        return !(first == 0 || first == 10 || first == 127 || first >= 224 // this network, private, loopback, multicast / reserved
+                || (first == 100 && (second & 0xC0) == 64)                // 100.64.0.0/10 carrier-grade NAT
+                || (first == 169 && second == 254)                        // link-local, cloud metadata
+                || (first == 172 && (second & 0xF0) == 16)
+                || (first == 192 && second == 168)
+                || (first == 192 && second == 0 && (b[2] & 0xFF) == 0)    // 192.0.0.0/24 protocol assignments
+                || (first == 198 && (second & 0xFE) == 18));              // 198.18.0.0/15 benchmarking
+    }
+
+    // IPv4 carried inside an IPv6 address: mapped / compatible (::ffff:a.b.c.d, ::a.b.c.d),
+    // NAT64 (64:ff9b::/96) and 6to4 (2002::/16)
+    private static byte[] embeddedV4(byte[] b) {
+        if (isZero(b, 0, 10) && ((b[10] == (byte) 0xFF && b[11] == (byte) 0xFF) || (b[10] == 0 && b[11] == 0))) {
+            return Arrays.copyOfRange(b, 12, 16);
+        }
+        if (b[0] == 0 && b[1] == 0x64 && b[2] == (byte) 0xFF && b[3] == (byte) 0x9B && isZero(b, 4, 12)) {
+            return Arrays.copyOfRange(b, 12, 16);
+        }
+        if (b[0] == 0x20 && b[1] == 0x02) {
+            return Arrays.copyOfRange(b, 2, 6);
+        }
+        return null;
+    }
+
+    private static boolean isZero(byte[] b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (b[i] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,8 +1,12 @@
 package com.url.shortener.security;
 
+import com.url.shortener.resilience.Bulkhead;
 import com.url.shortener.security.jwt.JwtAuthenticationFilter;
 import com.url.shortener.serviceImpl.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -31,9 +35,18 @@ public class WebSecurityConfig {
         return new JwtAuthenticationFilter();
     }
 
+    /**
+     * BCrypt at {@code password.bcrypt.strength}, run in the password bulkhead. Raising the
+     * strength rehashes each user's password at their next successful login.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder(){
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            Bulkhead passwordBulkhead,
+            MeterRegistry meterRegistry,
+            @Value("${password.bcrypt.strength:10}") int strength,
+            @Value("${password.hash.max-wait-ms:2000}") long maxWaitMs
+    ) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), passwordBulkhead, maxWaitMs, meterRegistry);
     }
 
     @Bean
@@ -43,24 +56,30 @@ public class WebSecurityConfig {
 
 
     @Bean
-    public DaoAuthenticationProvider authenticationProvider() {
+    public DaoAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(userDetailsService);
+        authProvider.setPasswordEncoder(passwordEncoder);
         return authProvider;
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, DaoAuthenticationProvider authenticationProvider) throws Exception {
         http.csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
+                        // the REQUEST dispatch was authorized already; async results (bulkheaded
+                        // redirects and analytics) re-dispatch without the JWT filter running again
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        // let 503s from public endpoints (busy password hashing) reach the client as 503s
+                        .dispatcherTypeMatchers(DispatcherType.ERROR).permitAll()
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/urls/**").authenticated()
                         .requestMatchers("/{shortUrl}").permitAll()
                         .anyRequest().authenticated()
                 );
-        http.authenticationProvider(authenticationProvider());
+        http.authenticationProvider(authenticationProvider);
         http.addFilterBefore(jwtAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class);
         return http.build();
     }
@@ -0,0 +1,17 @@
+package com.url.shortener.service;
+
+import com.url.shortener.dtos.ImportJobDTO;
+import com.url.shortener.models.User;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public interface BulkLinkService {
+
+    ImportJobDTO importLinks(User user, InputStream input, String format, Long resumeJobId);
+
+    ImportJobDTO getImportJob(Long jobId, User user);
+
+    void exportLinks(User user, String format, OutputStream out) throws IOException;
+}
@@ -7,8 +7,12 @@ import jakarta.servlet.http.HttpServletRequest;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface UrlMappingService {
 
@@ -16,16 +20,34 @@ public interface UrlMappingService {
 
     UrlMapping getOriginalUrl(String shortUrl);
 
+    /** Destination from the local replica, for answering a redirect whose lookup ran out of time. */
+    Optional<String> getFallbackDestination(String shortUrl, String host);
+
     UrlMappingDTO createShortUrl(UrlMappingCreateRequestDTO request, User user);
 
+    UrlMappingDTO createShortUrl(UrlMappingCreateRequestDTO request, User user, String idempotencyKey);
+
+    UrlMappingDTO findByIdempotencyKey(UrlMappingCreateRequestDTO request, User user, String idempotencyKey);
+
     UrlMappingDTO getUrlDetailsForOwner(String shortUrl, User user);
 
+    UrlSummaryDTO getUrlSummary(String shortUrl, User user);
+
     List<UrlMappingDTO> getUrlsByUser(User user);
 
+    /** Links moved to the cold archive; reactivating one or reading its analytics restores it. */
+    List<UrlMappingDTO> getArchivedUrlsByUser(User user);
+
     UrlMappingDTO updateUrl(String shortUrl, UrlMappingUpdateRequestDTO request, User user);
 
+    List<RoutingRuleDTO> getRoutingRules(String shortUrl, User user);
+
+    List<RoutingRuleDTO> replaceRoutingRules(String shortUrl, List<RoutingRuleDTO> rules, User user);
+
     void deleteUrl(String shortUrl, User user);
 
+    int deleteUrls(Collection<String> shortUrls, User user);
+
     List<ClickEventDTO> getClickEventsByDateForUser(
             String shortUrl,
             User user,
@@ -33,6 +55,24 @@ public interface UrlMappingService {
             LocalDateTime end
     );
 
+    /** Hands the events to {@code consumer} inside a read-only transaction, as a database stream. */
+    void streamClickEventsForUser(
+            String shortUrl,
+            User user,
+            LocalDateTime start,
+            LocalDateTime end,
+            Consumer<Stream<ClickEventDTO>> consumer
+    );
+
+    ClickBreakdownDTO getClickBreakdownForUser(
+            String shortUrl,
+            User user,
+            LocalDateTime start,
+            LocalDateTime end
+    );
+
+    ClickSeriesDTO getClickSeriesForUser(String shortUrl, User user, String resolution, int hours);
+
     Map<LocalDate, Long> getTotalClicksByUserAndDate(
             User user,
             LocalDate start,
@@ -0,0 +1,525 @@
+package com.url.shortener.serviceImpl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.url.shortener.blocklist.BlocklistService;
+import com.url.shortener.domain.DomainTable;
+import com.url.shortener.dtos.ImportJobDTO;
+import com.url.shortener.events.UrlMappingCreatedEvent;
+import com.url.shortener.models.ImportJob;
+import com.url.shortener.models.User;
+import com.url.shortener.repository.ArchivedLinkRepository;
+import com.url.shortener.repository.ImportJobRepository;
+import com.url.shortener.repository.UrlMappingRepository;
+import com.url.shortener.service.BulkLinkService;
+import com.url.shortener.shortcode.ShortCodeCodec;
+import com.url.shortener.utils.CsvUtils;
+import com.url.shortener.utils.UrlNormalizer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Streaming import / export of a user's link catalog.
+ * <p>
+ * Import reads the upload record by record (an NDJSON line, or a CSV record, which
+ * may span lines inside quotes), validates each row and inserts valid rows
+ * with JDBC batches. Every batch commits together with the job checkpoint, so
+ * progress can be polled while it runs and an interrupted upload can be resumed.
+ * Export walks the user's rows with keyset pagination and writes them straight to
+ * the response, so memory stays flat regardless of catalog size.
+ */
+@Service
+@Slf4j
+public class BulkLinkServiceImpl implements BulkLinkService {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO url_mapping
+                (original_url, original_url_hash, custom_alias, is_custom, expires_at, category,
+                 protected_url, is_active, is_safe, safety_score, click_count, last_status_code,
+                 created_date, updated_date, user_id)
+            VALUES (?, ?, ?, ?, ?, ?, false, true, true, ?, 0, 0, ?, ?, ?)
+            """;
+
+    private static final String SET_SHORT_URL_SQL = "UPDATE url_mapping SET short_url = ? WHERE id = ?";
+
+    private static final String EXPORT_PAGE_SQL = """
+            SELECT id, short_url, original_url, custom_alias, expires_at, category, is_active, click_count, created_date
+              FROM url_mapping
+             WHERE user_id = ? AND id > ? AND deleted_at IS NULL
+             ORDER BY id
+             LIMIT ?
+            """;
+
+    private static final String[] EXPORT_COLUMNS =
+            {"shortUrl", "originalUrl", "customAlias", "expiresAt", "category", "active", "clickCount", "createdDate"};
+
+    private static final Pattern ALIAS = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+    private static final int MAX_URL_LENGTH = 2048;
+    private static final int MAX_CSV_RECORD_CHARS = 64 * 1024;
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ImportJobRepository importJobRepository;
+    private final UrlMappingRepository urlMappingRepository;
+    private final ArchivedLinkRepository archivedLinkRepository;
+    private final BlocklistService blocklistService;
+    private final ShortCodeCodec shortCodeCodec;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int exportPageSize;
+
+    public BulkLinkServiceImpl(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            ImportJobRepository importJobRepository,
+            UrlMappingRepository urlMappingRepository,
+            ArchivedLinkRepository archivedLinkRepository,
+            BlocklistService blocklistService,
+            ShortCodeCodec shortCodeCodec,
+            ApplicationEventPublisher eventPublisher,
+            ObjectMapper objectMapper,
+            @Value("${bulk.import.batch-size:1000}") int batchSize,
+            @Value("${bulk.export.page-size:1000}") int exportPageSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.importJobRepository = importJobRepository;
+        this.urlMappingRepository = urlMappingRepository;
+        this.archivedLinkRepository = archivedLinkRepository;
+        this.blocklistService = blocklistService;
+        this.shortCodeCodec = shortCodeCodec;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.exportPageSize = exportPageSize;
+    }
+
+    // ============================================
+    // IMPORT
+    // ============================================
+    @Override
+    public ImportJobDTO importLinks(User user, InputStream input, String format, Long resumeJobId) {
+        String fmt = normalizeFormat(format);
+        boolean csv = fmt.equals("csv");
+        ImportJob job = resumeJobId != null ? resumableJob(resumeJobId, user) : newJob(user, fmt);
+        long skip = job.getLinesProcessed();
+
+        List<String> errors = new ArrayList<>();
+        List<ImportRow> batch = new ArrayList<>(batchSize);
+        long batchFailed = 0;
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 1 << 16);
+        Map<String, Integer> header = null;
+        long lineNo = 0;
+        try {
+            while (true) {
+                String line = null;
+                List<String> cells = null;
+                if (csv) {
+                    cells = CsvUtils.readRecord(reader, MAX_CSV_RECORD_CHARS);
+                    if (cells == null) {
+                        break;
+                    }
+                    if (cells.size() == 1 && cells.get(0).isBlank()) {
+                        continue;
+                    }
+                } else {
+                    line = reader.readLine();
+                    if (line == null) {
+                        break;
+                    }
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                }
+                if (csv && header == null) {
+                    header = csvHeader(cells);
+                    if (!header.isEmpty()) {
+                        continue; // header row is not a data line
+                    }
+                }
+                lineNo++;
+                if (lineNo <= skip) {
+                    continue; // committed by an earlier run of this job
+                }
+
+                try {
+                    batch.add(validate(csv ? parseCsv(cells, header, lineNo) : parseJson(line, lineNo)));
+                } catch (IllegalArgumentException e) {
+                    batchFailed++;
+                    addError(errors, "line " + lineNo + ": " + e.getMessage());
+                }
+
+                if (batch.size() + batchFailed >= batchSize) {
+                    commitBatch(job, user, batch, batchFailed, lineNo, errors);
+                    batch.clear();
+                    batchFailed = 0;
+                }
+            }
+            commitBatch(job, user, batch, batchFailed, lineNo, errors);
+            job.setStatus("COMPLETED");
+            job = importJobRepository.save(job);
+        } catch (IOException | RuntimeException e) {
+            // everything up to the last committed batch is kept; re-upload with jobId to resume
+            log.warn("Import job {} failed at line {}", job.getId(), lineNo, e);
+            job = importJobRepository.findById(job.getId()).orElse(job);
+            job.setStatus("FAILED");
+            job.setLastError(e.getMessage());
+            job = importJobRepository.save(job);
+        }
+        return toDTO(job, errors);
+    }
+
+    @Override
+    public ImportJobDTO getImportJob(Long jobId, User user) {
+        ImportJob job = importJobRepository.findByIdAndUser(jobId, user)
+                .orElseThrow(() -> new RuntimeException("Import job not found"));
+        return toDTO(job, List.of());
+    }
+
+    private ImportJob newJob(User user, String format) {
+        return importJobRepository.save(ImportJob.builder()
+                .user(user)
+                .format(format)
+                .status("RUNNING")
+                .build());
+    }
+
+    private ImportJob resumableJob(Long jobId, User user) {
+        ImportJob job = importJobRepository.findByIdAndUser(jobId, user)
+                .orElseThrow(() -> new RuntimeException("Import job not found"));
+        if ("COMPLETED".equals(job.getStatus())) {
+            throw new RuntimeException("Import job " + jobId + " is already completed");
+        }
+        job.setStatus("RUNNING");
+        job.setLastError(null);
+        return importJobRepository.save(job);
+    }
+
+    private void commitBatch(ImportJob job, User user, List<ImportRow> rows, long failedRows, long lastLine, List<String> errors) {
+        if (rows.isEmpty() && failedRows == 0) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            List<ImportRow> accepted = rejectTakenAliases(rows, errors);
+            long failed = failedRows + (rows.size() - accepted.size());
+
+            long[] ids = insertRows(accepted, user.getId());
+            jdbcTemplate.batchUpdate(SET_SHORT_URL_SQL, shortCodes(ids));
+
+            // checkpoint moves in the same transaction as the rows it covers
+            job.setLinesProcessed(lastLine);
+            job.setImported(job.getImported() + accepted.size());
+            job.setFailed(job.getFailed() + failed);
+            importJobRepository.save(job);
+
+            // picked up by metadata enrichment after commit
+            for (int i = 0; i < ids.length; i++) {
+                eventPublisher.publishEvent(new UrlMappingCreatedEvent(ids[i], accepted.get(i).originalUrl()));
+            }
+        });
+    }
+
+    private List<ImportRow> rejectTakenAliases(List<ImportRow> rows, List<String> errors) {
+        Set<String> aliases = new HashSet<>();
+        for (ImportRow row : rows) {
+            if (row.customAlias() != null) {
+                aliases.add(row.customAlias());
+            }
+        }
+        if (aliases.isEmpty()) {
+            return rows;
+        }
+        long highestId = Math.max(urlMappingRepository.findHighestId(), archivedLinkRepository.findHighestId());
+        Set<String> taken = takenAliases(aliases);
+        List<ImportRow> accepted = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            if (row.customAlias() != null && shortCodeCodec.reservesAlias(row.customAlias(), highestId)) {
+                addError(errors, "line " + row.line() + ": custom alias is reserved (generated short code of an existing link)");
+            } else if (row.customAlias() != null && !taken.add(row.customAlias())) {
+                // taken in the DB, or repeated earlier in this batch
+                addError(errors, "line " + row.line() + ": custom alias already exists: " + row.customAlias());
+            } else {
+                accepted.add(row);
+            }
+        }
+        return accepted;
+    }
+
+    // imported links go to the default domain
+    private Set<String> takenAliases(Collection<String> aliases) {
+        Set<String> taken = new HashSet<>(urlMappingRepository.findExistingAliases(DomainTable.DEFAULT, aliases));
+        taken.addAll(archivedLinkRepository.findExistingAliases(DomainTable.DEFAULT, aliases));
+        return taken;
+    }
+
+    // [code, id] per row; a code an alias already took is swapped for an alternate one
+    private List<Object[]> shortCodes(long[] ids) {
+        List<String> codes = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            codes.add(shortCodeCodec.encode(id));
+        }
+        Set<String> taken = codes.isEmpty() ? Set.of() : takenAliases(codes);
+        List<Object[]> args = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            String code = codes.get(i);
+            if (taken.contains(code)) {
+                int attempt = 1;
+                do {
+                    code = shortCodeCodec.alternateCode(ids[i], attempt++);
+                } while (!takenAliases(List.of(code)).isEmpty());
+            }
+            args.add(new Object[]{code, ids[i]});
+        }
+        return args;
+    }
+
+    private long[] insertRows(List<ImportRow> rows, Long userId) {
+        if (rows.isEmpty()) {
+            return new long[0];
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.execute((ConnectionCallback<long[]>) con -> {
+            try (PreparedStatement ps = con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (ImportRow row : rows) {
+                    ps.setString(1, row.originalUrl());
+                    ps.setBytes(2, UrlNormalizer.hash(row.originalUrl()));
+                    ps.setString(3, row.customAlias());
+                    ps.setBoolean(4, row.customAlias() != null);
+                    ps.setTimestamp(5, row.expiresAt() == null ? null : Timestamp.valueOf(row.expiresAt()));
+                    ps.setString(6, row.category());
+                    ps.setDouble(7, blocklistService.safetyScore(false));
+                    ps.setTimestamp(8, now);
+                    ps.setTimestamp(9, now);
+                    ps.setLong(10, userId);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                long[] ids = new long[rows.size()];
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    int i = 0;
+                    while (keys.next() && i < ids.length) {
+                        ids[i++] = keys.getLong(1);
+                    }
+                    if (i != ids.length) {
+                        throw new SQLException("Expected " + ids.length + " generated keys, got " + i);
+                    }
+                }
+                return ids;
+            }
+        });
+    }
+
+    // ============================================
+    // PARSING / VALIDATION
+    // ============================================
+    private static Map<String, Integer> csvHeader(List<String> cells) {
+        Map<String, Integer> header = new HashMap<>();
+        for (int i = 0; i < cells.size(); i++) {
+            header.put(cells.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!header.containsKey("originalurl") && !header.containsKey("url")) {
+            return Map.of(); // no header: positional url,customAlias,expiresAt,category
+        }
+        return header;
+    }
+
+    private static ImportRow parseCsv(List<String> cells, Map<String, Integer> header, long lineNo) {
+        if (header.isEmpty()) {
+            return new ImportRow(lineNo, cell(cells, 0), cell(cells, 1), parseDate(cell(cells, 2)), cell(cells, 3));
+        }
+        Integer urlIdx = header.getOrDefault("originalurl", header.get("url"));
+        return new ImportRow(lineNo,
+                cell(cells, urlIdx),
+                cell(cells, header.getOrDefault("customalias", header.get("alias"))),
+                parseDate(cell(cells, header.get("expiresat"))),
+                cell(cells, header.get("category")));
+    }
+
+    private ImportRow parseJson(String line, long lineNo) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("malformed JSON");
+        }
+        return new ImportRow(lineNo,
+                text(node, "originalUrl", "url"),
+                text(node, "customAlias", "alias"),
+                parseDate(text(node, "expiresAt", "expiresAt")),
+                text(node, "category", "category"));
+    }
+
+    private ImportRow validate(ImportRow row) {
+        String url = row.originalUrl();
+        if (url == null || url.length() > MAX_URL_LENGTH) {
+            throw new IllegalArgumentException("missing or too long URL");
+        }
+        try {
+            URI uri = URI.create(url);
+            String scheme = uri.getScheme();
+            if (uri.getHost() == null || scheme == null
+                    || !(scheme.equalsIgnoreCase("http") || scheme.equalsIgnoreCase("https"))) {
+                throw new IllegalArgumentException("invalid URL");
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("invalid URL");
+        }
+        if (row.customAlias() != null && !ALIAS.matcher(row.customAlias()).matches()) {
+            throw new IllegalArgumentException("invalid custom alias");
+        }
+        if (blocklistService.isBlocked(url)) {
+            throw new IllegalArgumentException("destination is blocked as unsafe");
+        }
+        return row;
+    }
+
+    private static String cell(List<String> cells, Integer idx) {
+        if (idx == null || idx >= cells.size()) {
+            return null;
+        }
+        String v = cells.get(idx).trim();
+        return v.isEmpty() ? null : v;
+    }
+
+    private static String text(JsonNode node, String name, String alt) {
+        JsonNode v = node.hasNonNull(name) ? node.get(name) : node.get(alt);
+        if (v == null || v.isNull()) {
+            return null;
+        }
+        String s = v.asText().trim();
+        return s.isEmpty() ? null : s;
+    }
+
+    private static LocalDateTime parseDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("invalid expiresAt");
+        }
+    }
+
+    private static void addError(List<String> errors, String error) {
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(error);
+        }
+    }
+
+    private static String normalizeFormat(String format) {
+        String f = format == null ? "csv" : format.toLowerCase(Locale.ROOT);
+        if (!f.equals("csv") && !f.equals("ndjson")) {
+            throw new RuntimeException("Unsupported format: " + format);
+        }
+        return f;
+    }
+
+    private static ImportJobDTO toDTO(ImportJob job, List<String> errors) {
+        return ImportJobDTO.builder()
+                .jobId(job.getId())
+                .status(job.getStatus())
+                .linesProcessed(job.getLinesProcessed())
+                .imported(job.getImported())
+                .failed(job.getFailed())
+                .errors(errors)
+                .build();
+    }
+
+    // ============================================
+    // EXPORT
+    // ============================================
+    @Override
+    public void exportLinks(User user, String format, OutputStream out) throws IOException {
+        boolean csv = normalizeFormat(format).equals("csv");
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+        if (csv) {
+            writer.write(String.join(",", EXPORT_COLUMNS));
+            writer.write('\n');
+        }
+
+        long afterId = 0;
+        while (true) {
+            List<Object[]> page = jdbcTemplate.query(EXPORT_PAGE_SQL, (rs, i) -> new Object[]{
+                    rs.getLong("id"),
+                    rs.getString("short_url"),
+                    rs.getString("original_url"),
+                    rs.getString("custom_alias"),
+                    toLocal(rs.getTimestamp("expires_at")),
+                    rs.getString("category"),
+                    rs.getBoolean("is_active"),
+                    rs.getInt("click_count"),
+                    toLocal(rs.getTimestamp("created_date"))
+            }, user.getId(), afterId, exportPageSize);
+            if (page.isEmpty()) {
+                break;
+            }
+            for (Object[] row : page) {
+                if (csv) {
+                    writeCsv(writer, row);
+                } else {
+                    writeJson(writer, row);
+                }
+            }
+            afterId = (Long) page.get(page.size() - 1)[0];
+            writer.flush();
+        }
+        writer.flush();
+    }
+
+    private static void writeCsv(Writer writer, Object[] row) throws IOException {
+        for (int i = 1; i < row.length; i++) {
+            if (i > 1) {
+                writer.write(',');
+            }
+            writer.write(CsvUtils.escape(row[i]));
+        }
+        writer.write('\n');
+    }
+
+    private void writeJson(Writer writer, Object[] row) throws IOException {
+        JsonGenerator gen = objectMapper.getFactory().createGenerator(writer);
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        gen.writeStartObject();
+        for (int i = 1; i < row.length; i++) {
+            Object v = row[i];
+            gen.writeFieldName(EXPORT_COLUMNS[i - 1]);
+            if (v == null) {
+                gen.writeNull();
+            } else if (v instanceof Number n) {
+                gen.writeNumber(n.longValue());
+            } else if (v instanceof Boolean b) {
+                gen.writeBoolean(b);
+            } else {
+                gen.writeString(v.toString());
+            }
+        }
+        gen.writeEndObject();
+        gen.close();
+        writer.write('\n');
+    }
+
+    private static LocalDateTime toLocal(Timestamp ts) {
+        return ts == null ? null : ts.toLocalDateTime();
+    }
+
+    private record ImportRow(long line, String originalUrl, String customAlias, LocalDateTime expiresAt, String category) {
+    }
+}
@@ -1,39 +1,138 @@
 package com.url.shortener.serviceImpl;
 
+import com.url.shortener.archive.LinkArchive;
+import com.url.shortener.blocklist.BlocklistService;
+import com.url.shortener.clickstream.ClickStreamHub;
+import com.url.shortener.dimension.ClickDimensionService;
+import com.url.shortener.domain.DomainTable;
+import com.url.shortener.domain.SlugCache;
 import com.url.shortener.dtos.*;
+import com.url.shortener.events.UrlMappingCreatedEvent;
+import com.url.shortener.journal.ClickJournal;
+import com.url.shortener.journal.ClickRecord;
+import com.url.shortener.models.ArchivedLink;
 import com.url.shortener.models.ClickEvent;
+import com.url.shortener.models.RoutingRule;
 import com.url.shortener.models.UrlMapping;
 import com.url.shortener.models.User;
+import com.url.shortener.repository.ArchivedLinkRepository;
+import com.url.shortener.repository.ClickDailyRepository;
 import com.url.shortener.repository.ClickEventRepository;
+import com.url.shortener.repository.RoutingRuleRepository;
 import com.url.shortener.repository.UrlMappingRepository;
+import com.url.shortener.resilience.CircuitBreaker;
+import com.url.shortener.resilience.LinkReplica;
+import com.url.shortener.resilience.ReplicaLink;
+import com.url.shortener.routing.RoutingTable;
+import com.url.shortener.routing.RoutingTableCache;
+import com.url.shortener.sampling.ClickSampler;
 import com.url.shortener.service.UrlMappingService;
+import com.url.shortener.shortcode.ShortCodeCodec;
+import com.url.shortener.timeseries.ClickTimeSeries;
+import com.url.shortener.utils.RequestUtils;
+import com.url.shortener.utils.UrlNormalizer;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.net.URI;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class UrlMappingServiceImpl implements UrlMappingService {
 
+    private static final int BREAKDOWN_TOP_N = 50;
+    private static final int BULK_DELETE_MAX = 1000;
+
     private final UrlMappingRepository urlMappingRepository;
     private final ClickEventRepository clickEventRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BlocklistService blocklistService;
+    private final ClickStreamHub clickStreamHub;
+    private final ShortCodeCodec shortCodeCodec;
+    private final ClickDimensionService clickDimensionService;
+    private final ClickJournal clickJournal;
+    private final LinkReplica linkReplica;
+    private final CircuitBreaker redirectCircuitBreaker;
+    private final MeterRegistry meterRegistry;
+    private final RoutingRuleRepository routingRuleRepository;
+    private final RoutingTableCache routingTableCache;
+    private final ClickTimeSeries clickTimeSeries;
+    private final LinkArchive linkArchive;
+    private final ArchivedLinkRepository archivedLinkRepository;
+    private final DomainTable domainTable;
+    private final SlugCache slugCache;
+    private final ClickSampler clickSampler;
+    private final ClickDailyRepository clickDailyRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // first day fully covered by click_daily (null until it has rows)
+    private volatile LocalDate dailyCountersFrom;
+
+    @Value("${shortener.dedupe.default:false}")
+    private boolean dedupeByDefault;
+
+    @Value("${routing.country-header:CF-IPCountry}")
+    private String countryHeader;
+
+    @Value("${routing.max-rules:32}")
+    private int maxRoutingRules;
     @Override
     public UrlMapping getOriginalUrl(String shortUrl, HttpServletRequest request) {
 
-        UrlMapping mapping = urlMappingRepository
-                .findByShortUrlOrCustomAlias(shortUrl, shortUrl)
+        // slug namespace of the requested host, from the in-memory domain table
+        DomainTable.Domain domain = domainTable.resolve(RequestUtils.getHost(request));
+        domain.redirects().increment();
+
+        // While the database is failing (or the breaker is open) fall back to the local replica
+        boolean degraded = false;
+        Optional<UrlMapping> found;
+        if (redirectCircuitBreaker.allowRequest()) {
+            long start = System.nanoTime();
+            try {
+                found = resolve(domain, shortUrl);
+                redirectCircuitBreaker.onSuccess(System.nanoTime() - start);
+            } catch (RuntimeException e) {
+                redirectCircuitBreaker.onFailure();
+                if (!(e instanceof DataAccessException) && !(e instanceof TransactionException)) {
+                    throw e;
+                }
+                log.warn("Redirect lookup failed, serving {} from replica: {}", shortUrl, e.getMessage());
+                found = resolveFromReplica(domain, shortUrl);
+                degraded = true;
+            }
+        } else {
+            found = resolveFromReplica(domain, shortUrl);
+            degraded = true;
+        }
+
+        UrlMapping mapping = found
+                .filter(m -> m.getDeletedAt() == null)
                 .orElseThrow(() -> new RuntimeException("Short URL not found"));
 
         if (mapping.getIsActive() != null && !mapping.getIsActive()) {
@@ -45,34 +144,181 @@ public class UrlMappingServiceImpl implements UrlMappingService {
             throw new RuntimeException("This short URL has expired.");
         }
 
-        // Increment click count
-        mapping.setClickCount(mapping.getClickCount() + 1);
-        urlMappingRepository.save(mapping);
+        rejectIfBlocked(mapping, !degraded);
+
+        String userAgent = request.getHeader("User-Agent");
+        String referer = request.getHeader("Referer");
+        String clientIp = RequestUtils.getClientIp(request);
+        String deviceType = detectDeviceType(userAgent);
+        String os = detectOS(userAgent);
+
+        // --- Multi-destination routing (compiled per link, cached with its version) ---
+        // a table that cannot be loaded falls back to the link's own destination
+        RoutingTable routes = degraded ? null : guarded(() -> routingTableCache.tableFor(mapping), () -> null);
+        int rule = routes == null ? RoutingTable.DEFAULT : routes.select(
+                request.getHeader(countryHeader), deviceType, os, System.currentTimeMillis(),
+                stickyBucket(clientIp, mapping.getId()));
+        long routingRuleId = 0;
+        if (rule != RoutingTable.DEFAULT) {
+            if (blocklistService.isBlocked(routes.destination(rule))) {
+                throw new RuntimeException("This short URL has been flagged as unsafe.");
+            }
+            routingRuleId = routes.ruleId(rule);
+            mapping.setResolvedUrl(routes.destination(rule));
+        }
 
         // --- Capture click event ---
-        ClickEvent clickEvent = ClickEvent.builder()
-                .urlMapping(mapping)
-                .clickDate(LocalDateTime.now())
-                .ipAddress(getClientIp(request))
-                .userAgent(request.getHeader("User-Agent"))
-                .referer(request.getHeader("Referer"))
-                .deviceType(detectDeviceType(request.getHeader("User-Agent")))
-                .browser(detectBrowser(request.getHeader("User-Agent")))
-                .os(detectOS(request.getHeader("User-Agent")))
-                .responseStatus(302)
-                .build();
+        // With the journal on, dimension ids come from the cache only: a new value travels
+        // under a stand-in id and is interned by the journal consumer, off the redirect path
+        boolean cachedDimensions = degraded || clickJournal.isEnabled();
+        Integer userAgentId = cachedDimensions ? clickDimensionService.cachedUserAgentId(userAgent)
+                : guarded(() -> clickDimensionService.userAgentId(userAgent), () -> clickDimensionService.cachedUserAgentId(userAgent));
+        Integer refererId = cachedDimensions ? clickDimensionService.cachedRefererId(referer)
+                : guarded(() -> clickDimensionService.refererId(referer), () -> clickDimensionService.cachedRefererId(referer));
+
+        // The journal carries ids only: a value without one goes under a stand-in id the
+        // consumer interns or stores inline. Out of stand-ins, write directly to keep it.
+        Integer journalUserAgentId = journalDimensionId(userAgentId, userAgent, clickDimensionService::standInUserAgentId);
+        Integer journalRefererId = journalDimensionId(refererId, referer, clickDimensionService::standInRefererId);
+        boolean inlineOnly = (journalUserAgentId == null && userAgent != null && !userAgent.isBlank())
+                || (journalRefererId == null && referer != null && !referer.isBlank());
+
+        // Journaled clicks (and their click_count increments) reach MySQL in batches
+        // via ClickJournalConsumer; write directly only if the journal cannot take it
+        boolean journaled = (degraded || !inlineOnly) && clickJournal.append(new ClickRecord(
+                mapping.getId(),
+                System.currentTimeMillis(),
+                journalUserAgentId == null ? 0 : journalUserAgentId,
+                journalRefererId == null ? 0 : journalRefererId,
+                clientIp,
+                extractHost(referer),
+                deviceType,
+                detectBrowser(userAgent),
+                os,
+                302,
+                (int) routingRuleId));
+
+        // Not journaled: write directly (through the breaker), unless running from the replica
+        Long clickRuleId = rule == RoutingTable.DEFAULT ? null : routingRuleId;
+        String clickVariant = rule == RoutingTable.DEFAULT ? null : routes.variant(rule);
+        boolean recorded = journaled || (!degraded && guarded(() -> {
+            // Increment click count
+            mapping.setClickCount(mapping.getClickCount() + 1);
+            urlMappingRepository.save(mapping);
+            LocalDateTime now = LocalDateTime.now();
+            clickDailyRepository.increment(mapping.getId(), now.toLocalDate());
+
+            // counters above are exact; the raw row only if the sampler keeps it
+            int weight = clickSampler.admit(mapping.getId(), System.currentTimeMillis());
+            if (weight > 0) {
+                ClickEvent clickEvent = ClickEvent.builder()
+                        .urlMapping(mapping)
+                        .clickDate(now)
+                        .ipAddress(clientIp)
+                        .userAgentId(userAgentId)
+                        .refererId(refererId)
+                        .userAgent(userAgentId == null ? userAgent : null)
+                        .referer(refererId == null ? referer : null)
+                        .refererHost(extractHost(referer))
+                        .deviceType(deviceType)
+                        .browser(detectBrowser(userAgent))
+                        .os(os)
+                        .routingRuleId(clickRuleId)
+                        .variant(clickVariant)
+                        .responseStatus(302)
+                        .samplingWeight(weight)
+                        .build();
+
+                clickEventRepository.save(clickEvent);
+            }
+            return true;
+        }, () -> false));
+        if (!recorded) {
+            // nowhere to put it: the redirect matters more than the click
+            meterRegistry.counter("redirect.degraded.clicks-dropped").increment();
+        }
 
-        clickEventRepository.save(clickEvent);
+        // live dashboard deltas (coalesced per second by the hub)
+        clickStreamHub.record(mapping.getId(), mapping.getUser().getId(), mapping.getShortUrl());
+        clickTimeSeries.record(mapping.getId());
 
         return mapping;
     }
 
+    /**
+     * Runs a redirect-path database call (other than the lookup itself) through the redirect
+     * breaker: errors and slow calls count towards opening it, and while it is open, or when
+     * the call fails, the fallback answers instead so the redirect still goes out.
+     */
+    private <T> T guarded(Supplier<T> call, Supplier<T> fallback) {
+        if (!redirectCircuitBreaker.allowRequest()) {
+            return fallback.get();
+        }
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            redirectCircuitBreaker.onSuccess(System.nanoTime() - start);
+            return result;
+        } catch (DataAccessException | TransactionException e) {
+            redirectCircuitBreaker.onFailure();
+            log.warn("Redirect-path database call failed: {}", e.getMessage());
+            return fallback.get();
+        }
+    }
+
+    private Integer journalDimensionId(Integer id, String value, Function<String, Integer> standIn) {
+        return id != null || !clickJournal.isEnabled() ? id : standIn.apply(value);
+    }
+
+    // Same visitor and link -> same arm of a weighted split
+    private static int stickyBucket(String clientIp, long mappingId) {
+        int h = (clientIp == null ? 0 : clientIp.hashCode()) * 31 + Long.hashCode(mappingId);
+        return h * 0x9E3779B9;
+    }
+
+    @Override
+    public Optional<String> getFallbackDestination(String shortUrl, String host) {
+        if (!linkReplica.isReady()) {
+            return Optional.empty();
+        }
+        return findInReplica(domainTable.resolve(host), shortUrl)
+                .filter(link -> link.expiresAt() == null || link.expiresAt().isAfter(LocalDateTime.now()))
+                .map(ReplicaLink::originalUrl)
+                .filter(url -> !blocklistService.isBlocked(url));
+    }
+
+    // Detached stand-in built from the replica; only what the redirect path reads is set
+    private Optional<UrlMapping> resolveFromReplica(DomainTable.Domain domain, String slug) {
+        meterRegistry.counter("redirect.degraded").increment();
+        if (!linkReplica.isReady()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Link lookup is temporarily unavailable");
+        }
+        return findInReplica(domain, slug).map(link -> UrlMapping.builder()
+                .id(link.id())
+                .shortUrl(link.shortUrl())
+                .domain(link.domain())
+                .originalUrl(link.originalUrl())
+                .expiresAt(link.expiresAt())
+                .isActive(true)
+                .isSafe(true)
+                .clickCount(0)
+                .user(User.builder().id(link.userId()).build())
+                .build());
+    }
+
+    // alias in the domain's namespace, else a generated / legacy code of that domain
+    private Optional<ReplicaLink> findInReplica(DomainTable.Domain domain, String slug) {
+        return linkReplica.find(LinkReplica.aliasKey(domain.host(), slug))
+                .or(() -> linkReplica.find(slug).filter(link -> slug.equals(link.shortUrl())))
+                .filter(link -> domain.host().equals(link.domain()));
+    }
+
     @Override
     public UrlMapping getOriginalUrl(String shortUrl) {
 
         // 1. look up by shortUrl or custom alias
-        UrlMapping mapping = urlMappingRepository
-                .findByShortUrlOrCustomAlias(shortUrl, shortUrl)
+        UrlMapping mapping = resolve(domainTable.defaultDomain(), shortUrl)
+                .filter(m -> m.getDeletedAt() == null)
                 .orElseThrow(() -> new RuntimeException("Short URL not found"));
 
         // 2. check if is active
@@ -86,7 +332,10 @@ public class UrlMappingServiceImpl implements UrlMappingService {
             throw new RuntimeException("This short URL has expired.");
         }
 
-        // 4. increasing click count
+        // 4. destination must not be on the blocklist
+        rejectIfBlocked(mapping, true);
+
+        // 5. increasing click count
         mapping.setClickCount(mapping.getClickCount() + 1);
         urlMappingRepository.save(mapping);
 
@@ -99,50 +348,158 @@ public class UrlMappingServiceImpl implements UrlMappingService {
     // CREATE SHORT URL
     // ============================================
     @Override
-    @Transactional
     public UrlMappingDTO createShortUrl(UrlMappingCreateRequestDTO request, User user) {
+        return createShortUrl(request, user, null);
+    }
+
+    @Override
+    public UrlMappingDTO createShortUrl(UrlMappingCreateRequestDTO request, User user, String idempotencyKey) {
         System.out.println("under service impl");
 
+        // BCrypt waits in the password bulkhead; hash before taking a connection for the transaction
+        String passwordHash = request.getPassword() != null ? passwordEncoder.encode(request.getPassword()) : null;
+        return transactionTemplate.execute(status -> createShortUrl(request, user, idempotencyKey, passwordHash));
+    }
+
+    private UrlMappingDTO createShortUrl(UrlMappingCreateRequestDTO request, User user, String idempotencyKey, String passwordHash) {
+
+        // Retried request: hand back what the first attempt created
+        UrlMappingDTO replay = findByIdempotencyKey(request, user, idempotencyKey);
+        if (replay != null) {
+            return replay;
+        }
+
+        byte[] urlHash = UrlNormalizer.hash(request.getOriginalUrl());
+
+        DomainTable.Domain domain = domainTable.forCreate(request.getDomain());
+
+        // Idempotent mode: reuse the caller's existing plain link for the same destination
+        boolean idempotent = request.getIdempotent() != null ? request.getIdempotent() : dedupeByDefault;
+        boolean plain = request.getCustomAlias() == null && request.getPassword() == null && request.getExpiresAt() == null;
+        if (idempotent && plain) {
+            List<UrlMapping> existing = urlMappingRepository.findReusableByUserAndHash(user, urlHash, domain.host(), PageRequest.of(0, 1));
+            if (!existing.isEmpty()) {
+                return mapToDTO(existing.get(0));
+            }
+        }
+
         // Validating custom alias
-        if (request.getCustomAlias() != null && urlMappingRepository.existsByCustomAlias(request.getCustomAlias())) {
+        if (request.getCustomAlias() != null && shortCodeCodec.reservesAlias(request.getCustomAlias(), highestIssuedId())) {
+            throw new RuntimeException("Custom alias is reserved (generated short code of an existing link): " + request.getCustomAlias());
+        }
+        if (request.getCustomAlias() != null && aliasTaken(domain.host(), request.getCustomAlias())) {
             throw new RuntimeException("Custom alias already exists: " + request.getCustomAlias());
         }
 
+        // Reject known phishing / malware destinations up front
+        if (blocklistService.isBlocked(request.getOriginalUrl())) {
+            throw new RuntimeException("Destination URL is blocked as unsafe: " + request.getOriginalUrl());
+        }
+
         //  create URL Mapping Entity -----
         UrlMapping url = UrlMapping.builder()
                 .originalUrl(request.getOriginalUrl())
+                .originalUrlHash(urlHash)
+                .idempotencyKey(idempotencyKey)
+                .domain(domain.host())
                 .customAlias(request.getCustomAlias())
                 .isCustom(request.getCustomAlias() != null)
                 .expiresAt(request.getExpiresAt())
                 .protectedUrl(request.getPassword() != null)
-                .passwordHash(request.getPassword() != null ? passwordEncoder.encode(request.getPassword()) : null)
+                .passwordHash(passwordHash)
                 .isActive(true)
+                .isSafe(true)
+                .safetyScore(blocklistService.safetyScore(false))
                 .user(user)
                 .build();
 
 
         url = urlMappingRepository.save(url);
 
-        // ----- Generate short code using Base62 -----
-        url.setShortUrl(generateShortUrlFromId(url.getId()));
+        // ----- Generate short code (keyed permutation of the id, Base62) -----
+        url.setShortUrl(generateShortUrlFromId(url.getId(), domain.host()));
 
         // FINAL SAVE
         UrlMapping saved = urlMappingRepository.save(url);
 
+        // title / description are fetched asynchronously after commit
+        eventPublisher.publishEvent(new UrlMappingCreatedEvent(saved.getId(), saved.getOriginalUrl()));
+
         return mapToDTO(saved);
     }
 
-    private String generateShortUrlFromId(Long id) {
-        String base62 = "0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
-        StringBuilder sb = new StringBuilder();
+    @Override
+    public UrlMappingDTO findByIdempotencyKey(UrlMappingCreateRequestDTO request, User user, String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return null;
+        }
+        return urlMappingRepository.findByUserAndIdempotencyKey(user, idempotencyKey)
+                .map(previous -> {
+                    if (!Arrays.equals(previous.getOriginalUrlHash(), UrlNormalizer.hash(request.getOriginalUrl()))) {
+                        throw new RuntimeException("Idempotency-Key was already used for a different URL");
+                    }
+                    return mapToDTO(previous);
+                })
+                .orElse(null);
+    }
+
+    private String generateShortUrlFromId(Long id, String domain) {
+        String code = shortCodeCodec.encode(id);
+        // an alias taken past the reserved range before the ids got there keeps its name
+        for (int attempt = 1; aliasTaken(domain, code); attempt++) {
+            code = shortCodeCodec.alternateCode(id, attempt);
+        }
+        return code;
+    }
+
+    private boolean aliasTaken(String domain, String alias) {
+        return urlMappingRepository.existsByDomainAndCustomAlias(domain, alias)
+                || archivedLinkRepository.existsByDomainAndCustomAlias(domain, alias);
+    }
+
+    private long highestIssuedId() {
+        return Math.max(urlMappingRepository.findHighestId(), archivedLinkRepository.findHighestId());
+    }
 
-        long n = id;
-        while (n > 0) {
-            sb.append(base62.charAt((int) (n % 62)));
-            n /= 62;
+    // ============================================
+    // HELPER: SLUG RESOLUTION
+    // ============================================
+    // Generated codes decode straight to the primary key; anything else
+    // (custom alias, legacy code) is looked up in the domain's namespace, with
+    // the id remembered in that domain's slug cache partition.
+    private Optional<UrlMapping> resolve(DomainTable.Domain domain, String slug) {
+        Optional<UrlMapping> byId = findByGeneratedCode(slug).filter(m -> inDomain(m, domain));
+        if (byId.isPresent()) {
+            return byId;
         }
 
-        return sb.reverse().toString();
+        Long cachedId = slugCache.get(domain, slug);
+        if (cachedId != null) {
+            Optional<UrlMapping> cached = urlMappingRepository.findById(cachedId)
+                    .filter(m -> inDomain(m, domain) && (slug.equals(m.getCustomAlias()) || slug.equals(m.getShortUrl())));
+            if (cached.isPresent()) {
+                return cached;
+            }
+            slugCache.evict(domain, slug); // alias deleted, purged or archived since
+        }
+
+        Optional<UrlMapping> found = urlMappingRepository.findByDomainAndCustomAlias(domain.host(), slug)
+                .or(() -> urlMappingRepository.findByShortUrl(slug).filter(m -> inDomain(m, domain)));
+        found.ifPresent(m -> slugCache.put(domain, slug, m.getId()));
+        return found;
+    }
+
+    private static boolean inDomain(UrlMapping mapping, DomainTable.Domain domain) {
+        return domain.host().equals(mapping.getDomain() == null ? DomainTable.DEFAULT : mapping.getDomain());
+    }
+
+    private Optional<UrlMapping> findByGeneratedCode(String slug) {
+        long id = shortCodeCodec.decode(slug);
+        if (id <= 0) {
+            return Optional.empty();
+        }
+        return urlMappingRepository.findById(id)
+                .filter(m -> slug.equals(m.getShortUrl()));
     }
 
     // ============================================
@@ -150,8 +507,46 @@ public class UrlMappingServiceImpl implements UrlMappingService {
     // ============================================
     @Override
     public UrlMappingDTO getUrlDetailsForOwner(String shortUrl, User user) {
-        UrlMapping url = getOwnedUrl(shortUrl, user);
-        return mapToDTO(url);
+        // an archived link is described from its archived_link row, not brought back
+        return findOwnedUrl(shortUrl, user)
+                .map(this::mapToDTO)
+                .orElseGet(() -> mapArchivedToDTO(getOwnedArchivedLink(shortUrl, user)));
+    }
+
+    // ============================================
+    // PAGE SUMMARY (TITLE / DESCRIPTION / SAFETY)
+    // ============================================
+    @Override
+    public UrlSummaryDTO getUrlSummary(String shortUrl, User user) {
+        Optional<UrlMapping> live = findOwnedUrl(shortUrl, user);
+        if (live.isEmpty()) {
+            return archivedSummary(shortUrl, user);
+        }
+        UrlMapping url = live.get();
+
+        UrlSummaryDTO summary = new UrlSummaryDTO();
+        summary.setTitle(url.getTitle());
+        summary.setMetaDescription(url.getMetaDescription());
+        summary.setSummary(url.getSummary());
+        summary.setCategory(url.getCategory());
+        summary.setIsSafe(url.getIsSafe());
+        summary.setSafetyScore(url.getSafetyScore());
+        return summary;
+    }
+
+    // read from the archive segment's copy of the url_mapping row
+    private UrlSummaryDTO archivedSummary(String shortUrl, User user) {
+        getOwnedArchivedLink(shortUrl, user);
+        UrlSummaryDTO summary = new UrlSummaryDTO();
+        for (Map<String, Object> row : linkArchive.readArchived(shortUrl, user.getId(), "url_mapping")) {
+            summary.setTitle((String) row.get("title"));
+            summary.setMetaDescription((String) row.get("meta_description"));
+            summary.setSummary((String) row.get("summary"));
+            summary.setCategory((String) row.get("category"));
+            summary.setIsSafe((Boolean) row.get("is_safe"));
+            summary.setSafetyScore(row.get("safety_score") == null ? null : ((Number) row.get("safety_score")).doubleValue());
+        }
+        return summary;
     }
 
     // ============================================
@@ -159,20 +554,36 @@ public class UrlMappingServiceImpl implements UrlMappingService {
     // ============================================
     @Override
     public List<UrlMappingDTO> getUrlsByUser(User user) {
-        return urlMappingRepository.findByUser(user)
+        return urlMappingRepository.findByUserAndDeletedAtIsNull(user)
                 .stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<UrlMappingDTO> getArchivedUrlsByUser(User user) {
+        return archivedLinkRepository.findByUserIdOrderByArchivedAtDesc(user.getId())
+                .stream()
+                .map(this::mapArchivedToDTO)
+                .collect(Collectors.toList());
+    }
+
     // ============================================
     // UPDATE URL
     // ============================================
     @Override
-    @Transactional
     public UrlMappingDTO updateUrl(String shortUrl, UrlMappingUpdateRequestDTO request, User user) {
+        // hashed outside the transaction, as on create
+        String passwordHash = request.getPassword() != null ? passwordEncoder.encode(request.getPassword()) : null;
+        return transactionTemplate.execute(status -> updateUrl(shortUrl, request, user, passwordHash));
+    }
 
-        UrlMapping url = getOwnedUrl(shortUrl, user);
+    private UrlMappingDTO updateUrl(String shortUrl, UrlMappingUpdateRequestDTO request, User user, String passwordHash) {
+
+        // only a reactivation brings an archived link back; other edits need a live link
+        boolean reactivates = Boolean.TRUE.equals(request.getIsActive())
+                || (request.getExpiresAt() != null && request.getExpiresAt().isAfter(LocalDateTime.now()));
+        UrlMapping url = reactivates ? getOwnedUrlRestoringArchived(shortUrl, user) : getOwnedUrl(shortUrl, user);
 
         if (request.getExpiresAt() != null)
             url.setExpiresAt(request.getExpiresAt());
@@ -182,7 +593,7 @@ public class UrlMappingServiceImpl implements UrlMappingService {
 
         if (request.getPassword() != null) {
             url.setProtectedUrl(true);
-            url.setPasswordHash(passwordEncoder.encode(request.getPassword()));
+            url.setPasswordHash(passwordHash);
         }
 
         if (request.getRemovePassword() != null && request.getRemovePassword()) {
@@ -197,20 +608,152 @@ public class UrlMappingServiceImpl implements UrlMappingService {
         return mapToDTO(saved);
     }
 
+    // ============================================
+    // ROUTING RULES (multi-destination)
+    // ============================================
+    @Override
+    @Transactional(readOnly = true)
+    public List<RoutingRuleDTO> getRoutingRules(String shortUrl, User user) {
+        Optional<UrlMapping> live = findOwnedUrl(shortUrl, user);
+        if (live.isEmpty()) {
+            getOwnedArchivedLink(shortUrl, user);
+            return linkArchive.readArchived(shortUrl, user.getId(), "routing_rule")
+                    .stream()
+                    .map(this::mapArchivedRuleToDTO)
+                    .sorted(Comparator.comparing(RoutingRuleDTO::getPriority).thenComparing(RoutingRuleDTO::getId))
+                    .collect(Collectors.toList());
+        }
+        return routingRuleRepository.findByUrlMappingIdOrderByPriorityAscIdAsc(live.get().getId())
+                .stream()
+                .map(this::mapRuleToDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional
+    public List<RoutingRuleDTO> replaceRoutingRules(String shortUrl, List<RoutingRuleDTO> rules, User user) {
+        UrlMapping url = getOwnedUrl(shortUrl, user);
+        List<RoutingRuleDTO> requested = rules == null ? List.of() : rules;
+        if (requested.size() > maxRoutingRules) {
+            throw new RuntimeException("At most " + maxRoutingRules + " routing rules per link");
+        }
+
+        List<RoutingRule> entities = new ArrayList<>(requested.size());
+        for (RoutingRuleDTO dto : requested) {
+            entities.add(toRoutingRule(dto, url));
+        }
+
+        routingRuleRepository.deleteByMappingId(url.getId());
+        routingRuleRepository.saveAll(entities);
+
+        // new routing table version on every node
+        url.setRouted(!entities.isEmpty());
+        url.setRoutesVersion(url.getRoutesVersion() + 1);
+        urlMappingRepository.save(url);
+        routingTableCache.evict(url.getId());
+
+        return getRoutingRules(shortUrl, user);
+    }
+
+    private RoutingRule toRoutingRule(RoutingRuleDTO dto, UrlMapping url) {
+        if (dto.getDestinationUrl() == null || dto.getDestinationUrl().isBlank()) {
+            throw new RuntimeException("Routing rule needs a destinationUrl");
+        }
+        if (blocklistService.isBlocked(dto.getDestinationUrl())) {
+            throw new RuntimeException("Destination URL is blocked as unsafe: " + dto.getDestinationUrl());
+        }
+        if (dto.getVariant() != null && dto.getVariant().length() > 32) {
+            throw new RuntimeException("Variant label is limited to 32 characters: " + dto.getVariant());
+        }
+        if (dto.getWeight() != null && dto.getWeight() < 0) {
+            throw new RuntimeException("Routing rule weight must not be negative");
+        }
+        if (dto.getCountryCode() != null && !dto.getCountryCode().matches("[A-Za-z]{2}")) {
+            throw new RuntimeException("Country must be an ISO 3166 alpha-2 code: " + dto.getCountryCode());
+        }
+        if (dto.getActiveFrom() != null && dto.getActiveUntil() != null
+                && !dto.getActiveFrom().isBefore(dto.getActiveUntil())) {
+            throw new RuntimeException("activeFrom must be before activeUntil");
+        }
+        return RoutingRule.builder()
+                .urlMapping(url)
+                .priority(dto.getPriority() != null ? dto.getPriority() : 0)
+                .variant(dto.getVariant())
+                .destinationUrl(dto.getDestinationUrl())
+                .weight(dto.getWeight() != null ? dto.getWeight() : 1)
+                .countryCode(dto.getCountryCode() != null ? dto.getCountryCode().toUpperCase(Locale.ROOT) : null)
+                .deviceType(dto.getDeviceType())
+                .os(dto.getOs())
+                .activeFrom(dto.getActiveFrom())
+                .activeUntil(dto.getActiveUntil())
+                .build();
+    }
+
+    private RoutingRuleDTO mapArchivedRuleToDTO(Map<String, Object> row) {
+        return RoutingRuleDTO.builder()
+                .id(((Number) row.get("id")).longValue())
+                .priority(((Number) row.get("priority")).intValue())
+                .variant((String) row.get("variant"))
+                .destinationUrl((String) row.get("destination_url"))
+                .weight(((Number) row.get("weight")).intValue())
+                .countryCode((String) row.get("country_code"))
+                .deviceType((String) row.get("device_type"))
+                .os((String) row.get("os"))
+                .activeFrom((LocalDateTime) row.get("active_from"))
+                .activeUntil((LocalDateTime) row.get("active_until"))
+                .build();
+    }
+
+    private RoutingRuleDTO mapRuleToDTO(RoutingRule rule) {
+        return RoutingRuleDTO.builder()
+                .id(rule.getId())
+                .priority(rule.getPriority())
+                .variant(rule.getVariant())
+                .destinationUrl(rule.getDestinationUrl())
+                .weight(rule.getWeight())
+                .countryCode(rule.getCountryCode())
+                .deviceType(rule.getDeviceType())
+                .os(rule.getOs())
+                .activeFrom(rule.getActiveFrom())
+                .activeUntil(rule.getActiveUntil())
+                .build();
+    }
+
     // ============================================
     // DELETE URL
     // ============================================
     @Override
     @Transactional
     public void deleteUrl(String shortUrl, User user) {
-        UrlMapping url = getOwnedUrl(shortUrl, user);
-        urlMappingRepository.delete(url);
+        Optional<UrlMapping> live = findOwnedUrl(shortUrl, user);
+        if (live.isEmpty()) {
+            // archived: its rows are already out of the live tables, drop the archive entry
+            getOwnedArchivedLink(shortUrl, user);
+            linkArchive.deleteArchived(shortUrl, user.getId());
+            return;
+        }
+        // tombstone only: click rows are purged in chunks by TombstonePurger
+        urlMappingRepository.tombstone(user, List.of(live.get().getShortUrl()), LocalDateTime.now());
+    }
+
+    @Override
+    @Transactional
+    public int deleteUrls(Collection<String> shortUrls, User user) {
+        if (shortUrls == null || shortUrls.isEmpty()) {
+            return 0;
+        }
+        if (shortUrls.size() > BULK_DELETE_MAX) {
+            throw new RuntimeException("At most " + BULK_DELETE_MAX + " URLs can be deleted at once");
+        }
+        // links not owned by the user or already deleted are skipped by the WHERE clause
+        return urlMappingRepository.tombstone(user, new HashSet<>(shortUrls), LocalDateTime.now());
     }
 
     // ============================================
     // ANALYTICS: EVENTS BY DATE FOR OWNER
     // ============================================
     @Override
+    @Transactional(readOnly = true)
     public List<ClickEventDTO> getClickEventsByDateForUser(
             String shortUrl,
             User user,
@@ -218,57 +761,215 @@ public class UrlMappingServiceImpl implements UrlMappingService {
             LocalDateTime end
     ) {
         System.out.println("inside servieimpl");
-        UrlMapping url = getOwnedUrl(shortUrl, user);
+        UrlMapping url = getOwnedUrlRestoringArchived(shortUrl, user);
 
         System.out.println("start date "+ start +" end date  "+ end);
-        List<ClickEvent> events = clickEventRepository
-                .findByUrlMappingAndClickDateBetween(url, start, end);
+        try (Stream<ClickEventDTO> events = clickEventRepository.streamEventDTOsByMappingAndDate(url.getId(), start, end)) {
+            return events.collect(Collectors.toList());
+        }
+    }
 
-        return events.stream()
-                .map(this::mapClickToDTO)
-                .collect(Collectors.toList());
+    @Override
+    @Transactional(readOnly = true)
+    public void streamClickEventsForUser(
+            String shortUrl,
+            User user,
+            LocalDateTime start,
+            LocalDateTime end,
+            Consumer<Stream<ClickEventDTO>> consumer
+    ) {
+        UrlMapping url = getOwnedUrlRestoringArchived(shortUrl, user);
+        try (Stream<ClickEventDTO> events = clickEventRepository.streamEventDTOsByMappingAndDate(url.getId(), start, end)) {
+            consumer.accept(events);
+        }
+    }
+
+    // ============================================
+    // ANALYTICS: BREAKDOWNS (DB-side GROUP BY)
+    // ============================================
+    @Override
+    @Transactional(readOnly = true)
+    public ClickBreakdownDTO getClickBreakdownForUser(
+            String shortUrl,
+            User user,
+            LocalDateTime start,
+            LocalDateTime end
+    ) {
+        Long mappingId = getOwnedUrlRestoringArchived(shortUrl, user).getId();
+        Pageable topN = PageRequest.of(0, BREAKDOWN_TOP_N);
+
+        Map<Integer, Long> hourOfDay = new TreeMap<>();
+        long total = 0;
+        for (Object[] row : clickEventRepository.countByHourOfDay(mappingId, start, end)) {
+            long clicks = ((Number) row[1]).longValue();
+            hourOfDay.put(((Number) row[0]).intValue(), clicks);
+            total += clicks;
+        }
+
+        return ClickBreakdownDTO.builder()
+                .totalClicks(total)
+                .browsers(toCountMap(clickEventRepository.countByBrowser(mappingId, start, end, topN)))
+                .operatingSystems(toCountMap(clickEventRepository.countByOs(mappingId, start, end, topN)))
+                .deviceTypes(toCountMap(clickEventRepository.countByDeviceType(mappingId, start, end, topN)))
+                .countries(toCountMap(clickEventRepository.countByCountry(mappingId, start, end, topN)))
+                .refererHosts(toCountMap(clickEventRepository.countByRefererHost(mappingId, start, end, topN)))
+                .variants(toCountMap(clickEventRepository.countByVariant(mappingId, start, end, topN), "default"))
+                .hourOfDay(hourOfDay)
+                .build();
+    }
+
+    // ============================================
+    // ANALYTICS: LIVE TIME SERIES (in-memory minute buckets)
+    // ============================================
+    @Override
+    @Transactional(readOnly = true)
+    public ClickSeriesDTO getClickSeriesForUser(String shortUrl, User user, String resolution, int hours) {
+        return clickTimeSeries.series(getOwnedUrlRestoringArchived(shortUrl, user).getId(), resolution, hours);
+    }
+
+    private Map<String, Long> toCountMap(List<Object[]> rows) {
+        return toCountMap(rows, "unknown");
+    }
+
+    private Map<String, Long> toCountMap(List<Object[]> rows, String nullKey) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            String key = row[0] == null ? nullKey : row[0].toString();
+            counts.merge(key, ((Number) row[1]).longValue(), Long::sum);
+        }
+        return counts;
     }
 
     // ============================================
     // ANALYTICS: AGGREGATED CLICKS
     // ============================================
     @Override
+    @Transactional(readOnly = true)
     public Map<LocalDate, Long> getTotalClicksByUserAndDate(
             User user,
             LocalDate start,
             LocalDate end
     ) {
-        List<ClickEvent> events =
-                clickEventRepository.findByUserAndDateRange(user, start.atStartOfDay(), end.plusDays(1).atStartOfDay());
+        // exact counters from click_daily; days before it existed from weighted click rows
+        LocalDate countersFrom = dailyCountersFrom();
+        Map<LocalDate, Long> totals = new LinkedHashMap<>();
+        if (countersFrom == null || start.isBefore(countersFrom)) {
+            LocalDate legacyEnd = countersFrom == null || end.isBefore(countersFrom) ? end : countersFrom.minusDays(1);
+            for (Object[] row : clickEventRepository.getTotalClicksByUserAndDate(
+                    user, start.atStartOfDay(), legacyEnd.plusDays(1).atStartOfDay())) {
+                totals.put(toLocalDate(row[0]), ((Number) row[1]).longValue());
+            }
+        }
+        if (countersFrom != null && !end.isBefore(countersFrom)) {
+            LocalDate from = start.isBefore(countersFrom) ? countersFrom : start;
+            for (Object[] row : clickDailyRepository.getTotalClicksByUserAndDay(user, from, end)) {
+                totals.merge(toLocalDate(row[0]), ((Number) row[1]).longValue(), Long::sum);
+            }
+        }
+        return totals;
+    }
+
+    // click_daily fills from the first click counted after the upgrade, so that day may be partial
+    private LocalDate dailyCountersFrom() {
+        LocalDate from = dailyCountersFrom;
+        if (from == null) {
+            LocalDate firstDay = clickDailyRepository.findFirstDay();
+            if (firstDay != null) {
+                from = firstDay.plusDays(1);
+                dailyCountersFrom = from;
+            }
+        }
+        return from;
+    }
 
-        return events.stream()
-                .collect(Collectors.groupingBy(
-                        e -> e.getClickDate().toLocalDate(),
-                        Collectors.counting()
-                ));
+    private LocalDate toLocalDate(Object value) {
+        if (value instanceof java.sql.Date date) {
+            return date.toLocalDate();
+        }
+        if (value instanceof LocalDateTime dateTime) {
+            return dateTime.toLocalDate();
+        }
+        return (LocalDate) value;
+    }
+
+    // ============================================
+    // HELPER: BLOCKLIST CHECK ON RESOLVE
+    // ============================================
+    // The list changes after links are created, so redirects are re-checked
+    // and the verdict is persisted on the row.
+    private void rejectIfBlocked(UrlMapping mapping, boolean persist) {
+        if (!blocklistService.isBlocked(mapping.getOriginalUrl())) {
+            return;
+        }
+        if (persist && !Boolean.FALSE.equals(mapping.getIsSafe())) {
+            mapping.setIsSafe(false);
+            mapping.setSafetyScore(blocklistService.safetyScore(true));
+            urlMappingRepository.save(mapping);
+        }
+        throw new RuntimeException("This short URL has been flagged as unsafe.");
     }
 
     // ============================================
     // HELPER: VALIDATE USER OWNS URL
     // ============================================
-    private UrlMapping getOwnedUrl(String shortUrl, User user) {
-        UrlMapping url = urlMappingRepository.findByShortUrl(shortUrl)
-                .orElseThrow(() -> new RuntimeException("URL not found"));
+    // Live links only. Reactivation and analytics reads go through
+    // getOwnedUrlRestoringArchived; the other owner paths read the archive in place.
+    private Optional<UrlMapping> findOwnedUrl(String shortUrl, User user) {
+        Optional<UrlMapping> url = findByGeneratedCode(shortUrl)
+                .or(() -> urlMappingRepository.findByShortUrl(shortUrl))
+                .filter(u -> u.getDeletedAt() == null);
 
-        if (!url.getUser().getId().equals(user.getId())) {
+        if (url.isPresent() && !url.get().getUser().getId().equals(user.getId())) {
             throw new RuntimeException("Not authorized to access this URL");
         }
         return url;
     }
 
+    private UrlMapping getOwnedUrl(String shortUrl, User user) {
+        return findOwnedUrl(shortUrl, user).orElseThrow(() -> {
+            getOwnedArchivedLink(shortUrl, user);
+            return new RuntimeException("URL is archived; reactivate it to change it");
+        });
+    }
+
+    private UrlMapping getOwnedUrlRestoringArchived(String shortUrl, User user) {
+        // runs in its own transaction, before the caller's reads anything
+        linkArchive.restoreIfArchived(shortUrl, user.getId());
+        return getOwnedUrl(shortUrl, user);
+    }
+
+    private ArchivedLink getOwnedArchivedLink(String shortUrl, User user) {
+        ArchivedLink link = archivedLinkRepository.findByShortUrl(shortUrl)
+                .orElseThrow(() -> new RuntimeException("URL not found"));
+        if (!link.getUserId().equals(user.getId())) {
+            throw new RuntimeException("Not authorized to access this URL");
+        }
+        return link;
+    }
+
     // ============================================
     // DTO MAPPERS
     // ============================================
+    private UrlMappingDTO mapArchivedToDTO(ArchivedLink link) {
+        return UrlMappingDTO.builder()
+                .id(link.getId())
+                .originalUrl(link.getOriginalUrl())
+                .shortUrl(link.getShortUrl())
+                .domain(link.getDomain())
+                .customAlias(link.getCustomAlias())
+                .isCustom(link.getCustomAlias() != null)
+                .active(false)
+                .createdDate(link.getCreatedDate())
+                .updatedDate(link.getArchivedAt())
+                .build();
+    }
+
     private UrlMappingDTO mapToDTO(UrlMapping url) {
         return UrlMappingDTO.builder()
                 .id(url.getId())
                 .originalUrl(url.getOriginalUrl())
                 .shortUrl(url.getShortUrl())
+                .domain(url.getDomain())
                 .customAlias(url.getCustomAlias())
                 .isCustom(url.isCustom())
                 .protectedUrl(url.getProtectedUrl())
@@ -289,25 +990,16 @@ public class UrlMappingServiceImpl implements UrlMappingService {
                 .build();
     }
 
-    private ClickEventDTO mapClickToDTO(ClickEvent ce) {
-        return ClickEventDTO.builder()
-                .id(ce.getId())
-                .clickDate(ce.getClickDate())
-                .ipAddress(ce.getIpAddress())
-                .country(ce.getCountry())
-                .browser(ce.getBrowser())
-                .deviceType(ce.getDeviceType())
-                .referer(ce.getReferer())
-                .isBot(ce.getIsBot())
-                .build();
-    }
-
-    private String getClientIp(HttpServletRequest request) {
-        String xfHeader = request.getHeader("X-Forwarded-For");
-        if (xfHeader == null) {
-            return request.getRemoteAddr();
+    private String extractHost(String referer) {
+        if (referer == null || referer.isBlank()) return null;
+        try {
+            String host = URI.create(referer.trim()).getHost();
+            if (host == null) return null;
+            host = host.toLowerCase();
+            return host.length() > 128 ? host.substring(0, 128) : host;
+        } catch (IllegalArgumentException e) {
+            return null;
         }
-        return xfHeader.split(",")[0]; // first IP in the list
     }
     private String detectDeviceType(String userAgent) {
         if (userAgent == null) return "unknown";
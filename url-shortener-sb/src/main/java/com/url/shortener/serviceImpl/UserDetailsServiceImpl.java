@@ -2,16 +2,21 @@ package com.url.shortener.serviceImpl;
 
 import com.url.shortener.models.User;
 import com.url.shortener.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         User user = userRepository.findByUsername(username).orElseThrow(
@@ -19,4 +24,17 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         );
         return UserDetailsImpl.build(user);
     }
+
+    /** Called after a successful login whose stored hash is below the configured BCrypt strength. */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByUsername(userDetails.getUsername()).orElseThrow(
+                () -> new UsernameNotFoundException("User not found with userName: "+ userDetails.getUsername())
+        );
+        user.setPassword(newPassword);
+        userRepository.save(user);
+        meterRegistry.counter("password.rehashed").increment();
+        return UserDetailsImpl.build(user);
+    }
 }
@@ -0,0 +1,139 @@
+package com.url.shortener.shortcode;
+
+import com.url.shortener.utils.Base62;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Reversible mapping between url_mapping ids and generated short codes.
+ * <p>
+ * Ids below 2^40 are run through a keyed 4-round Feistel permutation of 40 bits and
+ * written as exactly {@value #CODE_LENGTH} Base62 characters, so codes are not
+ * sequential yet decode back to the primary key in O(1). Larger ids fall back to plain
+ * Base62.
+ * <p>
+ * Every 7-character Base62 value below 2^40 decodes to some id, so refusing all of them
+ * as custom aliases would take about 31% of 7-character names. Only aliases that decode to
+ * an id already issued, or about to be ({@code shortener.code.alias-headroom} ids past
+ * the highest), are reserved (see {@link #reservesAlias}). An alias above that keeps its
+ * name: if the ids ever get there, that link is given an {@link #alternateCode} instead.
+ * <p>
+ * Changing {@code shortener.code.secret} only affects new codes: existing ones are
+ * stored in short_url and still resolve through the index.
+ */
+@Component
+public class ShortCodeCodec {
+
+    public static final int CODE_LENGTH = 7; // 62^7 > 2^40
+
+    private static final int HALF_BITS = 20;
+    private static final long HALF_MASK = (1L << HALF_BITS) - 1;
+    private static final long DOMAIN = 1L << (2 * HALF_BITS);
+    private static final int ROUNDS = 4;
+
+    private final int[] roundKeys = new int[ROUNDS];
+    private final long aliasHeadroom;
+
+    public ShortCodeCodec(
+            @Value("${shortener.code.secret:shortifyx}") String secret,
+            @Value("${shortener.code.alias-headroom:1000000}") long aliasHeadroom
+    ) {
+        this.aliasHeadroom = aliasHeadroom;
+        try {
+            ByteBuffer digest = ByteBuffer.wrap(MessageDigest.getInstance("SHA-256")
+                    .digest(secret.getBytes(StandardCharsets.UTF_8)));
+            for (int i = 0; i < ROUNDS; i++) {
+                roundKeys[i] = digest.getInt();
+            }
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public String encode(long id) {
+        if (id < 0 || id >= DOMAIN) {
+            return Base62.encode(id);
+        }
+        return Base62.encode(permute(id), CODE_LENGTH);
+    }
+
+    /**
+     * @return the id a generated code maps to, or -1 when {@code code} is not in the
+     * generated namespace (custom alias, legacy code). The caller still has to check
+     * the row's short_url, since a legacy code may decode to an unrelated id.
+     */
+    public long decode(String code) {
+        if (code == null || code.length() != CODE_LENGTH) {
+            return -1;
+        }
+        long value = Base62.decode(code);
+        if (value < 0 || value >= DOMAIN) {
+            return -1;
+        }
+        return unpermute(value);
+    }
+
+    /** True for strings in the generated namespace, i.e. that decode to some id. */
+    public boolean isGeneratedCode(String code) {
+        return decode(code) >= 0;
+    }
+
+    /**
+     * True when {@code alias} is the generated code of an id up to {@code highestId} plus
+     * the headroom, i.e. of a link that exists or soon will; such custom aliases are rejected.
+     */
+    public boolean reservesAlias(String alias, long highestId) {
+        long id = decode(alias);
+        return id >= 0 && id <= highestId + aliasHeadroom;
+    }
+
+    /**
+     * A code for {@code id} outside the generated namespace, for the rare link whose
+     * generated code an alias already took; resolved through the short_url index.
+     * Try increasing attempts (from 1) until one is free.
+     */
+    public String alternateCode(long id, int attempt) {
+        return Base62.encode(id + attempt * DOMAIN);
+    }
+
+    // ============================================
+    // FEISTEL PERMUTATION OVER 40 BITS
+    // ============================================
+    long permute(long value) {
+        long left = value >>> HALF_BITS;
+        long right = value & HALF_MASK;
+        for (int r = 0; r < ROUNDS; r++) {
+            long next = left ^ round(right, roundKeys[r]);
+            left = right;
+            right = next;
+        }
+        return (left << HALF_BITS) | right;
+    }
+
+    long unpermute(long value) {
+        long left = value >>> HALF_BITS;
+        long right = value & HALF_MASK;
+        for (int r = ROUNDS - 1; r >= 0; r--) {
+            long previous = right ^ round(left, roundKeys[r]);
+            right = left;
+            left = previous;
+        }
+        return (left << HALF_BITS) | right;
+    }
+
+    // murmur3 fmix32 of the half mixed with the round key
+    private static long round(long half, int key) {
+        int h = (int) half ^ key;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h & HALF_MASK;
+    }
+}
@@ -0,0 +1,300 @@
+package com.url.shortener.timeseries;
+
+import com.url.shortener.dtos.ClickSeriesDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Minute-resolution click counts of the last 24 hours, per link, in memory.
+ * <p>
+ * The redirect path bumps a {@link MinuteRing}; rings exist only for links clicked in
+ * the window, up to {@code timeseries.max-links} of them (about 11 KB each). Every
+ * flush interval the completed minutes are summed per hour and added to click_hourly,
+ * so hourly history outlives the window and restarts; rings idle for a whole window
+ * are dropped after their last flush.
+ * <p>
+ * A link clicked while every ring is taken is counted per hour instead, in a spill
+ * counter flushed the same way: click_hourly stays exact, only the minute chart of that
+ * link stays empty. When the rings are full the flush also evicts the least recently
+ * clicked ones, so a link that turns hot gets a ring (and live minutes) on the next run.
+ * <p>
+ * Minute series reflect this node's traffic; hourly series read click_hourly and so
+ * cover every node.
+ */
+@Component
+@Slf4j
+public class ClickTimeSeries {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO click_hourly (url_mapping_id, hour_start, clicks) VALUES (?, ?, ?)
+            ON DUPLICATE KEY UPDATE clicks = clicks + VALUES(clicks)
+            """;
+
+    private static final String HOURLY_SQL = """
+            SELECT hour_start, clicks FROM click_hourly
+             WHERE url_mapping_id = ? AND hour_start >= ? AND hour_start < ?
+            """;
+
+    private static final int MAX_HOURS = 24 * 31;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int maxLinks;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final ConcurrentHashMap<Long, MinuteRing> rings = new ConcurrentHashMap<>();
+    // clicks of links without a ring, per hour, until the next flush
+    private final ConcurrentHashMap<HourKey, LongAdder> spill = new ConcurrentHashMap<>();
+
+    private final Counter overflows;
+    private final Counter evictions;
+    private final Counter flushedRows;
+
+    public ClickTimeSeries(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${timeseries.enabled:true}") boolean enabled,
+            @Value("${timeseries.max-links:4096}") int maxLinks
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.maxLinks = maxLinks;
+        this.overflows = meterRegistry.counter("timeseries.overflows");
+        this.evictions = meterRegistry.counter("timeseries.evictions");
+        this.flushedRows = meterRegistry.counter("timeseries.flushed.rows");
+        meterRegistry.gauge("timeseries.links", rings, ConcurrentHashMap::size);
+    }
+
+    // ============================================
+    // REDIRECT PATH
+    // ============================================
+    public void record(long mappingId) {
+        if (!enabled) {
+            return;
+        }
+        int minute = currentMinute();
+        MinuteRing ring = rings.get(mappingId);
+        if (ring == null) {
+            if (rings.size() >= maxLinks) {
+                // counted per hour until a ring frees up: in click_hourly, not in the minute chart
+                overflows.increment();
+                spill.computeIfAbsent(new HourKey(mappingId, hourOf(minute)), k -> new LongAdder()).increment();
+                return;
+            }
+            ring = rings.computeIfAbsent(mappingId, id -> new MinuteRing(minute));
+        }
+        ring.increment(minute);
+    }
+
+    // ============================================
+    // FLUSH TO click_hourly
+    // ============================================
+    @Scheduled(
+            initialDelayString = "${timeseries.flush-interval-ms:60000}",
+            fixedDelayString = "${timeseries.flush-interval-ms:60000}"
+    )
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        int current = currentMinute();
+        int lastComplete = current - 2; // a click stamped just before the turn may still be counting
+        int oldest = current - MinuteRing.MINUTES + 1;
+
+        List<Object[]> rows = new ArrayList<>();
+        List<Map.Entry<Long, MinuteRing>> flushed = new ArrayList<>();
+        for (Map.Entry<Long, MinuteRing> entry : rings.entrySet()) {
+            MinuteRing ring = entry.getValue();
+            int from = Math.max(ring.flushedThrough() + 1, oldest);
+            if (from > lastComplete) {
+                continue;
+            }
+            TreeMap<LocalDateTime, Long> hours = new TreeMap<>();
+            for (int minute = from; minute <= lastComplete; minute++) {
+                int clicks = ring.count(minute);
+                if (clicks > 0) {
+                    hours.merge(hourOf(minute), (long) clicks, Long::sum);
+                }
+            }
+            hours.forEach((hour, clicks) -> rows.add(new Object[]{entry.getKey(), Timestamp.valueOf(hour), clicks}));
+            flushed.add(entry);
+        }
+        Map<HourKey, Long> spilled = drainSpill(hourOf(lastComplete));
+        spilled.forEach((key, clicks) -> rows.add(new Object[]{key.mappingId(), Timestamp.valueOf(key.hour()), clicks}));
+
+        if (!rows.isEmpty()) {
+            try {
+                jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+                flushedRows.increment(rows.size());
+            } catch (RuntimeException e) {
+                log.warn("Could not flush click time series ({} rows), retrying next run: {}", rows.size(), e.getMessage());
+                spilled.forEach((key, clicks) -> spill.computeIfAbsent(key, k -> new LongAdder()).add(clicks));
+                return;
+            }
+        }
+
+        for (Map.Entry<Long, MinuteRing> entry : flushed) {
+            MinuteRing ring = entry.getValue();
+            ring.flushedThrough(lastComplete);
+            if (ring.lastMinute() < oldest) {
+                rings.remove(entry.getKey(), ring); // idle for a whole window, nothing left unflushed
+            }
+        }
+        if (rings.size() >= maxLinks) {
+            evictColdest(lastComplete);
+        }
+    }
+
+    /**
+     * Takes the spilled counts out for writing. Hours before {@code openHour} can no longer
+     * be clicked into, so their keys go; the open hour keeps its counter and is only reset.
+     */
+    private Map<HourKey, Long> drainSpill(LocalDateTime openHour) {
+        Map<HourKey, Long> drained = new HashMap<>();
+        for (Map.Entry<HourKey, LongAdder> entry : spill.entrySet()) {
+            HourKey key = entry.getKey();
+            if (key.hour().isBefore(openHour)) {
+                spill.remove(key);
+            }
+            long clicks = entry.getValue().sumThenReset();
+            if (clicks > 0) {
+                drained.put(key, clicks);
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Frees an eighth of the rings, least recently clicked first. Only rings flushed through
+     * their last click qualify, so nothing counted is lost; the rest wait for the next run.
+     */
+    private void evictColdest(int lastComplete) {
+        List<Map.Entry<Long, MinuteRing>> candidates = new ArrayList<>();
+        for (Map.Entry<Long, MinuteRing> entry : rings.entrySet()) {
+            if (entry.getValue().lastMinute() <= lastComplete) {
+                candidates.add(entry);
+            }
+        }
+        candidates.sort(Comparator.comparingInt(entry -> entry.getValue().lastMinute()));
+        int evict = Math.min(candidates.size(), Math.max(1, maxLinks / 8));
+        for (int i = 0; i < evict; i++) {
+            Map.Entry<Long, MinuteRing> entry = candidates.get(i);
+            if (rings.remove(entry.getKey(), entry.getValue())) {
+                evictions.increment();
+            }
+        }
+    }
+
+    // ============================================
+    // READ
+    // ============================================
+    /**
+     * @param resolution 1m, 5m (last 24 h at most) or 1h (up to 31 days)
+     * @param hours      how far back the series goes
+     */
+    public ClickSeriesDTO series(long mappingId, String resolution, int hours) {
+        return switch (resolution) {
+            case "1m" -> minuteSeries(mappingId, 1, hours);
+            case "5m" -> minuteSeries(mappingId, 5, hours);
+            case "1h" -> hourlySeries(mappingId, hours);
+            default -> throw new RuntimeException("Unsupported resolution (use 1m, 5m or 1h): " + resolution);
+        };
+    }
+
+    private ClickSeriesDTO minuteSeries(long mappingId, int step, int hours) {
+        int current = currentMinute();
+        int window = Math.min(Math.max(hours, 1) * 60, MinuteRing.MINUTES);
+        int buckets = window / step;
+        int firstStart = current - current % step - (buckets - 1) * step;
+
+        long[] clicks = new long[buckets];
+        MinuteRing ring = rings.get(mappingId);
+        if (ring != null) {
+            for (int minute = Math.max(firstStart, current - MinuteRing.MINUTES + 1); minute <= current; minute++) {
+                clicks[(minute - firstStart) / step] += ring.count(minute);
+            }
+        }
+        return ClickSeriesDTO.builder()
+                .resolution(step + "m")
+                .start(toLocal(firstStart))
+                .stepMinutes(step)
+                .clicks(clicks)
+                .build();
+    }
+
+    private ClickSeriesDTO hourlySeries(long mappingId, int hours) {
+        int buckets = Math.min(Math.max(hours, 1), MAX_HOURS);
+        int current = currentMinute();
+        LocalDateTime first = hourOf(current).minusHours(buckets - 1);
+        LocalDateTime end = hourOf(current).plusHours(1);
+
+        long[] clicks = new long[buckets];
+        jdbcTemplate.query(HOURLY_SQL, rs -> {
+            LocalDateTime hour = rs.getTimestamp(1).toLocalDateTime();
+            clicks[(int) Duration.between(first, hour).toHours()] += rs.getLong(2);
+        }, mappingId, Timestamp.valueOf(first), Timestamp.valueOf(end));
+
+        // this node's clicks not flushed yet: spilled hours, then ring minutes
+        spill.forEach((key, adder) -> {
+            if (key.mappingId() == mappingId) {
+                long index = Duration.between(first, key.hour()).toHours();
+                if (index >= 0 && index < buckets) {
+                    clicks[(int) index] += adder.sum();
+                }
+            }
+        });
+        MinuteRing ring = rings.get(mappingId);
+        if (ring != null) {
+            int from = Math.max(ring.flushedThrough() + 1, current - MinuteRing.MINUTES + 1);
+            for (int minute = from; minute <= current; minute++) {
+                int count = ring.count(minute);
+                if (count > 0) {
+                    long index = Duration.between(first, hourOf(minute)).toHours();
+                    if (index >= 0) {
+                        clicks[(int) index] += count;
+                    }
+                }
+            }
+        }
+        return ClickSeriesDTO.builder()
+                .resolution("1h")
+                .start(first)
+                .stepMinutes(60)
+                .clicks(clicks)
+                .build();
+    }
+
+    private record HourKey(long mappingId, LocalDateTime hour) {
+    }
+
+    private static int currentMinute() {
+        return (int) (System.currentTimeMillis() / 60_000);
+    }
+
+    private LocalDateTime toLocal(int epochMinute) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(epochMinute * 60L), zone);
+    }
+
+    private LocalDateTime hourOf(int epochMinute) {
+        return toLocal(epochMinute).truncatedTo(ChronoUnit.HOURS);
+    }
+}
@@ -0,0 +1,67 @@
+package com.url.shortener.timeseries;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Click counts of one link for the last {@value #MINUTES} minutes.
+ * <p>
+ * Slot {@code m % MINUTES} holds epoch minute {@code m}; its stamp says which minute
+ * the count belongs to, so a slot left over from the previous day reads as zero and is
+ * reset by the first click that reuses it. Counting is one atomic add on a primitive
+ * array; only that reset takes the lock, at most once per slot per minute.
+ */
+final class MinuteRing {
+
+    static final int MINUTES = 24 * 60;
+
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    // int, not long: a minute of one link fits easily, and it halves the footprint
+    private final int[] counts = new int[MINUTES];
+    private final int[] stamps = new int[MINUTES];
+
+    private volatile int lastMinute;
+    private volatile int flushedThrough; // last minute written to click_hourly (set by the flusher only)
+
+    MinuteRing(int createdMinute) {
+        this.flushedThrough = createdMinute - 1;
+        this.lastMinute = createdMinute;
+    }
+
+    void increment(int minute) {
+        int slot = minute % MINUTES;
+        if ((int) SLOTS.getAcquire(stamps, slot) != minute) {
+            roll(slot, minute);
+        }
+        SLOTS.getAndAdd(counts, slot, 1);
+        if (lastMinute != minute) {
+            lastMinute = minute;
+        }
+    }
+
+    private synchronized void roll(int slot, int minute) {
+        if ((int) SLOTS.getVolatile(stamps, slot) != minute) {
+            SLOTS.setVolatile(counts, slot, 0);
+            SLOTS.setRelease(stamps, slot, minute);
+        }
+    }
+
+    /** @return clicks in epoch minute {@code minute}, 0 if it is outside the window */
+    int count(int minute) {
+        int slot = minute % MINUTES;
+        return (int) SLOTS.getAcquire(stamps, slot) == minute ? (int) SLOTS.getVolatile(counts, slot) : 0;
+    }
+
+    int lastMinute() {
+        return lastMinute;
+    }
+
+    int flushedThrough() {
+        return flushedThrough;
+    }
+
+    void flushedThrough(int minute) {
+        this.flushedThrough = minute;
+    }
+}
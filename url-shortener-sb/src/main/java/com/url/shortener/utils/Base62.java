@@ -0,0 +1,54 @@
+package com.url.shortener.utils;
+
+public final class Base62 {
+
+    private static final String ALPHABET = "0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    private Base62() {
+    }
+
+    public static String encode(long n) {
+        StringBuilder sb = new StringBuilder();
+        while (n > 0) {
+            sb.append(ALPHABET.charAt((int) (n % 62)));
+            n /= 62;
+        }
+        return sb.reverse().toString();
+    }
+
+    /** Left-padded with '0' to exactly {@code width} characters (n must fit). */
+    public static String encode(long n, int width) {
+        char[] out = new char[width];
+        for (int i = width - 1; i >= 0; i--) {
+            out[i] = ALPHABET.charAt((int) (n % 62));
+            n /= 62;
+        }
+        return new String(out);
+    }
+
+    /**
+     * @return the decoded value, or -1 if {@code s} is empty, not Base62, or overflows a long
+     */
+    public static long decode(CharSequence s) {
+        int length = s.length();
+        if (length == 0 || length > 10) { // 62^10 < 2^63
+            return -1;
+        }
+        long n = 0;
+        for (int i = 0; i < length; i++) {
+            int digit = digit(s.charAt(i));
+            if (digit < 0) {
+                return -1;
+            }
+            n = n * 62 + digit;
+        }
+        return n;
+    }
+
+    private static int digit(char c) {
+        if (c >= '0' && c <= '9') return c - '0';
+        if (c >= 'a' && c <= 'z') return c - 'a' + 10;
+        if (c >= 'A' && c <= 'Z') return c - 'A' + 36;
+        return -1;
+    }
+}
@@ -0,0 +1,57 @@
+package com.url.shortener.utils;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Copy of a request's headers and remote address that stays valid after the container
+ * recycles the original, for work that may outlive the response (e.g. a redirect
+ * answered by its timeout fallback while the lookup finishes in the background).
+ * Anything beyond headers and remote address still reaches the original request.
+ */
+public final class DetachedRequest extends HttpServletRequestWrapper {
+
+    private final Map<String, List<String>> headers;
+    private final String remoteAddr;
+
+    private DetachedRequest(HttpServletRequest request) {
+        super(request);
+        Map<String, List<String>> copy = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (String name : Collections.list(request.getHeaderNames())) {
+            copy.put(name, Collections.list(request.getHeaders(name)));
+        }
+        this.headers = copy;
+        this.remoteAddr = request.getRemoteAddr();
+    }
+
+    public static HttpServletRequest of(HttpServletRequest request) {
+        return request instanceof DetachedRequest ? request : new DetachedRequest(request);
+    }
+
+    @Override
+    public String getHeader(String name) {
+        List<String> values = headers.get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+        return Collections.enumeration(headers.getOrDefault(name, List.of()));
+    }
+
+    @Override
+    public Enumeration<String> getHeaderNames() {
+        return Collections.enumeration(headers.keySet());
+    }
+
+    @Override
+    public String getRemoteAddr() {
+        return remoteAddr;
+    }
+}
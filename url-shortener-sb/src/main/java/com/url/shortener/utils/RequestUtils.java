@@ -0,0 +1,67 @@
+package com.url.shortener.utils;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+public final class RequestUtils {
+
+    private RequestUtils() {
+    }
+
+    // First hop of X-Forwarded-For when behind a proxy, otherwise the socket address
+    public static String getClientIp(HttpServletRequest request) {
+        String xfHeader = request.getHeader("X-Forwarded-For");
+        if (xfHeader == null) {
+            return request.getRemoteAddr();
+        }
+        return xfHeader.split(",")[0].trim(); // first IP in the list
+    }
+
+    // Host the client asked for: X-Forwarded-Host when behind a proxy, otherwise Host
+    public static String getHost(HttpServletRequest request) {
+        String xfHost = request.getHeader("X-Forwarded-Host");
+        if (xfHost != null) {
+            return xfHost.split(",")[0].trim();
+        }
+        String host = request.getHeader("Host");
+        return host != null ? host : request.getServerName();
+    }
+
+    /**
+     * If-None-Match evaluation (RFC 9110, 13.1.2): true when the header lists {@code etag}
+     * under weak comparison (W/ ignored on either side) or is "*", i.e. when a GET should
+     * get 304. Lists may span several header lines joined with commas; a malformed entry
+     * ends the scan without matching.
+     */
+    public static boolean ifNoneMatch(String header, String etag) {
+        if (header == null || etag == null) {
+            return false;
+        }
+        if (header.trim().equals("*")) {
+            return true;
+        }
+        String opaque = etag.startsWith("W/") ? etag.substring(2) : etag;
+        int i = 0;
+        int n = header.length();
+        while (i < n) {
+            char c = header.charAt(i);
+            if (c == ' ' || c == '\t' || c == ',') {
+                i++;
+                continue;
+            }
+            int start = header.startsWith("W/", i) ? i + 2 : i;
+            if (start >= n || header.charAt(start) != '"') {
+                return false;
+            }
+            int end = header.indexOf('"', start + 1);
+            if (end < 0) {
+                return false;
+            }
+            // entity-tags may contain commas, so compare the whole quoted string
+            if (header.regionMatches(start, opaque, 0, opaque.length()) && end + 1 - start == opaque.length()) {
+                return true;
+            }
+            i = end + 1;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,89 @@
+package com.url.shortener.utils;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Canonical form of a destination URL, used to spot repeated creates of the same link.
+ * <p>
+ * Lower-cases scheme and host, drops default ports, strips trailing slashes from the
+ * path and sorts query parameters. Path case, fragments and parameter values are kept
+ * as-is since servers may treat them as significant.
+ */
+public final class UrlNormalizer {
+
+    private UrlNormalizer() {
+    }
+
+    public static String normalize(String url) {
+        String trimmed = url.trim();
+        try {
+            URI uri = new URI(trimmed);
+            if (uri.getScheme() == null || uri.getRawAuthority() == null) {
+                return trimmed;
+            }
+            String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+            String host = uri.getHost() != null ? uri.getHost().toLowerCase(Locale.ROOT) : uri.getRawAuthority().toLowerCase(Locale.ROOT);
+            int port = uri.getPort();
+            boolean defaultPort = port == -1
+                    || (port == 80 && scheme.equals("http"))
+                    || (port == 443 && scheme.equals("https"));
+
+            StringBuilder sb = new StringBuilder(trimmed.length());
+            sb.append(scheme).append("://");
+            if (uri.getRawUserInfo() != null) {
+                sb.append(uri.getRawUserInfo()).append('@');
+            }
+            sb.append(host);
+            if (!defaultPort) {
+                sb.append(':').append(port);
+            }
+
+            String path = uri.getRawPath() == null ? "" : uri.getRawPath();
+            int end = path.length();
+            while (end > 0 && path.charAt(end - 1) == '/') {
+                end--;
+            }
+            sb.append(path, 0, end);
+
+            String query = uri.getRawQuery();
+            if (query != null && !query.isEmpty()) {
+                String[] params = query.split("&");
+                Arrays.sort(params);
+                sb.append('?');
+                boolean first = true;
+                for (String param : params) {
+                    if (param.isEmpty()) {
+                        continue;
+                    }
+                    if (!first) {
+                        sb.append('&');
+                    }
+                    sb.append(param);
+                    first = false;
+                }
+            }
+            if (uri.getRawFragment() != null) {
+                sb.append('#').append(uri.getRawFragment());
+            }
+            return sb.toString();
+        } catch (URISyntaxException e) {
+            return trimmed;
+        }
+    }
+
+    /** SHA-256 of the normalized URL; fixed 32 bytes, stored in url_mapping.original_url_hash. */
+    public static byte[] hash(String url) {
+        try {
+            return MessageDigest.getInstance("SHA-256")
+                    .digest(normalize(url).getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
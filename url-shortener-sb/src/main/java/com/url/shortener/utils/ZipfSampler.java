@@ -0,0 +1,67 @@
+package com.url.shortener.utils;
+
+import java.util.Random;
+
+/**
+ * Draws ranks 0..n-1 with probability proportional to 1 / (rank + 1)^s.
+ * s = 0 is uniform; s around 1 matches typical link popularity.
+ * <p>
+ * Rejection-inversion (Hörmann &amp; Derflinger), so memory stays constant however large n
+ * is. Thread-safe; draws are deterministic for a given {@link Random} sequence.
+ */
+public final class ZipfSampler {
+
+    private final int n;
+    private final double s;
+    private final double hIntegralX1;
+    private final double hIntegralN;
+    private final double squeeze;
+
+    public ZipfSampler(int n, double s) {
+        if (n < 1 || s < 0) {
+            throw new IllegalArgumentException("Need n >= 1 and s >= 0");
+        }
+        this.n = n;
+        this.s = s;
+        this.hIntegralX1 = hIntegral(1.5) - 1.0;
+        this.hIntegralN = hIntegral(n + 0.5);
+        this.squeeze = 2.0 - hIntegralInverse(hIntegral(2.5) - h(2.0));
+    }
+
+    public int next(Random random) {
+        if (s == 0) {
+            return random.nextInt(n);
+        }
+        while (true) {
+            double u = hIntegralN + random.nextDouble() * (hIntegralX1 - hIntegralN);
+            double x = hIntegralInverse(u);
+            int k = (int) Math.min(n, Math.max(1, (long) (x + 0.5)));
+            if (k - x <= squeeze || u >= hIntegral(k + 0.5) - h(k)) {
+                return k - 1;
+            }
+        }
+    }
+
+    private double h(double x) {
+        return Math.exp(-s * Math.log(x));
+    }
+
+    private double hIntegral(double x) {
+        double logX = Math.log(x);
+        return expm1OverX((1.0 - s) * logX) * logX;
+    }
+
+    private double hIntegralInverse(double x) {
+        double t = Math.max(-1.0, x * (1.0 - s));
+        return Math.exp(log1pOverX(t) * x);
+    }
+
+    // log1p(x) / x and expm1(x) / x, with series expansions where they would lose precision
+    private static double log1pOverX(double x) {
+        return Math.abs(x) > 1e-8 ? Math.log1p(x) / x : 1.0 - x * (0.5 - x * (1.0 / 3.0 - 0.25 * x));
+    }
+
+    private static double expm1OverX(double x) {
+        return Math.abs(x) > 1e-8 ? Math.expm1(x) / x : 1.0 + x * 0.5 * (1.0 + x / 3.0 * (1.0 + 0.25 * x));
+    }
+}
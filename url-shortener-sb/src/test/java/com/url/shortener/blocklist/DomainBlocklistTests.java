@@ -0,0 +1,122 @@
+package com.url.shortener.blocklist;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DomainBlocklistTests {
+
+    private final DomainBlocklist blocklist = load("""
+            # phishing feed
+            evil.com
+            *.tracker.net
+            0.0.0.0 ads.example.org
+            Shouting.IO.
+            bücher.example
+            xn--mnchen-3ya.example
+            https://docs.example.com/phish
+            """);
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "https://evil.com",
+            "https://evil.com/any/path?q=1",
+            "https://a.b.evil.com/",                   // subdomains match their parent
+            "https://cdn.tracker.net/pixel.gif",       // wildcard entry
+            "https://tracker.net",
+            "http://ads.example.org:8080/banner",      // hosts-file entry, explicit port
+            "https://user:pw@evil.com/",
+    })
+    void listedDomainsAndTheirSubdomainsAreBlocked(String url) {
+        assertTrue(blocklist.isBlocked(url), url);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "https://EVIL.COM/",
+            "https://Sub.Evil.Com/x",
+            "https://evil.com./",                      // fully qualified
+            "https://www.evil.com./login",
+            "https://shouting.io",                     // entry listed upper-case with a trailing dot
+    })
+    void hostsAreMatchedIgnoringCaseAndTrailingDot(String url) {
+        assertTrue(blocklist.isBlocked(url), url);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "https://bücher.example/",                 // listed as Unicode, visited as Unicode
+            "https://xn--bcher-kva.example/",          // listed as Unicode, visited as punycode
+            "https://shop.BÜCHER.example/",
+            "https://münchen.example/",                // listed as punycode, visited as Unicode
+            "https://www.xn--mnchen-3ya.example/",
+    })
+    void internationalizedHostsMatchInEitherForm(String url) {
+        assertTrue(blocklist.isBlocked(url), url);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "https://notevil.com/",                    // suffix, but not at a label boundary
+            "https://evil.com.attacker.io/",
+            "https://evil.co/",
+            "https://example.org/",                    // parent of a listed subdomain
+            "https://bucher.example/",
+            "https://docs.example.com/guide",
+            "https://other.example.com/phish",
+            "https://example.com/?next=https://evil.com",
+            "not a url",
+            "",
+    })
+    void unlistedHostsAreNotBlocked(String url) {
+        assertFalse(blocklist.isBlocked(url), url);
+    }
+
+    @Test
+    void urlPrefixesMatchOnPathSegments() {
+        assertTrue(blocklist.isBlocked("https://docs.example.com/phish"));
+        assertTrue(blocklist.isBlocked("https://DOCS.example.com/phish/step2?x=1"));
+        assertFalse(blocklist.isBlocked("https://docs.example.com/phishing"));
+        assertFalse(blocklist.isBlocked("https://docs.example.com/Phish")); // paths are case-sensitive
+    }
+
+    @Test
+    void fingerprintMissesDoNotBlock() {
+        Random random = new Random(28);
+        StringBuilder list = new StringBuilder();
+        for (int i = 0; i < 50_000; i++) {
+            list.append("listed-").append(Long.toHexString(random.nextLong())).append(".com\n");
+        }
+        DomainBlocklist large = load(list.toString());
+
+        for (int i = 0; i < 200_000; i++) {
+            String host = "clean-" + Long.toHexString(random.nextLong()) + ".com";
+            assertFalse(large.isBlocked("https://" + host + "/"), host);
+        }
+        assertFalse(large.isBlocked("https://com/"));
+    }
+
+    @Test
+    void emptyListBlocksNothing() {
+        assertFalse(DomainBlocklist.EMPTY.isBlocked("https://evil.com"));
+        assertFalse(blocklist.isBlocked(null));
+        assertEquals(0, load("# only comments\n\n").size());
+    }
+
+    private static DomainBlocklist load(String entries) {
+        try {
+            return DomainBlocklist.load(new BufferedReader(new StringReader(entries)));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
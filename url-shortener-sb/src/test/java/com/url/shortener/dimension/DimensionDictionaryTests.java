@@ -0,0 +1,72 @@
+package com.url.shortener.dimension;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DimensionDictionaryTests {
+
+    private static final int MAX_ENTRIES = 10;
+
+    private JdbcTemplate jdbcTemplate;
+    private DimensionDictionary dictionary;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE user_agent_dim (id INT AUTO_INCREMENT PRIMARY KEY, value_hash BINARY(32) UNIQUE, value TEXT)");
+        dictionary = new DimensionDictionary("user_agent_dim", jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)), new SimpleMeterRegistry(),
+                MAX_ENTRIES, 2048, 16);
+    }
+
+    @Test
+    void hotValuesSurviveAFloodOfNewOnes() {
+        Integer hot = dictionary.idFor("Hot/1.0");
+
+        for (int i = 0; i < 100; i++) {
+            dictionary.idFor("OneOff/" + i);
+            assertEquals(hot, dictionary.cachedIdFor("Hot/1.0"), "evicted after " + i + " new values");
+        }
+        assertTrue(dictionary.size() <= MAX_ENTRIES);
+        assertEquals(101, count());
+    }
+
+    @Test
+    void evictedValuesAreFoundAgainUnderTheSameId() {
+        Integer first = dictionary.idFor("Cold/1.0");
+        for (int i = 0; i < 3 * MAX_ENTRIES; i++) {
+            dictionary.idFor("OneOff/" + i);
+        }
+        assertNull(dictionary.cachedIdFor("Cold/1.0"));
+
+        assertEquals(first, dictionary.idFor("Cold/1.0"));
+        assertEquals("Cold/1.0", dictionary.valueFor(first));
+        assertEquals(1 + 3 * MAX_ENTRIES, count());
+    }
+
+    @Test
+    void blankAndOverlongValuesAreNotInterned() {
+        assertNull(dictionary.idFor(null));
+        assertNull(dictionary.idFor("  "));
+        assertNull(dictionary.idFor("x".repeat(2049)));
+        assertNotNull(dictionary.idFor("x".repeat(2048)));
+    }
+
+    private long count() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_agent_dim", Long.class);
+    }
+}
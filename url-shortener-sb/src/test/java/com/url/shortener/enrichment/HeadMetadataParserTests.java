@@ -0,0 +1,154 @@
+package com.url.shortener.enrichment;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HeadMetadataParserTests {
+
+    private static final Charset WINDOWS_1252 = Charset.forName("windows-1252");
+
+    private final HeadMetadataParser parser = new HeadMetadataParser(65536);
+
+    @Test
+    void extractsTitleDescriptionAndCategory() throws IOException {
+        HeadMetadata metadata = parse("""
+                <html><head>
+                <title>  Release   notes &amp; more </title>
+                <meta name="description" content="What changed">
+                <meta property="og:type" content='article'>
+                </head><body>ignored</body></html>
+                """);
+
+        assertEquals(new HeadMetadata("Release notes & more", "What changed", "article"), metadata);
+    }
+
+    @Test
+    void openGraphFillsMissingTitleAndDescription() throws IOException {
+        HeadMetadata metadata = parse("""
+                <head>
+                <meta property="og:title" content="OG title">
+                <meta property="og:description" content="OG description">
+                <meta property="article:section" content="Tech">
+                <meta property="og:type" content="website">
+                </head>
+                """);
+
+        assertEquals(new HeadMetadata("OG title", "OG description", "Tech"), metadata);
+    }
+
+    @Test
+    void missingTagsGiveEmptyMetadata() throws IOException {
+        assertTrue(parse("<html><head><link rel=icon href=/f.ico></head><body><p>hi</p></body></html>").isEmpty());
+        assertTrue(parse("").isEmpty());
+        assertTrue(parse("<head><title>   </title><meta name=\"description\"></head>").isEmpty());
+    }
+
+    @Test
+    void declaredCharsetWins() throws IOException {
+        byte[] html = "<head><meta charset=\"utf-8\"><title>Café</title></head>".getBytes(WINDOWS_1252);
+
+        HeadMetadata metadata = parser.parse(new ByteArrayInputStream(html), WINDOWS_1252);
+
+        assertEquals("Café", metadata.title());
+    }
+
+    @Test
+    void metaCharsetIsUsedWithoutADeclaredOne() throws IOException {
+        byte[] latin1 = "<head><meta charset=\"ISO-8859-1\"><title>Café</title></head>"
+                .getBytes(StandardCharsets.ISO_8859_1);
+        byte[] cp1252 = "<head><meta http-equiv=\"Content-Type\" content=\"text/html; charset=windows-1252\">"
+                .concat("<title>“Quoted”</title></head>").getBytes(WINDOWS_1252);
+
+        assertEquals("Café", parser.parse(new ByteArrayInputStream(latin1), null).title());
+        assertEquals("“Quoted”", parser.parse(new ByteArrayInputStream(cp1252), null).title());
+    }
+
+    @Test
+    void utf8IsTheDefaultAndUnknownCharsetsFallBackToIt() throws IOException {
+        byte[] plain = "<head><title>Grüße – 日本</title></head>".getBytes(StandardCharsets.UTF_8);
+        byte[] bogus = "<head><meta charset=\"x-no-such-charset\"><title>Grüße</title></head>"
+                .getBytes(StandardCharsets.UTF_8);
+
+        assertEquals("Grüße – 日本", parser.parse(new ByteArrayInputStream(plain), null).title());
+        assertEquals("Grüße", parser.parse(new ByteArrayInputStream(bogus), null).title());
+    }
+
+    @Test
+    void readingStopsAtTheEndOfTheHead() throws IOException {
+        String html = "<head><meta name=\"description\" content=\"head\"></head>"
+                + "<body><title>in body</title><meta name=\"description\" content=\"body\"></body>";
+        // a few bytes per read, so "</head>" straddles two reads
+        HeadMetadata metadata = parser.parse(new TrickleInputStream(html.getBytes(StandardCharsets.UTF_8), 3), null);
+
+        assertNull(metadata.title());
+        assertEquals("head", metadata.description());
+    }
+
+    @Test
+    void bodyWithoutAClosingHeadAlsoEndsTheHead() throws IOException {
+        HeadMetadata metadata = parse("<html><title>Top</title><body><meta name=\"description\" content=\"late\">");
+
+        assertEquals("Top", metadata.title());
+        assertNull(metadata.description());
+    }
+
+    @Test
+    void headTruncatedByTheByteBudget() throws IOException {
+        String head = "<head><meta property=\"og:title\" content=\"Fallback\"><title>Cut off somewhere in the mid";
+        HeadMetadataParser small = new HeadMetadataParser(head.length() - 10);
+
+        HeadMetadata metadata = small.parse(new ByteArrayInputStream(
+                (head + "dle</title><meta name=\"description\" content=\"too late\"></head>").getBytes(StandardCharsets.UTF_8)), null);
+
+        assertEquals("Fallback", metadata.title()); // <title> never closed within the budget
+        assertNull(metadata.description());
+    }
+
+    @Test
+    void overlongValuesAreCapped() throws IOException {
+        HeadMetadata metadata = parse("<head><title>" + "t".repeat(400) + "</title></head>");
+
+        assertEquals(255, metadata.title().length());
+    }
+
+    private HeadMetadata parse(String html) throws IOException {
+        return parser.parse(new ByteArrayInputStream(html.getBytes(StandardCharsets.UTF_8)), null);
+    }
+
+    // hands out at most `step` bytes per read, like a slow network stream
+    private static final class TrickleInputStream extends InputStream {
+        private final byte[] data;
+        private final int step;
+        private int pos;
+
+        TrickleInputStream(byte[] data, int step) {
+            this.data = data;
+            this.step = step;
+        }
+
+        @Override
+        public int read() {
+            return pos < data.length ? data[pos++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (pos == data.length) {
+                return -1;
+            }
+            int n = Math.min(Math.min(len, step), data.length - pos);
+            System.arraycopy(data, pos, b, off, n);
+            pos += n;
+            return n;
+        }
+    }
+}
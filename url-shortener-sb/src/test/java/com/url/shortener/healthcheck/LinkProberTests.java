@@ -0,0 +1,176 @@
+package com.url.shortener.healthcheck;
+
+import com.sun.net.httpserver.HttpServer;
+import com.url.shortener.security.OutboundUrlGuard;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LinkProberTests {
+
+    private HttpServer server;
+    private final List<String> methods = new CopyOnWriteArrayList<>();
+    private final LinkProber prober = prober(true);
+
+    @BeforeEach
+    void startStub() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/ok", exchange -> {
+            methods.add(exchange.getRequestMethod());
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.createContext("/no-head", exchange -> {
+            methods.add(exchange.getRequestMethod());
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+            } else {
+                byte[] body = "hello".getBytes();
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            }
+            exchange.close();
+        });
+        server.createContext("/drop-head", exchange -> {
+            methods.add(exchange.getRequestMethod());
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                throw new IllegalStateException("connection dropped"); // stub closes the connection
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.createContext("/moved", exchange -> {
+            methods.add(exchange.getRequestMethod());
+            exchange.getResponseHeaders().add("Location", "/ok");
+            exchange.sendResponseHeaders(301, -1);
+            exchange.close();
+        });
+        server.createContext("/to-metadata", exchange -> {
+            exchange.getResponseHeaders().add("Location", "http://169.254.169.254/latest/meta-data/");
+            exchange.sendResponseHeaders(302, -1);
+            exchange.close();
+        });
+        server.createContext("/loop", exchange -> {
+            exchange.getResponseHeaders().add("Location", "/loop");
+            exchange.sendResponseHeaders(302, -1);
+            exchange.close();
+        });
+        server.createContext("/gone", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+    }
+
+    @Test
+    void headSuccessDoesNotFallBackToGet() {
+        ProbeResult result = prober.probe(1L, uri("/ok")).join();
+
+        assertEquals(200, result.statusCode());
+        assertEquals("ok", result.outcome());
+        assertEquals(List.of("HEAD"), methods);
+    }
+
+    @Test
+    void rejectedHeadFallsBackToGet() {
+        ProbeResult result = prober.probe(2L, uri("/no-head")).join();
+
+        assertEquals(200, result.statusCode());
+        assertEquals(List.of("HEAD", "GET"), methods);
+    }
+
+    @Test
+    void droppedHeadFallsBackToGet() {
+        ProbeResult result = prober.probe(2L, uri("/drop-head")).join();
+
+        assertEquals(200, result.statusCode());
+        // the JDK client itself retries an idempotent request once on a dropped connection
+        assertEquals(List.of("HEAD", "HEAD", "GET"), methods);
+    }
+
+    @Test
+    void redirectsAreFollowedHopByHop() {
+        ProbeResult result = prober.probe(2L, uri("/moved")).join();
+
+        assertEquals(200, result.statusCode());
+        assertEquals(List.of("HEAD", "HEAD"), methods);
+    }
+
+    @Test
+    void redirectToInternalAddressIsBlocked() {
+        ProbeResult result = prober.probe(2L, uri("/to-metadata")).join();
+
+        assertEquals(LinkProber.UNREACHABLE, result.statusCode());
+        assertEquals("blocked", result.outcome());
+    }
+
+    @Test
+    void redirectLoopIsCut() {
+        ProbeResult result = prober.probe(2L, uri("/loop")).join();
+
+        assertEquals("unreachable", result.outcome());
+    }
+
+    @Test
+    void loopbackIsBlockedByDefault() {
+        ProbeResult result = prober(false).probe(2L, uri("/ok")).join();
+
+        assertEquals("blocked", result.outcome());
+        assertEquals(List.of(), methods);
+    }
+
+    @Test
+    void clientErrorsAreRecorded() {
+        ProbeResult result = prober.probe(3L, uri("/gone")).join();
+
+        assertEquals(404, result.statusCode());
+        assertEquals("client_error", result.outcome());
+    }
+
+    @Test
+    void refusedConnectionIsUnreachable() throws Exception {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        ProbeResult result = prober.probe(4L, URI.create("http://127.0.0.1:" + closedPort + "/")).join();
+
+        assertEquals(LinkProber.UNREACHABLE, result.statusCode());
+        assertEquals("unreachable", result.outcome());
+    }
+
+    @Test
+    void hostSlotsAreSpacedByInterval() {
+        HostThrottle throttle = new HostThrottle(2, TimeUnit.MILLISECONDS.toNanos(100));
+        HostThrottle.Gate gate = throttle.gate("example.com");
+        long now = System.nanoTime();
+
+        assertEquals(0, gate.reserveSlot(now));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), gate.reserveSlot(now));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(200), gate.reserveSlot(now));
+    }
+
+    private static LinkProber prober(boolean allowLoopback) {
+        return new LinkProber(HttpClient.newHttpClient(), Duration.ofSeconds(2), new OutboundUrlGuard(allowLoopback));
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + path);
+    }
+}
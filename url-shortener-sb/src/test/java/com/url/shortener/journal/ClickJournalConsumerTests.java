@@ -0,0 +1,167 @@
+package com.url.shortener.journal;
+
+import com.url.shortener.dimension.ClickDimensionService;
+import com.url.shortener.sampling.ClickSampler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ClickJournalConsumerTests {
+
+    private static final String[] SCHEMA = {
+            "CREATE TABLE url_mapping (id BIGINT PRIMARY KEY, click_count INT NOT NULL DEFAULT 0)",
+            "CREATE TABLE routing_rule (id BIGINT PRIMARY KEY, variant VARCHAR(32))",
+            """
+            CREATE TABLE click_event (
+                id BIGINT AUTO_INCREMENT PRIMARY KEY, url_mapping_id BIGINT, click_date TIMESTAMP,
+                ip_address VARCHAR(255), user_agent_id INT, user_agent TEXT, referer_id INT, referer VARCHAR(255),
+                referer_host VARCHAR(255), device_type VARCHAR(255), browser VARCHAR(255), os VARCHAR(255),
+                is_bot BOOLEAN, response_status INT, routing_rule_id BIGINT, variant VARCHAR(32),
+                sampling_weight INT NOT NULL DEFAULT 1)
+            """,
+            """
+            CREATE TABLE click_daily (url_mapping_id BIGINT, click_day DATE, clicks BIGINT,
+                CONSTRAINT uk_click_daily UNIQUE (url_mapping_id, click_day))
+            """,
+            "CREATE TABLE click_journal_offset (journal_id VARCHAR(36) PRIMARY KEY, committed_index BIGINT, updated_at TIMESTAMP)",
+            "CREATE TABLE user_agent_dim (id INT AUTO_INCREMENT PRIMARY KEY, value_hash BINARY(32) UNIQUE, value TEXT)",
+            "CREATE TABLE referer_dim (id INT AUTO_INCREMENT PRIMARY KEY, value_hash BINARY(32) UNIQUE, value TEXT)"
+    };
+
+    @TempDir
+    Path dir;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+    private ClickJournal journal;
+    private ClickDimensionService dimensions;
+    private ClickJournalConsumer consumer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE,DAY;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        for (String ddl : SCHEMA) {
+            jdbcTemplate.execute(ddl);
+        }
+        jdbcTemplate.update("INSERT INTO url_mapping (id) VALUES (1), (2)");
+        jdbcTemplate.update("INSERT INTO routing_rule (id, variant) VALUES (5, 'b')");
+
+        journal = new ClickJournal(meterRegistry, true, dir.toString(), 64 * ClickJournal.RECORD_BYTES, 16);
+        dimensions = new ClickDimensionService(jdbcTemplate, transactionManager, meterRegistry, 1, 2048, 16);
+        consumer = new ClickJournalConsumer(journal, new ClickSampler(jdbcTemplate, meterRegistry, true, 600),
+                dimensions, jdbcTemplate, new TransactionTemplate(transactionManager), meterRegistry, 100, 10, 0);
+    }
+
+    @Test
+    void replaysClicksWithExactCountsAndAdvancesTheOffset() {
+        journal.append(click(1, 0, 0));
+        journal.append(click(1, 0, 5));
+        journal.append(click(2, 0, 0));
+        journal.append(click(99, 0, 0)); // purged since it was journaled
+
+        consumer.drain();
+
+        assertEquals(3, count("SELECT COUNT(*) FROM click_event"));
+        assertEquals(2, count("SELECT click_count FROM url_mapping WHERE id = 1"));
+        assertEquals(1, count("SELECT click_count FROM url_mapping WHERE id = 2"));
+        assertEquals(2, count("SELECT clicks FROM click_daily WHERE url_mapping_id = 1"));
+        assertEquals("b", jdbcTemplate.queryForObject("SELECT variant FROM click_event WHERE routing_rule_id = 5", String.class));
+        assertEquals(4, count("SELECT committed_index FROM click_journal_offset"));
+    }
+
+    @Test
+    void corruptSlotsAreSkipped() throws IOException {
+        journal.append(click(1, 0, 0));
+        journal.append(click(2, 0, 0));
+        try (RandomAccessFile raf = new RandomAccessFile(dir.resolve(JournalSegment.fileName(0)).toFile(), "rw")) {
+            raf.seek(9);
+            raf.write(0x7F);
+        }
+
+        consumer.drain();
+
+        assertEquals(1, count("SELECT COUNT(*) FROM click_event"));
+        assertEquals(0, count("SELECT click_count FROM url_mapping WHERE id = 1"));
+        assertEquals(2, count("SELECT committed_index FROM click_journal_offset"));
+        assertEquals(1.0, meterRegistry.counter("journal.corrupt").count());
+    }
+
+    @Test
+    void failedBatchIsRetriedFromTheSameOffset() {
+        journal.append(click(1, 0, 0));
+        journal.append(click(1, 0, 0));
+        jdbcTemplate.execute("ALTER TABLE click_daily RENAME TO click_daily_away");
+
+        consumer.drain();
+
+        assertEquals(0, count("SELECT COUNT(*) FROM click_event"));
+        assertEquals(0, count("SELECT committed_index FROM click_journal_offset"));
+
+        jdbcTemplate.execute("ALTER TABLE click_daily_away RENAME TO click_daily");
+        consumer.drain();
+
+        assertEquals(2, count("SELECT COUNT(*) FROM click_event"));
+        assertEquals(2, count("SELECT click_count FROM url_mapping WHERE id = 1"));
+        assertEquals(2, count("SELECT committed_index FROM click_journal_offset"));
+    }
+
+    @Test
+    void standInDimensionsAreInterned() {
+        // the cache holds one value; both are interned anyway and resolve from the table
+        int first = dimensions.standInUserAgentId("Agent/1");
+        int second = dimensions.standInUserAgentId("Agent/2");
+        journal.append(click(1, first, 0));
+        journal.append(click(1, second, 0));
+
+        consumer.drain();
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT user_agent_id, user_agent FROM click_event ORDER BY id");
+        assertEquals("Agent/1", dimensions.userAgent((Integer) rows.get(0).get("user_agent_id")));
+        assertEquals("Agent/2", dimensions.userAgent((Integer) rows.get(1).get("user_agent_id")));
+        assertNull(rows.get(1).get("user_agent"));
+        assertEquals(2, count("SELECT COUNT(*) FROM user_agent_dim"));
+    }
+
+    @Test
+    void standInsAreStoredInlineWhenTheDictionaryFails() {
+        int standIn = dimensions.standInUserAgentId("Agent/1");
+        journal.append(click(1, standIn, 0));
+        jdbcTemplate.execute("ALTER TABLE user_agent_dim RENAME TO user_agent_dim_away");
+
+        consumer.drain();
+
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT user_agent_id, user_agent FROM click_event");
+        assertNull(row.get("user_agent_id"));
+        assertEquals("Agent/1", row.get("user_agent"));
+    }
+
+    private static ClickRecord click(long mappingId, int userAgentId, int routingRuleId) {
+        return new ClickRecord(mappingId, System.currentTimeMillis(), userAgentId, 0, "10.0.0.1", "ref.example",
+                "desktop", "Chrome", "Linux", 302, routingRuleId);
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
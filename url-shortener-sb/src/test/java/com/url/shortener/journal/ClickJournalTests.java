@@ -0,0 +1,168 @@
+package com.url.shortener.journal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32C;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClickJournalTests {
+
+    private static final int SLOTS_PER_SEGMENT = 4;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void appendedRecordsReadBack() throws IOException {
+        ClickJournal journal = journal(8);
+        ClickRecord record = new ClickRecord(42, 1_700_000_000_123L, 7, 9, "2001:db8::1", "news.example.com",
+                "mobile", "Safari", "iOS", 302, 5);
+
+        assertTrue(journal.append(record));
+
+        assertEquals(record, journal.read(0));
+        assertNull(journal.read(1)); // reserved by nobody yet
+        assertEquals(1, journal.nextIndex());
+    }
+
+    @Test
+    void nullAndOverlongStringsAreStoredBounded() throws IOException {
+        ClickJournal journal = journal(8);
+        String longHost = "a".repeat(60) + ".example.com";
+        journal.append(new ClickRecord(1, 1, 0, 0, null, longHost, "desktop", "Chrome", "Linux", 302, 0));
+
+        ClickRecord read = journal.read(0);
+        assertNull(read.ipAddress());
+        assertEquals(longHost.substring(0, 40), read.refererHost());
+    }
+
+    @Test
+    void versionOneRecordsAreStillRead() throws IOException {
+        // CLK1: same fields, a 44-byte referer host and no routing rule id
+        String host = "a-host-name-longer-than-forty.example.com"; // 41 chars, fits v1 only
+        Path file = dir.resolve(JournalSegment.fileName(0));
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(SLOTS_PER_SEGMENT * ClickJournal.RECORD_BYTES);
+            MappedByteBuffer slot = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, ClickJournal.RECORD_BYTES);
+            slot.putLong(8, 77);
+            slot.putLong(16, 1_600_000_000_000L);
+            slot.putInt(24, 3);
+            slot.putInt(28, 0);
+            slot.putShort(32, (short) 302);
+            slot.put(34, ClickCodes.encode(ClickCodes.DEVICE_TYPES, "desktop"));
+            slot.put(35, ClickCodes.encode(ClickCodes.BROWSERS, "Firefox"));
+            slot.put(36, ClickCodes.encode(ClickCodes.OPERATING_SYSTEMS, "Windows"));
+            slot.put(37, (byte) 7);
+            slot.put(38, "1.2.3.4".getBytes(StandardCharsets.US_ASCII));
+            slot.put(83, (byte) host.length());
+            slot.put(84, host.getBytes(StandardCharsets.US_ASCII));
+            slot.putInt(4, crc(slot));
+            slot.putInt(0, 0x434C4B31);
+            slot.force();
+        }
+
+        ClickJournal journal = journal(8);
+
+        assertEquals(1, journal.nextIndex());
+        assertEquals(new ClickRecord(77, 1_600_000_000_000L, 3, 0, "1.2.3.4", host,
+                "desktop", "Firefox", "Windows", 302, 0), journal.read(0));
+    }
+
+    @Test
+    void tornOrCorruptSlotsAreReportedAsCorrupt() throws IOException {
+        ClickJournal journal = journal(8);
+        journal.append(new ClickRecord(1, 1, 0, 0, "1.1.1.1", null, "desktop", "Chrome", "Linux", 302, 0));
+        journal.append(new ClickRecord(2, 2, 0, 0, "1.1.1.1", null, "desktop", "Chrome", "Linux", 302, 0));
+
+        // flip a byte inside the second record after its magic word was published
+        try (RandomAccessFile raf = new RandomAccessFile(dir.resolve(JournalSegment.fileName(0)).toFile(), "rw")) {
+            long offset = ClickJournal.RECORD_BYTES + 9;
+            raf.seek(offset);
+            int b = raf.read();
+            raf.seek(offset);
+            raf.write(b ^ 0xFF);
+        }
+
+        assertEquals(1, journal.read(0).mappingId());
+        assertSame(ClickJournal.CORRUPT, journal.read(1));
+    }
+
+    @Test
+    void reopeningResumesAfterTheLastWrittenRecord() throws IOException {
+        ClickJournal first = journal(8);
+        for (int i = 0; i < 6; i++) {
+            first.append(new ClickRecord(i + 1, i, 0, 0, null, null, "desktop", "Chrome", "Linux", 302, 0));
+        }
+
+        ClickJournal reopened = journal(8);
+
+        assertEquals(first.journalId(), reopened.journalId());
+        assertEquals(6, reopened.nextIndex());
+        assertEquals(6, reopened.recoveredEnd());
+        assertEquals(6, reopened.read(5).mappingId());
+        assertTrue(reopened.append(new ClickRecord(7, 7, 0, 0, null, null, "desktop", "Chrome", "Linux", 302, 0)));
+        assertEquals(7, reopened.read(6).mappingId());
+    }
+
+    @Test
+    void truncateDeletesConsumedSegmentsButKeepsTheHead() throws IOException {
+        ClickJournal journal = journal(8);
+        for (int i = 0; i < 10; i++) { // segments 0, 1 and 2 (head)
+            journal.append(new ClickRecord(i + 1, i, 0, 0, null, null, "desktop", "Chrome", "Linux", 302, 0));
+        }
+
+        journal.truncateBefore(12); // everything consumed, even the head's slots
+
+        assertFalse(Files.exists(dir.resolve(JournalSegment.fileName(0))));
+        assertFalse(Files.exists(dir.resolve(JournalSegment.fileName(1))));
+        assertTrue(Files.exists(dir.resolve(JournalSegment.fileName(2))));
+        assertEquals(12, journal.firstRetained());
+        assertEquals(10, journal.read(9).mappingId());
+    }
+
+    @Test
+    void fullJournalRefusesAppends() throws IOException {
+        ClickJournal journal = journal(2);
+        for (int i = 0; i < 2 * SLOTS_PER_SEGMENT; i++) {
+            assertTrue(journal.append(new ClickRecord(1, i, 0, 0, null, null, "desktop", "Chrome", "Linux", 302, 0)));
+        }
+
+        assertFalse(journal.append(new ClickRecord(1, 9, 0, 0, null, null, "desktop", "Chrome", "Linux", 302, 0)));
+
+        journal.truncateBefore(SLOTS_PER_SEGMENT);
+        assertTrue(journal.append(new ClickRecord(1, 9, 0, 0, null, null, "desktop", "Chrome", "Linux", 302, 0)));
+    }
+
+    @Test
+    void segmentFileNamesRoundTrip() {
+        assertEquals(12, JournalSegment.sequenceOf(JournalSegment.fileName(12)));
+        assertEquals(-1, JournalSegment.sequenceOf("journal.id"));
+        assertEquals(-1, JournalSegment.sequenceOf("clicks-abc.seg"));
+    }
+
+    private ClickJournal journal(int maxSegments) throws IOException {
+        return new ClickJournal(new SimpleMeterRegistry(), true, dir.toString(),
+                SLOTS_PER_SEGMENT * ClickJournal.RECORD_BYTES, maxSegments);
+    }
+
+    private static int crc(ByteBuffer slot) {
+        CRC32C crc = new CRC32C();
+        crc.update(slot.slice(8, ClickJournal.RECORD_BYTES - 8));
+        return (int) crc.getValue();
+    }
+}
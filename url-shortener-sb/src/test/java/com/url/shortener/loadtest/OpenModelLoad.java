@@ -0,0 +1,100 @@
+package com.url.shortener.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Open-model (constant arrival rate) load generator.
+ * <p>
+ * Request i is due at {@code start + i / rate} whether or not earlier requests have
+ * completed, and latency is measured from that due time. A slow server therefore shows
+ * up as queueing in the histogram instead of silently lowering the offered load
+ * (no coordinated omission). Requests that would exceed {@code maxInFlight} are
+ * counted as dropped rather than delaying the schedule.
+ */
+final class OpenModelLoad {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.SECONDS.toMicros(60);
+
+    record Result(
+            String name,
+            double targetRate,
+            double seconds,
+            long sent,
+            long ok,
+            long rejected,
+            long errors,
+            long dropped,
+            Histogram latencyMicros
+    ) {
+        double throughput() {
+            return ok / seconds;
+        }
+    }
+
+    private OpenModelLoad() {
+    }
+
+    static Result run(String name,
+                      HttpClient client,
+                      double ratePerSecond,
+                      Duration duration,
+                      int maxInFlight,
+                      Supplier<HttpRequest> requests) throws InterruptedException {
+        Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        LongAdder ok = new LongAdder();
+        LongAdder rejected = new LongAdder();
+        LongAdder errors = new LongAdder();
+        long dropped = 0;
+        long sent = 0;
+
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        for (long due = start; due < end; due = start + sent * intervalNanos) {
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            sent++;
+            if (!inFlight.tryAcquire()) {
+                dropped++;
+                continue;
+            }
+            long intended = due;
+            client.sendAsync(requests.get(), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended);
+                        recorder.recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+                        if (error != null) {
+                            errors.increment();
+                        } else if (response.statusCode() == 429) {
+                            rejected.increment();
+                        } else if (response.statusCode() < 400) {
+                            ok.increment();
+                        } else {
+                            errors.increment();
+                        }
+                        inFlight.release();
+                    });
+        }
+
+        // drain: wait for every outstanding response before reading the histogram
+        inFlight.tryAcquire(maxInFlight, 60, TimeUnit.SECONDS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return new Result(name, ratePerSecond, seconds, sent, ok.sum(), rejected.sum(), errors.sum(), dropped,
+                recorder.getIntervalHistogram());
+    }
+}
@@ -0,0 +1,243 @@
+package com.url.shortener.loadtest;
+
+import com.url.shortener.models.User;
+import com.url.shortener.repository.UserRepository;
+import com.url.shortener.security.jwt.JwtUtils;
+import com.url.shortener.serviceImpl.UserDetailsImpl;
+import com.url.shortener.shortcode.ShortCodeCodec;
+import com.url.shortener.utils.ZipfSampler;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Load-test harness: boots the app on a random port against in-memory H2, seeds links and
+ * clicks, then drives the redirect, shorten and totalClicks endpoints at a constant
+ * arrival rate. Excluded from the default build; run with
+ * <pre>
+ *   mvn -Ploadtest test -Dloadtest.links=100000 -Dloadtest.redirect.rate=5000
+ * </pre>
+ * Each scenario writes {@code <name>.hgrm} (HDR percentile distribution, ms) and
+ * {@code <name>.summary} to {@code loadtest.output-dir} (default target/loadtest); the
+ * file names are fixed so runs of different releases can be diffed directly.
+ */
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ShortenerLoadTest {
+
+    private static final int BATCH = 1000;
+    private static final String[] BROWSERS = {"Chrome", "Firefox", "Safari", "Other"};
+    private static final String[] OSES = {"Windows", "MacOS", "Linux", "Android", "iOS"};
+    private static final String[] DEVICES = {"desktop", "mobile", "tablet"};
+
+    // ---- settings (-Dloadtest.*) ----
+    private final long seed = Long.getLong("loadtest.seed", 42L);
+    private final int links = Integer.getInteger("loadtest.links", 10_000);
+    private final int clicks = Integer.getInteger("loadtest.clicks", 100_000);
+    private final double zipfExponent = Double.parseDouble(System.getProperty("loadtest.zipf", "1.0"));
+    private final Duration warmup = Duration.ofSeconds(Long.getLong("loadtest.warmup-seconds", 5L));
+    private final Duration duration = Duration.ofSeconds(Long.getLong("loadtest.duration-seconds", 30L));
+    private final int maxInFlight = Integer.getInteger("loadtest.max-in-flight", 512);
+    private final Path outputDir = Path.of(System.getProperty("loadtest.output-dir", "target/loadtest"));
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JwtUtils jwtUtils;
+    @Autowired
+    private ShortCodeCodec shortCodeCodec;
+
+    private HttpClient client;
+    private ExecutorService clientExecutor;
+    private ZipfSampler keys;
+    private String token;
+    private final List<OpenModelLoad.Result> results = new ArrayList<>();
+
+    @BeforeAll
+    void seed() throws IOException {
+        Files.createDirectories(outputDir);
+        clientExecutor = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
+        client = HttpClient.newBuilder()
+                .executor(clientExecutor)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        keys = new ZipfSampler(links, zipfExponent);
+
+        User user = userRepository.save(User.builder()
+                .username("loadtest")
+                .email("loadtest@example.com")
+                .password("{noop}unused")
+                .role("ROLE_USER")
+                .enabled(true)
+                .build());
+        token = jwtUtils.generateToken(UserDetailsImpl.build(user));
+
+        Random random = new Random(seed);
+        seedLinks(user.getId());
+        seedClicks(random);
+    }
+
+    @AfterAll
+    void report() throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(outputDir.resolve("summary.txt")))) {
+            out.printf("links=%d clicks=%d zipf=%.2f seed=%d duration=%ds%n",
+                    links, clicks, zipfExponent, seed, duration.toSeconds());
+            for (OpenModelLoad.Result result : results) {
+                out.println(summaryLine(result));
+            }
+        }
+        clientExecutor.shutdownNow();
+    }
+
+    // ============================================
+    // SCENARIOS
+    // ============================================
+    @Test
+    @Order(1)
+    void redirect() throws Exception {
+        double rate = Double.parseDouble(System.getProperty("loadtest.redirect.rate", "2000"));
+        run("redirect", rate, () -> {
+            long id = keys.next(ThreadLocalRandom.current()) + 1;
+            return HttpRequest.newBuilder(uri("/" + shortCodeCodec.encode(id))).GET().build();
+        });
+    }
+
+    @Test
+    @Order(2)
+    void totalClicks() throws Exception {
+        double rate = Double.parseDouble(System.getProperty("loadtest.total-clicks.rate", "50"));
+        LocalDate today = LocalDate.now();
+        URI uri = uri("/api/urls/totalClicks?startDate=" + today.minusDays(30) + "&endDate=" + today);
+        run("totalClicks", rate, () -> HttpRequest.newBuilder(uri)
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build());
+    }
+
+    @Test
+    @Order(3)
+    void shorten() throws Exception {
+        double rate = Double.parseDouble(System.getProperty("loadtest.shorten.rate", "200"));
+        AtomicLong counter = new AtomicLong();
+        run("shorten", rate, () -> HttpRequest.newBuilder(uri("/api/urls/shorten"))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"originalUrl\":\"https://example.com/new/" + counter.incrementAndGet() + "\"}"))
+                .build());
+    }
+
+    private void run(String name, double rate, Supplier<HttpRequest> requests) throws Exception {
+        if (!warmup.isZero()) {
+            OpenModelLoad.run(name + "-warmup", client, rate, warmup, maxInFlight, requests);
+        }
+        OpenModelLoad.Result result = OpenModelLoad.run(name, client, rate, duration, maxInFlight, requests);
+        results.add(result);
+
+        try (PrintStream out = new PrintStream(Files.newOutputStream(outputDir.resolve(name + ".hgrm")))) {
+            result.latencyMicros().outputPercentileDistribution(out, 1000.0);
+        }
+        Files.writeString(outputDir.resolve(name + ".summary"), summaryLine(result) + System.lineSeparator());
+        System.out.println(summaryLine(result));
+
+        assertTrue(result.ok() > 0, name + ": no successful responses");
+    }
+
+    private static String summaryLine(OpenModelLoad.Result r) {
+        var h = r.latencyMicros();
+        return String.format(
+                "%s target=%.0f/s throughput=%.1f/s sent=%d ok=%d rejected=%d errors=%d dropped=%d "
+                        + "p50=%.3fms p90=%.3fms p99=%.3fms p99.9=%.3fms max=%.3fms",
+                r.name(), r.targetRate(), r.throughput(), r.sent(), r.ok(), r.rejected(), r.errors(), r.dropped(),
+                h.getValueAtPercentile(50) / 1000.0, h.getValueAtPercentile(90) / 1000.0,
+                h.getValueAtPercentile(99) / 1000.0, h.getValueAtPercentile(99.9) / 1000.0,
+                h.getMaxValue() / 1000.0);
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + port + path);
+    }
+
+    // ============================================
+    // SEEDING (JDBC batches, explicit ids 1..links)
+    // ============================================
+    private void seedLinks(Long userId) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>(BATCH);
+        for (long id = 1; id <= links; id++) {
+            batch.add(new Object[]{id, "https://example.com/p/" + id, shortCodeCodec.encode(id), now, now, userId});
+            if (batch.size() == BATCH || id == links) {
+                jdbcTemplate.batchUpdate("""
+                        INSERT INTO url_mapping
+                            (id, original_url, short_url, is_custom, protected_url, is_active, click_count,
+                             last_status_code, created_date, updated_date, user_id)
+                        VALUES (?, ?, ?, false, false, true, 0, 0, ?, ?, ?)
+                        """, batch);
+                batch.clear();
+            }
+        }
+        // creates during the run must not collide with the explicit ids
+        jdbcTemplate.execute("ALTER TABLE url_mapping ALTER COLUMN id RESTART WITH " + (links + 1));
+    }
+
+    private void seedClicks(Random random) {
+        LocalDateTime now = LocalDateTime.now();
+        long windowSeconds = Duration.ofDays(30).toSeconds();
+        List<Object[]> batch = new ArrayList<>(BATCH);
+        for (int i = 1; i <= clicks; i++) {
+            batch.add(new Object[]{
+                    keys.next(random) + 1L,
+                    Timestamp.valueOf(now.minusSeconds((long) (random.nextDouble() * windowSeconds))),
+                    BROWSERS[random.nextInt(BROWSERS.length)],
+                    OSES[random.nextInt(OSES.length)],
+                    DEVICES[random.nextInt(DEVICES.length)]
+            });
+            if (batch.size() == BATCH || i == clicks) {
+                jdbcTemplate.batchUpdate("""
+                        INSERT INTO click_event
+                            (url_mapping_id, click_date, browser, os, device_type, is_bot, response_status)
+                        VALUES (?, ?, ?, ?, ?, false, 302)
+                        """, batch);
+                batch.clear();
+            }
+        }
+        jdbcTemplate.update("""
+                UPDATE url_mapping u
+                   SET click_count = (SELECT COUNT(*) FROM click_event c WHERE c.url_mapping_id = u.id)
+                """);
+    }
+}
@@ -0,0 +1,70 @@
+package com.url.shortener.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyedRateLimiterTests {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    // one request per second, no burst: a key stays active for a second after each request
+    private final KeyedRateLimiter limiter = new KeyedRateLimiter(RateLimitPolicy.of("test", 1, 1), 2);
+    private final long t0 = System.nanoTime();
+
+    @Test
+    void keysAreLimitedIndependently() {
+        assertEquals(0, limiter.tryAcquire("a", t0));
+        assertTrue(limiter.tryAcquire("a", t0) > 0);
+        assertEquals(0, limiter.tryAcquire("b", t0));
+    }
+
+    @Test
+    void fullTableOfActiveKeysFailsOpenWithoutGrowing() {
+        limiter.tryAcquire("a", t0);
+        limiter.tryAcquire("b", t0);
+
+        assertEquals(0, limiter.tryAcquire("c", t0));
+        assertEquals(0, limiter.tryAcquire("c", t0));
+        assertEquals(2, limiter.size());
+    }
+
+    @Test
+    void fullTableSweepsIdleKeysToMakeRoom() {
+        limiter.tryAcquire("a", t0);
+        limiter.tryAcquire("b", t0);
+        long later = t0 + TimeUnit.SECONDS.toNanos(2);
+
+        assertEquals(0, limiter.tryAcquire("c", later));
+        assertEquals(1, limiter.size());
+        assertTrue(limiter.tryAcquire("c", later) > 0); // c got a bucket
+    }
+
+    @Test
+    void onDemandSweepsAreSpacedOut() {
+        limiter.tryAcquire("a", t0);
+        limiter.tryAcquire("b", t0);
+        long idle = t0 + TimeUnit.SECONDS.toNanos(1);
+        long sweep = idle - 50 * MS;
+        limiter.tryAcquire("c", sweep); // sweeps, nothing idle yet
+
+        assertEquals(0, limiter.tryAcquire("d", idle + 10 * MS));
+        assertEquals(2, limiter.size()); // a and b are idle now, but the next sweep is not due
+
+        assertEquals(0, limiter.tryAcquire("e", sweep + KeyedRateLimiter.MIN_SWEEP_GAP_NANOS));
+        assertEquals(1, limiter.size());
+    }
+
+    @Test
+    void scheduledSweepDropsOnlyIdleKeys() {
+        limiter.tryAcquire("a", t0);
+        limiter.tryAcquire("b", t0 + 500 * MS);
+
+        limiter.evictIdle(t0 + TimeUnit.SECONDS.toNanos(1));
+
+        assertEquals(1, limiter.size());
+    }
+}
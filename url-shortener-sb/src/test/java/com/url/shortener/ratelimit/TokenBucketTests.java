@@ -0,0 +1,94 @@
+package com.url.shortener.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTests {
+
+    private static final long T0 = TimeUnit.SECONDS.toNanos(1_000);
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    // 10 per second, bursts of 3: one token every 100 ms, up to 200 ms ahead of schedule
+    private final RateLimitPolicy policy = RateLimitPolicy.of("test", 10, 3);
+
+    @Test
+    void policyIsPrecomputedIntoGcraTerms() {
+        assertEquals(100 * MS, policy.emissionIntervalNanos());
+        assertEquals(200 * MS, policy.burstToleranceNanos());
+        assertEquals(0, RateLimitPolicy.of("single", 10, 1).burstToleranceNanos());
+    }
+
+    @Test
+    void fullBucketAdmitsExactlyTheBurst() {
+        TokenBucket bucket = new TokenBucket(T0);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(T0, policy), "request " + i);
+        }
+        assertEquals(100 * MS, bucket.tryAcquire(T0, policy));
+    }
+
+    @Test
+    void retryAfterCountsDownToTheNextToken() {
+        TokenBucket bucket = drained();
+
+        assertEquals(60 * MS, bucket.tryAcquire(T0 + 40 * MS, policy));
+        assertEquals(1, bucket.tryAcquire(T0 + 100 * MS - 1, policy));
+        assertEquals(0, bucket.tryAcquire(T0 + 100 * MS, policy));
+    }
+
+    @Test
+    void deniedRequestsDoNotConsumeTokens() {
+        TokenBucket bucket = drained();
+        for (int i = 0; i < 50; i++) {
+            bucket.tryAcquire(T0 + i * MS, policy);
+        }
+
+        assertEquals(0, bucket.tryAcquire(T0 + 100 * MS, policy));
+    }
+
+    @Test
+    void refillIsOneTokenPerInterval() {
+        TokenBucket bucket = drained();
+
+        assertEquals(0, bucket.tryAcquire(T0 + 250 * MS, policy));
+        assertEquals(0, bucket.tryAcquire(T0 + 250 * MS, policy));
+        assertEquals(50 * MS, bucket.tryAcquire(T0 + 250 * MS, policy));
+    }
+
+    @Test
+    void idleTimeDoesNotBuildUpMoreThanTheBurst() {
+        TokenBucket bucket = drained();
+        long later = T0 + TimeUnit.HOURS.toNanos(1);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(later, policy), "request " + i);
+        }
+        assertEquals(100 * MS, bucket.tryAcquire(later, policy));
+    }
+
+    @Test
+    void bucketIsIdleOnceCompletelyRefilled() {
+        TokenBucket bucket = new TokenBucket(T0);
+        assertTrue(bucket.isIdle(T0));
+
+        bucket.tryAcquire(T0, policy);
+        bucket.tryAcquire(T0, policy);
+
+        assertFalse(bucket.isIdle(T0 + 199 * MS));
+        assertTrue(bucket.isIdle(T0 + 200 * MS));
+    }
+
+    private TokenBucket drained() {
+        TokenBucket bucket = new TokenBucket(T0);
+        for (int i = 0; i < 3; i++) {
+            bucket.tryAcquire(T0, policy);
+        }
+        return bucket;
+    }
+}
@@ -0,0 +1,154 @@
+package com.url.shortener.routing;
+
+import com.url.shortener.models.RoutingRule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoutingTableTests {
+
+    private static final ZoneId UTC = ZoneOffset.UTC;
+    private static final LocalDateTime NOON = LocalDateTime.of(2025, 6, 1, 12, 0);
+    private static final long NOON_MILLIS = NOON.toInstant(ZoneOffset.UTC).toEpochMilli();
+
+    @Test
+    void noRulesMeansDefault() {
+        RoutingTable table = RoutingTable.compile(List.of(), UTC);
+
+        assertEquals(RoutingTable.DEFAULT, table.select("DE", "mobile", "iOS", NOON_MILLIS, 7));
+    }
+
+    @Test
+    void firstMatchingPriorityLevelWins() {
+        RoutingTable table = compile(
+                rule(1, 1, "https://de.example").countryCode("DE").build(),
+                rule(2, 2, "https://mobile.example").deviceType("mobile").build(),
+                rule(3, 3, "https://everyone.example").build());
+
+        assertEquals("https://de.example", destination(table, "DE", "mobile", "Android"));
+        assertEquals("https://mobile.example", destination(table, "FR", "mobile", "Android"));
+        assertEquals("https://everyone.example", destination(table, "FR", "desktop", "Linux"));
+    }
+
+    @Test
+    void unmatchedRulesFallThroughToTheLink() {
+        RoutingTable table = compile(rule(1, 1, "https://de.example").countryCode("DE").build());
+
+        assertEquals(RoutingTable.DEFAULT, table.select("FR", "desktop", "Linux", NOON_MILLIS, 0));
+        assertEquals(RoutingTable.DEFAULT, table.select(null, "desktop", "Linux", NOON_MILLIS, 0));
+    }
+
+    @Test
+    void zeroWeightLevelFallsThrough() {
+        RoutingTable table = compile(
+                rule(1, 1, "https://paused.example").weight(0).build(),
+                rule(2, 2, "https://live.example").build());
+
+        for (int bucket = 0; bucket < 100; bucket++) {
+            assertEquals("https://live.example", destination(table, bucket));
+        }
+    }
+
+    @Test
+    void weightedSplitFollowsWeightsAndIsStickyPerBucket() {
+        RoutingTable table = compile(
+                rule(1, 1, "https://a.example").variant("A").weight(1).build(),
+                rule(2, 1, "https://b.example").variant("B").weight(3).build());
+
+        Map<String, Integer> hits = new HashMap<>();
+        for (int bucket = -400; bucket < 400; bucket++) {
+            String chosen = destination(table, bucket);
+            hits.merge(chosen, 1, Integer::sum);
+            assertEquals(chosen, destination(table, bucket)); // same visitor, same arm
+        }
+        assertEquals(200, hits.get("https://a.example"));
+        assertEquals(600, hits.get("https://b.example"));
+    }
+
+    @Test
+    void splitOnlyCountsMatchingRulesOfTheLevel() {
+        RoutingTable table = compile(
+                rule(1, 1, "https://ios.example").os("iOS").weight(5).build(),
+                rule(2, 1, "https://any.example").weight(5).build());
+
+        for (int bucket = 0; bucket < 50; bucket++) {
+            assertEquals("https://any.example", destination(table, "US", "desktop", "Windows", bucket));
+        }
+    }
+
+    @Test
+    void timeWindowIsInclusiveStartExclusiveEnd() {
+        RoutingTable table = compile(rule(1, 1, "https://sale.example")
+                .activeFrom(NOON)
+                .activeUntil(NOON.plusHours(1))
+                .build());
+
+        assertEquals(RoutingTable.DEFAULT, table.select("US", "desktop", "Linux", NOON_MILLIS - 1, 0));
+        assertEquals(0, table.select("US", "desktop", "Linux", NOON_MILLIS, 0));
+        assertEquals(0, table.select("US", "desktop", "Linux", NOON_MILLIS + 3_599_999, 0));
+        assertEquals(RoutingTable.DEFAULT, table.select("US", "desktop", "Linux", NOON_MILLIS + 3_600_000, 0));
+    }
+
+    @Test
+    void timeWindowUsesTheGivenZone() {
+        RoutingRule rule = rule(1, 1, "https://sale.example").activeFrom(NOON).build();
+        RoutingTable berlin = RoutingTable.compile(List.of(rule), ZoneId.of("Europe/Berlin")); // UTC+2 in June
+
+        assertEquals(0, berlin.select("DE", "desktop", "Linux", NOON_MILLIS - 2 * 3_600_000, 0));
+        assertEquals(RoutingTable.DEFAULT, berlin.select("DE", "desktop", "Linux", NOON_MILLIS - 2 * 3_600_000 - 1, 0));
+    }
+
+    @Test
+    void conditionsMatchCountryDeviceAndOs() {
+        RoutingTable table = compile(rule(1, 1, "https://de-android.example")
+                .countryCode("de")
+                .deviceType("mobile")
+                .os("Android")
+                .build());
+
+        assertEquals(0, table.select("DE", "mobile", "Android", NOON_MILLIS, 0)); // country ignores case
+        assertEquals(RoutingTable.DEFAULT, table.select("DE", "tablet", "Android", NOON_MILLIS, 0));
+        assertEquals(RoutingTable.DEFAULT, table.select("DE", "mobile", "iOS", NOON_MILLIS, 0));
+        assertEquals(RoutingTable.DEFAULT, table.select("AT", "mobile", "Android", NOON_MILLIS, 0));
+    }
+
+    @Test
+    void compiledRuleKeepsIdVariantAndDestination() {
+        RoutingTable table = compile(rule(42, 1, "https://b.example").variant("B").build());
+
+        int index = table.select("US", "desktop", "Linux", NOON_MILLIS, 0);
+        assertEquals(42, table.ruleId(index));
+        assertEquals("B", table.variant(index));
+        assertEquals(1, table.size());
+        assertTrue(table.destination(index).endsWith("b.example"));
+    }
+
+    private static RoutingRule.RoutingRuleBuilder rule(long id, int priority, String destination) {
+        return RoutingRule.builder().id(id).priority(priority).destinationUrl(destination);
+    }
+
+    private static RoutingTable compile(RoutingRule... rules) {
+        return RoutingTable.compile(List.of(rules), UTC);
+    }
+
+    private static String destination(RoutingTable table, int bucket) {
+        return destination(table, "US", "desktop", "Linux", bucket);
+    }
+
+    private static String destination(RoutingTable table, String country, String device, String os) {
+        return destination(table, country, device, os, 0);
+    }
+
+    private static String destination(RoutingTable table, String country, String device, String os, int bucket) {
+        int index = table.select(country, device, os, NOON_MILLIS, bucket);
+        return index == RoutingTable.DEFAULT ? null : table.destination(index);
+    }
+}
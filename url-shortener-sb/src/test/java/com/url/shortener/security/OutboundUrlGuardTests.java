@@ -0,0 +1,53 @@
+package com.url.shortener.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutboundUrlGuardTests {
+
+    private final OutboundUrlGuard guard = new OutboundUrlGuard(false);
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "0.0.0.0", "10.1.2.3", "127.0.0.1", "100.64.0.1", "169.254.169.254", "172.16.0.1",
+            "172.31.255.255", "192.168.1.1", "192.0.0.8", "198.18.0.1", "224.0.0.1", "255.255.255.255",
+            "::", "::1", "fe80::1", "fc00::1", "fd12:3456::1", "ff02::1",
+            "::ffff:10.0.0.1", "::127.0.0.1", "64:ff9b::a9fe:a9fe", "2002:c0a8:0101::1"
+    })
+    void internalAddressesAreNotPublic(String ip) throws UnknownHostException {
+        assertFalse(OutboundUrlGuard.isPublic(InetAddress.getByName(ip)), ip);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"8.8.8.8", "1.1.1.1", "100.128.0.1", "172.32.0.1", "192.169.0.1", "2606:4700::1111",
+            "64:ff9b::808:808"})
+    void publicAddressesPass(String ip) throws UnknownHostException {
+        assertTrue(OutboundUrlGuard.isPublic(InetAddress.getByName(ip)), ip);
+    }
+
+    @Test
+    void onlyPublicHttpUrlsArePermitted() throws UnknownHostException {
+        assertTrue(guard.permits(URI.create("https://93.184.215.14/page")));
+        assertFalse(guard.permits(URI.create("http://169.254.169.254/latest/meta-data/")));
+        assertFalse(guard.permits(URI.create("http://[::1]:8080/")));
+        assertFalse(guard.permits(URI.create("http://localhost/")));
+        assertFalse(guard.permits(URI.create("ftp://93.184.215.14/file")));
+        assertFalse(guard.permits(URI.create("file:///etc/passwd")));
+    }
+
+    @Test
+    void loopbackCanBeAllowedForDevelopment() throws UnknownHostException {
+        OutboundUrlGuard dev = new OutboundUrlGuard(true);
+
+        assertTrue(dev.permits(URI.create("http://127.0.0.1:8080/")));
+        assertFalse(dev.permits(URI.create("http://10.0.0.1/")));
+    }
+}
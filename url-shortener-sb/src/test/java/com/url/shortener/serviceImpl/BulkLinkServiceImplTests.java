@@ -0,0 +1,112 @@
+package com.url.shortener.serviceImpl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.url.shortener.blocklist.BlocklistService;
+import com.url.shortener.dtos.ImportJobDTO;
+import com.url.shortener.models.ImportJob;
+import com.url.shortener.models.User;
+import com.url.shortener.repository.ArchivedLinkRepository;
+import com.url.shortener.repository.ImportJobRepository;
+import com.url.shortener.repository.UrlMappingRepository;
+import com.url.shortener.shortcode.ShortCodeCodec;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BulkLinkServiceImplTests {
+
+    private static final String SCHEMA = """
+            CREATE TABLE url_mapping (
+                id BIGINT AUTO_INCREMENT PRIMARY KEY, original_url VARCHAR(2048), original_url_hash BINARY(32),
+                short_url VARCHAR(64), custom_alias VARCHAR(64), is_custom BOOLEAN, expires_at TIMESTAMP,
+                category VARCHAR(255), protected_url BOOLEAN, is_active BOOLEAN, is_safe BOOLEAN,
+                safety_score DOUBLE, click_count INT, last_status_code INT, created_date TIMESTAMP,
+                updated_date TIMESTAMP, user_id BIGINT, deleted_at TIMESTAMP)
+            """;
+
+    private static final String CATEGORY = "Line one\nline two, with \"quotes\"\n";
+
+    private JdbcTemplate jdbcTemplate;
+    private BulkLinkServiceImpl service;
+    private final User user = new User();
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute(SCHEMA);
+
+        ImportJobRepository jobs = mock(ImportJobRepository.class);
+        when(jobs.save(any(ImportJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        service = new BulkLinkServiceImpl(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+                jobs, mock(UrlMappingRepository.class), mock(ArchivedLinkRepository.class),
+                new BlocklistService("", new SimpleMeterRegistry()), new ShortCodeCodec("test-secret", 1000),
+                event -> { }, new ObjectMapper(), 100, 1);
+        user.setId(7L);
+    }
+
+    @Test
+    void exportWithMultiLineFieldsImportsBack() throws IOException {
+        insert("https://example.com/sale", "spring-sale", CATEGORY);
+        insert("https://example.com/plain", null, "news");
+
+        ByteArrayOutputStream exported = new ByteArrayOutputStream();
+        service.exportLinks(user, "csv", exported);
+        String csv = exported.toString(StandardCharsets.UTF_8);
+        assertTrue(csv.lines().count() > 3, "the category should be exported across lines:\n" + csv);
+
+        jdbcTemplate.update("DELETE FROM url_mapping");
+        ImportJobDTO job = service.importLinks(user, new ByteArrayInputStream(exported.toByteArray()), "csv", null);
+
+        assertEquals("COMPLETED", job.getStatus(), String.valueOf(job.getErrors()));
+        assertEquals(2, job.getImported());
+        assertEquals(0, job.getFailed());
+        assertEquals(2, job.getLinesProcessed());
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT original_url, custom_alias, category FROM url_mapping ORDER BY id");
+        assertEquals("https://example.com/sale", rows.get(0).get("original_url"));
+        assertEquals("spring-sale", rows.get(0).get("custom_alias"));
+        assertEquals(CATEGORY.trim(), rows.get(0).get("category")); // cells are trimmed on import
+        assertEquals("news", rows.get(1).get("category"));
+    }
+
+    @Test
+    void crlfInsideQuotedFieldsIsOneRecord() {
+        String csv = "originalUrl,category\r\nhttps://example.com/a,\"first\r\nsecond\"\r\nhttps://example.com/b,plain\r\n";
+
+        ImportJobDTO job = service.importLinks(user,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), "csv", null);
+
+        assertEquals(2, job.getImported());
+        assertEquals(List.of("first\nsecond", "plain"),
+                jdbcTemplate.queryForList("SELECT category FROM url_mapping ORDER BY id", String.class));
+    }
+
+    private void insert(String url, String alias, String category) {
+        jdbcTemplate.update("""
+                INSERT INTO url_mapping (original_url, short_url, custom_alias, is_custom, category, is_active,
+                    click_count, created_date, user_id)
+                VALUES (?, ?, ?, ?, ?, true, 0, CURRENT_TIMESTAMP, 7)
+                """, url, UUID.randomUUID().toString().substring(0, 7), alias, alias != null, category);
+    }
+}
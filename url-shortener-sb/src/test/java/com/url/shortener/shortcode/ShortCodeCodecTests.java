@@ -0,0 +1,130 @@
+package com.url.shortener.shortcode;
+
+import com.url.shortener.utils.Base62;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShortCodeCodecTests {
+
+    private static final long DOMAIN = 1L << 40;
+
+    private final ShortCodeCodec codec = new ShortCodeCodec("test-secret", 1000);
+
+    @Test
+    void generatedCodesDecodeBackToTheirId() {
+        Random random = new Random(36);
+        for (int i = 0; i < 10_000; i++) {
+            long id = random.nextLong(DOMAIN);
+            String code = codec.encode(id);
+
+            assertEquals(ShortCodeCodec.CODE_LENGTH, code.length());
+            assertEquals(id, codec.decode(code));
+        }
+    }
+
+    @Test
+    void boundaryIdsRoundTrip() {
+        for (long id : new long[]{0, 1, DOMAIN - 1}) {
+            String code = codec.encode(id);
+
+            assertEquals(ShortCodeCodec.CODE_LENGTH, code.length(), "id " + id);
+            assertEquals(id, codec.decode(code), "id " + id);
+        }
+    }
+
+    @Test
+    void idsPastTheDomainFallBackToPlainBase62() {
+        for (long id : new long[]{DOMAIN, DOMAIN + 1, Long.MAX_VALUE}) {
+            String code = codec.encode(id);
+
+            assertEquals(Base62.encode(id), code);
+            assertEquals(-1, codec.decode(code), "fallback code " + code + " must not look generated");
+            assertFalse(codec.isGeneratedCode(code));
+        }
+    }
+
+    @Test
+    void consecutiveIdsGetUnrelatedDistinctCodes() {
+        Set<String> codes = new HashSet<>();
+        for (long id = 1; id <= 1_000; id++) {
+            assertTrue(codes.add(codec.encode(id)), "collision at id " + id);
+        }
+        assertNotEquals(codec.encode(1).substring(0, 4), codec.encode(2).substring(0, 4));
+    }
+
+    @Test
+    void secretChangesTheCodes() {
+        ShortCodeCodec other = new ShortCodeCodec("another-secret", 1000);
+
+        assertNotEquals(codec.encode(12345), other.encode(12345));
+        assertEquals(12345, other.decode(other.encode(12345)));
+    }
+
+    @Test
+    void generatedCodesAreRecognised() {
+        assertTrue(codec.isGeneratedCode(codec.encode(1)));
+        assertTrue(codec.isGeneratedCode("0000000"));
+        assertTrue(codec.isGeneratedCode("abcdefg")); // any 7-char Base62 value below 2^40
+    }
+
+    @Test
+    void onlyCodesOfIssuedIdsAndTheHeadroomAreReserved() {
+        long highestId = 50_000;
+
+        assertTrue(codec.reservesAlias(codec.encode(1), highestId));
+        assertTrue(codec.reservesAlias(codec.encode(highestId), highestId));
+        assertTrue(codec.reservesAlias(codec.encode(highestId + 1_000), highestId)); // headroom
+        assertFalse(codec.reservesAlias(codec.encode(highestId + 1_001), highestId));
+        assertFalse(codec.reservesAlias("ZZZZZZZ", highestId));
+        assertFalse(codec.reservesAlias("promo", highestId));
+    }
+
+    @Test
+    void sevenCharacterAliasesAreAlmostAllAvailable() {
+        Random random = new Random(36);
+        int reserved = 0;
+        for (int i = 0; i < 100_000; i++) {
+            StringBuilder alias = new StringBuilder();
+            for (int c = 0; c < ShortCodeCodec.CODE_LENGTH; c++) {
+                alias.append("0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".charAt(random.nextInt(62)));
+            }
+            if (codec.reservesAlias(alias.toString(), 10_000_000)) {
+                reserved++;
+            }
+        }
+        assertTrue(reserved < 10, reserved + " of 100000 reserved"); // ~0.0003% expected, was ~31%
+    }
+
+    @Test
+    void alternateCodesStayOutsideTheGeneratedNamespace() {
+        for (long id : new long[]{0, 1, 12345, DOMAIN - 1}) {
+            Set<String> codes = new HashSet<>();
+            codes.add(codec.encode(id));
+            for (int attempt = 1; attempt <= 4; attempt++) {
+                String code = codec.alternateCode(id, attempt);
+
+                assertEquals(-1, codec.decode(code), code);
+                assertTrue(codes.add(code), "repeated " + code);
+            }
+        }
+    }
+
+    @Test
+    void aliasesOutsideTheGeneratedNamespaceAreAllowed() {
+        assertFalse(codec.isGeneratedCode(null));
+        assertFalse(codec.isGeneratedCode(""));
+        assertFalse(codec.isGeneratedCode("promo"));       // too short
+        assertFalse(codec.isGeneratedCode("summer2025"));  // too long
+        assertFalse(codec.isGeneratedCode("my-link"));     // not Base62
+        assertFalse(codec.isGeneratedCode("ZZZZZZZ"));     // 7 chars but >= 2^40
+        assertFalse(codec.isGeneratedCode("abc def"));
+    }
+}
@@ -0,0 +1,77 @@
+package com.url.shortener.timeseries;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ClickTimeSeriesTests {
+
+    private JdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private ClickTimeSeries timeSeries;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=HOUR;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE click_hourly (url_mapping_id BIGINT, hour_start TIMESTAMP, clicks BIGINT,"
+                + " PRIMARY KEY (url_mapping_id, hour_start))");
+        meterRegistry = new SimpleMeterRegistry();
+        timeSeries = new ClickTimeSeries(jdbcTemplate, meterRegistry, true, 1);
+    }
+
+    @Test
+    void linksWithoutARingStillCountHourly() {
+        timeSeries.record(1L); // takes the only ring
+        for (int i = 0; i < 3; i++) {
+            timeSeries.record(2L);
+        }
+
+        assertEquals(3, meterRegistry.counter("timeseries.overflows").count());
+        assertEquals(3, hourlyTotal(2L)); // before the flush: from the spill counter
+        assertEquals(0, minuteTotal(2L));
+
+        timeSeries.flush();
+
+        assertEquals(3L, jdbcTemplate.queryForObject(
+                "SELECT SUM(clicks) FROM click_hourly WHERE url_mapping_id = 2", Long.class));
+        assertEquals(3, hourlyTotal(2L)); // after: from click_hourly, not counted twice
+    }
+
+    @Test
+    void spilledClicksAccumulateAcrossFlushes() {
+        timeSeries.record(1L);
+        timeSeries.record(2L);
+        timeSeries.flush();
+        timeSeries.record(2L);
+        timeSeries.flush();
+
+        assertEquals(2, hourlyTotal(2L));
+    }
+
+    @Test
+    void linksWithARingAreChartedByMinute() {
+        timeSeries.record(1L);
+        timeSeries.record(1L);
+
+        assertEquals(2, minuteTotal(1L));
+        assertEquals(2, hourlyTotal(1L));
+        assertEquals(0, meterRegistry.counter("timeseries.overflows").count());
+    }
+
+    private long hourlyTotal(long mappingId) {
+        return Arrays.stream(timeSeries.series(mappingId, "1h", 2).getClicks()).sum();
+    }
+
+    private long minuteTotal(long mappingId) {
+        return Arrays.stream(timeSeries.series(mappingId, "1m", 1).getClicks()).sum();
+    }
+}
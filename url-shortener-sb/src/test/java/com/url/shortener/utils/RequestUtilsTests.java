@@ -0,0 +1,39 @@
+package com.url.shortener.utils;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RequestUtilsTests {
+
+    @ParameterizedTest(name = "If-None-Match {0} vs {1} -> {2}")
+    @CsvSource(delimiter = '|', nullValues = "null", value = {
+            // exact and weak comparison
+            "\"abc\"                    | \"abc\"    | true",
+            "W/\"abc\"                  | \"abc\"    | true",
+            "\"abc\"                    | W/\"abc\"  | true",
+            "\"abd\"                    | \"abc\"    | false",
+            "\"ABC\"                    | \"abc\"    | false",
+            // lists, with or without spaces, as several header lines joined
+            "\"x\", \"abc\"             | \"abc\"    | true",
+            "\"x\",W/\"abc\"            | \"abc\"    | true",
+            "\"x\" , \"y\"              | \"abc\"    | false",
+            "\"x\",\"abc\",\"y\"        | \"abc\"    | true",
+            // commas inside an entity-tag do not split it
+            "\"a,bc\"                   | \"a,bc\"   | true",
+            "\"a,bc\"                   | \"bc\"     | false",
+            // any current representation
+            "*                          | \"abc\"    | true",
+            "' * '                      | \"abc\"    | true",
+            // malformed or absent
+            "abc                        | \"abc\"    | false",
+            "\"abc                      | \"abc\"    | false",
+            "\"x\", abc                 | \"abc\"    | false",
+            "''                         | \"abc\"    | false",
+            "null                       | \"abc\"    | false",
+    })
+    void ifNoneMatchFollowsRfc9110(String header, String etag, boolean expected) {
+        assertEquals(expected, RequestUtils.ifNoneMatch(header, etag));
+    }
+}
@@ -0,0 +1,60 @@
+package com.url.shortener.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class UrlNormalizerTests {
+
+    @ParameterizedTest(name = "{0} -> {1}")
+    @CsvSource(delimiter = '|', value = {
+            // scheme and host are case-insensitive, the path is not
+            "HTTPS://Example.COM/Docs             | https://example.com/Docs",
+            "http://EXAMPLE.com/a/B               | http://example.com/a/B",
+            // default ports go, others stay
+            "http://example.com:80/a              | http://example.com/a",
+            "https://example.com:443/a            | https://example.com/a",
+            "http://example.com:443/a             | http://example.com:443/a",
+            "https://example.com:8443/a           | https://example.com:8443/a",
+            // trailing slashes
+            "https://example.com/                 | https://example.com",
+            "https://example.com/a/b//            | https://example.com/a/b",
+            "https://example.com                  | https://example.com",
+            // query parameters are sorted, values kept, empty pairs dropped
+            "https://example.com/s?b=2&a=1        | https://example.com/s?a=1&b=2",
+            "https://example.com/s?q=Z&q=A        | https://example.com/s?q=A&q=Z",
+            "https://example.com/s?a=1&&b=2       | https://example.com/s?a=1&b=2",
+            "https://example.com/s/?utm=x&id=7    | https://example.com/s?id=7&utm=x",
+            // fragment, user info and surrounding whitespace
+            "https://example.com/p#Section        | https://example.com/p#Section",
+            "https://user@Example.com/p           | https://user@example.com/p",
+            "'  https://example.com/p  '          | https://example.com/p",
+            // left alone when not an absolute URL
+            "example.com/Path                     | example.com/Path",
+            "not a url                            | not a url"
+    })
+    void normalizes(String url, String expected) {
+        assertEquals(expected, UrlNormalizer.normalize(url));
+    }
+
+    @Test
+    void equivalentUrlsHashAlike() {
+        assertArrayEquals(
+                UrlNormalizer.hash("https://example.com/a/?b=2&a=1"),
+                UrlNormalizer.hash("HTTPS://EXAMPLE.com:443/a?a=1&b=2"));
+        assertEquals(32, UrlNormalizer.hash("https://example.com").length);
+    }
+
+    @Test
+    void differentPathsHashDifferently() {
+        assertFalse(Arrays.equals(
+                UrlNormalizer.hash("https://example.com/A"),
+                UrlNormalizer.hash("https://example.com/a")));
+    }
+}